@@ -0,0 +1,28 @@
+package com.collabspace.analytics;
+
+import com.collabspace.event.TeamActivityEvent;
+import com.collabspace.model.Document;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA callback that reports created documents to the activity rollups,
+ * whichever service persists them. Hibernate resolves it as a Spring bean;
+ * the event only counts once the transaction commits.
+ */
+@Component
+public class DocumentActivityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onCreated(Document document) {
+        if (document.getTeam() != null) {
+            eventPublisher.publishEvent(TeamActivityEvent.documentCreated(document.getTeam().getId(),
+                    document.getCreatedBy() != null ? document.getCreatedBy().getId() : null));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.collabspace.analytics;
+
+import com.collabspace.collaboration.AppliedRevision;
+import com.collabspace.collaboration.CollaborationEngine;
+import com.collabspace.collaboration.RevisionListener;
+import com.collabspace.event.TeamActivityEvent;
+import com.collabspace.repository.TeamActivityRollupRepository;
+import com.collabspace.repository.TeamActivityRollupRepository.Delta;
+import com.collabspace.service.TeamMembershipService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the team activity rollups from committed {@link TeamActivityEvent}s
+ * and document revisions. Activity is summed in memory per team and hour and
+ * written in one batch per interval, so a busy document costs one upsert per
+ * flush rather than one per keystroke batch.
+ *
+ * <p>Edits are recorded by document and resolved to their team at flush
+ * time, because revision listeners must not block. Pending counts live only
+ * in memory: a crash loses at most one interval, which a backfill of the
+ * day repairs.</p>
+ */
+@Component
+public class TeamActivityRecorder implements RevisionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamActivityRecorder.class);
+
+    // Pending values are only mutated inside compute, so a flush that removes one sees all its updates.
+    private final ConcurrentHashMap<BucketKey, Activity> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EditKey, Set<Long>> pendingEdits = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TeamActivityRollupRepository rollupRepository;
+
+    @Autowired
+    private TeamMembershipService teamMembershipService;
+
+    @Autowired
+    private CollaborationEngine collaborationEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.rollups.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.rollups.seen-retention-ms:172800000}")
+    private long seenRetentionMs;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            collaborationEngine.addListener(this);
+        }
+        meterRegistry.gaugeMapSize("analytics.rollups.pending", List.of(), pending);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onActivity(TeamActivityEvent event) {
+        if (!enabled || event.getTeamId() == null) {
+            return;
+        }
+        BucketKey key = new BucketKey(event.getTeamId(), event.getOccurredAt().truncatedTo(ChronoUnit.HOURS));
+        pending.compute(key, (k, activity) -> {
+            Activity updated = activity != null ? activity : new Activity();
+            updated.add(event);
+            return updated;
+        });
+    }
+
+    @Override
+    public void onRevisionApplied(AppliedRevision revision) {
+        EditKey key = new EditKey(revision.getDocumentId(), revision.getAppliedAt().truncatedTo(ChronoUnit.HOURS));
+        pendingEdits.compute(key, (k, users) -> {
+            Set<Long> updated = users != null ? users : new HashSet<>();
+            if (revision.getUserId() != null) {
+                updated.add(revision.getUserId());
+            }
+            return updated;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollups.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty() && pendingEdits.isEmpty()) {
+            return;
+        }
+        Map<BucketKey, Activity> batch = new HashMap<>();
+        for (BucketKey key : pending.keySet()) {
+            Activity activity = pending.remove(key);
+            if (activity != null) {
+                batch.merge(key, activity, Activity::merge);
+            }
+        }
+        for (EditKey key : pendingEdits.keySet()) {
+            Set<Long> users = pendingEdits.remove(key);
+            if (users == null) {
+                continue;
+            }
+            Long teamId;
+            try {
+                teamId = teamMembershipService.getDocumentTeamId(key.documentId());
+            } catch (RuntimeException e) {
+                logger.warn("Could not resolve the team of document {}, retrying next flush: {}", key.documentId(), e.getMessage());
+                pendingEdits.merge(key, users, (current, retried) -> { current.addAll(retried); return current; });
+                continue;
+            }
+            if (teamId == null) {
+                // Deleted since.
+                continue;
+            }
+            Activity activity = batch.computeIfAbsent(new BucketKey(teamId, key.hour()), k -> new Activity());
+            activity.documentIds.add(key.documentId());
+            activity.userIds.addAll(users);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Delta> deltas = new ArrayList<>(batch.size());
+        batch.forEach((key, activity) -> deltas.add(activity.toDelta(key)));
+        try {
+            rollupRepository.apply(deltas);
+            meterRegistry.counter("analytics.rollups.flushed").increment(deltas.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write {} activity rollups, retrying next flush: {}", deltas.size(), e.getMessage());
+            batch.forEach((key, activity) -> pending.merge(key, activity, Activity::merge));
+        }
+    }
+
+    /**
+     * Hourly and daily rows stop receiving events once their bucket has
+     * passed, so their dedupe entries can go.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollups.prune-interval-ms:3600000}")
+    public void pruneSeen() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int removed = rollupRepository.pruneSeen(Instant.now().minusMillis(seenRetentionMs).truncatedTo(ChronoUnit.DAYS));
+            logger.debug("Pruned {} activity dedupe entries", removed);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to prune activity dedupe entries: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record BucketKey(Long teamId, Instant hour) {}
+
+    private record EditKey(Long documentId, Instant hour) {}
+
+    private static final class Activity {
+
+        private int meetingsCompleted;
+        private long meetingMinutes;
+        private int documentsCreated;
+        private int tasksCreated;
+        private int tasksCompleted;
+        private final Set<Long> userIds = new HashSet<>();
+        private final Set<Long> documentIds = new HashSet<>();
+
+        void add(TeamActivityEvent event) {
+            switch (event.getActivity()) {
+                case MEETING_COMPLETED -> {
+                    meetingsCompleted += event.getCount();
+                    meetingMinutes += event.getMinutes();
+                }
+                case DOCUMENT_CREATED -> documentsCreated += event.getCount();
+                case TASKS_CREATED -> tasksCreated += event.getCount();
+                case TASKS_COMPLETED -> tasksCompleted += event.getCount();
+            }
+            if (event.getUserId() != null) {
+                userIds.add(event.getUserId());
+            }
+        }
+
+        Activity merge(Activity other) {
+            meetingsCompleted += other.meetingsCompleted;
+            meetingMinutes += other.meetingMinutes;
+            documentsCreated += other.documentsCreated;
+            tasksCreated += other.tasksCreated;
+            tasksCompleted += other.tasksCompleted;
+            userIds.addAll(other.userIds);
+            documentIds.addAll(other.documentIds);
+            return this;
+        }
+
+        Delta toDelta(BucketKey key) {
+            return new Delta(key.teamId(), key.hour(), meetingsCompleted, meetingMinutes, documentsCreated,
+                    tasksCreated, tasksCompleted, userIds, documentIds);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.collabspace.analytics;
+
+import com.collabspace.dto.ActivityRollupDTO;
+import com.collabspace.dto.AnalyticsBackfillDTO;
+import com.collabspace.dto.TeamAnalyticsDTO;
+import com.collabspace.model.User.UserRole;
+import com.collabspace.repository.TeamActivityRollupRepository;
+import com.collabspace.repository.TeamRepository;
+import com.collabspace.repository.UserRepository;
+import com.collabspace.service.AccessControlService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Team activity dashboards, served from the rollups with one primary key
+ * range read, and the backfill that rebuilds rollups from history.
+ *
+ * <p>A backfill only covers whole UTC days before today: those buckets no
+ * longer receive live increments, so replacing them cannot race the
+ * {@link TeamActivityRecorder}. One backfill runs at a time per node.</p>
+ */
+@Service
+public class TeamAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamAnalyticsService.class);
+
+    private static final String HOUR = TeamActivityRollupRepository.HOUR;
+    private static final String DAY = TeamActivityRollupRepository.DAY;
+
+    @Autowired
+    private TeamActivityRollupRepository rollupRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Value("${analytics.dashboard.max-hour-buckets:744}")
+    private int maxHourBuckets;
+
+    @Value("${analytics.dashboard.max-day-buckets:731}")
+    private int maxDayBuckets;
+
+    @Value("${analytics.backfill.max-days:730}")
+    private int maxBackfillDays;
+
+    @Value("${analytics.backfill.chunk-days:31}")
+    private int chunkDays;
+
+    private ExecutorService backfillExecutor;
+    private volatile Backfill backfill;
+
+    @PostConstruct
+    public void init() {
+        backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * The team's activity per hour or day in {@code [from, to)}, widened to
+     * whole buckets. Defaults to the last 24 hours or 30 days.
+     */
+    public TeamAnalyticsDTO getDashboard(Long teamId, String granularity, Instant from, Instant to, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        String unit = granularity != null ? granularity.toUpperCase() : DAY;
+        if (!HOUR.equals(unit) && !DAY.equals(unit)) {
+            throw new IllegalArgumentException("Invalid granularity: " + granularity);
+        }
+        ChronoUnit step = HOUR.equals(unit) ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        int maxBuckets = HOUR.equals(unit) ? maxHourBuckets : maxDayBuckets;
+
+        Instant end = ceil(to != null ? to : Instant.now(), step);
+        Instant start = (from != null ? from : end.minus(HOUR.equals(unit) ? 24 : 30, step)).truncatedTo(step);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).dividedBy(step.getDuration()) > maxBuckets) {
+            throw new IllegalArgumentException("At most " + maxBuckets + " " + unit.toLowerCase() + " buckets can be read at once");
+        }
+
+        List<ActivityRollupDTO> buckets = rollupRepository.findRange(teamId, unit, start, end).stream()
+                .map(ActivityRollupDTO::new)
+                .toList();
+        return new TeamAnalyticsDTO(teamId, unit, start, end, buckets);
+    }
+
+    /**
+     * Starts rebuilding the last {@code days} whole days of rollups, for one
+     * team or, for admins, every team.
+     */
+    public synchronized AnalyticsBackfillDTO startBackfill(Long teamId, int days, Long userId) {
+        if (teamId != null) {
+            accessControlService.checkTeamAccess(teamId, userId);
+        } else if (userRepository.findById(userId).map(user -> user.getRole() != UserRole.ADMIN).orElse(true)) {
+            throw new SecurityException("Only admins can backfill every team");
+        }
+        if (days < 1 || days > maxBackfillDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + maxBackfillDays);
+        }
+        Backfill running = backfill;
+        if (running != null && running.finishedAt == null) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+
+        Instant to = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        Instant from = to.minus(days, ChronoUnit.DAYS);
+        List<Long> teamIds = teamId != null ? List.of(teamId) : teamRepository.findAllIds();
+        Backfill started = new Backfill(from, to, teamIds.size());
+        backfill = started;
+        backfillExecutor.execute(() -> run(started, teamIds));
+        return started.toDTO();
+    }
+
+    public AnalyticsBackfillDTO getBackfillStatus() {
+        Backfill current = backfill;
+        return current != null ? current.toDTO() : null;
+    }
+
+    private void run(Backfill job, List<Long> teamIds) {
+        try {
+            for (Long teamId : teamIds) {
+                // Chunked so that no single transaction spans the whole history.
+                for (Instant start = job.from; start.isBefore(job.to); start = start.plus(chunkDays, ChronoUnit.DAYS)) {
+                    Instant end = min(start.plus(chunkDays, ChronoUnit.DAYS), job.to);
+                    rollupRepository.rebuild(teamId, HOUR, start, end);
+                    rollupRepository.rebuild(teamId, DAY, start, end);
+                }
+                job.teamsDone.incrementAndGet();
+            }
+            logger.info("Backfilled activity rollups of {} teams from {} to {}", teamIds.size(), job.from, job.to);
+        } catch (RuntimeException e) {
+            logger.error("Activity rollup backfill failed after {} teams", job.teamsDone.get(), e);
+            job.error = e.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private static Instant ceil(Instant instant, ChronoUnit step) {
+        Instant floor = instant.truncatedTo(step);
+        return floor.equals(instant) ? floor : floor.plus(1, step);
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static final class Backfill {
+
+        private final Instant from;
+        private final Instant to;
+        private final int teamsTotal;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger teamsDone = new AtomicInteger();
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Backfill(Instant from, Instant to, int teamsTotal) {
+            this.from = from;
+            this.to = to;
+            this.teamsTotal = teamsTotal;
+        }
+
+        AnalyticsBackfillDTO toDTO() {
+            // finishedAt is read first: once it is set, error is final.
+            Instant finished = finishedAt;
+            return new AnalyticsBackfillDTO(from, to, teamsTotal, teamsDone.get(), startedAt, finished, error);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.collabspace.archive;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rows imported so far, per entity. Written by the import thread, read by
+ * status requests.
+ */
+final class ImportProgress {
+
+    final AtomicLong users = new AtomicLong();
+    final AtomicLong documents = new AtomicLong();
+    final AtomicLong meetings = new AtomicLong();
+    final AtomicLong tasks = new AtomicLong();
+}
@@ -0,0 +1,26 @@
+package com.collabspace.archive;
+
+/**
+ * Layout of a team archive: a zip of NDJSON entries, one JSON object per
+ * row, in the order an import needs them. Ids in the archive are the
+ * exporting server's; imports remap users by email and give every other
+ * record a new id.
+ */
+final class TeamArchive {
+
+    static final String FORMAT = "collabspace-team-archive";
+    static final int VERSION = 1;
+
+    /** Format, version and the team row. */
+    static final String TEAM = "team.json";
+    /** Members and every other user the team's records refer to. */
+    static final String USERS = "users.ndjson";
+    static final String DOCUMENTS = "documents.ndjson";
+    /** Meetings with their participants inline. */
+    static final String MEETINGS = "meetings.ndjson";
+    static final String TASKS = "tasks.ndjson";
+    /** Row counts per entry, written last. */
+    static final String MANIFEST = "manifest.json";
+
+    private TeamArchive() {}
+}
@@ -0,0 +1,196 @@
+package com.collabspace.archive;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.repository.DocumentContentRepository.StoredContent;
+import com.collabspace.repository.TeamArchiveRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a team into a {@link TeamArchive}. Rows go from the database
+ * cursor straight into the zip, one at a time.
+ */
+@Component
+public class TeamArchiveExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Columns of DocumentContentRepository.CONTENT_COLUMNS_SQL.
+    private static final String CONTENT_PREFIX = "content_";
+    private static final String CONTENT_DATA = "content_data";
+
+    @Autowired
+    private TeamArchiveRepository archiveRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Writes the archive to {@code out}. Every entry is read in one
+     * read-only repeatable-read transaction, so the archive is a consistent
+     * snapshot even while the team keeps working.
+     *
+     * @return rows written per entry
+     */
+    public Map<String, Long> export(Long teamId, OutputStream out) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try {
+            transaction.executeWithoutResult(status -> {
+                writeEntry(zip, TeamArchive.TEAM, counts, generator -> archiveRepository.streamTeam(teamId, rs -> write(() -> {
+                    JsonGenerator header = generator.delegate;
+                    header.writeStartObject();
+                    header.writeStringField("format", TeamArchive.FORMAT);
+                    header.writeNumberField("version", TeamArchive.VERSION);
+                    header.writeStringField("exported_at", Instant.now().toString());
+                    header.writeFieldName("team");
+                    writeRow(generator, rs);
+                    header.writeEndObject();
+                })));
+                writeEntry(zip, TeamArchive.USERS, counts, generator -> archiveRepository.streamUsers(teamId, rows(generator)));
+                writeEntry(zip, TeamArchive.DOCUMENTS, counts, generator -> archiveRepository.streamDocuments(teamId, rows(generator)));
+                writeEntry(zip, TeamArchive.MEETINGS, counts, generator -> archiveRepository.streamMeetings(teamId, rows(generator)));
+                writeEntry(zip, TeamArchive.TASKS, counts, generator -> archiveRepository.streamTasks(teamId, rows(generator)));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (counts.get(TeamArchive.TEAM) == 0) {
+            throw new IllegalArgumentException("Team not found: " + teamId);
+        }
+
+        zip.putNextEntry(new ZipEntry(TeamArchive.MANIFEST));
+        objectMapper.writeValue(StreamUtils.nonClosing(zip), Map.of("format", TeamArchive.FORMAT,
+                "version", TeamArchive.VERSION, "counts", counts));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+        return counts;
+    }
+
+    private void writeEntry(ZipOutputStream zip, String name, Map<String, Long> counts, EntryWriter body) {
+        write(() -> {
+            zip.putNextEntry(new ZipEntry(name));
+            CountingGenerator generator = new CountingGenerator(objectMapper.getFactory()
+                    .createGenerator(StreamUtils.nonClosing(zip))
+                    .setPrettyPrinter(new MinimalPrettyPrinter("\n")));
+            body.write(generator);
+            generator.delegate.writeRaw('\n');
+            generator.delegate.close();
+            zip.closeEntry();
+            counts.put(name, generator.rows);
+        });
+    }
+
+    private RowCallbackHandler rows(CountingGenerator generator) {
+        return rs -> write(() -> writeRow(generator, rs));
+    }
+
+    /**
+     * Writes the current row as one object keyed by column name. Timestamps
+     * become ISO-8601 instants; {@code json} columns are embedded as is. A
+     * stored body is streamed out decompressed as the {@code content} field.
+     */
+    private void writeRow(CountingGenerator counting, ResultSet rs) throws IOException, SQLException {
+        JsonGenerator generator = counting.delegate;
+        ResultSetMetaData metaData = rs.getMetaData();
+        generator.writeStartObject();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String name = metaData.getColumnLabel(i);
+            if (CONTENT_DATA.equals(name)) {
+                writeContent(generator, StoredContent.fromRow(rs));
+                continue;
+            }
+            if (name.startsWith(CONTENT_PREFIX)) {
+                continue;
+            }
+            Object value = rs.getObject(i);
+            if (value == null) {
+                generator.writeNullField(name);
+            } else if (value instanceof Timestamp timestamp) {
+                generator.writeStringField(name, timestamp.toInstant().toString());
+            } else if ("json".equals(metaData.getColumnTypeName(i))) {
+                generator.writeFieldName(name);
+                generator.writeRawValue(rs.getString(i));
+            } else {
+                generator.writeObjectField(name, value);
+            }
+        }
+        generator.writeEndObject();
+        counting.rows++;
+    }
+
+    private void writeContent(JsonGenerator generator, StoredContent content) throws IOException {
+        generator.writeFieldName("content");
+        if (content == null) {
+            generator.writeNull();
+            return;
+        }
+        try (Reader reader = contentStore.open(content)) {
+            generator.writeString(reader, -1);
+        }
+    }
+
+    private static void write(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read a row for the archive", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException, SQLException;
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(CountingGenerator generator) throws IOException, SQLException;
+    }
+
+    private static final class CountingGenerator {
+
+        private final JsonGenerator delegate;
+        private long rows;
+
+        private CountingGenerator(JsonGenerator delegate) {
+            this.delegate = delegate;
+        }
+    }
+}
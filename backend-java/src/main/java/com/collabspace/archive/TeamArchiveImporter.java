@@ -0,0 +1,321 @@
+package com.collabspace.archive;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.repository.TeamArchiveRepository;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedDocument;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedMeeting;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedMember;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedParticipant;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedTask;
+import com.collabspace.repository.TeamArchiveRepository.ArchivedUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads a {@link TeamArchive} into a new team. Entries are parsed a line at
+ * a time and written in batches, so only the user id mapping and the new
+ * member and meeting ids are held for the whole import.
+ *
+ * <p>The import is one transaction: an archive that fails half way, or
+ * whose manifest does not match what was read, leaves nothing behind.</p>
+ */
+@Component
+public class TeamArchiveImporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private TeamArchiveRepository archiveRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${teams.archive.import-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Imports the archive at {@code path}. Users are matched by email and
+     * created when unknown; the team is owned by its original owner if they
+     * came along, else by {@code importerId}.
+     */
+    public ImportedTeam importArchive(Path path, Long importerId, ImportProgress progress) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            return transaction.execute(status -> {
+                try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+                    return read(zip, importerId, progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ImportedTeam read(ZipInputStream zip, Long importerId, ImportProgress progress) throws IOException {
+        JsonNode header = null;
+        Import state = null;
+        Map<String, Long> counts = new HashMap<>();
+        boolean verified = false;
+
+        for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+            String name = entry.getName();
+            if (TeamArchive.TEAM.equals(name)) {
+                header = objectMapper.readTree(StreamUtils.nonClosing(zip));
+                checkFormat(header);
+                continue;
+            }
+            if (TeamArchive.USERS.equals(name)) {
+                if (header == null) {
+                    throw new IllegalArgumentException("Archive must start with " + TeamArchive.TEAM);
+                }
+                state = importTeam(header.get("team"), zip, importerId, progress, counts);
+                continue;
+            }
+            if (TeamArchive.MANIFEST.equals(name)) {
+                verify(objectMapper.readTree(StreamUtils.nonClosing(zip)), counts);
+                verified = true;
+                continue;
+            }
+            if (!TeamArchive.DOCUMENTS.equals(name) && !TeamArchive.MEETINGS.equals(name) && !TeamArchive.TASKS.equals(name)) {
+                // Written by a newer exporter; not ours to interpret.
+                continue;
+            }
+            if (state == null) {
+                throw new IllegalArgumentException("Archive must list " + TeamArchive.USERS + " before " + name);
+            }
+            Import team = state;
+            switch (name) {
+                case TeamArchive.DOCUMENTS -> counts.put(name, inBatches(zip, team::document,
+                        batch -> archiveRepository.insertDocuments(team.teamId, batch,
+                                contentStore.store(batch.stream().map(ArchivedDocument::content).toList())),
+                        progress.documents));
+                case TeamArchive.MEETINGS -> counts.put(name, inBatches(zip, team::meeting,
+                        batch -> team.meetingIds.addAll(archiveRepository.insertMeetings(team.teamId, batch)),
+                        progress.meetings));
+                default -> counts.put(name, inBatches(zip, team::task,
+                        batch -> archiveRepository.insertTasks(team.teamId, batch), progress.tasks));
+            }
+        }
+
+        if (state == null) {
+            throw new IllegalArgumentException("Not a team archive: " + TeamArchive.USERS + " is missing");
+        }
+        if (!verified) {
+            throw new IllegalArgumentException("Archive is incomplete: " + TeamArchive.MANIFEST + " is missing");
+        }
+        return new ImportedTeam(state.teamId, state.memberIds, state.meetingIds);
+    }
+
+    /**
+     * Resolves every user of the archive, then creates the team and its
+     * members; the owner can be anywhere in the entry.
+     */
+    private Import importTeam(JsonNode team, InputStream in, Long importerId, ImportProgress progress,
+                              Map<String, Long> counts) throws IOException {
+        if (team == null) {
+            throw new IllegalArgumentException(TeamArchive.TEAM + " has no team");
+        }
+        Map<Long, Long> userIds = new HashMap<>();
+        List<JsonNode> members = new ArrayList<>();
+        long rows = inBatches(in, row -> {
+            if (row.hasNonNull("team_role")) {
+                members.add(row);
+            }
+            return row;
+        }, batch -> {
+            Map<String, Long> byEmail = archiveRepository.resolveUsers(batch.stream()
+                    .map(row -> new ArchivedUser(text(row, "email"), text(row, "name"), text(row, "profile_picture")))
+                    .toList());
+            batch.forEach(row -> userIds.put(id(row, "id"), byEmail.get(text(row, "email"))));
+        }, progress.users);
+        counts.put(TeamArchive.USERS, rows);
+
+        Long ownerId = userIds.getOrDefault(id(team, "owner_id"), importerId);
+        Long teamId = archiveRepository.insertTeam(text(team, "name"), text(team, "description"),
+                text(team, "subscription_plan"), ownerId);
+        Import state = new Import(teamId, userIds);
+
+        List<ArchivedMember> archivedMembers = new ArrayList<>(members.size() + 1);
+        for (JsonNode member : members) {
+            Long userId = state.user(member, "id");
+            String role = text(member, "team_role");
+            if (userId.equals(ownerId)) {
+                role = "OWNER";
+            } else if ("OWNER".equals(role)) {
+                // Only the owner of the imported team keeps the OWNER role.
+                role = "ADMIN";
+            }
+            archivedMembers.add(new ArchivedMember(userId, role, instant(member, "joined_at")));
+        }
+        if (archivedMembers.stream().noneMatch(member -> member.userId().equals(ownerId))) {
+            archivedMembers.add(new ArchivedMember(ownerId, "OWNER", null));
+        }
+        for (int i = 0; i < archivedMembers.size(); i += batchSize) {
+            archiveRepository.insertMembers(teamId, archivedMembers.subList(i, Math.min(i + batchSize, archivedMembers.size())));
+        }
+        archivedMembers.forEach(member -> state.memberIds.add(member.userId()));
+        return state;
+    }
+
+    /**
+     * Maps each line of the current entry and hands them on in batches.
+     *
+     * @return the number of lines read
+     */
+    private <T> long inBatches(InputStream in, Function<JsonNode, T> mapper, Consumer<List<T>> writer,
+                               AtomicLong progress) throws IOException {
+        long rows = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(StreamUtils.nonClosing(in))) {
+            while (lines.hasNextValue()) {
+                batch.add(mapper.apply(lines.nextValue()));
+                if (batch.size() == batchSize) {
+                    writer.accept(batch);
+                    rows += batch.size();
+                    progress.addAndGet(batch.size());
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.accept(batch);
+            rows += batch.size();
+            progress.addAndGet(batch.size());
+        }
+        return rows;
+    }
+
+    private static void checkFormat(JsonNode header) {
+        if (!TeamArchive.FORMAT.equals(text(header, "format"))) {
+            throw new IllegalArgumentException("Not a team archive");
+        }
+        int version = header.path("version").asInt();
+        if (version < 1 || version > TeamArchive.VERSION) {
+            throw new IllegalArgumentException("Unsupported team archive version: " + version);
+        }
+    }
+
+    private static void verify(JsonNode manifest, Map<String, Long> counts) {
+        JsonNode expected = manifest.path("counts");
+        for (String name : List.of(TeamArchive.USERS, TeamArchive.DOCUMENTS, TeamArchive.MEETINGS, TeamArchive.TASKS)) {
+            long rows = counts.getOrDefault(name, 0L);
+            if (expected.path(name).asLong() != rows) {
+                throw new IllegalArgumentException("Archive is incomplete: " + name + " has " + rows +
+                        " rows, the manifest lists " + expected.path(name).asLong());
+            }
+        }
+    }
+
+    private static String text(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    private static Long id(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value != null && !value.isNull() ? value.asLong() : null;
+    }
+
+    private static Integer integer(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value != null && !value.isNull() ? value.asInt() : null;
+    }
+
+    // Exported timestamps are UTC instants; participant times come from Postgres JSON with an offset.
+    private static Instant instant(JsonNode row, String field) {
+        String value = text(row, field);
+        return value != null ? OffsetDateTime.parse(value).toInstant() : null;
+    }
+
+    public record ImportedTeam(Long teamId, List<Long> memberIds, List<Long> meetingIds) {}
+
+    /**
+     * Ids of the team being imported; maps the archive's user ids to local ones.
+     */
+    private static final class Import {
+
+        private final Long teamId;
+        private final Map<Long, Long> userIds;
+        private final List<Long> memberIds = new ArrayList<>();
+        private final List<Long> meetingIds = new ArrayList<>();
+
+        private Import(Long teamId, Map<Long, Long> userIds) {
+            this.teamId = teamId;
+            this.userIds = userIds;
+        }
+
+        Long user(JsonNode row, String field) {
+            Long archived = id(row, field);
+            if (archived == null) {
+                throw new IllegalArgumentException("Missing " + field);
+            }
+            Long local = userIds.get(archived);
+            if (local == null) {
+                throw new IllegalArgumentException("Unknown user " + archived + " in " + field);
+            }
+            return local;
+        }
+
+        Long optionalUser(JsonNode row, String field) {
+            Long archived = id(row, field);
+            return archived != null ? userIds.get(archived) : null;
+        }
+
+        ArchivedDocument document(JsonNode row) {
+            return new ArchivedDocument(text(row, "title"), text(row, "content"), text(row, "type"),
+                    user(row, "created_by"), optionalUser(row, "last_modified_by"),
+                    instant(row, "created_at"), instant(row, "updated_at"));
+        }
+
+        ArchivedMeeting meeting(JsonNode row) {
+            List<ArchivedParticipant> participants = new ArrayList<>();
+            for (JsonNode participant : row.path("participants")) {
+                participants.add(new ArchivedParticipant(user(participant, "user_id"), instant(participant, "joined_at"),
+                        instant(participant, "left_at"), integer(participant, "attendance_duration_minutes")));
+            }
+            return new ArchivedMeeting(text(row, "title"), text(row, "description"), user(row, "created_by"),
+                    instant(row, "start_time"), instant(row, "end_time"), integer(row, "duration_minutes"),
+                    text(row, "status"), text(row, "meeting_url"), text(row, "recurrence"), text(row, "transcript_url"),
+                    text(row, "summary"), text(row, "action_items"), participants, instant(row, "created_at"));
+        }
+
+        ArchivedTask task(JsonNode row) {
+            return new ArchivedTask(text(row, "title"), text(row, "description"), user(row, "created_by"),
+                    optionalUser(row, "assigned_to"), text(row, "status"), text(row, "priority"),
+                    instant(row, "due_date"), instant(row, "completed_at"), text(row, "rank"), instant(row, "created_at"));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.collabspace.archive;
+
+import com.collabspace.archive.TeamArchiveImporter.ImportedTeam;
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.dto.TeamImportDTO;
+import com.collabspace.event.MeetingScheduleChangedEvent;
+import com.collabspace.event.TaskBoardChangedEvent;
+import com.collabspace.event.TeamMembershipChangedEvent;
+import com.collabspace.model.User.UserRole;
+import com.collabspace.repository.TaskBoardRepository;
+import com.collabspace.repository.TeamRepository;
+import com.collabspace.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports teams to and imports them from {@link TeamArchive}s. Exports
+ * stream straight to the caller. Imports are spooled to a temporary file
+ * and run in the background, one at a time per node, so the upload
+ * returns at once and its progress can be polled.
+ */
+@Service
+public class TeamArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeamArchiveService.class);
+
+    private final ConcurrentHashMap<String, ImportJob> imports = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TeamArchiveExporter exporter;
+
+    @Autowired
+    private TeamArchiveImporter importer;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskBoardRepository taskBoardRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${teams.archive.max-import-bytes:4294967296}")
+    private long maxImportBytes;
+
+    @Value("${teams.archive.job-retention-ms:86400000}")
+    private long jobRetentionMs;
+
+    @Value("${teams.archive.import-batch-size:500}")
+    private int batchSize;
+
+    private ExecutorService importExecutor;
+
+    @PostConstruct
+    public void init() {
+        importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "team-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    /**
+     * Only the team's owner and admins may export it: the archive holds
+     * every member's email.
+     */
+    public void checkExportAccess(Long teamId, Long userId) {
+        Long ownerId = teamRepository.findOwnerId(teamId)
+                .orElseThrow(() -> new IllegalArgumentException("Team not found: " + teamId));
+        if (!ownerId.equals(userId) && !isAdmin(userId)) {
+            throw new SecurityException("Only the team owner can export the team");
+        }
+    }
+
+    public void export(Long teamId, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Map<String, Long> counts = exporter.export(teamId, out);
+        counts.forEach((entry, rows) -> meterRegistry.counter("teams.archive.rows",
+                "direction", "export", "entry", entry).increment(rows));
+        logger.info("Exported team {} in {} ms: {}", teamId, (System.nanoTime() - started) / 1_000_000, counts);
+    }
+
+    /**
+     * Spools the uploaded archive and queues its import as a new team.
+     * Admin only, because an import creates users.
+     */
+    public TeamImportDTO startImport(InputStream body, Long userId) throws IOException {
+        if (!isAdmin(userId)) {
+            throw new SecurityException("Only admins can import teams");
+        }
+        Path file = Files.createTempFile("team-import-", ".zip");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long size = 0;
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                size += read;
+                if (size > maxImportBytes) {
+                    throw new IllegalArgumentException("Archive exceeds " + maxImportBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        Instant expired = Instant.now().minusMillis(jobRetentionMs);
+        imports.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expired));
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId);
+        imports.put(job.id, job);
+        importExecutor.execute(() -> run(job, file));
+        return job.toDTO();
+    }
+
+    public TeamImportDTO getImport(String jobId, Long userId) {
+        ImportJob job = imports.get(jobId);
+        if (job == null || (!job.requestedBy.equals(userId) && !isAdmin(userId))) {
+            throw new IllegalArgumentException("Import not found: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private void run(ImportJob job, Path file) {
+        long started = System.nanoTime();
+        try {
+            ImportedTeam team = importer.importArchive(file, job.requestedBy, job.progress);
+            job.teamId = team.teamId();
+            team.memberIds().forEach(memberId ->
+                    eventPublisher.publishEvent(new TeamMembershipChangedEvent(team.teamId(), memberId, true)));
+            publishImported(team);
+            Map.of(TeamArchive.USERS, job.progress.users, TeamArchive.DOCUMENTS, job.progress.documents,
+                    TeamArchive.MEETINGS, job.progress.meetings, TeamArchive.TASKS, job.progress.tasks)
+                    .forEach((entry, rows) -> meterRegistry.counter("teams.archive.rows",
+                            "direction", "import", "entry", entry).increment(rows.get()));
+            logger.info("Imported team {} in {} ms: {} users, {} documents, {} meetings, {} tasks", team.teamId(),
+                    (System.nanoTime() - started) / 1_000_000, job.progress.users.get(), job.progress.documents.get(),
+                    job.progress.meetings.get(), job.progress.tasks.get());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Team import {} failed", job.id, e);
+            job.error = e.getMessage();
+        } finally {
+            job.finishedAt = Instant.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete spooled archive {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Announces the committed meetings and tasks, so their reminders and
+     * lifecycle timers are set like those of meetings and tasks created one
+     * by one. Events go out in import-sized batches to keep cluster
+     * messages bounded.
+     */
+    private void publishImported(ImportedTeam team) {
+        List<Long> meetingIds = team.meetingIds();
+        for (int i = 0; i < meetingIds.size(); i += batchSize) {
+            eventPublisher.publishEvent(new MeetingScheduleChangedEvent(
+                    List.copyOf(meetingIds.subList(i, Math.min(i + batchSize, meetingIds.size())))));
+        }
+        // The team is new, so every card on its board came from the archive.
+        List<TaskDTO> cards = taskBoardRepository.findBoard(team.teamId());
+        for (int i = 0; i < cards.size(); i += batchSize) {
+            eventPublisher.publishEvent(new TaskBoardChangedEvent(team.teamId(),
+                    List.copyOf(cards.subList(i, Math.min(i + batchSize, cards.size()))), List.of()));
+        }
+    }
+
+    private boolean isAdmin(Long userId) {
+        return userRepository.findById(userId).map(user -> user.getRole() == UserRole.ADMIN).orElse(false);
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+        private final Long requestedBy;
+        private final Instant startedAt = Instant.now();
+        private final ImportProgress progress = new ImportProgress();
+        private volatile Long teamId;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ImportJob(String id, Long requestedBy) {
+            this.id = id;
+            this.requestedBy = requestedBy;
+        }
+
+        TeamImportDTO toDTO() {
+            // finishedAt is read first: once it is set, teamId and error are final.
+            Instant finished = finishedAt;
+            return new TeamImportDTO(id, teamId, progress.users.get(), progress.documents.get(),
+                    progress.meetings.get(), progress.tasks.get(), startedAt, finished, error);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.collabspace.board;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fractional ranks: string keys with a key between any two others, so
+ * placing a task never renumbers its neighbours. Digits are base 62,
+ * {@code 0-9A-Za-z} in ASCII order, so keys compare as plain strings, like
+ * the {@code COLLATE "C"} rank column.
+ *
+ * <p>A key is a variable-length integer followed by a fraction. The
+ * integer's head letter gives its length ({@code a} = one digit, {@code b}
+ * = two, ...; {@code A-Z} mirror that for negatives), so appending or
+ * prepending just steps the integer and keys grow only logarithmically.
+ * Inserting between two keys bisects the fraction. A fraction never ends
+ * in {@code '0'}, which would leave no room before the key.</p>
+ */
+public final class FractionalRank {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final String SMALLEST_INTEGER = "A" + "0".repeat(26);
+
+    private FractionalRank() {}
+
+    /**
+     * A key strictly between {@code lower} and {@code upper}; {@code null}
+     * stands for the start or end of the column.
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null) {
+            validate(lower);
+        }
+        if (upper != null) {
+            validate(upper);
+        }
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("No rank between " + lower + " and " + upper);
+        }
+        if (lower == null) {
+            if (upper == null) {
+                return "a0";
+            }
+            String integer = integerPart(upper);
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", upper.substring(integer.length()));
+            }
+            if (integer.length() < upper.length()) {
+                return integer;
+            }
+            String decremented = decrement(integer);
+            if (decremented == null) {
+                throw new IllegalArgumentException("No rank before " + upper);
+            }
+            return decremented;
+        }
+        String integerA = integerPart(lower);
+        String fractionA = lower.substring(integerA.length());
+        if (upper == null) {
+            String incremented = increment(integerA);
+            return incremented != null ? incremented : integerA + midpoint(fractionA, null);
+        }
+        String integerB = integerPart(upper);
+        if (integerA.equals(integerB)) {
+            return integerA + midpoint(fractionA, upper.substring(integerB.length()));
+        }
+        String incremented = increment(integerA);
+        if (incremented != null && incremented.compareTo(upper) < 0) {
+            return incremented;
+        }
+        return integerA + midpoint(fractionA, null);
+    }
+
+    /**
+     * {@code count} ascending keys between {@code lower} and {@code upper}.
+     * Open-ended runs step the integer; bounded ones split by repeated
+     * halving, so the keys stay short either way.
+     */
+    public static List<String> between(String lower, String upper, int count) {
+        List<String> keys = new ArrayList<>(Math.max(count, 0));
+        if (count <= 0) {
+            return keys;
+        }
+        if (upper == null) {
+            String key = lower;
+            for (int i = 0; i < count; i++) {
+                key = between(key, null);
+                keys.add(key);
+            }
+            return keys;
+        }
+        if (lower == null) {
+            String key = upper;
+            for (int i = 0; i < count; i++) {
+                key = between(null, key);
+                keys.add(key);
+            }
+            Collections.reverse(keys);
+            return keys;
+        }
+        fill(lower, upper, count, keys);
+        return keys;
+    }
+
+    private static void fill(String lower, String upper, int count, List<String> keys) {
+        if (count <= 0) {
+            return;
+        }
+        String middle = between(lower, upper);
+        int before = (count - 1) / 2;
+        fill(lower, middle, before, keys);
+        keys.add(middle);
+        fill(middle, upper, count - 1 - before, keys);
+    }
+
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // Copy the common prefix, reading missing digits of a as zeros.
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : DIGITS.charAt(0)) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : digit(a.charAt(0));
+        int digitB = b != null ? digit(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        // Adjacent first digits: b's first digit alone fits if b goes on, else go one digit deeper.
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.length() > 1 ? a.substring(1) : "", null);
+    }
+
+    private static String increment(String integer) {
+        char[] digits = integer.toCharArray();
+        for (int i = digits.length - 1; i > 0; i--) {
+            int d = digit(digits[i]) + 1;
+            if (d < BASE) {
+                digits[i] = DIGITS.charAt(d);
+                return new String(digits);
+            }
+            digits[i] = DIGITS.charAt(0);
+        }
+        char head = digits[0];
+        if (head == 'Z') {
+            return "a0";
+        }
+        if (head == 'z') {
+            return null;
+        }
+        // Overflow: one digit more for positives, one fewer for negatives.
+        String rest = new String(digits, 1, digits.length - 1);
+        return head >= 'a' ? (char) (head + 1) + rest + DIGITS.charAt(0) : (char) (head + 1) + rest.substring(1);
+    }
+
+    private static String decrement(String integer) {
+        char[] digits = integer.toCharArray();
+        for (int i = digits.length - 1; i > 0; i--) {
+            int d = digit(digits[i]) - 1;
+            if (d >= 0) {
+                digits[i] = DIGITS.charAt(d);
+                return new String(digits);
+            }
+            digits[i] = DIGITS.charAt(BASE - 1);
+        }
+        char head = digits[0];
+        if (head == 'a') {
+            return "Z" + DIGITS.charAt(BASE - 1);
+        }
+        if (head == 'A') {
+            return null;
+        }
+        String rest = new String(digits, 1, digits.length - 1);
+        return head <= 'Z' ? (char) (head - 1) + rest + DIGITS.charAt(BASE - 1) : (char) (head - 1) + rest.substring(1);
+    }
+
+    private static String integerPart(String key) {
+        int length = integerLength(key.charAt(0));
+        if (length > key.length()) {
+            throw new IllegalArgumentException("Invalid rank: " + key);
+        }
+        return key.substring(0, length);
+    }
+
+    private static int integerLength(char head) {
+        if (head >= 'a' && head <= 'z') {
+            return head - 'a' + 2;
+        }
+        if (head >= 'A' && head <= 'Z') {
+            return 'Z' - head + 2;
+        }
+        throw new IllegalArgumentException("Invalid rank head: " + head);
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.equals(SMALLEST_INTEGER)) {
+            throw new IllegalArgumentException("Invalid rank: " + key);
+        }
+        String integer = integerPart(key);
+        for (int i = 1; i < key.length(); i++) {
+            digit(key.charAt(i));
+        }
+        if (key.length() > integer.length() && key.charAt(key.length() - 1) == DIGITS.charAt(0)) {
+            throw new IllegalArgumentException("Invalid rank: " + key);
+        }
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid rank digit: " + c);
+        }
+        return digit;
+    }
+}
@@ -0,0 +1,113 @@
+package com.collabspace.board;
+
+import com.collabspace.dto.TaskBoardDTO;
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.model.Task.TaskPriority;
+import com.collabspace.model.Task.TaskStatus;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * One team's materialized board: every card, kept sorted per column by
+ * rank, then priority (most urgent first), then id.
+ *
+ * <p>Changes are applied in O(log n) and may arrive in any order: a card
+ * only replaces an older version of itself, and a deleted task stays
+ * deleted. So changes that land while the board is still loading are kept,
+ * and the load merges under them. Each column's sorted copy is cached until
+ * the column next changes, so reading an unchanged board copies nothing.</p>
+ */
+final class TaskBoard {
+
+    private static final Comparator<TaskDTO> ORDER = Comparator
+            .comparing(TaskDTO::getRank, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(card -> TaskPriority.valueOf(card.getPriority()), Comparator.reverseOrder())
+            .thenComparing(TaskDTO::getId);
+
+    private final Long teamId;
+    private final Map<Long, TaskDTO> cards = new HashMap<>();
+    private final Map<TaskStatus, NavigableSet<TaskDTO>> columns = new EnumMap<>(TaskStatus.class);
+    private final Map<TaskStatus, List<TaskDTO>> columnCopies = new EnumMap<>(TaskStatus.class);
+    private final Set<Long> deleted = new HashSet<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    TaskBoard(Long teamId) {
+        this.teamId = teamId;
+        for (TaskStatus status : TaskStatus.values()) {
+            columns.put(status, new TreeSet<>(ORDER));
+        }
+    }
+
+    /**
+     * Loads the board once. Only one caller runs the loader; it is not run
+     * under the board's monitor, so changes keep applying meanwhile. A
+     * failed load is retried by the next caller.
+     */
+    void ensureLoaded(Supplier<List<TaskDTO>> loader) {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                apply(loader.get(), List.of());
+                loaded = true;
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    synchronized void apply(Collection<TaskDTO> changed, Collection<Long> removedTaskIds) {
+        for (Long taskId : removedTaskIds) {
+            deleted.add(taskId);
+            TaskDTO current = cards.remove(taskId);
+            if (current != null) {
+                removeFromColumn(current);
+            }
+        }
+        for (TaskDTO card : changed) {
+            if (deleted.contains(card.getId())) {
+                continue;
+            }
+            TaskDTO current = cards.get(card.getId());
+            if (current != null) {
+                if (current.getVersion() >= card.getVersion()) {
+                    continue;
+                }
+                removeFromColumn(current);
+            }
+            cards.put(card.getId(), card);
+            TaskStatus status = TaskStatus.valueOf(card.getStatus());
+            columns.get(status).add(card);
+            columnCopies.remove(status);
+        }
+    }
+
+    synchronized TaskBoardDTO snapshot() {
+        Map<String, List<TaskDTO>> view = new LinkedHashMap<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            view.put(status.name(), columnCopies.computeIfAbsent(status, s -> List.copyOf(columns.get(s))));
+        }
+        return new TaskBoardDTO(teamId, view, cards.size());
+    }
+
+    private void removeFromColumn(TaskDTO card) {
+        TaskStatus status = TaskStatus.valueOf(card.getStatus());
+        columns.get(status).remove(card);
+        columnCopies.remove(status);
+    }
+}
@@ -0,0 +1,159 @@
+package com.collabspace.board;
+
+import com.collabspace.dto.CollaborationMessage;
+import com.collabspace.dto.TaskBoardDTO;
+import com.collabspace.event.TaskBoardChangedEvent;
+import com.collabspace.repository.TaskBoardRepository;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.websocket.BroadcastHub;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.OutboundFrame;
+import com.collabspace.websocket.RoomKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Materialized Kanban boards, one per team in use, held on every node that
+ * serves it.
+ *
+ * <p>A board is loaded with one index range scan over the team's tasks and
+ * sorted once; after that, reads come from memory. Committed changes are
+ * applied incrementally, pushed to the team's board room as
+ * {@code board-update} diffs and relayed to the other nodes' boards over the
+ * cluster transport. Boards are dropped after {@code idle-ms} without reads
+ * and reloaded at least every {@code max-age-ms}, which bounds how long a
+ * lost relay message can leave a node's board stale.</p>
+ */
+@Service
+public class TaskBoardService {
+
+    static final String CHANNEL = "tasks:board";
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskBoardService.class);
+
+    @Autowired
+    private TaskBoardRepository taskBoardRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired(required = false)
+    private ClusterTransport clusterTransport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tasks.board.max-boards:1000}")
+    private long maxBoards;
+
+    @Value("${tasks.board.idle-ms:1800000}")
+    private long idleMs;
+
+    @Value("${tasks.board.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Cache<Long, TaskBoard> boards;
+
+    @PostConstruct
+    public void init() {
+        boards = Caffeine.newBuilder()
+                .maximumSize(maxBoards)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .expireAfterWrite(Duration.ofMillis(maxAgeMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, boards, "taskBoards");
+        if (clusterTransport != null) {
+            clusterTransport.subscribe(CHANNEL, this::receive);
+        }
+    }
+
+    /**
+     * The team's board. Clients join the board room first, then fetch this,
+     * then apply the diffs they received meanwhile.
+     */
+    public TaskBoardDTO getBoard(Long teamId, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        // The board is cached before it loads, so changes committed during the load still reach it.
+        TaskBoard board = boards.get(teamId, TaskBoard::new);
+        board.ensureLoaded(() -> {
+            meterRegistry.counter("tasks.board.loads").increment();
+            return taskBoardRepository.findBoard(teamId);
+        });
+        return board.snapshot();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBoardChanged(TaskBoardChangedEvent event) {
+        CollaborationMessage update = CollaborationMessage.boardUpdate(event.getTeamId(), event.getTasks(),
+                event.getRemovedTaskIds());
+        apply(update);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize board update for team {}", event.getTeamId(), e);
+            return;
+        }
+        broadcastHub.broadcast(RoomKey.board(event.getTeamId()), OutboundFrame.reliable(new TextMessage(json)), null);
+        if (clusterTransport != null) {
+            try {
+                clusterTransport.publish(CHANNEL, (nodeId + "\n" + json).getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                // Other nodes catch up when their copy of the board reaches max-age.
+                logger.warn("Failed to relay board update for team {}: {}", event.getTeamId(), e.getMessage());
+            }
+        }
+    }
+
+    private void receive(byte[] message) {
+        String[] parts = new String(message, StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            apply(objectMapper.readValue(parts[1], CollaborationMessage.class));
+        } catch (IOException e) {
+            logger.warn("Dropping malformed board update: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Only boards already in memory are updated; a board loaded later reads
+     * the change from the database.
+     */
+    private void apply(CollaborationMessage update) {
+        TaskBoard board = boards.getIfPresent(update.getTeamId());
+        if (board != null) {
+            board.apply(update.getTasks() != null ? update.getTasks() : List.of(),
+                    update.getRemovedTaskIds() != null ? update.getRemovedTaskIds() : List.of());
+        }
+    }
+}
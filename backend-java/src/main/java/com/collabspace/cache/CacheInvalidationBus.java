@@ -0,0 +1,63 @@
+package com.collabspace.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts cache evictions over Redis pub/sub so that every node drops its
+ * local copy. Messages are {@code nodeId \n op \n cacheName \n key}; a node
+ * ignores its own messages since it has already evicted locally.
+ *
+ * <p>Delivery is best effort. A lost message leaves a peer stale until its
+ * local entry expires, which is why the local tier has a short TTL.</p>
+ */
+public class CacheInvalidationBus {
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        send(EVICT, cacheName, key);
+    }
+
+    public void publishClear(String cacheName) {
+        send(CLEAR, cacheName, "");
+    }
+
+    public void receive(String message, TwoLevelCacheManager cacheManager) {
+        String[] parts = message.split("\n", 4);
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = cacheManager.getCache(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    private void send(String op, String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + op + "\n" + cacheName + "\n" + key);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to broadcast cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
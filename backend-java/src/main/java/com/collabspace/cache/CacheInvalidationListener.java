@@ -0,0 +1,37 @@
+package com.collabspace.cache;
+
+import com.collabspace.event.DocumentTeamChangedEvent;
+import com.collabspace.event.TeamMembershipChangedEvent;
+import com.collabspace.event.UserProfileChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached entries derived from data that just changed. Runs after
+ * commit so a concurrent reader cannot re-cache the pre-change state.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeamMembershipChanged(TeamMembershipChangedEvent event) {
+        cacheManager.getCache(CacheNames.TEAM_MEMBERS).evict(event.getTeamId());
+        // UserDTO carries the user's team ids.
+        cacheManager.getCache(CacheNames.USER_PROFILES).evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        cacheManager.getCache(CacheNames.USER_PROFILES).evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDocumentTeamChanged(DocumentTeamChangedEvent event) {
+        cacheManager.getCache(CacheNames.DOCUMENT_TEAMS).evict(event.getDocumentId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.collabspace.cache;
+
+import java.util.List;
+
+/**
+ * Names of the caches served by the {@link TwoLevelCacheManager}.
+ */
+public final class CacheNames {
+
+    /** User id to {@code UserDTO}. */
+    public static final String USER_PROFILES = "userProfiles";
+
+    /** Team id to the set of member user ids. */
+    public static final String TEAM_MEMBERS = "teamMembers";
+
+    /** Document id to the id of the team that owns it. */
+    public static final String DOCUMENT_TEAMS = "documentTeams";
+
+    public static final List<String> ALL = List.of(USER_PROFILES, TEAM_MEMBERS, DOCUMENT_TEAMS);
+
+    private CacheNames() {}
+}
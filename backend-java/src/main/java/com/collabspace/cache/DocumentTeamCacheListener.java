@@ -0,0 +1,28 @@
+package com.collabspace.cache;
+
+import com.collabspace.event.DocumentTeamChangedEvent;
+import com.collabspace.model.Document;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA callback that invalidates a document's cached owning team whenever
+ * the document is deleted or updated, whichever service does it. Entity
+ * updates are metadata edits and rare, so evicting on every one is cheaper
+ * than tracking whether the team changed.
+ */
+@Component
+public class DocumentTeamCacheListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Document document) {
+        eventPublisher.publishEvent(new DocumentTeamChangedEvent(document.getId()));
+    }
+}
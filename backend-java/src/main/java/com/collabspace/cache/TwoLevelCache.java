@@ -0,0 +1,191 @@
+package com.collabspace.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A bounded in-process Caffeine cache (W-TinyLFU eviction) in front of a
+ * shared Redis cache. Reads try the local tier, then Redis, then the loader;
+ * evictions clear both tiers and are broadcast so other nodes drop their
+ * local copy as well.
+ *
+ * <p>Redis is an optimisation only: any failure talking to it is counted
+ * and treated as a miss, never surfaced to the caller. Keys are normalised
+ * to strings so that invalidation messages from other nodes match.</p>
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteErrors;
+
+    /**
+     * @param remote          the Redis tier, or {@code null} to run local-only
+     * @param invalidationBus broadcasts evictions to other nodes, or {@code null}
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote, CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.remoteHits = remoteCounter(meterRegistry, "cache.remote.gets", "result", "hit");
+        this.remoteMisses = remoteCounter(meterRegistry, "cache.remote.gets", "result", "miss");
+        this.remoteErrors = remoteCounter(meterRegistry, "cache.remote.errors", null, null);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = key.toString();
+        Object value = local.getIfPresent(cacheKey);
+        if (value == null) {
+            value = remoteGet(cacheKey);
+            if (value != null) {
+                local.put(cacheKey, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Caffeine runs the mapping function once per key, so concurrent
+        // misses on one node share a single Redis or database round trip.
+        return (T) fromStoreValue(local.get(key.toString(), cacheKey -> {
+            Object value = remoteGet(cacheKey);
+            if (value != null) {
+                return value;
+            }
+            T loaded;
+            try {
+                loaded = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (loaded != null) {
+                remotePut(cacheKey, loaded);
+            }
+            return loaded;
+        }));
+    }
+
+    /**
+     * Stores a freshly loaded value. Peers are not notified: data changes are
+     * expressed as evictions, so a put only ever fills a miss.
+     */
+    @Override
+    public void put(Object key, Object value) {
+        String cacheKey = key.toString();
+        local.put(cacheKey, toStoreValue(value));
+        remotePut(cacheKey, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = key.toString();
+        local.invalidate(cacheKey);
+        if (remote != null) {
+            try {
+                remote.evict(cacheKey);
+            } catch (RuntimeException e) {
+                remoteFailure("evict", e);
+            }
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishEvict(name, cacheKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        if (remote != null) {
+            try {
+                remote.clear();
+            } catch (RuntimeException e) {
+                remoteFailure("clear", e);
+            }
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishClear(name);
+        }
+    }
+
+    /**
+     * Drops a key from this node only, in response to another node's eviction.
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Object remoteGet(String key) {
+        if (remote == null) {
+            return null;
+        }
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper == null || wrapper.get() == null) {
+                remoteMisses.increment();
+                return null;
+            }
+            remoteHits.increment();
+            return wrapper.get();
+        } catch (RuntimeException e) {
+            remoteFailure("get", e);
+            return null;
+        }
+    }
+
+    private void remotePut(String key, Object value) {
+        if (remote == null) {
+            return;
+        }
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            remoteFailure("put", e);
+        }
+    }
+
+    private void remoteFailure(String operation, RuntimeException e) {
+        remoteErrors.increment();
+        logger.debug("Redis cache {} failed for {}: {}", operation, name, e.getMessage());
+    }
+
+    private Counter remoteCounter(MeterRegistry meterRegistry, String metric, String tagKey, String tagValue) {
+        Counter.Builder builder = Counter.builder(metric).tag("cache", name);
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        return builder.register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.collabspace.cache;
+
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Fixed set of {@link TwoLevelCache}s, one per name in {@link CacheNames}.
+ * Unknown names are not created on the fly so that every cache gets an
+ * explicit size bound.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final Map<String, TwoLevelCache> caches;
+
+    public TwoLevelCacheManager(Map<String, TwoLevelCache> caches) {
+        this.caches = Map.copyOf(caches);
+    }
+
+    @Override
+    public TwoLevelCache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+}
@@ -0,0 +1,47 @@
+package com.collabspace.collaboration;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A batch of operations as it was committed to a live document, already
+ * transformed against everything that was applied before it.
+ */
+public final class AppliedRevision {
+
+    private final Long documentId;
+    private final int version;
+    private final Long userId;
+    private final String origin;
+    private final String clientOpId;
+    private final List<TextOperation> operations;
+    private final Instant appliedAt;
+
+    public AppliedRevision(Long documentId, int version, Long userId, String origin, String clientOpId,
+                           List<TextOperation> operations) {
+        this.documentId = documentId;
+        this.version = version;
+        this.userId = userId;
+        this.origin = origin;
+        this.clientOpId = clientOpId;
+        this.operations = List.copyOf(operations);
+        this.appliedAt = Instant.now();
+    }
+
+    public Long getDocumentId() { return documentId; }
+
+    public int getVersion() { return version; }
+
+    public Long getUserId() { return userId; }
+
+    /**
+     * Opaque id of the connection that submitted the batch, or null for REST.
+     */
+    public String getOrigin() { return origin; }
+
+    public String getClientOpId() { return clientOpId; }
+
+    public List<TextOperation> getOperations() { return operations; }
+
+    public Instant getAppliedAt() { return appliedAt; }
+}
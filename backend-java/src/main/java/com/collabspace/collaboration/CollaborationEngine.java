@@ -0,0 +1,232 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.model.Document;
+import com.collabspace.repository.DocumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds live documents in memory and merges concurrent edits with
+ * operational transformation. Content is written back through the
+ * {@link DocumentWriteBehindBuffer}, decoupled from the edit path.
+ *
+ * <p>Only the node that owns a document applies edits to it; see
+ * {@link DocumentRouter}. Elsewhere, edits are forwarded to the owner and
+ * editors are served from a replica that follows it.</p>
+ */
+@Service
+public class CollaborationEngine {
+
+    private final Map<Long, DocumentSession> sessions = new ConcurrentHashMap<>();
+    private final List<RevisionListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private DocumentRouter router;
+
+    @Value("${collaboration.history-size:1000}")
+    private int historySize;
+
+    @Value("${collaboration.idle-eviction-ms:300000}")
+    private long idleEvictionMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer applyTimer;
+
+    @PostConstruct
+    public void init() {
+        this.applyTimer = Timer.builder("collaboration.operation.apply")
+                .description("Time to transform and apply an operation batch to a live document")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("collaboration.sessions.active", List.of(), sessions);
+        router.attach(this);
+    }
+
+    public void addListener(RevisionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers an editor on the document, loading it into memory on first use.
+     * The handler runs with the document held, so the editor receives its
+     * initial state before any revision that is committed after it. Editors
+     * that reconnect with a {@code knownVersion} only get what they missed.
+     */
+    public void open(Long documentId, Integer knownVersion, JoinHandler handler) {
+        DocumentSession session = session(documentId);
+        while (!session.subscribe()) {
+            // Evicted or fenced: loaded again, or fetched again from the owner.
+            sessions.remove(documentId, session);
+            session = session(documentId);
+        }
+        session.join(knownVersion, handler);
+    }
+
+    public Optional<DocumentSession.Snapshot> currentSnapshot(Long documentId) {
+        DocumentSession session = sessions.get(documentId);
+        if (session == null) {
+            session = router.currentReplica(documentId);
+        }
+        return session != null ? Optional.of(session.snapshot()) : Optional.empty();
+    }
+
+    public void close(Long documentId) {
+        DocumentSession session = sessions.get(documentId);
+        if (session == null) {
+            session = router.currentReplica(documentId);
+        }
+        if (session != null) {
+            session.unsubscribe();
+        }
+    }
+
+    /**
+     * Applies a batch to the document, loading it into memory if no editor
+     * has it open. Documents loaded this way are evicted again once idle.
+     *
+     * @param fencingToken token of the edit lease the batch was checked
+     *                     against, or null when the document is not locked;
+     *                     the write-behind buffer fences on it
+     */
+    public AppliedRevision submit(Long documentId, int baseVersion, List<TextOperation> operations,
+                                  Long userId, Long fencingToken, String origin, String clientOpId) {
+        if (!router.isOwner(documentId)) {
+            return router.forward(documentId, baseVersion, operations, userId, fencingToken, origin, clientOpId);
+        }
+        writeBehindBuffer.awaitCapacity();
+        for (RevisionListener listener : listeners) {
+            listener.awaitCapacity();
+        }
+        DocumentSession session = liveSession(documentId);
+        long start = System.nanoTime();
+        try {
+            AppliedRevision revision = session.apply(baseVersion, operations, userId, fencingToken, origin, clientOpId, listeners);
+            while (revision == null) {
+                session = reload(documentId, session);
+                revision = session.apply(baseVersion, operations, userId, fencingToken, origin, clientOpId, listeners);
+            }
+            writeBehindBuffer.markDirty(session);
+            return revision;
+        } finally {
+            applyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${collaboration.eviction-interval-ms:30000}")
+    public void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, DocumentSession> entry : sessions.entrySet()) {
+            if (entry.getValue().evictIfIdle(now, idleEvictionMs) && sessions.remove(entry.getKey(), entry.getValue())) {
+                router.release(entry.getKey());
+            }
+        }
+        router.evictIdleReplicas(now, idleEvictionMs);
+    }
+
+    /**
+     * The owned session, loading it if needed, for another node that wants
+     * a replica.
+     */
+    DocumentSession.Snapshot ownedSnapshot(Long documentId) {
+        return liveSession(documentId).snapshot();
+    }
+
+    /**
+     * Retires the session of a document another node has taken over. What
+     * it had not written back is lost, as when a node goes down.
+     */
+    void ownershipLost(Long documentId) {
+        DocumentSession session = sessions.remove(documentId);
+        if (session != null) {
+            session.fence();
+        }
+    }
+
+    /**
+     * The listeners that want the revisions a replica receives from the
+     * owner; see {@link RevisionListener#followsReplicas}.
+     */
+    List<RevisionListener> replicaListeners() {
+        return listeners.stream().filter(RevisionListener::followsReplicas).toList();
+    }
+
+    private DocumentSession session(Long documentId) {
+        return router.isOwner(documentId) ? liveSession(documentId) : router.replica(documentId);
+    }
+
+    /**
+     * The live session of the document, loading it if needed. The load runs
+     * outside the map, so a slow read never blocks documents that share its
+     * bin; when two threads race, the first session published wins.
+     *
+     * <p>The winner holds its session until listeners have been told of the
+     * load, so no edit lands before they have dropped what an earlier
+     * session left above the stored version.</p>
+     */
+    private DocumentSession liveSession(Long documentId) {
+        DocumentSession session = sessions.get(documentId);
+        if (session != null) {
+            return session;
+        }
+        DocumentSession loaded = load(documentId);
+        synchronized (loaded) {
+            DocumentSession raced = sessions.putIfAbsent(documentId, loaded);
+            if (raced != null) {
+                return raced;
+            }
+            try {
+                for (RevisionListener listener : listeners) {
+                    listener.onSessionLoaded(documentId, loaded.getVersion());
+                }
+            } catch (RuntimeException e) {
+                loaded.fence();
+                sessions.remove(documentId, loaded);
+                throw e;
+            }
+            // Editors of the replica this node kept while another owned it.
+            for (int i = router.discardReplica(documentId); i > 0; i--) {
+                loaded.subscribe();
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Replaces a session that was evicted or fenced under the caller. The
+     * database holds the latest state either way.
+     */
+    private DocumentSession reload(Long documentId, DocumentSession evicted) {
+        sessions.remove(documentId, evicted);
+        return liveSession(documentId);
+    }
+
+    private DocumentSession load(Long documentId) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Document not found: " + documentId));
+        return new DocumentSession(documentId, contentStore.read(document.getContentHash()), document.getVersion(), historySize);
+    }
+}
@@ -0,0 +1,603 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.dto.DocumentOperationDTO;
+import com.collabspace.exception.VersionConflictException;
+import com.collabspace.exception.WriteBufferFullException;
+import com.collabspace.lock.DocumentOwnership;
+import com.collabspace.websocket.ClusterTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps each live document on a single node when there is more than one.
+ *
+ * <p>Every document has an owner, recorded in {@link DocumentOwnership}. Only
+ * the owner's {@link CollaborationEngine} transforms and applies edits, so
+ * there is one version sequence per document however many nodes its editors
+ * are connected to. Other nodes forward their edits to the owner and wait for
+ * the result. The owner publishes every revision it commits on the
+ * document's channel; a node with editors of its own keeps a replica that
+ * applies them in version order, serves joins from it and fans the revisions
+ * out to its sockets. A replica starts from a copy fetched from the owner and
+ * is fetched again whenever it misses a revision or the owner reloads the
+ * document.</p>
+ *
+ * <p>Without a {@link ClusterTransport} this node owns every document.</p>
+ */
+@Component
+public class DocumentRouter implements RevisionListener {
+
+    static final String DOCUMENT_CHANNEL_PREFIX = "collab:document:";
+    static final String NODE_CHANNEL_PREFIX = "collab:node:";
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentRouter.class);
+
+    private static final String SUBMIT = "submit";
+    private static final String SYNC = "sync";
+    private static final String REPLY = "reply";
+    private static final String REVISION = "revision";
+
+    /** Documents this node owns, with when the claim must next be checked. */
+    private final Map<Long, Long> ownedUntil = new ConcurrentHashMap<>();
+    /** Owners of other documents, as last claimed. */
+    private final Map<Long, KnownOwner> owners = new ConcurrentHashMap<>();
+    /** Per load of an owned document, so replicas notice when it is loaded again. */
+    private final Map<Long, String> epochs = new ConcurrentHashMap<>();
+    private final Map<Long, Replica> replicas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Message>> requests = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+
+    @Autowired(required = false)
+    private ClusterTransport transport;
+
+    @Autowired(required = false)
+    private DocumentOwnership ownership;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${collaboration.history-size:1000}")
+    private int historySize;
+
+    @Value("${collaboration.cluster.owner-ttl-ms:15000}")
+    private long ownerTtlMs;
+
+    @Value("${collaboration.cluster.request-timeout-ms:2000}")
+    private long requestTimeoutMs;
+
+    @Value("${collaboration.cluster.handler-threads:4}")
+    private int handlerThreads;
+
+    private volatile CollaborationEngine engine;
+    private String nodeId;
+    private ExecutorService publisher;
+    private ExecutorService handlers;
+    private Counter forwarded;
+    private Counter relayed;
+    private Counter resyncs;
+
+    /**
+     * Called by the engine once it is ready to take forwarded edits.
+     */
+    void attach(CollaborationEngine engine) {
+        this.engine = engine;
+        engine.addListener(this);
+        if (!isClustered()) {
+            return;
+        }
+        nodeId = ownership.nodeId();
+        publisher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "collab-router-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        handlers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "collab-router-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        forwarded = Counter.builder("collaboration.cluster.forwarded").description("Edits sent to the owning node").register(meterRegistry);
+        relayed = Counter.builder("collaboration.cluster.relayed").description("Revisions published to other nodes").register(meterRegistry);
+        resyncs = Counter.builder("collaboration.cluster.resyncs").description("Replicas fetched again after a gap").register(meterRegistry);
+        Gauge.builder("collaboration.cluster.owned", ownedUntil, Map::size).register(meterRegistry);
+        Gauge.builder("collaboration.cluster.replicas", replicas, Map::size).register(meterRegistry);
+        transport.subscribe(NODE_CHANNEL_PREFIX + nodeId, this::receive);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isClustered()) {
+            return;
+        }
+        transport.unsubscribe(NODE_CHANNEL_PREFIX + nodeId);
+        ownedUntil.keySet().forEach(this::release);
+        handlers.shutdownNow();
+        publisher.shutdown();
+    }
+
+    /**
+     * Whether this node owns the document, claiming it if nobody does.
+     */
+    public boolean isOwner(Long documentId) {
+        if (!isClustered()) {
+            return true;
+        }
+        Long until = ownedUntil.get(documentId);
+        long now = System.currentTimeMillis();
+        if (until != null && until > now) {
+            return true;
+        }
+        KnownOwner known = owners.get(documentId);
+        if (until == null && known != null && known.checkUntil() > now) {
+            return false;
+        }
+        return claim(documentId, now);
+    }
+
+    /**
+     * Gives up a document this node no longer holds in memory.
+     */
+    void release(Long documentId) {
+        epochs.remove(documentId);
+        if (ownedUntil.remove(documentId) != null) {
+            try {
+                ownership.release(documentId);
+            } catch (RuntimeException e) {
+                // It runs out on its own.
+                logger.warn("Failed to release document {}: {}", documentId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Re-claims owned documents well within the TTL, and lets the engine
+     * know of any that another node has taken over in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${collaboration.cluster.owner-renew-interval-ms:5000}")
+    public void renewOwnership() {
+        if (!isClustered()) {
+            return;
+        }
+        for (Long documentId : ownedUntil.keySet()) {
+            try {
+                claim(documentId, System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                // The claim lapses locally at ownedUntil if this keeps failing.
+                logger.warn("Failed to renew ownership of document {}: {}", documentId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Applies the batch on the owning node.
+     *
+     * @return the revision as the owner committed it
+     * @throws IllegalStateException if the owner does not answer in time
+     */
+    AppliedRevision forward(Long documentId, int baseVersion, List<TextOperation> operations, Long userId,
+                            Long fencingToken, String origin, String clientOpId) {
+        forwarded.increment();
+        Message reply = request(documentId, new Message(SUBMIT, nodeId, null, documentId, null, null, baseVersion, userId,
+                fencingToken, qualify(origin), clientOpId, toDTOs(operations), null, null, null));
+        if (reply.error() != null) {
+            throw switch (reply.errorKind()) {
+                case "conflict" -> new VersionConflictException(documentId, baseVersion, reply.version());
+                case "invalid" -> new IllegalArgumentException(reply.error());
+                case "busy" -> new WriteBufferFullException(reply.error());
+                default -> new IllegalStateException(reply.error());
+            };
+        }
+        return new AppliedRevision(documentId, reply.version(), userId, origin, clientOpId, TextOperation.fromAll(reply.operations()));
+    }
+
+    /**
+     * This node's replica of a document owned elsewhere, fetching it from the
+     * owner first if there is none.
+     *
+     * @throws IllegalStateException if the owner does not answer in time
+     */
+    DocumentSession replica(Long documentId) {
+        Replica replica = follow(documentId);
+        synchronized (replica) {
+            if (replica.session != null) {
+                return replica.session;
+            }
+        }
+        Message snapshot = request(documentId, new Message(SYNC, nodeId, null, documentId, null, null, null, null,
+                null, null, null, null, null, null, null));
+        if (snapshot.error() != null) {
+            throw new IllegalStateException(snapshot.error());
+        }
+        synchronized (replica) {
+            if (replica.session == null && replicas.get(documentId) == replica) {
+                install(documentId, replica, snapshot);
+            }
+            if (replica.session == null) {
+                throw new IllegalStateException("Document " + documentId + " changed while it was being loaded, retry");
+            }
+            return replica.session;
+        }
+    }
+
+    DocumentSession currentReplica(Long documentId) {
+        Replica replica = replicas.get(documentId);
+        if (replica == null) {
+            return null;
+        }
+        synchronized (replica) {
+            return replica.session;
+        }
+    }
+
+    /**
+     * Drops the replica of a document this node has just taken over.
+     *
+     * @return how many editors the replica had, to carry over to the owned session
+     */
+    int discardReplica(Long documentId) {
+        Replica replica = replicas.get(documentId);
+        if (replica == null) {
+            return 0;
+        }
+        synchronized (replica) {
+            int subscribers = replica.session != null ? replica.session.getSubscriberCount() : 0;
+            if (replica.session != null) {
+                replica.session.fence();
+            }
+            unfollow(documentId, replica);
+            return subscribers;
+        }
+    }
+
+    /**
+     * Drops a replica once it is no longer wanted; see
+     * {@link DocumentSession#evictIfIdle}.
+     */
+    void evictIdleReplicas(long now, long idleMs) {
+        for (Map.Entry<Long, Replica> entry : replicas.entrySet()) {
+            Replica replica = entry.getValue();
+            synchronized (replica) {
+                if (replica.session != null && replica.session.evictIfIdle(now, idleMs)) {
+                    unfollow(entry.getKey(), replica);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSessionLoaded(Long documentId, int version) {
+        if (isClustered()) {
+            epochs.put(documentId, nodeId + "/" + loads.incrementAndGet());
+        }
+    }
+
+    /**
+     * Publishes a revision this node committed as the document's owner. Runs
+     * under the document, so revisions are queued in version order.
+     */
+    @Override
+    public void onRevisionApplied(AppliedRevision revision) {
+        if (!isClustered()) {
+            return;
+        }
+        String epoch = epochs.get(revision.getDocumentId());
+        publisher.execute(() -> {
+            publish(DOCUMENT_CHANNEL_PREFIX + revision.getDocumentId(), new Message(REVISION, nodeId, null,
+                    revision.getDocumentId(), epoch, revision.getVersion(), null, revision.getUserId(), null,
+                    qualify(revision.getOrigin()), revision.getClientOpId(), toDTOs(revision.getOperations()), null, null, null));
+            relayed.increment();
+        });
+    }
+
+    private boolean isClustered() {
+        return transport != null && ownership != null;
+    }
+
+    private boolean claim(Long documentId, long now) {
+        String owner = ownership.claim(documentId, Duration.ofMillis(ownerTtlMs));
+        if (nodeId.equals(owner)) {
+            // Checked again at half the TTL, after at least one renewal.
+            ownedUntil.put(documentId, now + ownerTtlMs / 2);
+            owners.remove(documentId);
+            return true;
+        }
+        owners.put(documentId, new KnownOwner(owner, now + ownerTtlMs / 2));
+        if (ownedUntil.remove(documentId) != null) {
+            logger.warn("Document {} was taken over by node {}", documentId, owner);
+            engine.ownershipLost(documentId);
+        }
+        return false;
+    }
+
+    private Message request(Long documentId, Message message) {
+        KnownOwner owner = owners.get(documentId);
+        if (owner == null) {
+            throw new IllegalStateException("Document " + documentId + " has no known owner");
+        }
+        String requestId = UUID.randomUUID().toString();
+        CompletableFuture<Message> reply = new CompletableFuture<>();
+        requests.put(requestId, reply);
+        try {
+            Message request = message.withRequestId(requestId);
+            publisher.execute(() -> publish(NODE_CHANNEL_PREFIX + owner.nodeId(), request));
+            return reply.get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ask again next time: the owner may have gone.
+            owners.remove(documentId, owner);
+            throw new IllegalStateException("Node owning document " + documentId + " did not answer");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the owner of document " + documentId);
+        } finally {
+            requests.remove(requestId);
+        }
+    }
+
+    private void receive(byte[] bytes) {
+        Message message;
+        try {
+            message = objectMapper.readValue(bytes, Message.class);
+        } catch (IOException e) {
+            logger.warn("Dropping malformed collaboration message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        switch (message.type()) {
+            case SUBMIT -> handlers.execute(() -> handleSubmit(message));
+            case SYNC -> handlers.execute(() -> handleSync(message));
+            case REPLY -> {
+                CompletableFuture<Message> reply = requests.get(message.requestId());
+                if (reply != null) {
+                    reply.complete(message);
+                }
+            }
+            case REVISION -> receiveRevision(message);
+            default -> logger.warn("Dropping collaboration message of unknown type {}", message.type());
+        }
+    }
+
+    private void handleSubmit(Message request) {
+        Message reply;
+        try {
+            AppliedRevision revision = engine.submit(request.documentId(), request.baseVersion(),
+                    TextOperation.fromAll(request.operations()), request.userId(), request.fencingToken(),
+                    request.origin(), request.clientOpId());
+            reply = request.reply(revision.getVersion(), toDTOs(revision.getOperations()), null, null, null);
+        } catch (VersionConflictException e) {
+            reply = request.reply(e.getCurrentVersion(), null, null, e.getMessage(), "conflict");
+        } catch (IllegalArgumentException e) {
+            reply = request.reply(null, null, null, e.getMessage(), "invalid");
+        } catch (WriteBufferFullException e) {
+            reply = request.reply(null, null, null, e.getMessage(), "busy");
+        } catch (RuntimeException e) {
+            logger.warn("Failed to apply forwarded edit to document {}: {}", request.documentId(), e.getMessage());
+            reply = request.reply(null, null, null, String.valueOf(e.getMessage()), "failed");
+        }
+        respond(request, reply);
+    }
+
+    private void handleSync(Message request) {
+        Message reply;
+        try {
+            if (!isOwner(request.documentId())) {
+                reply = request.reply(null, null, null, "Document " + request.documentId() + " moved to another node, retry", "failed");
+            } else {
+                DocumentSession.Snapshot snapshot = engine.ownedSnapshot(request.documentId());
+                reply = request.reply(snapshot.getVersion(), null, snapshot.getContent(), null, null)
+                        .withEpoch(epochs.get(request.documentId()));
+            }
+        } catch (RuntimeException e) {
+            reply = request.reply(null, null, null, String.valueOf(e.getMessage()), "failed");
+        }
+        respond(request, reply);
+    }
+
+    private void respond(Message request, Message reply) {
+        Message sent = reply.withNode(nodeId);
+        publisher.execute(() -> publish(NODE_CHANNEL_PREFIX + request.node(), sent));
+    }
+
+    private void receiveRevision(Message message) {
+        Replica replica = replicas.get(message.documentId());
+        if (replica == null) {
+            return;
+        }
+        synchronized (replica) {
+            if (replica.session == null) {
+                // Still fetching the replica; applied once it is in place.
+                replica.pending.add(message);
+                return;
+            }
+            applyToReplica(message.documentId(), replica, message);
+        }
+    }
+
+    /** Called with the replica held. */
+    private void install(Long documentId, Replica replica, Message snapshot) {
+        replica.session = new DocumentSession(documentId, snapshot.content(), snapshot.version(), historySize);
+        replica.epoch = snapshot.epoch();
+        List<Message> pending = replica.pending;
+        replica.pending = new ArrayList<>();
+        pending.sort(Comparator.comparing(Message::version));
+        for (Message revision : pending) {
+            if (replica.session == null) {
+                return;
+            }
+            applyToReplica(documentId, replica, revision);
+        }
+    }
+
+    /** Called with the replica held. */
+    private void applyToReplica(Long documentId, Replica replica, Message revision) {
+        DocumentSession session = replica.session;
+        if (replica.epoch == null || !replica.epoch.equals(revision.epoch())) {
+            resync(documentId, replica);
+            return;
+        }
+        int version = session.getVersion();
+        if (revision.version() <= version) {
+            return;
+        }
+        if (revision.version() != version + 1) {
+            resync(documentId, replica);
+            return;
+        }
+        try {
+            AppliedRevision applied = session.apply(version, TextOperation.fromAll(revision.operations()), revision.userId(),
+                    null, localOrigin(revision.origin()), revision.clientOpId(), engine.replicaListeners());
+            if (applied != null) {
+                // The owner writes it back; a replica is never dirty.
+                session.markPersisted(applied.getVersion());
+            }
+        } catch (IllegalArgumentException | VersionConflictException e) {
+            logger.warn("Replica of document {} diverged: {}", documentId, e.getMessage());
+            resync(documentId, replica);
+        }
+    }
+
+    /**
+     * Replaces a replica that missed a revision. Called with the replica
+     * held; the new copy is fetched in the background if anyone is editing.
+     */
+    private void resync(Long documentId, Replica replica) {
+        resyncs.increment();
+        DocumentSession stale = replica.session;
+        int subscribers = stale != null ? stale.getSubscriberCount() : 0;
+        if (stale != null) {
+            stale.fence();
+        }
+        replica.session = null;
+        replica.epoch = null;
+        if (subscribers == 0) {
+            unfollow(documentId, replica);
+            return;
+        }
+        handlers.execute(() -> {
+            try {
+                DocumentSession fresh = replica(documentId);
+                for (int i = 0; i < subscribers; i++) {
+                    fresh.subscribe();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to fetch document {} again: {}", documentId, e.getMessage());
+            }
+        });
+    }
+
+    private Replica follow(Long documentId) {
+        synchronized (replicas) {
+            Replica replica = replicas.get(documentId);
+            if (replica == null) {
+                replica = new Replica();
+                replicas.put(documentId, replica);
+                // Before the copy is fetched, so no revision after it is missed.
+                transport.subscribe(DOCUMENT_CHANNEL_PREFIX + documentId, this::receive);
+            }
+            return replica;
+        }
+    }
+
+    private void unfollow(Long documentId, Replica replica) {
+        synchronized (replicas) {
+            if (replicas.remove(documentId, replica)) {
+                transport.unsubscribe(DOCUMENT_CHANNEL_PREFIX + documentId);
+            }
+        }
+    }
+
+    private void publish(String channel, Message message) {
+        try {
+            transport.publish(channel, objectMapper.writeValueAsBytes(message));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to publish collaboration {} for document {}: {}", message.type(), message.documentId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Connection ids are only unique per node, so they travel prefixed with
+     * the node they belong to.
+     */
+    private String qualify(String origin) {
+        return origin == null || origin.indexOf(':') >= 0 ? origin : nodeId + ":" + origin;
+    }
+
+    private String localOrigin(String origin) {
+        return origin != null && origin.startsWith(nodeId + ":") ? origin.substring(nodeId.length() + 1) : origin;
+    }
+
+    private static List<DocumentOperationDTO> toDTOs(List<TextOperation> operations) {
+        return operations.stream().map(DocumentOperationDTO::new).toList();
+    }
+
+    private static final class Replica {
+        private DocumentSession session;
+        private String epoch;
+        private List<Message> pending = new ArrayList<>();
+    }
+
+    private record KnownOwner(String nodeId, long checkUntil) {}
+
+    /**
+     * Everything that travels between nodes: requests to the owner on its
+     * node channel, replies on the requester's, and revisions on the
+     * document's channel.
+     */
+    record Message(String type, String node, String requestId, Long documentId, String epoch, Integer version,
+                   Integer baseVersion, Long userId, Long fencingToken, String origin, String clientOpId,
+                   List<DocumentOperationDTO> operations, String content, String error, String errorKind) {
+
+        Message withRequestId(String requestId) {
+            return new Message(type, node, requestId, documentId, epoch, version, baseVersion, userId, fencingToken,
+                    origin, clientOpId, operations, content, error, errorKind);
+        }
+
+        Message withNode(String node) {
+            return new Message(type, node, requestId, documentId, epoch, version, baseVersion, userId, fencingToken,
+                    origin, clientOpId, operations, content, error, errorKind);
+        }
+
+        Message withEpoch(String epoch) {
+            return new Message(type, node, requestId, documentId, epoch, version, baseVersion, userId, fencingToken,
+                    origin, clientOpId, operations, content, error, errorKind);
+        }
+
+        Message reply(Integer version, List<DocumentOperationDTO> operations, String content, String error, String errorKind) {
+            return new Message(REPLY, null, requestId, documentId, null, version, null, null, null, null, null,
+                    operations, content, error, errorKind);
+        }
+    }
+}
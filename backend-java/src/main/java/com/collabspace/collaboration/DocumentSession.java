@@ -0,0 +1,187 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.exception.VersionConflictException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory state of one document that is being edited live. The session is
+ * the serialization point for that document: incoming batches are
+ * transformed against the revisions committed since their base version and
+ * then appended, so editors never have to take the document lock.
+ */
+public class DocumentSession {
+
+    private final Long documentId;
+    private final int maxHistory;
+    private final StringBuilder content;
+    private final ArrayDeque<AppliedRevision> history = new ArrayDeque<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private int version;
+    private int persistedVersion;
+    private Long lastModifiedBy;
+    private Long fencingToken;
+    private boolean evicted;
+    private volatile long lastActivityAt = System.currentTimeMillis();
+
+    public DocumentSession(Long documentId, String content, int version, int maxHistory) {
+        this.documentId = documentId;
+        this.content = new StringBuilder(content != null ? content : "");
+        this.version = version;
+        this.persistedVersion = version;
+        this.maxHistory = maxHistory;
+    }
+
+    public Long getDocumentId() { return documentId; }
+
+    public synchronized int getVersion() { return version; }
+
+    public long getLastActivityAt() { return lastActivityAt; }
+
+    public synchronized int getContentLength() { return content.length(); }
+
+    public int getSubscriberCount() { return subscribers.get(); }
+
+    /**
+     * Registers an editor, or returns false if the session has been evicted
+     * and the document must be loaded again.
+     */
+    public synchronized boolean subscribe() {
+        if (evicted) {
+            return false;
+        }
+        lastActivityAt = System.currentTimeMillis();
+        subscribers.incrementAndGet();
+        return true;
+    }
+
+    public int unsubscribe() {
+        lastActivityAt = System.currentTimeMillis();
+        return subscribers.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(documentId, content.toString(), version, lastModifiedBy, fencingToken);
+    }
+
+    public synchronized void join(Integer knownVersion, JoinHandler handler) {
+        if (knownVersion != null && knownVersion <= version && version - knownVersion <= history.size()) {
+            List<AppliedRevision> missed = new ArrayList<>(history).subList(history.size() - (version - knownVersion), history.size());
+            handler.onCatchUp(knownVersion, missed);
+        } else {
+            handler.onSnapshot(snapshot());
+        }
+    }
+
+    /**
+     * Transforms and appends the batch. Returns null without applying it if
+     * the session has been evicted; the caller retries on a fresh one.
+     */
+    public synchronized AppliedRevision apply(int baseVersion, List<TextOperation> operations, Long userId, Long fencingToken,
+                                              String origin, String clientOpId, List<RevisionListener> listeners) {
+        if (evicted) {
+            return null;
+        }
+        if (baseVersion > version || baseVersion < version - history.size()) {
+            throw new VersionConflictException(documentId, baseVersion, version);
+        }
+
+        List<TextOperation> transformed = operations;
+        Iterator<AppliedRevision> concurrent = history.descendingIterator();
+        List<AppliedRevision> missed = new ArrayList<>(version - baseVersion);
+        while (concurrent.hasNext() && missed.size() < version - baseVersion) {
+            missed.add(concurrent.next());
+        }
+        for (int i = missed.size() - 1; i >= 0; i--) {
+            transformed = OperationTransformer.transform(transformed, missed.get(i).getOperations()).get(0);
+        }
+
+        // Validate up front so a bad batch leaves no partial edit behind.
+        TextOperation.checkApplicable(transformed, content.length());
+        for (TextOperation operation : transformed) {
+            operation.applyTo(content);
+        }
+        version++;
+        lastModifiedBy = userId;
+        if (fencingToken != null && (this.fencingToken == null || fencingToken > this.fencingToken)) {
+            this.fencingToken = fencingToken;
+        }
+
+        AppliedRevision revision = new AppliedRevision(documentId, version, userId, origin, clientOpId, transformed);
+        history.addLast(revision);
+        if (history.size() > maxHistory) {
+            history.removeFirst();
+        }
+        lastActivityAt = System.currentTimeMillis();
+
+        for (RevisionListener listener : listeners) {
+            listener.onRevisionApplied(revision);
+        }
+        return revision;
+    }
+
+    /**
+     * Retires the session if nobody is editing it, nothing is left to write
+     * back and it has been idle for {@code idleMs}. Checked under the
+     * session's monitor, so an edit or join cannot slip in between the
+     * check and the eviction.
+     */
+    public synchronized boolean evictIfIdle(long now, long idleMs) {
+        if (!evicted && subscribers.get() == 0 && !isDirty() && now - lastActivityAt > idleMs) {
+            evicted = true;
+        }
+        return evicted;
+    }
+
+    /**
+     * Retires the session after the database refused its content because a
+     * newer lease has written since. Editors resynchronise from a fresh load.
+     */
+    public synchronized void fence() {
+        evicted = true;
+    }
+
+    public synchronized boolean isDirty() {
+        return version > persistedVersion;
+    }
+
+    public synchronized void markPersisted(int persisted) {
+        this.persistedVersion = Math.max(this.persistedVersion, persisted);
+    }
+
+    public static final class Snapshot {
+
+        private final Long documentId;
+        private final String content;
+        private final int version;
+        private final Long lastModifiedBy;
+        private final Long fencingToken;
+
+        Snapshot(Long documentId, String content, int version, Long lastModifiedBy, Long fencingToken) {
+            this.documentId = documentId;
+            this.content = content;
+            this.version = version;
+            this.lastModifiedBy = lastModifiedBy;
+            this.fencingToken = fencingToken;
+        }
+
+        public Long getDocumentId() { return documentId; }
+
+        public String getContent() { return content; }
+
+        public int getVersion() { return version; }
+
+        public Long getLastModifiedBy() { return lastModifiedBy; }
+
+        /**
+         * Highest lease token any edit in the content was made under, or
+         * null if none was made under a lease.
+         */
+        public Long getFencingToken() { return fencingToken; }
+    }
+}
@@ -0,0 +1,302 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.exception.WriteBufferFullException;
+import com.collabspace.lock.DocumentLease;
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.repository.DocumentContentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for document content. Edits only mark their document dirty;
+ * the latest state of every dirty document is written once per flush window
+ * as a single JDBC batch, however many edits landed in between.
+ *
+ * <p>Memory is bounded by the number of dirty documents and their content
+ * size. When either limit is reached, new edits wait for the next flush and
+ * fail with {@link WriteBufferFullException} if the database cannot catch up.</p>
+ *
+ * <p>Content edited under a lease is fenced at write time: it is dropped if
+ * a newer lease has been granted since, and the update only lands if no
+ * newer lease has written the row. A fenced session is retired, so its
+ * editors resynchronise from the database.</p>
+ *
+ * <p>Any update that matches no row is a conflict unless the row already
+ * holds exactly this version and content, as after a retried batch whose
+ * commit did land. Otherwise another writer got there first and the
+ * session is fenced the same way.</p>
+ */
+@Component
+public class DocumentWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentWriteBehindBuffer.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE documents SET content_hash = ?, content_vector = " + DocumentContentRepository.CONTENT_VECTOR_SQL + ", " +
+            "content_excerpt = ?, version = ?, last_modified_by = COALESCE(?, last_modified_by), lock_fencing_token = GREATEST(lock_fencing_token, ?) " +
+            "WHERE id = ? AND version < ? AND COALESCE(lock_fencing_token, 0) <= COALESCE(?, lock_fencing_token, 0)";
+
+    private static final String STORED_SQL = "SELECT version, content_hash FROM documents WHERE id = ?";
+
+    private final Map<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    // A lock rather than a monitor, so that a virtual thread blocked on JDBC
+    // inside flush() does not pin its carrier.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition capacityAvailable = capacityLock.newCondition();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private DocumentLockManager lockManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${documents.write-behind.max-pending-documents:10000}")
+    private int maxPendingDocuments;
+
+    @Value("${documents.write-behind.max-pending-bytes:67108864}")
+    private long maxPendingBytes;
+
+    @Value("${documents.write-behind.backpressure-timeout-ms:2000}")
+    private long backpressureTimeoutMs;
+
+    private Counter flushedCounter;
+    private Counter failedCounter;
+    private Counter fencedCounter;
+    private Counter conflictCounter;
+
+    @PostConstruct
+    public void init() {
+        flushedCounter = meterRegistry.counter("documents.write_behind.flushed");
+        failedCounter = meterRegistry.counter("documents.write_behind.failed");
+        fencedCounter = meterRegistry.counter("documents.write_behind.fenced");
+        conflictCounter = meterRegistry.counter("documents.write_behind.conflicts");
+        meterRegistry.gaugeMapSize("documents.write_behind.pending", List.of(), pending);
+        meterRegistry.gauge("documents.write_behind.pending_bytes", pendingBytes);
+    }
+
+    /**
+     * Blocks until the buffer can take another dirty document, or fails once
+     * the backpressure timeout has passed.
+     */
+    public void awaitCapacity() {
+        if (hasCapacity()) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(backpressureTimeoutMs);
+        capacityLock.lock();
+        try {
+            while (!hasCapacity()) {
+                if (remaining <= 0) {
+                    throw new WriteBufferFullException("Document write buffer is full, retry later");
+                }
+                remaining = capacityAvailable.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBufferFullException("Interrupted while waiting for the document write buffer");
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    public void markDirty(DocumentSession session) {
+        pending.computeIfAbsent(session.getDocumentId(), id -> {
+            long bytes = session.getContentLength() * 2L;
+            pendingBytes.addAndGet(bytes);
+            return new PendingWrite(session, bytes);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${documents.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<PendingWrite> batch = new ArrayList<>(batchSize);
+            Iterator<Long> documentIds = pending.keySet().iterator();
+            while (documentIds.hasNext()) {
+                PendingWrite write = pending.remove(documentIds.next());
+                if (write == null) {
+                    continue;
+                }
+                pendingBytes.addAndGet(-write.bytes);
+                batch.add(write);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        signalCapacity();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("{} documents could not be written back on shutdown", pending.size());
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        // A snapshot taken here already includes every edit coalesced since the session was marked dirty.
+        List<DocumentSession.Snapshot> snapshots = new ArrayList<>(batch.size());
+        List<PendingWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            DocumentSession.Snapshot snapshot = write.session.snapshot();
+            if (isSuperseded(snapshot)) {
+                fence(write.session);
+            } else {
+                snapshots.add(snapshot);
+                writes.add(write);
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            // Bodies go to the content store first; one left unreferenced by a failed update is collected later.
+            List<byte[]> hashes = contentStore.store(snapshots.stream().map(DocumentSession.Snapshot::getContent).toList());
+            List<Integer> indexes = new ArrayList<>(snapshots.size());
+            for (int i = 0; i < snapshots.size(); i++) {
+                indexes.add(i);
+            }
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, indexes, indexes.size(), (ps, i) -> {
+                DocumentSession.Snapshot snapshot = snapshots.get(i);
+                ps.setBytes(1, hashes.get(i));
+                ps.setString(2, DocumentContentRepository.searchText(snapshot.getContent()));
+                ps.setString(3, DocumentContentRepository.excerpt(snapshot.getContent()));
+                ps.setInt(4, snapshot.getVersion());
+                ps.setObject(5, snapshot.getLastModifiedBy());
+                ps.setObject(6, snapshot.getFencingToken(), Types.BIGINT);
+                ps.setLong(7, snapshot.getDocumentId());
+                ps.setInt(8, snapshot.getVersion());
+                ps.setObject(9, snapshot.getFencingToken(), Types.BIGINT);
+            });
+            int written = 0;
+            for (int i = 0; i < writes.size(); i++) {
+                DocumentSession.Snapshot snapshot = snapshots.get(i);
+                if (counts[0][i] != 0 || isAlreadyStored(snapshot, hashes.get(i))) {
+                    writes.get(i).session.markPersisted(snapshot.getVersion());
+                    written++;
+                } else if (snapshot.getFencingToken() != null) {
+                    fence(writes.get(i).session);
+                } else {
+                    conflict(writes.get(i).session, snapshot);
+                }
+            }
+            flushedCounter.increment(written);
+        } catch (Exception e) {
+            failedCounter.increment(writes.size());
+            logger.warn("Failed to write back {} documents, retrying next window", writes.size(), e);
+            writes.forEach(write -> markDirty(write.session));
+        }
+    }
+
+    /**
+     * True when the content was edited under a lease that a newer one has
+     * replaced since; the old holder's edits must not reach the database.
+     */
+    private boolean isSuperseded(DocumentSession.Snapshot snapshot) {
+        if (snapshot.getFencingToken() == null) {
+            return false;
+        }
+        try {
+            Optional<DocumentLease> lease = lockManager.currentLease(snapshot.getDocumentId());
+            return lease.isPresent() && lease.get().getFencingToken() > snapshot.getFencingToken();
+        } catch (RuntimeException e) {
+            // The update itself is still fenced on the token.
+            logger.debug("Could not read the lease of document {}: {}", snapshot.getDocumentId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * True when the row already holds this version with this content, so a
+     * missed update was a repeat of one that landed.
+     */
+    private boolean isAlreadyStored(DocumentSession.Snapshot snapshot, byte[] hash) {
+        List<Boolean> stored = jdbcTemplate.query(STORED_SQL,
+                (rs, rowNum) -> rs.getInt("version") == snapshot.getVersion() && Arrays.equals(rs.getBytes("content_hash"), hash),
+                snapshot.getDocumentId());
+        return !stored.isEmpty() && stored.get(0);
+    }
+
+    private void conflict(DocumentSession session, DocumentSession.Snapshot snapshot) {
+        session.fence();
+        conflictCounter.increment();
+        logger.warn("Dropped buffered content of document {} at version {}: the stored row was written by another session",
+                session.getDocumentId(), snapshot.getVersion());
+    }
+
+    private void fence(DocumentSession session) {
+        session.fence();
+        fencedCounter.increment();
+        logger.warn("Dropped buffered content of document {} written under a superseded lease", session.getDocumentId());
+    }
+
+    private boolean hasCapacity() {
+        return pending.size() < maxPendingDocuments && pendingBytes.get() < maxPendingBytes;
+    }
+
+    private void signalCapacity() {
+        capacityLock.lock();
+        try {
+            capacityAvailable.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private static final class PendingWrite {
+
+        private final DocumentSession session;
+        private final long bytes;
+
+        PendingWrite(DocumentSession session, long bytes) {
+            this.session = session;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.collabspace.collaboration;
+
+import java.util.List;
+
+/**
+ * Receives the initial state for an editor joining a live document: either
+ * the revisions it missed since a version it already has, or a full snapshot
+ * when those are no longer in memory.
+ */
+public interface JoinHandler {
+
+    void onSnapshot(DocumentSession.Snapshot snapshot);
+
+    void onCatchUp(int knownVersion, List<AppliedRevision> missed);
+}
@@ -0,0 +1,344 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.dto.DocumentOperationDTO;
+import com.collabspace.exception.WriteBufferFullException;
+import com.collabspace.repository.DocumentOperationLogRepository;
+import com.collabspace.repository.DocumentOperationLogRepository.LoggedOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Appends committed revisions to the operation log in batches and takes a
+ * content snapshot once a document has accumulated enough operations or
+ * bytes since its last one.
+ *
+ * <p>Revisions are only ever queued on the committing thread, which holds
+ * the document. Editors wait in {@link #awaitCapacity} before they take it
+ * when the log falls behind, and a batch the database rejects goes back to
+ * the head of the queue, so the log never loses a revision.</p>
+ */
+@Component
+public class OperationLogWriter implements RevisionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogWriter.class);
+
+    private static final int OPERATION_OVERHEAD_BYTES = 16;
+
+    @Autowired
+    private DocumentOperationLogRepository logRepository;
+
+    @Autowired
+    private CollaborationEngine collaborationEngine;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${collaboration.log.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${collaboration.log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${collaboration.log.snapshot-every-operations:100}")
+    private int snapshotEveryOperations;
+
+    @Value("${collaboration.log.snapshot-every-bytes:65536}")
+    private long snapshotEveryBytes;
+
+    @Value("${collaboration.log.backpressure-timeout-ms:2000}")
+    private long backpressureTimeoutMs;
+
+    // Unbounded, so that queueing never blocks a thread holding a document;
+    // awaitCapacity keeps it near queueCapacity.
+    private final BlockingDeque<AppliedRevision> queue = new LinkedBlockingDeque<>();
+
+    // Serializes writers. A lock rather than a monitor, so that a virtual
+    // thread blocked on JDBC inside it does not pin its carrier. Never held
+    // while reading a live document.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition capacityAvailable = capacityLock.newCondition();
+
+    // Revisions queued or in a batch being written, by document and version,
+    // so readers see them without waiting for the log. Entries are only
+    // removed once their batch has committed.
+    private final Map<Long, ConcurrentSkipListMap<Integer, AppliedRevision>> unlogged = new ConcurrentHashMap<>();
+
+    // Only touched with writeLock held.
+    private final Map<Long, SnapshotCounter> counters = new HashMap<>();
+
+    private Counter discardedCounter;
+    private Counter conflictCounter;
+
+    @PostConstruct
+    public void init() {
+        discardedCounter = meterRegistry.counter("collaboration.log.discarded");
+        conflictCounter = meterRegistry.counter("collaboration.log.conflicts");
+        collaborationEngine.addListener(this);
+    }
+
+    /**
+     * Blocks until the queue has room for another batch, or fails once the
+     * backpressure timeout has passed. Concurrent editors may overshoot the
+     * capacity by one batch each.
+     */
+    @Override
+    public void awaitCapacity() {
+        if (queue.size() < queueCapacity) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(backpressureTimeoutMs);
+        capacityLock.lock();
+        try {
+            while (queue.size() >= queueCapacity) {
+                if (remaining <= 0) {
+                    throw new WriteBufferFullException("Operation log is behind, retry later");
+                }
+                remaining = capacityAvailable.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBufferFullException("Interrupted while waiting for the operation log");
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    @Override
+    public void onRevisionApplied(AppliedRevision revision) {
+        unlogged.compute(revision.getDocumentId(), (documentId, revisions) -> {
+            ConcurrentSkipListMap<Integer, AppliedRevision> updated = revisions != null ? revisions : new ConcurrentSkipListMap<>();
+            updated.put(revision.getVersion(), revision);
+            return updated;
+        });
+        queue.addLast(revision);
+    }
+
+    /**
+     * Revisions of the document that are not yet in the log, by version.
+     * Read before the log itself, a revision is found in one or the other.
+     */
+    public NavigableMap<Integer, AppliedRevision> pendingRevisions(Long documentId) {
+        ConcurrentSkipListMap<Integer, AppliedRevision> revisions = unlogged.get(documentId);
+        return revisions != null ? new TreeMap<>(revisions) : new TreeMap<>();
+    }
+
+    /**
+     * Drops what an earlier session of the document queued or logged above
+     * the stored version. Runs with writeLock held, after any batch in
+     * flight, so none of it can be written afterwards.
+     */
+    @Override
+    public void onSessionLoaded(Long documentId, int version) {
+        writeLock.lock();
+        try {
+            int queued = queue.size();
+            queue.removeIf(revision -> revision.getDocumentId().equals(documentId) && revision.getVersion() > version);
+            unlogged.computeIfPresent(documentId, (id, revisions) -> {
+                revisions.tailMap(version, false).clear();
+                return revisions.isEmpty() ? null : revisions;
+            });
+            int discarded = queued - queue.size() + logRepository.deleteAfter(documentId, version);
+            counters.remove(documentId);
+            if (discarded > 0) {
+                discardedCounter.increment(discarded);
+                logger.warn("Discarded {} revisions of document {} above its stored version {}", discarded, documentId, version);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${collaboration.log.flush-interval-ms:200}")
+    public void flush() {
+        List<DueSnapshot> dueSnapshots = new ArrayList<>();
+        writeLock.lock();
+        try {
+            List<AppliedRevision> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!writeBatch(batch, dueSnapshots)) {
+                    break;
+                }
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        signalCapacity();
+        for (DueSnapshot due : dueSnapshots) {
+            takeSnapshot(due);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!queue.isEmpty()) {
+            logger.error("{} revisions could not be appended to the operation log on shutdown", queue.size());
+        }
+    }
+
+    /**
+     * Appends the batch with writeLock held and collects the snapshots it
+     * makes due. A failed batch is put back at the head of the queue, ahead
+     * of anything committed since, and returns false.
+     */
+    private boolean writeBatch(List<AppliedRevision> batch, List<DueSnapshot> dueSnapshots) {
+        List<LoggedOperation> rows = new ArrayList<>(batch.size());
+        for (AppliedRevision revision : batch) {
+            rows.add(new LoggedOperation(revision.getDocumentId(), revision.getVersion(), revision.getUserId(),
+                    toJson(revision.getOperations()), revision.getAppliedAt()));
+        }
+        List<LoggedOperation> conflicts;
+        try {
+            conflicts = logRepository.insertOperations(rows);
+        } catch (Exception e) {
+            logger.error("Failed to append {} revisions to the operation log, retrying next flush", rows.size(), e);
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                queue.addFirst(batch.get(i));
+            }
+            return false;
+        }
+        for (LoggedOperation conflict : conflicts) {
+            conflictCounter.increment();
+            logger.error("Operation log already holds other operations for version {} of document {}, history is inconsistent",
+                    conflict.version(), conflict.documentId());
+        }
+        for (AppliedRevision revision : batch) {
+            unlogged.computeIfPresent(revision.getDocumentId(), (documentId, revisions) -> {
+                revisions.remove(revision.getVersion(), revision);
+                return revisions.isEmpty() ? null : revisions;
+            });
+            SnapshotCounter counter = counters.computeIfAbsent(revision.getDocumentId(), this::initCounter);
+            counter.record(revision);
+            if (counter.isDue(snapshotEveryOperations, snapshotEveryBytes)) {
+                dueSnapshots.add(new DueSnapshot(revision.getDocumentId(), revision.getUserId(), counter.operations));
+                counter.reset();
+            }
+        }
+        return true;
+    }
+
+    private SnapshotCounter initCounter(Long documentId) {
+        SnapshotCounter counter = new SnapshotCounter();
+        // Without a snapshot the log has nothing to replay from, so start one right away.
+        if (logRepository.findLatestSnapshotVersion(documentId).isEmpty()) {
+            counter.forceDue();
+        }
+        return counter;
+    }
+
+    /**
+     * Runs without writeLock: reading the live document takes its monitor,
+     * which an editor may hold while it waits on this writer.
+     */
+    private void takeSnapshot(DueSnapshot due) {
+        try {
+            // A body read back from the database is already stored; only a live one needs writing.
+            DocumentOperationLogRepository.Snapshot snapshot = collaborationEngine.currentSnapshot(due.documentId())
+                    .map(live -> new DocumentOperationLogRepository.Snapshot(live.getVersion(), contentStore.store(live.getContent())))
+                    .or(() -> logRepository.findCurrentContent(due.documentId()))
+                    .orElse(null);
+            if (snapshot == null) {
+                withCounter(due.documentId(), counter -> counters.remove(due.documentId()));
+                return;
+            }
+            logRepository.insertSnapshot(due.documentId(), snapshot.version(), snapshot.contentHash(), due.userId(),
+                    "Snapshot after " + due.operations() + " operations");
+        } catch (Exception e) {
+            logger.warn("Failed to snapshot document {}, retrying after its next revision", due.documentId(), e);
+            withCounter(due.documentId(), SnapshotCounter::forceDue);
+        }
+    }
+
+    private void withCounter(Long documentId, Consumer<SnapshotCounter> action) {
+        writeLock.lock();
+        try {
+            SnapshotCounter counter = counters.get(documentId);
+            if (counter != null) {
+                action.accept(counter);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void signalCapacity() {
+        capacityLock.lock();
+        try {
+            capacityAvailable.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private String toJson(List<TextOperation> operations) {
+        try {
+            return objectMapper.writeValueAsString(operations.stream().map(DocumentOperationDTO::new).toList());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize operations", e);
+        }
+    }
+
+    private record DueSnapshot(Long documentId, Long userId, int operations) {}
+
+    private static final class SnapshotCounter {
+
+        private int operations;
+        private long bytes;
+        private boolean forced;
+
+        void record(AppliedRevision revision) {
+            for (TextOperation operation : revision.getOperations()) {
+                operations++;
+                bytes += OPERATION_OVERHEAD_BYTES + (operation.isInsert() ? operation.getLength() : 0);
+            }
+        }
+
+        boolean isDue(int maxOperations, long maxBytes) {
+            return forced || operations >= maxOperations || bytes >= maxBytes;
+        }
+
+        void forceDue() {
+            forced = true;
+        }
+
+        void reset() {
+            operations = 0;
+            bytes = 0;
+            forced = false;
+        }
+    }
+}
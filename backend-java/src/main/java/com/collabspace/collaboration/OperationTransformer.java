@@ -0,0 +1,106 @@
+package com.collabspace.collaboration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operational transformation for sequential insert/delete batches.
+ *
+ * <p>{@code transform(a, b)} takes two batches that were produced against the
+ * same document state and returns {@code [a', b']} such that applying
+ * {@code b} then {@code a'} yields the same content as applying {@code a}
+ * then {@code b'}. When both sides insert at the same position, the side
+ * that was already applied ({@code b}) wins and its text comes first.</p>
+ */
+public final class OperationTransformer {
+
+    private OperationTransformer() {}
+
+    public static List<List<TextOperation>> transform(List<TextOperation> a, List<TextOperation> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return List.of(a, b);
+        }
+        if (a.size() > 1) {
+            List<List<TextOperation>> head = transform(a.subList(0, 1), b);
+            List<List<TextOperation>> tail = transform(a.subList(1, a.size()), head.get(1));
+            return List.of(concat(head.get(0), tail.get(0)), tail.get(1));
+        }
+        if (b.size() > 1) {
+            List<List<TextOperation>> head = transform(a, b.subList(0, 1));
+            List<List<TextOperation>> tail = transform(head.get(0), b.subList(1, b.size()));
+            return List.of(tail.get(0), concat(head.get(1), tail.get(1)));
+        }
+        TextOperation left = a.get(0);
+        TextOperation right = b.get(0);
+        return List.of(transformSingle(left, right, false), transformSingle(right, left, true));
+    }
+
+    /**
+     * Rewrites {@code op} so it applies after {@code applied}. {@code wins}
+     * decides the order of two inserts at the same position.
+     */
+    static List<TextOperation> transformSingle(TextOperation op, TextOperation applied, boolean wins) {
+        if (op.isNoop()) {
+            return List.of();
+        }
+        if (applied.isNoop()) {
+            return List.of(op);
+        }
+        int p = op.getPosition();
+        int q = applied.getPosition();
+
+        if (op.isInsert() && applied.isInsert()) {
+            if (q < p || (q == p && !wins)) {
+                return List.of(op.withPosition(p + applied.getLength()));
+            }
+            return List.of(op);
+        }
+
+        if (op.isInsert()) {
+            int deleteEnd = q + applied.getLength();
+            if (p <= q) {
+                return List.of(op);
+            }
+            if (p >= deleteEnd) {
+                return List.of(op.withPosition(p - applied.getLength()));
+            }
+            return List.of(op.withPosition(q));
+        }
+
+        if (applied.isInsert()) {
+            int deleteEnd = p + op.getLength();
+            if (q <= p) {
+                return List.of(op.withPosition(p + applied.getLength()));
+            }
+            if (q >= deleteEnd) {
+                return List.of(op);
+            }
+            // The concurrent insert landed inside our range: delete around it.
+            return List.of(
+                    TextOperation.delete(p, q - p),
+                    TextOperation.delete(p + applied.getLength(), deleteEnd - q));
+        }
+
+        int opEnd = p + op.getLength();
+        int appliedEnd = q + applied.getLength();
+        if (opEnd <= q) {
+            return List.of(op);
+        }
+        if (p >= appliedEnd) {
+            return List.of(op.withPosition(p - applied.getLength()));
+        }
+        int overlap = Math.min(opEnd, appliedEnd) - Math.max(p, q);
+        int remaining = op.getLength() - overlap;
+        if (remaining == 0) {
+            return List.of();
+        }
+        return List.of(TextOperation.delete(Math.min(p, q), remaining));
+    }
+
+    private static List<TextOperation> concat(List<TextOperation> first, List<TextOperation> second) {
+        List<TextOperation> result = new ArrayList<>(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return result;
+    }
+}
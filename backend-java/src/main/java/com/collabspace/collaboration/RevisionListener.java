@@ -0,0 +1,37 @@
+package com.collabspace.collaboration;
+
+/**
+ * Callback for committed revisions. Invoked while the document is still
+ * held by the committing thread, so listeners observe revisions of one
+ * document strictly in version order and must not block.
+ */
+public interface RevisionListener {
+
+    void onRevisionApplied(AppliedRevision revision);
+
+    /**
+     * Called before a batch is applied, with no document held. A listener
+     * that buffers revisions blocks here until it has room, or throws, as
+     * it must not block in {@link #onRevisionApplied}.
+     */
+    default void awaitCapacity() {
+    }
+
+    /**
+     * Called when a document is loaded from the database at {@code version},
+     * before any revision is applied to it. Revisions above that version seen
+     * earlier came from a session whose content never reached the database
+     * and will be reused by the new one.
+     */
+    default void onSessionLoaded(Long documentId, int version) {
+    }
+
+    /**
+     * Whether to be told of revisions another node committed as this node's
+     * replica of the document applies them. The owner has already logged and
+     * written those back, so only listeners serving local sockets want them.
+     */
+    default boolean followsReplicas() {
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.dto.DocumentOperationDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable insert or delete against a plain-text document. Positions are
+ * character offsets into the content the operation is applied to.
+ */
+public final class TextOperation {
+
+    public enum Type {
+        INSERT, DELETE
+    }
+
+    private final Type type;
+    private final int position;
+    private final String text;
+    private final int length;
+
+    private TextOperation(Type type, int position, String text, int length) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Operation position must not be negative: " + position);
+        }
+        this.type = type;
+        this.position = position;
+        this.text = text;
+        this.length = length;
+    }
+
+    public static TextOperation insert(int position, String text) {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("Insert operation requires text");
+        }
+        return new TextOperation(Type.INSERT, position, text, text.length());
+    }
+
+    public static TextOperation delete(int position, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Delete length must not be negative: " + length);
+        }
+        return new TextOperation(Type.DELETE, position, null, length);
+    }
+
+    public static TextOperation from(DocumentOperationDTO dto) {
+        if (dto.getType() == null || dto.getPosition() == null) {
+            throw new IllegalArgumentException("Operation type and position are required");
+        }
+        return switch (dto.getType()) {
+            case INSERT -> insert(dto.getPosition(), dto.getText());
+            case DELETE -> delete(dto.getPosition(), dto.getLength() != null ? dto.getLength() : 0);
+        };
+    }
+
+    public static List<TextOperation> fromAll(List<DocumentOperationDTO> dtos) {
+        List<TextOperation> operations = new ArrayList<>(dtos.size());
+        for (DocumentOperationDTO dto : dtos) {
+            operations.add(from(dto));
+        }
+        return operations;
+    }
+
+    public Type getType() { return type; }
+
+    public int getPosition() { return position; }
+
+    public String getText() { return text; }
+
+    public int getLength() { return length; }
+
+    public boolean isInsert() { return type == Type.INSERT; }
+
+    public boolean isNoop() { return type == Type.DELETE && length == 0; }
+
+    public TextOperation withPosition(int newPosition) {
+        return new TextOperation(type, newPosition, text, length);
+    }
+
+    public void applyTo(StringBuilder content) {
+        if (position > content.length()) {
+            throw new IllegalArgumentException("Operation position " + position + " is beyond document length " + content.length());
+        }
+        if (type == Type.INSERT) {
+            content.insert(position, text);
+        } else {
+            if (position + length > content.length()) {
+                throw new IllegalArgumentException("Delete range " + position + "+" + length + " is beyond document length " + content.length());
+            }
+            content.delete(position, position + length);
+        }
+    }
+
+    /**
+     * Checks that the batch fits a document of the given length without
+     * touching the content, so callers can apply in place afterwards.
+     */
+    public static void checkApplicable(List<TextOperation> operations, int contentLength) {
+        int length = contentLength;
+        for (TextOperation operation : operations) {
+            int end = operation.isInsert() ? operation.position : operation.position + operation.length;
+            if (end > length) {
+                throw new IllegalArgumentException("Operation " + operation + " is beyond document length " + length);
+            }
+            length += operation.isInsert() ? operation.length : -operation.length;
+        }
+    }
+
+    public static String applyAll(String content, List<TextOperation> operations) {
+        StringBuilder builder = new StringBuilder(content != null ? content : "");
+        for (TextOperation operation : operations) {
+            operation.applyTo(builder);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.INSERT
+                ? "Insert{" + position + ", '" + text + "'}"
+                : "Delete{" + position + ", " + length + "}";
+    }
+}
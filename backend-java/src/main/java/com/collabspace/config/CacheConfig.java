@@ -0,0 +1,98 @@
+package com.collabspace.config;
+
+import com.collabspace.cache.CacheInvalidationBus;
+import com.collabspace.cache.CacheNames;
+import com.collabspace.cache.TwoLevelCache;
+import com.collabspace.cache.TwoLevelCacheManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Two-tier caching for the {@code @Cacheable} lookups: Caffeine per node,
+ * Redis shared. Setting {@code cache.remote.enabled=false} runs local-only,
+ * which is only correct for a single node.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Value("${cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${cache.local.ttl-ms:60000}")
+    private long localTtlMs;
+
+    @Value("${cache.remote.enabled:true}")
+    private boolean remoteEnabled;
+
+    @Value("${cache.remote.ttl-ms:600000}")
+    private long remoteTtlMs;
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.remote.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationBus(redisTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.remote.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus invalidationBus,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> invalidationBus.receive(new String(message.getBody(), StandardCharsets.UTF_8), cacheManager),
+                new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             ObjectProvider<CacheInvalidationBus> invalidationBus,
+                                             MeterRegistry meterRegistry) {
+        RedisCacheManager remote = null;
+        if (remoteEnabled) {
+            remote = RedisCacheManager.builder(connectionFactory)
+                    .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                            .entryTtl(Duration.ofMillis(remoteTtlMs))
+                            .prefixCacheNameWith("cache:")
+                            .disableCachingNullValues())
+                    .initialCacheNames(Set.copyOf(CacheNames.ALL))
+                    .build();
+            remote.afterPropertiesSet();
+        }
+
+        Map<String, TwoLevelCache> caches = new HashMap<>();
+        for (String name : CacheNames.ALL) {
+            Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(Duration.ofMillis(localTtlMs))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of("tier", "local"));
+            caches.put(name, new TwoLevelCache(name, local, remote != null ? remote.getCache(name) : null,
+                    invalidationBus.getIfAvailable(), meterRegistry));
+        }
+        return new TwoLevelCacheManager(caches);
+    }
+}
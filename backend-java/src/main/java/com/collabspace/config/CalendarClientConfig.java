@@ -0,0 +1,19 @@
+package com.collabspace.config;
+
+import com.collabspace.integration.CalendarClient;
+import com.collabspace.integration.GoogleCalendarClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Calendar API used by calendar sync. Tests replace it with an in-memory
+ * calendar.
+ */
+@Configuration
+public class CalendarClientConfig {
+
+    @Bean
+    public CalendarClient googleCalendarClient() {
+        return new GoogleCalendarClient();
+    }
+}
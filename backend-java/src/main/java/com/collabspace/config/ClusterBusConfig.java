@@ -0,0 +1,61 @@
+package com.collabspace.config;
+
+import com.collabspace.lock.DocumentOwnership;
+import com.collabspace.lock.InMemoryDocumentOwnership;
+import com.collabspace.lock.RedisDocumentOwnership;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.InMemoryClusterTransport;
+import com.collabspace.websocket.RedisClusterTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Transport for the WebSocket cluster bus, and the registry of which node
+ * owns each live document. {@code memory} keeps everything in-process, for
+ * a single node or for wiring several nodes together without a Redis server.
+ */
+@Configuration
+public class ClusterBusConfig {
+
+    private static final String REDIS_TRANSPORT =
+            "${collaboration.cluster.enabled:true} and '${collaboration.cluster.transport:redis}' == 'redis'";
+    private static final String MEMORY_TRANSPORT =
+            "${collaboration.cluster.enabled:true} and '${collaboration.cluster.transport:redis}' == 'memory'";
+
+    @Bean
+    @ConditionalOnExpression(REDIS_TRANSPORT)
+    public RedisMessageListenerContainer clusterBusListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnExpression(REDIS_TRANSPORT)
+    public ClusterTransport redisClusterTransport(StringRedisTemplate redisTemplate,
+                                                  RedisMessageListenerContainer clusterBusListenerContainer) {
+        return new RedisClusterTransport(redisTemplate, clusterBusListenerContainer);
+    }
+
+    @Bean
+    @ConditionalOnExpression(REDIS_TRANSPORT)
+    public DocumentOwnership redisDocumentOwnership(StringRedisTemplate redisTemplate) {
+        return new RedisDocumentOwnership(redisTemplate);
+    }
+
+    @Bean
+    @ConditionalOnExpression(MEMORY_TRANSPORT)
+    public ClusterTransport inMemoryClusterTransport() {
+        return new InMemoryClusterTransport();
+    }
+
+    @Bean
+    @ConditionalOnExpression(MEMORY_TRANSPORT)
+    public DocumentOwnership inMemoryDocumentOwnership() {
+        return new InMemoryDocumentOwnership();
+    }
+}
@@ -0,0 +1,25 @@
+package com.collabspace.config;
+
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.lock.InMemoryDocumentLockManager;
+import com.collabspace.lock.RedisDocumentLockManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class DocumentLockConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "documents.lock.store", havingValue = "redis", matchIfMissing = true)
+    public DocumentLockManager redisDocumentLockManager(StringRedisTemplate redisTemplate) {
+        return new RedisDocumentLockManager(redisTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "documents.lock.store", havingValue = "memory")
+    public DocumentLockManager inMemoryDocumentLockManager() {
+        return new InMemoryDocumentLockManager();
+    }
+}
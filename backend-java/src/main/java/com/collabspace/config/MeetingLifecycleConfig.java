@@ -0,0 +1,30 @@
+package com.collabspace.config;
+
+import com.collabspace.lock.LeaderLease;
+import com.collabspace.lock.LocalLeaderLease;
+import com.collabspace.lock.RedisLeaderLease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Leader election for the meeting lifecycle scheduler. {@code local} makes
+ * every node the leader, which is only right for a single node.
+ */
+@Configuration
+public class MeetingLifecycleConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "meetings.lifecycle.leader-election", havingValue = "redis", matchIfMissing = true)
+    public LeaderLease meetingLifecycleLease(StringRedisTemplate redisTemplate) {
+        return new RedisLeaderLease(redisTemplate, "meetings:lifecycle");
+    }
+
+    // Same bean name either way: there is more than one LeaderLease, injected by name.
+    @Bean("meetingLifecycleLease")
+    @ConditionalOnProperty(name = "meetings.lifecycle.leader-election", havingValue = "local")
+    public LeaderLease localMeetingLifecycleLease() {
+        return new LocalLeaderLease();
+    }
+}
@@ -0,0 +1,29 @@
+package com.collabspace.config;
+
+import com.collabspace.lock.LeaderLease;
+import com.collabspace.lock.LocalLeaderLease;
+import com.collabspace.lock.RedisLeaderLease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Leader election for the task reminder scheduler. {@code local} makes
+ * every node the leader, which is only right for a single node.
+ */
+@Configuration
+public class TaskReminderConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tasks.reminders.leader-election", havingValue = "redis", matchIfMissing = true)
+    public LeaderLease taskReminderLease(StringRedisTemplate redisTemplate) {
+        return new RedisLeaderLease(redisTemplate, "tasks:reminders");
+    }
+
+    @Bean("taskReminderLease")
+    @ConditionalOnProperty(name = "tasks.reminders.leader-election", havingValue = "local")
+    public LeaderLease localTaskReminderLease() {
+        return new LocalLeaderLease();
+    }
+}
@@ -0,0 +1,62 @@
+package com.collabspace.config;
+
+import com.collabspace.integration.IntegrationExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Platform or virtual threads for blocking work.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} on Java 21 or later,
+ * Spring Boot itself moves Tomcat request handling, {@code @Async} tasks and
+ * {@code @Scheduled} jobs onto virtual threads; this class does the same for
+ * outbound integrations. On Java 17 the property is ignored and everything
+ * keeps running on platform threads, so the same build works on both.</p>
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${integrations.executor.max-concurrency:64}")
+    private int integrationConcurrency;
+
+    @Value("${integrations.executor.queue-capacity:1000}")
+    private int integrationQueueCapacity;
+
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Bean
+    public IntegrationExecutor integrationExecutor() {
+        if (virtualThreadsRequested && !virtualThreadsSupported()) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                    Runtime.version().feature());
+        }
+        if (virtualThreadsRequested && virtualThreadsSupported()) {
+            logger.info("Running requests, async tasks and integrations on virtual threads");
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("integration-");
+            executor.setVirtualThreads(true);
+            // Blocks the submitter once this many calls are in flight.
+            executor.setConcurrencyLimit(integrationConcurrency);
+            return new IntegrationExecutor(executor, true);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("integration-");
+        executor.setCorePoolSize(integrationConcurrency);
+        executor.setMaxPoolSize(integrationConcurrency);
+        executor.setQueueCapacity(integrationQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return new IntegrationExecutor(executor, false);
+    }
+}
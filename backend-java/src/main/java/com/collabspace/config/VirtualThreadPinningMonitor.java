@@ -0,0 +1,101 @@
+package com.collabspace.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically by
+ * blocking inside a {@code synchronized} block or a native call, which
+ * quietly turns the virtual thread pool back into a small fixed one.
+ *
+ * <p>Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process,
+ * counts every pin over {@code virtual-threads.pinning-threshold-ms} and logs
+ * the offending stack at most once per {@code pinning-log-interval-ms}.
+ * Does nothing unless virtual threads are actually in use.</p>
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${virtual-threads.pinning-log-interval-ms:60000}")
+    private long logIntervalMs;
+
+    private RecordingStream stream;
+    private Counter pinned;
+    private Timer pinnedTime;
+    private volatile long lastLoggedAt;
+
+    @PostConstruct
+    public void start() {
+        if (!virtualThreadsRequested || !ThreadingConfig.virtualThreadsSupported()) {
+            return;
+        }
+        pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+        pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration").register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Watching for virtual thread pinning over {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedTime.record(event.getDuration());
+        long now = System.currentTimeMillis();
+        if (now - lastLoggedAt < logIntervalMs) {
+            return;
+        }
+        lastLoggedAt = now;
+        logger.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), describe(event));
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "  (no stack trace)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "  " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
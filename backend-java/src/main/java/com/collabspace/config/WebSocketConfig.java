@@ -0,0 +1,72 @@
+package com.collabspace.config;
+
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.websocket.DocumentWebSocketHandler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    @Autowired
+    private DocumentWebSocketHandler documentWebSocketHandler;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Value("${cors.allowed-origins}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(documentWebSocketHandler, "/ws/documents")
+                .addInterceptors(new AuthenticationHandshakeInterceptor())
+                .setAllowedOrigins(allowedOrigins);
+    }
+
+    /**
+     * Resolves the user once at handshake time so message handling never
+     * has to re-authenticate.
+     */
+    private class AuthenticationHandshakeInterceptor implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+                return false;
+            }
+            try {
+                HttpServletRequest httpRequest = servletRequest.getServletRequest();
+                Long userId = jwtTokenService.getUserId(httpRequest);
+                if (userId == null) {
+                    return false;
+                }
+                attributes.put(USER_ID_ATTRIBUTE, userId);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.collabspace.content;
+
+import com.collabspace.repository.DocumentContentRepository;
+import com.collabspace.repository.DocumentContentRepository.EncodedContent;
+import com.collabspace.repository.DocumentContentRepository.StoredContent;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document bodies, stored once per distinct text in {@code document_contents}
+ * and addressed by the SHA-256 of their UTF-8 encoding.
+ *
+ * <p>Writing encodes the text in one pass: it is hashed and compressed as
+ * it is converted to UTF-8, so only the compressed bytes are buffered.
+ * Reading decompresses into a buffer of the recorded size and decodes it
+ * once, or streams it through a {@link Reader} for callers that copy it
+ * elsewhere. Bodies below {@code documents.content.min-compress-bytes} are
+ * kept as is, where a Zstandard frame would not pay for itself.</p>
+ */
+@Component
+public class ContentStore {
+
+    @Autowired
+    private DocumentContentRepository contentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.content.compression-level:3}")
+    private int compressionLevel;
+
+    @Value("${documents.content.min-compress-bytes:512}")
+    private int minCompressBytes;
+
+    private Counter rawBytes;
+    private Counter storedBytes;
+
+    @PostConstruct
+    public void init() {
+        rawBytes = meterRegistry.counter("documents.content.written_bytes", "form", "raw");
+        storedBytes = meterRegistry.counter("documents.content.written_bytes", "form", "stored");
+    }
+
+    /**
+     * Stores a body and returns its hash, or null for a null body.
+     */
+    public byte[] store(String content) {
+        return store(Collections.singletonList(content)).get(0);
+    }
+
+    /**
+     * Stores the bodies in one batch and returns their hashes in order;
+     * null bodies get a null hash.
+     */
+    public List<byte[]> store(List<String> contents) {
+        List<byte[]> hashes = new ArrayList<>(contents.size());
+        Map<ByteBuffer, EncodedContent> distinct = new LinkedHashMap<>();
+        for (String content : contents) {
+            if (content == null) {
+                hashes.add(null);
+                continue;
+            }
+            EncodedContent encoded = encode(content);
+            hashes.add(encoded.hash());
+            distinct.putIfAbsent(ByteBuffer.wrap(encoded.hash()), encoded);
+        }
+        contentRepository.save(new ArrayList<>(distinct.values()));
+        return hashes;
+    }
+
+    /**
+     * The body with this hash, or null for a null hash.
+     */
+    public String read(byte[] hash) {
+        if (hash == null) {
+            return null;
+        }
+        return decode(find(hash));
+    }
+
+    public String decode(StoredContent content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] raw = isCompressed(content) ? Zstd.decompress(content.data(), content.rawSize()) : content.data();
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams the body with this hash; empty for a null hash.
+     */
+    public Reader open(byte[] hash) {
+        return open(hash != null ? find(hash) : null);
+    }
+
+    public Reader open(StoredContent content) {
+        if (content == null) {
+            return Reader.nullReader();
+        }
+        try {
+            InputStream in = new ByteArrayInputStream(content.data());
+            return new InputStreamReader(isCompressed(content) ? new ZstdInputStream(in) : in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open document content", e);
+        }
+    }
+
+    /**
+     * Up to {@code maxChars} from the start of a body, decompressing no
+     * more than that; null when there is no body.
+     */
+    public String readPrefix(StoredContent content, int maxChars) {
+        if (content == null) {
+            return null;
+        }
+        StringBuilder prefix = new StringBuilder(Math.min(content.rawSize(), maxChars));
+        try (Reader reader = open(content)) {
+            char[] buffer = new char[8192];
+            for (int read; prefix.length() < maxChars
+                    && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - prefix.length()))) != -1; ) {
+                prefix.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document content", e);
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Compresses raw UTF-8 bytes the way {@link #store} would, for the
+     * background recompression of bodies stored uncompressed.
+     */
+    byte[] compress(byte[] raw) {
+        return Zstd.compress(raw, compressionLevel);
+    }
+
+    private StoredContent find(byte[] hash) {
+        return contentRepository.find(hash)
+                .orElseThrow(() -> new IllegalStateException("Document content is missing from the store"));
+    }
+
+    private EncodedContent encode(String content) {
+        // UTF-8 takes at least one byte per char, so short text can be judged by its length.
+        boolean compress = content.length() >= minCompressBytes;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(compress ? Math.min(content.length() / 4, 1 << 20) : content.length() + 16);
+        HashingOutputStream hashing;
+        try {
+            OutputStream sink = compress ? new ZstdOutputStream(buffer, compressionLevel) : buffer;
+            hashing = new HashingOutputStream(sink);
+            try (Writer writer = new OutputStreamWriter(hashing, StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode document content", e);
+        }
+        rawBytes.increment(hashing.size);
+        storedBytes.increment(buffer.size());
+        return new EncodedContent(hashing.digest.digest(), compress ? DocumentContentRepository.ZSTD : DocumentContentRepository.NONE,
+                Math.toIntExact(hashing.size), buffer.toByteArray());
+    }
+
+    private static boolean isCompressed(StoredContent content) {
+        return DocumentContentRepository.ZSTD.equals(content.codec());
+    }
+
+    /**
+     * Hashes and counts the UTF-8 bytes on their way to the compressor.
+     */
+    private static final class HashingOutputStream extends FilterOutputStream {
+
+        private final MessageDigest digest;
+        private long size;
+
+        HashingOutputStream(OutputStream out) {
+            super(out);
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            digest.update((byte) b);
+            size++;
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            digest.update(b, off, len);
+            size += len;
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.collabspace.content;
+
+import com.collabspace.repository.DocumentContentRepository;
+import com.collabspace.repository.DocumentContentRepository.MissingExcerpt;
+import com.collabspace.repository.DocumentContentRepository.UncompressedContent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background upkeep of the {@link ContentStore}: collects bodies no document
+ * or snapshot refers to any more, compresses bodies that were stored
+ * uncompressed by the migration that introduced the store, and fills in the
+ * search excerpts the migration that added them could not decompress.
+ *
+ * <p>Every node runs all three. Collection skips rows other nodes are
+ * deleting, and recompressing a body or filling an excerpt twice writes the
+ * same bytes.</p>
+ */
+@Component
+public class ContentStoreMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStoreMaintenance.class);
+
+    @Autowired
+    private DocumentContentRepository contentRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Covers the gap between storing a body and committing the row that refers to it.
+    @Value("${documents.content.gc-grace-ms:3600000}")
+    private long gcGraceMs;
+
+    @Value("${documents.content.gc-batch-size:1000}")
+    private int gcBatchSize;
+
+    @Value("${documents.content.min-compress-bytes:512}")
+    private int minCompressBytes;
+
+    @Value("${documents.content.compact-batch-size:50}")
+    private int compactBatchSize;
+
+    @Value("${documents.content.excerpt-batch-size:200}")
+    private int excerptBatchSize;
+
+    /**
+     * Every write-behind flush of an edited document stores a new body, so
+     * superseded ones pile up like dead tuples would in a TEXT column.
+     */
+    @Scheduled(fixedDelayString = "${documents.content.gc-interval-ms:300000}")
+    public void collectGarbage() {
+        Instant unusedSince = Instant.now().minusMillis(gcGraceMs);
+        long collected = 0;
+        try {
+            int deleted;
+            do {
+                deleted = contentRepository.deleteUnreferenced(unusedSince, gcBatchSize);
+                collected += deleted;
+            } while (deleted == gcBatchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to collect unreferenced document contents: {}", e.getMessage());
+        }
+        if (collected > 0) {
+            meterRegistry.counter("documents.content.collected").increment(collected);
+            logger.info("Collected {} unreferenced document contents", collected);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.content.compact-interval-ms:60000}")
+    public void compressLegacyContents() {
+        try {
+            List<UncompressedContent> contents = contentRepository.findUncompressed(minCompressBytes, compactBatchSize);
+            for (UncompressedContent content : contents) {
+                contentRepository.replaceData(content.hash(), DocumentContentRepository.ZSTD, contentStore.compress(content.data()));
+            }
+            if (!contents.isEmpty()) {
+                meterRegistry.counter("documents.content.compacted").increment(contents.size());
+                logger.debug("Compressed {} document contents", contents.size());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to compress stored document contents: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.content.compact-interval-ms:60000}")
+    public void fillMissingExcerpts() {
+        try {
+            List<MissingExcerpt> missing = contentRepository.findMissingExcerpts(excerptBatchSize);
+            Map<Long, String> excerpts = new HashMap<>();
+            for (MissingExcerpt document : missing) {
+                excerpts.put(document.documentId(), contentStore.readPrefix(document.content(), DocumentContentRepository.EXCERPT_CHARS));
+            }
+            contentRepository.updateExcerpts(excerpts);
+            if (!missing.isEmpty()) {
+                logger.debug("Filled the search excerpts of {} documents", missing.size());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to fill document search excerpts: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.collabspace.controller;
+
+import com.collabspace.analytics.TeamAnalyticsService;
+import com.collabspace.dto.AnalyticsBackfillDTO;
+import com.collabspace.security.JwtTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+@Tag(name = "Analytics", description = "Team activity dashboard endpoints")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class AnalyticsController {
+
+    @Autowired
+    private TeamAnalyticsService teamAnalyticsService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @GetMapping("/team/{teamId}")
+    @Operation(summary = "Get team activity", description = "Get the team's meetings, documents, active users and task throughput per UTC hour or day, with totals; buckets without activity are left out")
+    public ResponseEntity<?> getTeamActivity(
+            @PathVariable Long teamId,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(teamAnalyticsService.getDashboard(teamId, granularity, from, to, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get team activity: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/backfill")
+    @Operation(summary = "Backfill activity rollups", description = "Rebuild the last days of rollups from history, for one team or, for admins, every team; poll the backfill status for progress")
+    public ResponseEntity<?> startBackfill(
+            @RequestParam(required = false) Long teamId,
+            @RequestParam(defaultValue = "30") int days,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            AnalyticsBackfillDTO backfill = teamAnalyticsService.startBackfill(teamId, days, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfill);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to start backfill: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/backfill")
+    @Operation(summary = "Get backfill status", description = "Get the progress of the latest backfill on this node")
+    public ResponseEntity<?> getBackfillStatus(HttpServletRequest request) {
+        try {
+            jwtTokenService.getUserId(request);
+            AnalyticsBackfillDTO backfill = teamAnalyticsService.getBackfillStatus();
+            return backfill != null ? ResponseEntity.ok(backfill) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get backfill status: " + e.getMessage()));
+        }
+    }
+}
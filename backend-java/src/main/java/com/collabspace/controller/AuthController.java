@@ -1,7 +1,11 @@
 package com.collabspace.controller;
 
+import com.collabspace.dto.SessionDTO;
 import com.collabspace.dto.UserDTO;
-import com.collabspace.service.AuthService;
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.service.GoogleLoginService;
+import com.collabspace.service.SessionService;
+import com.collabspace.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,18 +24,27 @@ import java.util.Map;
 public class AuthController {
 
     @Autowired
-    private AuthService authService;
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GoogleLoginService googleLoginService;
 
     @PostMapping("/google-login")
     @Operation(summary = "Login with Google OAuth", description = "Authenticate user using Google OAuth token")
-    public ResponseEntity<?> googleLogin(@RequestBody @Valid Map<String, String> request) {
+    public ResponseEntity<?> googleLogin(@RequestBody @Valid Map<String, String> request, HttpServletRequest httpRequest) {
         try {
             String googleToken = request.get("token");
             if (googleToken == null || googleToken.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Google token is required"));
             }
 
-            Map<String, Object> response = authService.authenticateWithGoogle(googleToken);
+            Map<String, Object> response = googleLoginService.login(googleToken, httpRequest.getHeader("User-Agent"));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Authentication failed: " + e.getMessage()));
@@ -46,7 +60,7 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Refresh token is required"));
             }
 
-            Map<String, Object> response = authService.refreshToken(refreshToken);
+            Map<String, Object> response = sessionService.refresh(refreshToken);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Token refresh failed: " + e.getMessage()));
@@ -57,8 +71,8 @@ public class AuthController {
     @Operation(summary = "Get user profile", description = "Get current authenticated user's profile")
     public ResponseEntity<?> getUserProfile(HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            UserDTO user = authService.getCurrentUserProfile(userId);
+            Long userId = jwtTokenService.getUserId(request);
+            UserDTO user = userService.getUserProfile(userId);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to get profile: " + e.getMessage()));
@@ -69,8 +83,8 @@ public class AuthController {
     @Operation(summary = "Update user profile", description = "Update current user's profile information")
     public ResponseEntity<?> updateProfile(@RequestBody @Valid UserDTO userDTO, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            UserDTO updatedUser = authService.updateUserProfile(userId, userDTO);
+            Long userId = jwtTokenService.getUserId(request);
+            UserDTO updatedUser = userService.updateUserProfile(userId, userDTO);
             return ResponseEntity.ok(updatedUser);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Profile update failed: " + e.getMessage()));
@@ -81,28 +95,61 @@ public class AuthController {
     @Operation(summary = "Logout user", description = "Invalidate user session and JWT token")
     public ResponseEntity<?> logout(HttpServletRequest request) {
         try {
-            authService.logout(request);
+            jwtTokenService.revoke(jwtTokenService.extractToken(request));
             return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
         } catch (Exception e) {
             return ResponseEntity.ok(Map.of("message", "Logout completed"));
         }
     }
 
+    @GetMapping("/sessions")
+    @Operation(summary = "List sessions", description = "List the current user's active login sessions")
+    public ResponseEntity<?> listSessions(HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            List<SessionDTO> sessions = sessionService.listSessions(userId);
+            return ResponseEntity.ok(sessions);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to list sessions: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @Operation(summary = "Revoke session", description = "Sign out one of the current user's sessions")
+    public ResponseEntity<?> revokeSession(@PathVariable String sessionId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            if (!sessionService.revokeSession(userId, sessionId)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of("message", "Session revoked"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to revoke session: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/sessions")
+    @Operation(summary = "Revoke all sessions", description = "Sign out every session of the current user")
+    public ResponseEntity<?> revokeAllSessions(HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            int revoked = sessionService.revokeAllSessions(userId);
+            return ResponseEntity.ok(Map.of("message", "Sessions revoked", "revoked", revoked));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to revoke sessions: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/validate")
     @Operation(summary = "Validate JWT token", description = "Check if the current JWT token is valid")
     public ResponseEntity<?> validateToken(HttpServletRequest request) {
         try {
-            boolean isValid = authService.validateToken(request);
-            if (isValid) {
-                Long userId = authService.getCurrentUserId(request);
-                UserDTO user = authService.getCurrentUserProfile(userId);
-                return ResponseEntity.ok(Map.of(
-                    "valid", true,
-                    "user", user
-                ));
-            } else {
-                return ResponseEntity.ok(Map.of("valid", false));
-            }
+            Long userId = jwtTokenService.verify(request).userId();
+            UserDTO user = userService.getUserProfile(userId);
+            return ResponseEntity.ok(Map.of(
+                "valid", true,
+                "user", user
+            ));
         } catch (Exception e) {
             return ResponseEntity.ok(Map.of("valid", false));
         }
@@ -1,13 +1,30 @@
 package com.collabspace.controller;
 
+import com.collabspace.dto.CursorPageDTO;
 import com.collabspace.dto.DocumentDTO;
-import com.collabspace.service.AuthService;
+import com.collabspace.dto.DocumentPatchDTO;
+import com.collabspace.dto.DocumentSummaryDTO;
+import com.collabspace.dto.ExportJobDTO;
+import com.collabspace.dto.PresenceDTO;
+import com.collabspace.exception.VersionConflictException;
+import com.collabspace.exception.WriteBufferFullException;
+import com.collabspace.lock.DocumentLease;
+import com.collabspace.lock.DocumentLockManager.LockResult;
+import com.collabspace.presence.PresenceService;
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.service.DocumentExportService;
+import com.collabspace.service.DocumentHistoryService;
+import com.collabspace.service.DocumentLockService;
+import com.collabspace.service.DocumentPatchService;
+import com.collabspace.service.DocumentQueryService;
+import com.collabspace.service.DocumentSearchService;
 import com.collabspace.service.DocumentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,7 +43,28 @@ public class DocumentController {
     private DocumentService documentService;
 
     @Autowired
-    private AuthService authService;
+    private DocumentPatchService documentPatchService;
+
+    @Autowired
+    private DocumentHistoryService documentHistoryService;
+
+    @Autowired
+    private DocumentLockService documentLockService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
+    @Autowired
+    private DocumentQueryService documentQueryService;
+
+    @Autowired
+    private DocumentExportService documentExportService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
 
     @GetMapping("/team/{teamId}")
     @Operation(summary = "Get team documents", description = "Get all documents for a specific team")
@@ -37,7 +75,7 @@ public class DocumentController {
             @RequestParam(required = false) String search,
             HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
+            Long userId = jwtTokenService.getUserId(request);
             Page<DocumentDTO> documents = documentService.getTeamDocuments(teamId, userId, PageRequest.of(page, size), search);
             return ResponseEntity.ok(Map.of(
                 "documents", documents.getContent(),
@@ -50,11 +88,44 @@ public class DocumentController {
         }
     }
 
+    @GetMapping("/team/{teamId}/cursor")
+    @Operation(summary = "Get team documents by cursor", description = "Get team document summaries (no content), most recently updated first, one cursor page at a time")
+    public ResponseEntity<?> getTeamDocumentsByCursor(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            CursorPageDTO<DocumentSummaryDTO> documents = documentQueryService.getTeamDocuments(teamId, cursor, size, includeTotal, userId);
+            return ResponseEntity.ok(documents);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get documents: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/team/{teamId}/search")
+    @Operation(summary = "Search team documents", description = "Ranked full-text search over document titles and content")
+    public ResponseEntity<?> searchTeamDocuments(
+            @PathVariable Long teamId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(documentSearchService.search(teamId, query, page, size, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to search documents: " + e.getMessage()));
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Create document", description = "Create a new document")
     public ResponseEntity<?> createDocument(@RequestBody @Valid DocumentDTO documentDTO, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
+            Long userId = jwtTokenService.getUserId(request);
             DocumentDTO createdDocument = documentService.createDocument(documentDTO, userId);
             return ResponseEntity.ok(createdDocument);
         } catch (Exception e) {
@@ -66,7 +137,7 @@ public class DocumentController {
     @Operation(summary = "Get document", description = "Get a specific document by ID")
     public ResponseEntity<?> getDocument(@PathVariable Long documentId, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
+            Long userId = jwtTokenService.getUserId(request);
             DocumentDTO document = documentService.getDocument(documentId, userId);
             return ResponseEntity.ok(document);
         } catch (Exception e) {
@@ -81,7 +152,7 @@ public class DocumentController {
             @RequestBody @Valid DocumentDTO documentDTO, 
             HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
+            Long userId = jwtTokenService.getUserId(request);
             DocumentDTO updatedDocument = documentService.updateDocument(documentId, documentDTO, userId);
             return ResponseEntity.ok(updatedDocument);
         } catch (Exception e) {
@@ -89,11 +160,60 @@ public class DocumentController {
         }
     }
 
+    @PatchMapping("/{documentId}")
+    @Operation(summary = "Patch document content", description = "Apply an ordered batch of insert/delete operations against a base version")
+    public ResponseEntity<?> patchDocument(
+            @PathVariable Long documentId,
+            @RequestBody @Valid DocumentPatchDTO patchDTO,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            Map<String, Object> result = documentPatchService.applyPatch(documentId, patchDTO, userId);
+            return ResponseEntity.ok(result);
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Version conflict: " + e.getMessage(),
+                "baseVersion", e.getBaseVersion(),
+                "currentVersion", e.getCurrentVersion()
+            ));
+        } catch (WriteBufferFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to patch document: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{documentId}/operations")
+    @Operation(summary = "Get document operations", description = "Get the operations applied after a given version, for clients catching up after a reconnect")
+    public ResponseEntity<?> getDocumentOperations(
+            @PathVariable Long documentId,
+            @RequestParam int since,
+            @RequestParam(defaultValue = "500") int limit,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(documentHistoryService.getOperationsSince(documentId, since, limit, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get operations: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{documentId}/versions/{version}")
+    @Operation(summary = "Get document version", description = "Rebuild the document content as it was at a given version")
+    public ResponseEntity<?> getDocumentVersion(@PathVariable Long documentId, @PathVariable int version, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(documentHistoryService.getDocumentAtVersion(documentId, version, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get document version: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{documentId}")
     @Operation(summary = "Delete document", description = "Delete a document")
     public ResponseEntity<?> deleteDocument(@PathVariable Long documentId, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
+            Long userId = jwtTokenService.getUserId(request);
             documentService.deleteDocument(documentId, userId);
             return ResponseEntity.ok(Map.of("message", "Document deleted successfully"));
         } catch (Exception e) {
@@ -102,23 +222,57 @@ public class DocumentController {
     }
 
     @PostMapping("/{documentId}/lock")
-    @Operation(summary = "Lock document", description = "Lock document for editing")
+    @Operation(summary = "Lock document", description = "Acquire or extend a time-bounded edit lease on the document")
     public ResponseEntity<?> lockDocument(@PathVariable Long documentId, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            documentService.lockDocument(documentId, userId);
-            return ResponseEntity.ok(Map.of("message", "Document locked successfully"));
+            Long userId = jwtTokenService.getUserId(request);
+            LockResult result = documentLockService.lock(documentId, userId);
+            DocumentLease lease = result.getLease();
+            if (!result.isAcquired()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "Document is locked by another user",
+                    "lockedBy", lease.getHolderId(),
+                    "expiresAt", lease.getExpiresAt()
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "message", "Document locked successfully",
+                "fencingToken", lease.getFencingToken(),
+                "expiresAt", lease.getExpiresAt()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to lock document: " + e.getMessage()));
         }
     }
 
+    @PostMapping("/{documentId}/lock/heartbeat")
+    @Operation(summary = "Renew document lock", description = "Extend the caller's edit lease before it expires")
+    public ResponseEntity<?> renewDocumentLock(
+            @PathVariable Long documentId,
+            @RequestParam long fencingToken,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return documentLockService.heartbeat(documentId, userId, fencingToken)
+                    .<ResponseEntity<?>>map(lease -> ResponseEntity.ok(Map.of(
+                        "fencingToken", lease.getFencingToken(),
+                        "expiresAt", lease.getExpiresAt()
+                    )))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Lease is no longer held")));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to renew lock: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/{documentId}/unlock")
-    @Operation(summary = "Unlock document", description = "Unlock document after editing")
-    public ResponseEntity<?> unlockDocument(@PathVariable Long documentId, HttpServletRequest request) {
+    @Operation(summary = "Unlock document", description = "Release the caller's edit lease")
+    public ResponseEntity<?> unlockDocument(
+            @PathVariable Long documentId,
+            @RequestParam(required = false) Long fencingToken,
+            HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            documentService.unlockDocument(documentId, userId);
+            Long userId = jwtTokenService.getUserId(request);
+            documentLockService.unlock(documentId, userId, fencingToken);
             return ResponseEntity.ok(Map.of("message", "Document unlocked successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to unlock document: " + e.getMessage()));
@@ -126,23 +280,34 @@ public class DocumentController {
     }
 
     @PostMapping("/{documentId}/export-google-docs")
-    @Operation(summary = "Export to Google Docs", description = "Export document to Google Drive as Google Docs")
+    @Operation(summary = "Export to Google Docs", description = "Queue an export of the document to Google Drive as a Google Doc and return the job to poll")
     public ResponseEntity<?> exportToGoogleDocs(@PathVariable Long documentId, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            String googleDocsUrl = documentService.exportToGoogleDocs(documentId, userId);
-            return ResponseEntity.ok(Map.of("googleDocsUrl", googleDocsUrl));
+            Long userId = jwtTokenService.getUserId(request);
+            ExportJobDTO job = documentExportService.requestExport(documentId, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to export to Google Docs: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/export-jobs/{jobId}")
+    @Operation(summary = "Get export job", description = "Get the status of a Google Docs export, including the document link once it has succeeded")
+    public ResponseEntity<?> getExportJob(@PathVariable Long jobId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(documentExportService.getJob(jobId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get export job: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{documentId}/collaborators")
     @Operation(summary = "Get document collaborators", description = "Get list of users currently editing the document")
     public ResponseEntity<?> getDocumentCollaborators(@PathVariable Long documentId, HttpServletRequest request) {
         try {
-            Long userId = authService.getCurrentUserId(request);
-            List<Map<String, Object>> collaborators = documentService.getActiveCollaborators(documentId, userId);
+            Long userId = jwtTokenService.getUserId(request);
+            List<PresenceDTO> collaborators = presenceService.getDocumentCollaborators(documentId, userId);
             return ResponseEntity.ok(Map.of("collaborators", collaborators));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to get collaborators: " + e.getMessage()));
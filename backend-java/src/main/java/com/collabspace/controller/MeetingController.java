@@ -0,0 +1,109 @@
+package com.collabspace.controller;
+
+import com.collabspace.dto.CalendarSyncDTO;
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.MeetingDTO;
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.service.CalendarSyncService;
+import com.collabspace.service.MeetingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/meetings")
+@Tag(name = "Meetings", description = "Meeting management endpoints")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class MeetingController {
+
+    @Autowired
+    private MeetingService meetingService;
+
+    @Autowired
+    private CalendarSyncService calendarSyncService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @GetMapping("/team/{teamId}")
+    @Operation(summary = "Get team meetings", description = "Get team meetings, most recent first, one cursor page at a time")
+    public ResponseEntity<?> getTeamMeetings(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "true") boolean includeParticipants,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            CursorPageDTO<MeetingDTO> meetings = meetingService.getTeamMeetings(teamId, cursor, size, includeTotal, includeParticipants, userId);
+            return ResponseEntity.ok(meetings);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get meetings: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/team/{teamId}/calendar")
+    @Operation(summary = "Connect Google Calendar", description = "Sync the team's meetings from a Google Calendar shared with the service account")
+    public ResponseEntity<?> connectCalendar(@PathVariable Long teamId, @RequestBody Map<String, String> body,
+                                             HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            CalendarSyncDTO sync = calendarSyncService.connect(teamId, body.get("calendarId"), userId);
+            return ResponseEntity.ok(sync);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to connect calendar: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/team/{teamId}/calendar")
+    @Operation(summary = "Get calendar sync status", description = "Get the connected calendar and the state of its sync")
+    public ResponseEntity<?> getCalendarSync(@PathVariable Long teamId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(calendarSyncService.getStatus(teamId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get calendar sync: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/team/{teamId}/calendar/sync")
+    @Operation(summary = "Sync calendar now", description = "Queue an incremental sync of the team's calendar")
+    public ResponseEntity<?> syncCalendar(@PathVariable Long teamId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            calendarSyncService.requestSync(teamId, userId);
+            return ResponseEntity.accepted().body(Map.of("message", "Calendar sync queued"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to queue calendar sync: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/team/{teamId}/calendar")
+    @Operation(summary = "Disconnect Google Calendar", description = "Stop syncing the team's calendar; synced meetings are kept")
+    public ResponseEntity<?> disconnectCalendar(@PathVariable Long teamId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            calendarSyncService.disconnect(teamId, userId);
+            return ResponseEntity.ok(Map.of("message", "Calendar disconnected"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to disconnect calendar: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/calendar/notifications")
+    @Operation(summary = "Google Calendar push notification", description = "Webhook for Calendar push channels; authenticated by the channel token")
+    public ResponseEntity<Void> calendarNotification(
+            @RequestHeader(value = "X-Goog-Channel-ID", required = false) String channelId,
+            @RequestHeader(value = "X-Goog-Channel-Token", required = false) String channelToken,
+            @RequestHeader(value = "X-Goog-Resource-State", required = false) String resourceState) {
+        // Unknown channels get 200 too, or Google keeps retrying them.
+        calendarSyncService.handleNotification(channelId, channelToken, resourceState);
+        return ResponseEntity.ok().build();
+    }
+}
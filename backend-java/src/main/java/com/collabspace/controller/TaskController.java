@@ -0,0 +1,178 @@
+package com.collabspace.controller;
+
+import com.collabspace.board.TaskBoardService;
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.dto.TaskMoveDTO;
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.service.TaskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/tasks")
+@Tag(name = "Tasks", description = "Task and task board endpoints")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class TaskController {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBoardService taskBoardService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @GetMapping("/team/{teamId}")
+    @Operation(summary = "Get team tasks", description = "Get team tasks, most recently created first, one cursor page at a time")
+    public ResponseEntity<?> getTeamTasks(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            CursorPageDTO<TaskDTO> tasks = taskService.getTeamTasks(teamId, cursor, size, includeTotal, userId);
+            return ResponseEntity.ok(tasks);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get tasks: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/team/{teamId}/board")
+    @Operation(summary = "Get task board", description = "Get the team's Kanban board, cards grouped by status in board order; join the board room first for live updates")
+    public ResponseEntity<?> getBoard(@PathVariable Long teamId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskBoardService.getBoard(teamId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get board: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/overdue")
+    @Operation(summary = "Get overdue tasks", description = "Get the team's open tasks past their due date, longest overdue first")
+    public ResponseEntity<?> getOverdueTasks(
+            @RequestParam("team") Long teamId,
+            @RequestParam(defaultValue = "50") int limit,
+            HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskService.getOverdueTasks(teamId, limit, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get overdue tasks: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping
+    @Operation(summary = "Create task", description = "Create a task at the bottom of its column")
+    public ResponseEntity<?> createTask(@RequestBody @Valid TaskDTO taskDTO, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            TaskDTO createdTask = taskService.createTask(taskDTO, userId);
+            return ResponseEntity.ok(createdTask);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to create task: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/team/{teamId}/bulk")
+    @Operation(summary = "Create tasks in bulk", description = "Create several tasks at once, each at the bottom of its column in the order given")
+    public ResponseEntity<?> createTasks(@PathVariable Long teamId, @RequestBody List<TaskDTO> taskDTOs,
+                                         HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            List<TaskDTO> createdTasks = taskService.createTasks(teamId, taskDTOs, userId);
+            return ResponseEntity.ok(createdTasks);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to create tasks: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/team/{teamId}/reorder")
+    @Operation(summary = "Reorder tasks", description = "Move several tasks into a column together, in the given order, after previousId or before nextId")
+    public ResponseEntity<?> reorderTasks(@PathVariable Long teamId, @RequestBody @Valid TaskMoveDTO moveDTO,
+                                          HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskService.reorderTasks(teamId, moveDTO, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to reorder tasks: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{taskId}")
+    @Operation(summary = "Get task", description = "Get a specific task by ID")
+    public ResponseEntity<?> getTask(@PathVariable Long taskId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskService.getTask(taskId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get task: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{taskId}")
+    @Operation(summary = "Update task", description = "Update a task; a new status moves it to the bottom of that column")
+    public ResponseEntity<?> updateTask(@PathVariable Long taskId, @RequestBody @Valid TaskDTO taskDTO,
+                                        HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            TaskDTO updatedTask = taskService.updateTask(taskId, taskDTO, userId);
+            return ResponseEntity.ok(updatedTask);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Task was changed concurrently, retry"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to update task: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{taskId}/move")
+    @Operation(summary = "Move task", description = "Move a task into a column, after previousId or before nextId, or to the bottom")
+    public ResponseEntity<?> moveTask(@PathVariable Long taskId, @RequestBody @Valid TaskMoveDTO moveDTO,
+                                      HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskService.moveTask(taskId, moveDTO, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to move task: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{taskId}/complete")
+    @Operation(summary = "Complete task", description = "Mark a task done")
+    public ResponseEntity<?> completeTask(@PathVariable Long taskId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(taskService.completeTask(taskId, userId));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Task was changed concurrently, retry"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to complete task: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{taskId}")
+    @Operation(summary = "Delete task", description = "Delete a task")
+    public ResponseEntity<?> deleteTask(@PathVariable Long taskId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            taskService.deleteTask(taskId, userId);
+            return ResponseEntity.ok(Map.of("message", "Task deleted successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to delete task: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.collabspace.controller;
+
+import com.collabspace.archive.TeamArchiveService;
+import com.collabspace.dto.TeamImportDTO;
+import com.collabspace.security.JwtTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/teams")
+@Tag(name = "Team archives", description = "Team workspace export and import endpoints")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class TeamArchiveController {
+
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    @Autowired
+    private TeamArchiveService teamArchiveService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @GetMapping("/{teamId}/archive")
+    @Operation(summary = "Export team", description = "Stream the team's users, documents, meetings and tasks as a zip of NDJSON entries; owner or admin only")
+    public ResponseEntity<?> exportTeam(@PathVariable Long teamId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            teamArchiveService.checkExportAccess(teamId, userId);
+            StreamingResponseBody body = out -> teamArchiveService.export(teamId, out);
+            return ResponseEntity.ok()
+                    .contentType(APPLICATION_ZIP)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename("team-" + teamId + ".zip").build().toString())
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to export team: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Import team", description = "Upload a team archive as the request body and import it as a new team in the background; admin only. Poll the import for progress")
+    public ResponseEntity<?> importTeam(HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            TeamImportDTO job = teamArchiveService.startImport(request.getInputStream(), userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to import team: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/imports/{jobId}")
+    @Operation(summary = "Get import status", description = "Get the rows imported so far, and the new team once the import is done")
+    public ResponseEntity<?> getImport(@PathVariable String jobId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            return ResponseEntity.ok(teamArchiveService.getImport(jobId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to get import: " + e.getMessage()));
+        }
+    }
+}
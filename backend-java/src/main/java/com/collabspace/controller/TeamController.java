@@ -0,0 +1,49 @@
+package com.collabspace.controller;
+
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.service.TeamMembershipService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/teams")
+@Tag(name = "Teams", description = "Team membership endpoints")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class TeamController {
+
+    @Autowired
+    private TeamMembershipService teamMembershipService;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @PostMapping("/{teamId}/members/{memberId}")
+    @Operation(summary = "Add team member", description = "Add a user to the team; owner or admin only")
+    public ResponseEntity<?> addMember(@PathVariable Long teamId, @PathVariable Long memberId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            teamMembershipService.addMember(teamId, memberId, userId);
+            return ResponseEntity.ok(Map.of("message", "Member added successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to add member: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{teamId}/members/{memberId}")
+    @Operation(summary = "Remove team member", description = "Remove a user from the team; owner or admin only")
+    public ResponseEntity<?> removeMember(@PathVariable Long teamId, @PathVariable Long memberId, HttpServletRequest request) {
+        try {
+            Long userId = jwtTokenService.getUserId(request);
+            teamMembershipService.removeMember(teamId, memberId, userId);
+            return ResponseEntity.ok(Map.of("message", "Member removed successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to remove member: " + e.getMessage()));
+        }
+    }
+}
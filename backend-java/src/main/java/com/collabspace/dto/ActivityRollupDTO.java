@@ -0,0 +1,74 @@
+package com.collabspace.dto;
+
+import com.collabspace.repository.TeamActivityRollupRepository.Rollup;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ActivityRollupDTO {
+
+    private Instant bucketStart;
+    private long meetingsCompleted;
+    private long meetingMinutes;
+    private long documentsCreated;
+    private long documentsEdited;
+    private Long activeUsers;
+    private long tasksCreated;
+    private long tasksCompleted;
+
+    // Constructors
+    public ActivityRollupDTO() {}
+
+    public ActivityRollupDTO(Rollup rollup) {
+        this.bucketStart = rollup.bucketStart();
+        this.meetingsCompleted = rollup.meetingsCompleted();
+        this.meetingMinutes = rollup.meetingMinutes();
+        this.documentsCreated = rollup.documentsCreated();
+        this.documentsEdited = rollup.documentsEdited();
+        this.activeUsers = (long) rollup.activeUsers();
+        this.tasksCreated = rollup.tasksCreated();
+        this.tasksCompleted = rollup.tasksCompleted();
+    }
+
+    /**
+     * Sums the additive counters; distinct users do not add up across buckets.
+     */
+    public static ActivityRollupDTO total(Iterable<ActivityRollupDTO> buckets) {
+        ActivityRollupDTO total = new ActivityRollupDTO();
+        for (ActivityRollupDTO bucket : buckets) {
+            total.meetingsCompleted += bucket.meetingsCompleted;
+            total.meetingMinutes += bucket.meetingMinutes;
+            total.documentsCreated += bucket.documentsCreated;
+            total.documentsEdited += bucket.documentsEdited;
+            total.tasksCreated += bucket.tasksCreated;
+            total.tasksCompleted += bucket.tasksCompleted;
+        }
+        return total;
+    }
+
+    // Getters and Setters
+    public Instant getBucketStart() { return bucketStart; }
+    public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getMeetingsCompleted() { return meetingsCompleted; }
+    public void setMeetingsCompleted(long meetingsCompleted) { this.meetingsCompleted = meetingsCompleted; }
+
+    public long getMeetingMinutes() { return meetingMinutes; }
+    public void setMeetingMinutes(long meetingMinutes) { this.meetingMinutes = meetingMinutes; }
+
+    public long getDocumentsCreated() { return documentsCreated; }
+    public void setDocumentsCreated(long documentsCreated) { this.documentsCreated = documentsCreated; }
+
+    public long getDocumentsEdited() { return documentsEdited; }
+    public void setDocumentsEdited(long documentsEdited) { this.documentsEdited = documentsEdited; }
+
+    public Long getActiveUsers() { return activeUsers; }
+    public void setActiveUsers(Long activeUsers) { this.activeUsers = activeUsers; }
+
+    public long getTasksCreated() { return tasksCreated; }
+    public void setTasksCreated(long tasksCreated) { this.tasksCreated = tasksCreated; }
+
+    public long getTasksCompleted() { return tasksCompleted; }
+    public void setTasksCompleted(long tasksCompleted) { this.tasksCompleted = tasksCompleted; }
+}
@@ -0,0 +1,58 @@
+package com.collabspace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyticsBackfillDTO {
+
+    private boolean running;
+    private Instant from;
+    private Instant to;
+    private int teamsTotal;
+    private int teamsDone;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    // Constructors
+    public AnalyticsBackfillDTO() {}
+
+    public AnalyticsBackfillDTO(Instant from, Instant to, int teamsTotal, int teamsDone, Instant startedAt,
+                                Instant finishedAt, String error) {
+        this.running = finishedAt == null;
+        this.from = from;
+        this.to = to;
+        this.teamsTotal = teamsTotal;
+        this.teamsDone = teamsDone;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+
+    public int getTeamsTotal() { return teamsTotal; }
+    public void setTeamsTotal(int teamsTotal) { this.teamsTotal = teamsTotal; }
+
+    public int getTeamsDone() { return teamsDone; }
+    public void setTeamsDone(int teamsDone) { this.teamsDone = teamsDone; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,68 @@
+package com.collabspace.dto;
+
+import com.collabspace.repository.CalendarSyncRepository.CalendarSync;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * The Google Calendar connected to a team and how its sync is doing.
+ * {@code fullSyncPending} is set until the first sync, and again after
+ * Google expires the sync token.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CalendarSyncDTO {
+
+    private Long teamId;
+    private String calendarId;
+    private Long connectedBy;
+    private Boolean fullSyncPending;
+    private Boolean pushNotifications;
+    private Instant lastSyncedAt;
+    private Instant lastFullSyncAt;
+    private Instant nextSyncAt;
+    private String error;
+
+    // Constructors
+    public CalendarSyncDTO() {}
+
+    public CalendarSyncDTO(CalendarSync sync) {
+        this.teamId = sync.teamId();
+        this.calendarId = sync.calendarId();
+        this.connectedBy = sync.connectedBy();
+        this.fullSyncPending = sync.syncToken() == null;
+        this.pushNotifications = sync.channelExpiresAt() != null && sync.channelExpiresAt().isAfter(Instant.now());
+        this.lastSyncedAt = sync.lastSyncedAt();
+        this.lastFullSyncAt = sync.lastFullSyncAt();
+        this.nextSyncAt = sync.nextSyncAt();
+        this.error = sync.lastError();
+    }
+
+    // Getters and Setters
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public String getCalendarId() { return calendarId; }
+    public void setCalendarId(String calendarId) { this.calendarId = calendarId; }
+
+    public Long getConnectedBy() { return connectedBy; }
+    public void setConnectedBy(Long connectedBy) { this.connectedBy = connectedBy; }
+
+    public Boolean getFullSyncPending() { return fullSyncPending; }
+    public void setFullSyncPending(Boolean fullSyncPending) { this.fullSyncPending = fullSyncPending; }
+
+    public Boolean getPushNotifications() { return pushNotifications; }
+    public void setPushNotifications(Boolean pushNotifications) { this.pushNotifications = pushNotifications; }
+
+    public Instant getLastSyncedAt() { return lastSyncedAt; }
+    public void setLastSyncedAt(Instant lastSyncedAt) { this.lastSyncedAt = lastSyncedAt; }
+
+    public Instant getLastFullSyncAt() { return lastFullSyncAt; }
+    public void setLastFullSyncAt(Instant lastFullSyncAt) { this.lastFullSyncAt = lastFullSyncAt; }
+
+    public Instant getNextSyncAt() { return nextSyncAt; }
+    public void setNextSyncAt(Instant nextSyncAt) { this.nextSyncAt = nextSyncAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,198 @@
+package com.collabspace.dto;
+
+import com.collabspace.collaboration.AppliedRevision;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CollaborationMessage {
+
+    public static final String JOIN = "join";
+    public static final String JOINED = "joined";
+    public static final String LEAVE = "leave";
+    public static final String OPERATION = "op";
+    public static final String ACK = "ack";
+    public static final String ERROR = "error";
+    public static final String PRESENCE = "presence";
+    public static final String PRESENCE_SNAPSHOT = "presence-snapshot";
+    public static final String MEETING_STATUS = "meeting-status";
+    public static final String MEETING_REMINDER = "meeting-reminder";
+    public static final String BOARD_UPDATE = "board-update";
+
+    private String type;
+    private Long documentId;
+    private Long meetingId;
+    private Long teamId;
+    private Integer baseVersion;
+    private Integer version;
+    private String clientOpId;
+    private Long userId;
+    private List<DocumentOperationDTO> operations;
+    private String content;
+    private String message;
+    private Integer cursor;
+    private Integer selectionStart;
+    private Integer selectionEnd;
+    private List<PresenceDTO> presence;
+    private List<String> departed;
+    private String status;
+    private Instant startTime;
+    private List<TaskDTO> tasks;
+    private List<Long> removedTaskIds;
+
+    // Constructors
+    public CollaborationMessage() {}
+
+    public CollaborationMessage(String type, Long documentId) {
+        this.type = type;
+        this.documentId = documentId;
+    }
+
+    public static CollaborationMessage joined(Long documentId, String content, int version) {
+        CollaborationMessage message = new CollaborationMessage(JOINED, documentId);
+        message.content = content;
+        message.version = version;
+        return message;
+    }
+
+    public static CollaborationMessage joinedMeeting(Long meetingId) {
+        CollaborationMessage message = new CollaborationMessage(JOINED, null);
+        message.meetingId = meetingId;
+        return message;
+    }
+
+    public static CollaborationMessage joinedBoard(Long teamId) {
+        CollaborationMessage message = new CollaborationMessage(JOINED, null);
+        message.teamId = teamId;
+        return message;
+    }
+
+    public static CollaborationMessage operation(AppliedRevision revision) {
+        CollaborationMessage message = new CollaborationMessage(OPERATION, revision.getDocumentId());
+        message.version = revision.getVersion();
+        message.userId = revision.getUserId();
+        message.operations = revision.getOperations().stream().map(DocumentOperationDTO::new).toList();
+        return message;
+    }
+
+    public static CollaborationMessage ack(AppliedRevision revision) {
+        CollaborationMessage message = new CollaborationMessage(ACK, revision.getDocumentId());
+        message.version = revision.getVersion();
+        message.clientOpId = revision.getClientOpId();
+        return message;
+    }
+
+    /**
+     * Presence changes since the last diff: upserted connections and the ids
+     * of those that left.
+     */
+    public static CollaborationMessage presence(Long documentId, Long meetingId, List<PresenceDTO> changed, List<String> departed) {
+        CollaborationMessage message = new CollaborationMessage(PRESENCE, documentId);
+        message.meetingId = meetingId;
+        message.presence = changed.isEmpty() ? null : changed;
+        message.departed = departed.isEmpty() ? null : departed;
+        return message;
+    }
+
+    public static CollaborationMessage presenceSnapshot(Long documentId, Long meetingId, List<PresenceDTO> present) {
+        CollaborationMessage message = new CollaborationMessage(PRESENCE_SNAPSHOT, documentId);
+        message.meetingId = meetingId;
+        message.presence = present;
+        return message;
+    }
+
+    public static CollaborationMessage meetingStatus(Long meetingId, String status) {
+        CollaborationMessage message = new CollaborationMessage(MEETING_STATUS, null);
+        message.meetingId = meetingId;
+        message.status = status;
+        return message;
+    }
+
+    public static CollaborationMessage meetingReminder(Long meetingId, Instant startTime) {
+        CollaborationMessage message = new CollaborationMessage(MEETING_REMINDER, null);
+        message.meetingId = meetingId;
+        message.startTime = startTime;
+        return message;
+    }
+
+    /**
+     * Board changes: cards to upsert (if newer than the client's) and the
+     * ids of deleted tasks.
+     */
+    public static CollaborationMessage boardUpdate(Long teamId, List<TaskDTO> tasks, List<Long> removedTaskIds) {
+        CollaborationMessage message = new CollaborationMessage(BOARD_UPDATE, null);
+        message.teamId = teamId;
+        message.tasks = tasks.isEmpty() ? null : tasks;
+        message.removedTaskIds = removedTaskIds.isEmpty() ? null : removedTaskIds;
+        return message;
+    }
+
+    public static CollaborationMessage error(Long documentId, String error) {
+        CollaborationMessage message = new CollaborationMessage(ERROR, documentId);
+        message.message = error;
+        return message;
+    }
+
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public Long getMeetingId() { return meetingId; }
+    public void setMeetingId(Long meetingId) { this.meetingId = meetingId; }
+
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public Integer getBaseVersion() { return baseVersion; }
+    public void setBaseVersion(Integer baseVersion) { this.baseVersion = baseVersion; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public String getClientOpId() { return clientOpId; }
+    public void setClientOpId(String clientOpId) { this.clientOpId = clientOpId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public List<DocumentOperationDTO> getOperations() { return operations; }
+    public void setOperations(List<DocumentOperationDTO> operations) { this.operations = operations; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Integer getCursor() { return cursor; }
+    public void setCursor(Integer cursor) { this.cursor = cursor; }
+
+    public Integer getSelectionStart() { return selectionStart; }
+    public void setSelectionStart(Integer selectionStart) { this.selectionStart = selectionStart; }
+
+    public Integer getSelectionEnd() { return selectionEnd; }
+    public void setSelectionEnd(Integer selectionEnd) { this.selectionEnd = selectionEnd; }
+
+    public List<PresenceDTO> getPresence() { return presence; }
+    public void setPresence(List<PresenceDTO> presence) { this.presence = presence; }
+
+    public List<String> getDeparted() { return departed; }
+    public void setDeparted(List<String> departed) { this.departed = departed; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Instant getStartTime() { return startTime; }
+    public void setStartTime(Instant startTime) { this.startTime = startTime; }
+
+    public List<TaskDTO> getTasks() { return tasks; }
+    public void setTasks(List<TaskDTO> tasks) { this.tasks = tasks; }
+
+    public List<Long> getRemovedTaskIds() { return removedTaskIds; }
+    public void setRemovedTaskIds(List<Long> removedTaskIds) { this.removedTaskIds = removedTaskIds; }
+}
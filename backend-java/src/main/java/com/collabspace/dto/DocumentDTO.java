@@ -38,9 +38,13 @@ public class DocumentDTO {
     public DocumentDTO() {}
 
     public DocumentDTO(Document document) {
+        this(document, null);
+    }
+
+    public DocumentDTO(Document document, String content) {
         this.id = document.getId();
         this.title = document.getTitle();
-        this.content = document.getContent();
+        this.content = content;
         this.type = document.getType().name();
         this.teamId = document.getTeam().getId();
         this.createdById = document.getCreatedBy().getId();
@@ -0,0 +1,62 @@
+package com.collabspace.dto;
+
+import com.collabspace.collaboration.TextOperation;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class DocumentOperationDTO {
+
+    @NotNull
+    private OperationType type;
+
+    @NotNull
+    @Min(0)
+    private Integer position;
+
+    private String text;
+
+    @Min(0)
+    private Integer length;
+
+    // Constructors
+    public DocumentOperationDTO() {}
+
+    public DocumentOperationDTO(OperationType type, Integer position, String text, Integer length) {
+        this.type = type;
+        this.position = position;
+        this.text = text;
+        this.length = length;
+    }
+
+    public DocumentOperationDTO(TextOperation operation) {
+        this.type = OperationType.valueOf(operation.getType().name());
+        this.position = operation.getPosition();
+        this.text = operation.getText();
+        this.length = operation.isInsert() ? null : operation.getLength();
+    }
+
+    public static DocumentOperationDTO insert(int position, String text) {
+        return new DocumentOperationDTO(OperationType.INSERT, position, text, null);
+    }
+
+    public static DocumentOperationDTO delete(int position, int length) {
+        return new DocumentOperationDTO(OperationType.DELETE, position, null, length);
+    }
+
+    // Getters and Setters
+    public OperationType getType() { return type; }
+    public void setType(OperationType type) { this.type = type; }
+
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public Integer getLength() { return length; }
+    public void setLength(Integer length) { this.length = length; }
+
+    public enum OperationType {
+        INSERT, DELETE
+    }
+}
@@ -0,0 +1,38 @@
+package com.collabspace.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DocumentPatchDTO {
+
+    @NotNull
+    private Integer baseVersion;
+
+    @NotEmpty
+    @Valid
+    private List<DocumentOperationDTO> operations = new ArrayList<>();
+
+    private Long fencingToken;
+
+    // Constructors
+    public DocumentPatchDTO() {}
+
+    public DocumentPatchDTO(Integer baseVersion, List<DocumentOperationDTO> operations) {
+        this.baseVersion = baseVersion;
+        this.operations = operations;
+    }
+
+    // Getters and Setters
+    public Integer getBaseVersion() { return baseVersion; }
+    public void setBaseVersion(Integer baseVersion) { this.baseVersion = baseVersion; }
+
+    public List<DocumentOperationDTO> getOperations() { return operations; }
+    public void setOperations(List<DocumentOperationDTO> operations) { this.operations = operations; }
+
+    public Long getFencingToken() { return fencingToken; }
+    public void setFencingToken(Long fencingToken) { this.fencingToken = fencingToken; }
+}
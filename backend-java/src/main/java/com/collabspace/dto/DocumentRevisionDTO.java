@@ -0,0 +1,35 @@
+package com.collabspace.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class DocumentRevisionDTO {
+
+    private Integer version;
+    private Long userId;
+    private List<DocumentOperationDTO> operations;
+    private Instant createdAt;
+
+    // Constructors
+    public DocumentRevisionDTO() {}
+
+    public DocumentRevisionDTO(Integer version, Long userId, List<DocumentOperationDTO> operations, Instant createdAt) {
+        this.version = version;
+        this.userId = userId;
+        this.operations = operations;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public List<DocumentOperationDTO> getOperations() { return operations; }
+    public void setOperations(List<DocumentOperationDTO> operations) { this.operations = operations; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
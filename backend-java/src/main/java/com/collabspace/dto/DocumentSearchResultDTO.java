@@ -0,0 +1,50 @@
+package com.collabspace.dto;
+
+import java.time.LocalDateTime;
+
+public class DocumentSearchResultDTO {
+
+    private Long id;
+    private String title;
+    private String type;
+    private Integer version;
+    private LocalDateTime updatedAt;
+    private Double rank;
+    private String highlight;
+
+    // Constructors
+    public DocumentSearchResultDTO() {}
+
+    public DocumentSearchResultDTO(Long id, String title, String type, Integer version,
+                                   LocalDateTime updatedAt, Double rank, String highlight) {
+        this.id = id;
+        this.title = title;
+        this.type = type;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.rank = rank;
+        this.highlight = highlight;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Double getRank() { return rank; }
+    public void setRank(Double rank) { this.rank = rank; }
+
+    public String getHighlight() { return highlight; }
+    public void setHighlight(String highlight) { this.highlight = highlight; }
+}
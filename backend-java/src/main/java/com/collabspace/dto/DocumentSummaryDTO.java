@@ -0,0 +1,84 @@
+package com.collabspace.dto;
+
+import com.collabspace.model.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of a document: metadata and author names only, never content.
+ * Built directly by a JPQL constructor expression; lock state is added
+ * from the lease store afterwards.
+ */
+public class DocumentSummaryDTO {
+
+    private Long id;
+    private String title;
+    private String type;
+    private Integer version;
+    private Boolean isLocked;
+    private String googleDriveId;
+    private Long createdById;
+    private String createdByName;
+    private Long lastModifiedById;
+    private String lastModifiedByName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public DocumentSummaryDTO() {}
+
+    public DocumentSummaryDTO(Long id, String title, Document.DocumentType type, Integer version,
+                              String googleDriveId, Long createdById, String createdByName,
+                              Long lastModifiedById, String lastModifiedByName,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.type = type != null ? type.name() : null;
+        this.version = version;
+        this.isLocked = false;
+        this.googleDriveId = googleDriveId;
+        this.createdById = createdById;
+        this.createdByName = createdByName;
+        this.lastModifiedById = lastModifiedById;
+        this.lastModifiedByName = lastModifiedByName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public Boolean getIsLocked() { return isLocked; }
+    public void setIsLocked(Boolean isLocked) { this.isLocked = isLocked; }
+
+    public String getGoogleDriveId() { return googleDriveId; }
+    public void setGoogleDriveId(String googleDriveId) { this.googleDriveId = googleDriveId; }
+
+    public Long getCreatedById() { return createdById; }
+    public void setCreatedById(Long createdById) { this.createdById = createdById; }
+
+    public String getCreatedByName() { return createdByName; }
+    public void setCreatedByName(String createdByName) { this.createdByName = createdByName; }
+
+    public Long getLastModifiedById() { return lastModifiedById; }
+    public void setLastModifiedById(Long lastModifiedById) { this.lastModifiedById = lastModifiedById; }
+
+    public String getLastModifiedByName() { return lastModifiedByName; }
+    public void setLastModifiedByName(String lastModifiedByName) { this.lastModifiedByName = lastModifiedByName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,75 @@
+package com.collabspace.dto;
+
+import com.collabspace.integration.GoogleDriveClient;
+import com.collabspace.repository.ExportJobRepository;
+import com.collabspace.repository.ExportJobRepository.ExportJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Status of an asynchronous Google Docs export. {@code status} is one of
+ * QUEUED, RUNNING, SUCCEEDED, SKIPPED (already exported at this version)
+ * or FAILED.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobDTO {
+
+    private Long jobId;
+    private Long documentId;
+    private String status;
+    private Integer attempts;
+    private Integer exportedVersion;
+    private String googleDocsUrl;
+    private String error;
+    private Instant nextAttemptAt;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    // Constructors
+    public ExportJobDTO() {}
+
+    public ExportJobDTO(ExportJob job) {
+        this.jobId = job.id();
+        this.documentId = job.documentId();
+        this.status = job.status();
+        this.attempts = job.attempts();
+        this.exportedVersion = job.exportedVersion();
+        this.googleDocsUrl = GoogleDriveClient.documentUrl(job.googleDriveId());
+        this.error = job.lastError();
+        this.nextAttemptAt = ExportJobRepository.QUEUED.equals(job.status()) ? job.nextAttemptAt() : null;
+        this.createdAt = job.createdAt();
+        this.updatedAt = job.updatedAt();
+    }
+
+    // Getters and Setters
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public Integer getExportedVersion() { return exportedVersion; }
+    public void setExportedVersion(Integer exportedVersion) { this.exportedVersion = exportedVersion; }
+
+    public String getGoogleDocsUrl() { return googleDocsUrl; }
+    public void setGoogleDocsUrl(String googleDocsUrl) { this.googleDocsUrl = googleDocsUrl; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -32,6 +32,7 @@ public class MeetingDTO {
     private String status;
     private String meetingUrl;
     private String googleCalendarEventId;
+    private String recurrence;
     private String transcriptUrl;
     private String summary;
     private String actionItems;
@@ -44,6 +45,14 @@ public class MeetingDTO {
     public MeetingDTO() {}
 
     public MeetingDTO(Meeting meeting) {
+        this(meeting, meeting.getParticipants().stream().map(UserDTO::new).toList());
+    }
+
+    /**
+     * Builds the DTO from participants loaded up front, so mapping a page of
+     * meetings never walks the lazy participants collection.
+     */
+    public MeetingDTO(Meeting meeting, List<UserDTO> participants) {
         this.id = meeting.getId();
         this.title = meeting.getTitle();
         this.description = meeting.getDescription();
@@ -56,13 +65,14 @@ public class MeetingDTO {
         this.status = meeting.getStatus().name();
         this.meetingUrl = meeting.getMeetingUrl();
         this.googleCalendarEventId = meeting.getGoogleCalendarEventId();
+        this.recurrence = meeting.getRecurrence();
         this.transcriptUrl = meeting.getTranscriptUrl();
         this.summary = meeting.getSummary();
         this.actionItems = meeting.getActionItems();
         this.participantsCount = meeting.getParticipantsCount();
         this.createdAt = meeting.getCreatedAt();
         this.updatedAt = meeting.getUpdatedAt();
-        this.participants = meeting.getParticipants().stream().map(UserDTO::new).toList();
+        this.participants = participants;
     }
 
     // Getters and Setters
@@ -102,6 +112,9 @@ public class MeetingDTO {
     public String getGoogleCalendarEventId() { return googleCalendarEventId; }
     public void setGoogleCalendarEventId(String googleCalendarEventId) { this.googleCalendarEventId = googleCalendarEventId; }
 
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
     public String getTranscriptUrl() { return transcriptUrl; }
     public void setTranscriptUrl(String transcriptUrl) { this.transcriptUrl = transcriptUrl; }
 
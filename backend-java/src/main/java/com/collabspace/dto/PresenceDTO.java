@@ -0,0 +1,63 @@
+package com.collabspace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * One connected editor or participant: who they are, where their cursor is
+ * and when they were last active. {@code id} identifies the connection, so
+ * a user with two tabs open appears twice on the socket feed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PresenceDTO {
+
+    private String id;
+    private Long userId;
+    private String name;
+    private String profilePicture;
+    private Integer cursor;
+    private Integer selectionStart;
+    private Integer selectionEnd;
+    private Instant lastActiveAt;
+
+    // Constructors
+    public PresenceDTO() {}
+
+    public PresenceDTO(String id, Long userId, String name, String profilePicture,
+                       Integer cursor, Integer selectionStart, Integer selectionEnd, Instant lastActiveAt) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.profilePicture = profilePicture;
+        this.cursor = cursor;
+        this.selectionStart = selectionStart;
+        this.selectionEnd = selectionEnd;
+        this.lastActiveAt = lastActiveAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getProfilePicture() { return profilePicture; }
+    public void setProfilePicture(String profilePicture) { this.profilePicture = profilePicture; }
+
+    public Integer getCursor() { return cursor; }
+    public void setCursor(Integer cursor) { this.cursor = cursor; }
+
+    public Integer getSelectionStart() { return selectionStart; }
+    public void setSelectionStart(Integer selectionStart) { this.selectionStart = selectionStart; }
+
+    public Integer getSelectionEnd() { return selectionEnd; }
+    public void setSelectionEnd(Integer selectionEnd) { this.selectionEnd = selectionEnd; }
+
+    public Instant getLastActiveAt() { return lastActiveAt; }
+    public void setLastActiveAt(Instant lastActiveAt) { this.lastActiveAt = lastActiveAt; }
+}
@@ -0,0 +1,39 @@
+package com.collabspace.dto;
+
+import java.time.Instant;
+
+public class SessionDTO {
+
+    private String sessionId;
+    private String userAgent;
+    private Instant createdAt;
+    private Instant lastUsedAt;
+    private Instant expiresAt;
+
+    // Constructors
+    public SessionDTO() {}
+
+    public SessionDTO(String sessionId, String userAgent, Instant createdAt, Instant lastUsedAt, Instant expiresAt) {
+        this.sessionId = sessionId;
+        this.userAgent = userAgent;
+        this.createdAt = createdAt;
+        this.lastUsedAt = lastUsedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public String getUserAgent() { return userAgent; }
+    public void setUserAgent(String userAgent) { this.userAgent = userAgent; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(Instant lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
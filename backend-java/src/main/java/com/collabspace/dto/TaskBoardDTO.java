@@ -0,0 +1,35 @@
+package com.collabspace.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A team's Kanban board: one column of cards per status, in board order.
+ * Later changes arrive as {@code board-update} messages on the team's board
+ * room; a card replaces the one on the board only if its version is newer.
+ */
+public class TaskBoardDTO {
+
+    private Long teamId;
+    private Map<String, List<TaskDTO>> columns;
+    private Integer taskCount;
+
+    // Constructors
+    public TaskBoardDTO() {}
+
+    public TaskBoardDTO(Long teamId, Map<String, List<TaskDTO>> columns, int taskCount) {
+        this.teamId = teamId;
+        this.columns = columns;
+        this.taskCount = taskCount;
+    }
+
+    // Getters and Setters
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public Map<String, List<TaskDTO>> getColumns() { return columns; }
+    public void setColumns(Map<String, List<TaskDTO>> columns) { this.columns = columns; }
+
+    public Integer getTaskCount() { return taskCount; }
+    public void setTaskCount(Integer taskCount) { this.taskCount = taskCount; }
+}
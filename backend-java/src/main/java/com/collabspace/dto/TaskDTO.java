@@ -0,0 +1,121 @@
+package com.collabspace.dto;
+
+import com.collabspace.model.Task;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task. Board cards and board diffs leave the description out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskDTO {
+
+    private Long id;
+
+    @NotBlank
+    @Size(max = 255)
+    private String title;
+
+    private String description;
+    private Long teamId;
+    private Long createdById;
+    private Long assignedToId;
+    private String status;
+    private String priority;
+    private LocalDateTime dueDate;
+    private LocalDateTime completedAt;
+    private String rank;
+    private Long version;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TaskDTO() {}
+
+    public TaskDTO(Task task) {
+        this.id = task.getId();
+        this.title = task.getTitle();
+        this.description = task.getDescription();
+        this.teamId = task.getTeam().getId();
+        this.createdById = task.getCreatedBy().getId();
+        this.assignedToId = task.getAssignedTo() != null ? task.getAssignedTo().getId() : null;
+        this.status = task.getStatus().name();
+        this.priority = task.getPriority().name();
+        this.dueDate = task.getDueDate();
+        this.completedAt = task.getCompletedAt();
+        this.rank = task.getRank();
+        this.version = task.getVersion();
+        this.createdAt = task.getCreatedAt();
+        this.updatedAt = task.getUpdatedAt();
+    }
+
+    /**
+     * This task as a board card: everything but the description.
+     */
+    public TaskDTO toCard() {
+        if (description == null) {
+            return this;
+        }
+        TaskDTO card = new TaskDTO();
+        card.id = id;
+        card.title = title;
+        card.teamId = teamId;
+        card.createdById = createdById;
+        card.assignedToId = assignedToId;
+        card.status = status;
+        card.priority = priority;
+        card.dueDate = dueDate;
+        card.completedAt = completedAt;
+        card.rank = rank;
+        card.version = version;
+        card.createdAt = createdAt;
+        card.updatedAt = updatedAt;
+        return card;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public Long getCreatedById() { return createdById; }
+    public void setCreatedById(Long createdById) { this.createdById = createdById; }
+
+    public Long getAssignedToId() { return assignedToId; }
+    public void setAssignedToId(Long assignedToId) { this.assignedToId = assignedToId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public String getRank() { return rank; }
+    public void setRank(String rank) { this.rank = rank; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
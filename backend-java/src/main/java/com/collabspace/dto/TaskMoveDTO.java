@@ -0,0 +1,37 @@
+package com.collabspace.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+/**
+ * Where to put tasks on the board: into the {@code status} column, between
+ * the tasks {@code previousId} and {@code nextId} (either may be left out
+ * for the top or bottom of the column). A reorder moves every task in
+ * {@code taskIds} there, in the given order.
+ */
+public class TaskMoveDTO {
+
+    @NotBlank
+    private String status;
+
+    private Long previousId;
+    private Long nextId;
+    private List<Long> taskIds;
+
+    // Constructors
+    public TaskMoveDTO() {}
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getPreviousId() { return previousId; }
+    public void setPreviousId(Long previousId) { this.previousId = previousId; }
+
+    public Long getNextId() { return nextId; }
+    public void setNextId(Long nextId) { this.nextId = nextId; }
+
+    public List<Long> getTaskIds() { return taskIds; }
+    public void setTaskIds(List<Long> taskIds) { this.taskIds = taskIds; }
+}
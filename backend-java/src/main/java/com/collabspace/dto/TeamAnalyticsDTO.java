@@ -0,0 +1,54 @@
+package com.collabspace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TeamAnalyticsDTO {
+
+    private Long teamId;
+    private String granularity;
+    private Instant from;
+    private Instant to;
+    private List<ActivityRollupDTO> buckets;
+    private ActivityRollupDTO totals;
+    private Double averageMeetingMinutes;
+
+    // Constructors
+    public TeamAnalyticsDTO() {}
+
+    public TeamAnalyticsDTO(Long teamId, String granularity, Instant from, Instant to, List<ActivityRollupDTO> buckets) {
+        this.teamId = teamId;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+        this.totals = ActivityRollupDTO.total(buckets);
+        this.averageMeetingMinutes = totals.getMeetingsCompleted() > 0
+                ? (double) totals.getMeetingMinutes() / totals.getMeetingsCompleted() : null;
+    }
+
+    // Getters and Setters
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+
+    public List<ActivityRollupDTO> getBuckets() { return buckets; }
+    public void setBuckets(List<ActivityRollupDTO> buckets) { this.buckets = buckets; }
+
+    public ActivityRollupDTO getTotals() { return totals; }
+    public void setTotals(ActivityRollupDTO totals) { this.totals = totals; }
+
+    public Double getAverageMeetingMinutes() { return averageMeetingMinutes; }
+    public void setAverageMeetingMinutes(Double averageMeetingMinutes) { this.averageMeetingMinutes = averageMeetingMinutes; }
+}
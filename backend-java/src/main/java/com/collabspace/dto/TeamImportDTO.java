@@ -0,0 +1,68 @@
+package com.collabspace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TeamImportDTO {
+
+    private String jobId;
+    private boolean running;
+    private Long teamId;
+    private long users;
+    private long documents;
+    private long meetings;
+    private long tasks;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    // Constructors
+    public TeamImportDTO() {}
+
+    public TeamImportDTO(String jobId, Long teamId, long users, long documents, long meetings, long tasks,
+                         Instant startedAt, Instant finishedAt, String error) {
+        this.jobId = jobId;
+        this.running = finishedAt == null;
+        this.teamId = teamId;
+        this.users = users;
+        this.documents = documents;
+        this.meetings = meetings;
+        this.tasks = tasks;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public boolean isRunning() { return running; }
+    public void setRunning(boolean running) { this.running = running; }
+
+    public Long getTeamId() { return teamId; }
+    public void setTeamId(Long teamId) { this.teamId = teamId; }
+
+    public long getUsers() { return users; }
+    public void setUsers(long users) { this.users = users; }
+
+    public long getDocuments() { return documents; }
+    public void setDocuments(long documents) { this.documents = documents; }
+
+    public long getMeetings() { return meetings; }
+    public void setMeetings(long meetings) { this.meetings = meetings; }
+
+    public long getTasks() { return tasks; }
+    public void setTasks(long tasks) { this.tasks = tasks; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -5,10 +5,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public class UserDTO {
+public class UserDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long id;
 
@@ -30,6 +33,16 @@ public class UserDTO {
     // Constructors
     public UserDTO() {}
 
+    /**
+     * Lightweight participant view: identity and display fields only.
+     */
+    public UserDTO(Long id, String email, String name, String profilePicture) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.profilePicture = profilePicture;
+    }
+
     public UserDTO(User user) {
         this.id = user.getId();
         this.email = user.getEmail();
@@ -0,0 +1,16 @@
+package com.collabspace.event;
+
+/**
+ * Published when a document is deleted or its row is updated, either of
+ * which can change the team that owns it.
+ */
+public class DocumentTeamChangedEvent {
+
+    private final Long documentId;
+
+    public DocumentTeamChangedEvent(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public Long getDocumentId() { return documentId; }
+}
@@ -0,0 +1,18 @@
+package com.collabspace.event;
+
+import java.util.List;
+
+/**
+ * Published after meetings are created, rescheduled or cancelled, so the
+ * lifecycle scheduler can update their timers.
+ */
+public class MeetingScheduleChangedEvent {
+
+    private final List<Long> meetingIds;
+
+    public MeetingScheduleChangedEvent(List<Long> meetingIds) {
+        this.meetingIds = meetingIds;
+    }
+
+    public List<Long> getMeetingIds() { return meetingIds; }
+}
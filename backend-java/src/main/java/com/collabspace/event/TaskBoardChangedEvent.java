@@ -0,0 +1,26 @@
+package com.collabspace.event;
+
+import com.collabspace.dto.TaskDTO;
+
+import java.util.List;
+
+/**
+ * Published when tasks on a team's board are created, changed or deleted.
+ * Changed tasks are board cards carrying their new version.
+ */
+public class TaskBoardChangedEvent {
+
+    private final Long teamId;
+    private final List<TaskDTO> tasks;
+    private final List<Long> removedTaskIds;
+
+    public TaskBoardChangedEvent(Long teamId, List<TaskDTO> tasks, List<Long> removedTaskIds) {
+        this.teamId = teamId;
+        this.tasks = tasks;
+        this.removedTaskIds = removedTaskIds;
+    }
+
+    public Long getTeamId() { return teamId; }
+    public List<TaskDTO> getTasks() { return tasks; }
+    public List<Long> getRemovedTaskIds() { return removedTaskIds; }
+}
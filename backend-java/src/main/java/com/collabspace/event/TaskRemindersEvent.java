@@ -0,0 +1,30 @@
+package com.collabspace.event;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Published once per recipient and kind for a batch of task reminders:
+ * tasks that fall due soon, or that have just become overdue. The
+ * recipient is the assignee, or the creator of an unassigned task.
+ */
+public class TaskRemindersEvent {
+
+    public enum Kind { DUE_SOON, OVERDUE }
+
+    private final Long userId;
+    private final Kind kind;
+    private final List<Reminder> reminders;
+
+    public TaskRemindersEvent(Long userId, Kind kind, List<Reminder> reminders) {
+        this.userId = userId;
+        this.kind = kind;
+        this.reminders = reminders;
+    }
+
+    public Long getUserId() { return userId; }
+    public Kind getKind() { return kind; }
+    public List<Reminder> getReminders() { return reminders; }
+
+    public record Reminder(Long taskId, Long teamId, String title, Instant dueDate) {}
+}
@@ -0,0 +1,52 @@
+package com.collabspace.event;
+
+import java.time.Instant;
+
+/**
+ * Published for team activity that the analytics rollups count. Document
+ * edits are not published; the rollups read them from the collaboration
+ * engine's revisions instead.
+ */
+public class TeamActivityEvent {
+
+    public enum Activity { MEETING_COMPLETED, DOCUMENT_CREATED, TASKS_CREATED, TASKS_COMPLETED }
+
+    private final Long teamId;
+    private final Long userId;
+    private final Activity activity;
+    private final int count;
+    private final long minutes;
+    private final Instant occurredAt;
+
+    public TeamActivityEvent(Long teamId, Long userId, Activity activity, int count, long minutes, Instant occurredAt) {
+        this.teamId = teamId;
+        this.userId = userId;
+        this.activity = activity;
+        this.count = count;
+        this.minutes = minutes;
+        this.occurredAt = occurredAt;
+    }
+
+    public static TeamActivityEvent meetingCompleted(Long teamId, long minutes, Instant endedAt) {
+        return new TeamActivityEvent(teamId, null, Activity.MEETING_COMPLETED, 1, minutes, endedAt);
+    }
+
+    public static TeamActivityEvent documentCreated(Long teamId, Long userId) {
+        return new TeamActivityEvent(teamId, userId, Activity.DOCUMENT_CREATED, 1, 0, Instant.now());
+    }
+
+    public static TeamActivityEvent tasksCreated(Long teamId, Long userId, int count) {
+        return new TeamActivityEvent(teamId, userId, Activity.TASKS_CREATED, count, 0, Instant.now());
+    }
+
+    public static TeamActivityEvent tasksCompleted(Long teamId, Long userId, int count) {
+        return new TeamActivityEvent(teamId, userId, Activity.TASKS_COMPLETED, count, 0, Instant.now());
+    }
+
+    public Long getTeamId() { return teamId; }
+    public Long getUserId() { return userId; }
+    public Activity getActivity() { return activity; }
+    public int getCount() { return count; }
+    public long getMinutes() { return minutes; }
+    public Instant getOccurredAt() { return occurredAt; }
+}
@@ -0,0 +1,21 @@
+package com.collabspace.event;
+
+/**
+ * Published when a user joins or leaves a team.
+ */
+public class TeamMembershipChangedEvent {
+
+    private final Long teamId;
+    private final Long userId;
+    private final boolean added;
+
+    public TeamMembershipChangedEvent(Long teamId, Long userId, boolean added) {
+        this.teamId = teamId;
+        this.userId = userId;
+        this.added = added;
+    }
+
+    public Long getTeamId() { return teamId; }
+    public Long getUserId() { return userId; }
+    public boolean isAdded() { return added; }
+}
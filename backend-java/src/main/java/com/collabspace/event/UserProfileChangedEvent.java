@@ -0,0 +1,15 @@
+package com.collabspace.event;
+
+/**
+ * Published when a user's own profile fields are updated.
+ */
+public class UserProfileChangedEvent {
+
+    private final Long userId;
+
+    public UserProfileChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() { return userId; }
+}
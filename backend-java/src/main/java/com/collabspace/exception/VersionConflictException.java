@@ -0,0 +1,21 @@
+package com.collabspace.exception;
+
+public class VersionConflictException extends RuntimeException {
+
+    private final Long documentId;
+    private final Integer baseVersion;
+    private final Integer currentVersion;
+
+    public VersionConflictException(Long documentId, Integer baseVersion, Integer currentVersion) {
+        super("Document " + documentId + " is at version " + currentVersion + ", patch was based on version " + baseVersion);
+        this.documentId = documentId;
+        this.baseVersion = baseVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getDocumentId() { return documentId; }
+
+    public Integer getBaseVersion() { return baseVersion; }
+
+    public Integer getCurrentVersion() { return currentVersion; }
+}
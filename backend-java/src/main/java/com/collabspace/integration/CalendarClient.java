@@ -0,0 +1,67 @@
+package com.collabspace.integration;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The slice of the Google Calendar API that incremental sync needs.
+ *
+ * <p>Listings never expand recurring events: a series comes back as one
+ * event carrying its recurrence rules, and only instances that were moved
+ * or cancelled come back on their own. A calendar full of recurring
+ * meetings therefore lists in a handful of pages.</p>
+ */
+public interface CalendarClient {
+
+    boolean isConfigured();
+
+    /**
+     * Lists events changed since {@code syncToken}, or every live event when
+     * it is {@code null}. Incremental listings include deleted events, as
+     * {@link CalendarEvent#isCancelled() cancelled}.
+     *
+     * @param pageToken the previous page's {@link EventPage#nextPageToken}, or
+     *                  {@code null} for the first page
+     * @throws CalendarException with {@link CalendarException#isSyncTokenInvalid()}
+     *                           if the token expired and a full sync is needed
+     */
+    EventPage listEvents(String calendarId, String syncToken, String pageToken, int pageSize);
+
+    /**
+     * Opens a push notification channel that POSTs to {@code address}
+     * whenever an event in the calendar changes.
+     */
+    WatchChannel watch(String calendarId, String channelId, String token, String address, long ttlMs);
+
+    void stop(String channelId, String resourceId);
+
+    record CalendarEvent(String id, String status, String title, String description, Instant start, Instant end,
+                         String meetingUrl, List<String> recurrence, String recurringEventId) {
+
+        public boolean isCancelled() {
+            return "cancelled".equals(status);
+        }
+    }
+
+    /**
+     * One page of a listing. {@code nextSyncToken} is only set on the last page.
+     */
+    record EventPage(List<CalendarEvent> events, String nextPageToken, String nextSyncToken) {}
+
+    record WatchChannel(String id, String resourceId, Instant expiresAt) {}
+
+    class CalendarException extends RuntimeException {
+
+        private final boolean retryable;
+        private final boolean syncTokenInvalid;
+
+        public CalendarException(String message, boolean retryable, boolean syncTokenInvalid) {
+            super(message);
+            this.retryable = retryable;
+            this.syncTokenInvalid = syncTokenInvalid;
+        }
+
+        public boolean isRetryable() { return retryable; }
+        public boolean isSyncTokenInvalid() { return syncTokenInvalid; }
+    }
+}
@@ -0,0 +1,185 @@
+package com.collabspace.integration;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.CalendarScopes;
+import com.google.api.services.calendar.model.Channel;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.GoogleCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link CalendarClient} backed by the Google Calendar API, as the service
+ * account in {@code google.calendar.credentials-file}. Team calendars must
+ * be shared with that account.
+ *
+ * <p>Every call first takes a token from a bucket sized to the per-second
+ * quota, and listings ask only for the fields that sync stores.</p>
+ */
+public class GoogleCalendarClient implements CalendarClient {
+
+    private static final String EVENT_FIELDS = "nextPageToken,nextSyncToken," +
+            "items(id,status,summary,description,start,end,hangoutLink,recurrence,recurringEventId)";
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleCalendarClient.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${google.calendar.credentials-file:}")
+    private String credentialsFile;
+
+    @Value("${google.calendar.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    @Value("${google.calendar.timeout-ms:30000}")
+    private int timeoutMs;
+
+    private Calendar calendar;
+    private TokenBucket quota;
+
+    @PostConstruct
+    public void init() throws IOException {
+        quota = new TokenBucket(requestsPerSecond, Math.max(1, requestsPerSecond));
+        if (credentialsFile.isBlank()) {
+            logger.info("google.calendar.credentials-file is not set; Google Calendar sync is disabled");
+            return;
+        }
+        GoogleCredentials credentials;
+        try (InputStream in = new FileInputStream(credentialsFile)) {
+            credentials = GoogleCredentials.fromStream(in).createScoped(List.of(CalendarScopes.CALENDAR_READONLY));
+        }
+        HttpCredentialsAdapter authorizer = new HttpCredentialsAdapter(credentials);
+        HttpRequestInitializer initializer = request -> {
+            authorizer.initialize(request);
+            request.setConnectTimeout(timeoutMs);
+            request.setReadTimeout(timeoutMs);
+        };
+        calendar = new Calendar.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), initializer)
+                .setApplicationName("CollabSpace")
+                .build();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return calendar != null;
+    }
+
+    @Override
+    public EventPage listEvents(String calendarId, String syncToken, String pageToken, int pageSize) {
+        Events events = call("list", () -> calendar.events().list(calendarId)
+                .setSingleEvents(false)
+                .setSyncToken(syncToken)
+                .setPageToken(pageToken)
+                .setMaxResults(pageSize)
+                .setFields(EVENT_FIELDS)
+                .execute());
+        List<CalendarEvent> items = events.getItems() == null ? List.of() : events.getItems().stream()
+                .map(GoogleCalendarClient::toCalendarEvent)
+                .toList();
+        return new EventPage(items, events.getNextPageToken(), events.getNextSyncToken());
+    }
+
+    @Override
+    public WatchChannel watch(String calendarId, String channelId, String token, String address, long ttlMs) {
+        Channel request = new Channel()
+                .setId(channelId)
+                .setType("web_hook")
+                .setAddress(address)
+                .setToken(token)
+                .setExpiration(System.currentTimeMillis() + ttlMs);
+        Channel channel = call("watch", () -> calendar.events().watch(calendarId, request).execute());
+        // Google may shorten the requested lifetime.
+        Instant expiresAt = Instant.ofEpochMilli(channel.getExpiration() != null ? channel.getExpiration() : request.getExpiration());
+        return new WatchChannel(channel.getId(), channel.getResourceId(), expiresAt);
+    }
+
+    @Override
+    public void stop(String channelId, String resourceId) {
+        call("stop", () -> calendar.channels().stop(new Channel().setId(channelId).setResourceId(resourceId)).execute());
+    }
+
+    private <T> T call(String operation, CalendarCall<T> call) {
+        if (calendar == null) {
+            throw new CalendarException("Google Calendar sync is not configured", false, false);
+        }
+        try {
+            quota.acquire(1);
+            T result = call.execute();
+            meterRegistry.counter("google.calendar.requests", "operation", operation, "result", "success").increment();
+            return result;
+        } catch (GoogleJsonResponseException e) {
+            meterRegistry.counter("google.calendar.requests", "operation", operation, "result", String.valueOf(e.getStatusCode())).increment();
+            throw new CalendarException("Calendar " + operation + " failed with " + e.getStatusCode() + ": " + message(e),
+                    isRetryable(e), e.getStatusCode() == 410);
+        } catch (IOException e) {
+            meterRegistry.counter("google.calendar.requests", "operation", operation, "result", "io_error").increment();
+            throw new CalendarException("Calendar " + operation + " failed: " + e.getMessage(), true, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CalendarException("Interrupted waiting for Calendar quota", true, false);
+        }
+    }
+
+    private static CalendarEvent toCalendarEvent(Event event) {
+        return new CalendarEvent(
+                event.getId(),
+                event.getStatus(),
+                event.getSummary(),
+                event.getDescription(),
+                toInstant(event.getStart()),
+                toInstant(event.getEnd()),
+                event.getHangoutLink(),
+                event.getRecurrence(),
+                event.getRecurringEventId());
+    }
+
+    /** All-day events only carry a date, read as midnight UTC. */
+    private static Instant toInstant(EventDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        DateTime value = time.getDateTime() != null ? time.getDateTime() : time.getDate();
+        return value != null ? Instant.ofEpochMilli(value.getValue()) : null;
+    }
+
+    private static boolean isRetryable(GoogleJsonResponseException e) {
+        int status = e.getStatusCode();
+        if (status == 429 || status >= 500) {
+            return true;
+        }
+        if (status == 403 && e.getDetails() != null && e.getDetails().getErrors() != null) {
+            return e.getDetails().getErrors().stream().anyMatch(error -> RATE_LIMIT_REASONS.contains(error.getReason()));
+        }
+        return false;
+    }
+
+    private static String message(GoogleJsonResponseException e) {
+        return e.getDetails() != null ? e.getDetails().getMessage() : e.getStatusMessage();
+    }
+
+    @FunctionalInterface
+    private interface CalendarCall<T> {
+        T execute() throws IOException;
+    }
+}
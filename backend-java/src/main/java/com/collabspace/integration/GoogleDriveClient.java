@@ -0,0 +1,220 @@
+package com.collabspace.integration;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.DriveScopes;
+import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.Permission;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.GoogleCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Google Drive access for document export, as the service account in
+ * {@code google.drive.credentials-file}.
+ *
+ * <p>Every call, including each part of a batch, first takes a token from a
+ * shared bucket sized to the Drive per-second quota. Failures are reported
+ * as {@link DriveException}s that say whether a retry can help.</p>
+ */
+@Component
+public class GoogleDriveClient {
+
+    public static final String GOOGLE_DOC_MIME_TYPE = "application/vnd.google-apps.document";
+
+    // Drive accepts at most 100 calls per batch request.
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleDriveClient.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${google.drive.credentials-file:}")
+    private String credentialsFile;
+
+    @Value("${google.drive.folder-id:}")
+    private String folderId;
+
+    @Value("${google.drive.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    @Value("${google.drive.timeout-ms:30000}")
+    private int timeoutMs;
+
+    private Drive drive;
+    private TokenBucket quota;
+
+    @PostConstruct
+    public void init() throws IOException {
+        quota = new TokenBucket(requestsPerSecond, Math.max(1, requestsPerSecond));
+        if (credentialsFile.isBlank()) {
+            logger.info("google.drive.credentials-file is not set; Google Docs export is disabled");
+            return;
+        }
+        GoogleCredentials credentials;
+        try (InputStream in = new FileInputStream(credentialsFile)) {
+            credentials = GoogleCredentials.fromStream(in).createScoped(List.of(DriveScopes.DRIVE_FILE));
+        }
+        HttpCredentialsAdapter authorizer = new HttpCredentialsAdapter(credentials);
+        HttpRequestInitializer initializer = request -> {
+            authorizer.initialize(request);
+            request.setConnectTimeout(timeoutMs);
+            request.setReadTimeout(timeoutMs);
+        };
+        drive = new Drive.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance(), initializer)
+                .setApplicationName("CollabSpace")
+                .build();
+    }
+
+    public boolean isConfigured() {
+        return drive != null;
+    }
+
+    /**
+     * Uploads plain text as a new Google Doc.
+     *
+     * @return the Drive file id
+     */
+    public String createDocument(String title, String content) {
+        File metadata = new File().setName(title).setMimeType(GOOGLE_DOC_MIME_TYPE);
+        if (!folderId.isBlank()) {
+            metadata.setParents(List.of(folderId));
+        }
+        return call("create", () -> drive.files().create(metadata, text(content)).setFields("id").execute().getId());
+    }
+
+    /**
+     * Replaces the content and title of an existing Google Doc.
+     *
+     * @throws DriveException with {@link DriveException#isNotFound()} if the
+     *                        file was deleted on the Drive side
+     */
+    public void updateDocument(String fileId, String title, String content) {
+        call("update", () -> drive.files().update(fileId, new File().setName(title), text(content)).setFields("id").execute());
+    }
+
+    /**
+     * Gives each user write access to their file, in as few HTTP requests as
+     * the batch limit allows. Individual failures are logged and skipped: the
+     * export itself has already succeeded.
+     */
+    public void shareAll(List<Share> shares) {
+        for (int from = 0; from < shares.size(); from += MAX_BATCH_SIZE) {
+            List<Share> chunk = shares.subList(from, Math.min(shares.size(), from + MAX_BATCH_SIZE));
+            call("share", () -> {
+                BatchRequest batch = drive.batch();
+                for (Share share : chunk) {
+                    drive.permissions()
+                            .create(share.fileId(), new Permission().setType("user").setRole("writer").setEmailAddress(share.email()))
+                            .setSendNotificationEmail(false)
+                            .queue(batch, new JsonBatchCallback<>() {
+                                @Override
+                                public void onSuccess(Permission permission, HttpHeaders responseHeaders) {
+                                }
+
+                                @Override
+                                public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                    logger.warn("Failed to share Drive file {} with {}: {}", share.fileId(), share.email(), error.getMessage());
+                                }
+                            });
+                }
+                batch.execute();
+                return null;
+            }, chunk.size());
+        }
+    }
+
+    public static String documentUrl(String fileId) {
+        return fileId != null ? "https://docs.google.com/document/d/" + fileId + "/edit" : null;
+    }
+
+    private <T> T call(String operation, DriveCall<T> call) {
+        return call(operation, call, 1);
+    }
+
+    private <T> T call(String operation, DriveCall<T> call, int quotaCost) {
+        if (drive == null) {
+            throw new DriveException("Google Drive export is not configured", false, false);
+        }
+        try {
+            quota.acquire(quotaCost);
+            T result = call.execute();
+            meterRegistry.counter("google.drive.requests", "operation", operation, "result", "success").increment();
+            return result;
+        } catch (GoogleJsonResponseException e) {
+            meterRegistry.counter("google.drive.requests", "operation", operation, "result", String.valueOf(e.getStatusCode())).increment();
+            throw new DriveException("Drive " + operation + " failed with " + e.getStatusCode() + ": " + message(e),
+                    isRetryable(e), e.getStatusCode() == 404);
+        } catch (IOException e) {
+            meterRegistry.counter("google.drive.requests", "operation", operation, "result", "io_error").increment();
+            throw new DriveException("Drive " + operation + " failed: " + e.getMessage(), true, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DriveException("Interrupted waiting for Drive quota", true, false);
+        }
+    }
+
+    private static boolean isRetryable(GoogleJsonResponseException e) {
+        int status = e.getStatusCode();
+        if (status == 429 || status >= 500) {
+            return true;
+        }
+        if (status == 403 && e.getDetails() != null && e.getDetails().getErrors() != null) {
+            return e.getDetails().getErrors().stream().anyMatch(error -> RATE_LIMIT_REASONS.contains(error.getReason()));
+        }
+        return false;
+    }
+
+    private static String message(GoogleJsonResponseException e) {
+        return e.getDetails() != null ? e.getDetails().getMessage() : e.getStatusMessage();
+    }
+
+    private static ByteArrayContent text(String content) {
+        return new ByteArrayContent("text/plain", (content != null ? content : "").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface DriveCall<T> {
+        T execute() throws IOException;
+    }
+
+    public record Share(String fileId, String email) {}
+
+    public static class DriveException extends RuntimeException {
+
+        private final boolean retryable;
+        private final boolean notFound;
+
+        public DriveException(String message, boolean retryable, boolean notFound) {
+            super(message);
+            this.retryable = retryable;
+            this.notFound = notFound;
+        }
+
+        public boolean isRetryable() { return retryable; }
+        public boolean isNotFound() { return notFound; }
+    }
+}
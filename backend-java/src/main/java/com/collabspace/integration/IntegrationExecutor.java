@@ -0,0 +1,42 @@
+package com.collabspace.integration;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking calls to outside services (Google Drive and Calendar, the
+ * AI service) off the request and scheduler threads.
+ *
+ * <p>Backed by virtual threads when they are enabled and the JVM supports
+ * them, otherwise by a bounded platform thread pool; see
+ * {@link com.collabspace.config.ThreadingConfig}. Either way at most
+ * {@code integrations.executor.max-concurrency} calls are in flight, which
+ * protects the remote side's quota rather than our threads.</p>
+ *
+ * <p>Deliberately not an {@link java.util.concurrent.Executor} bean, so it
+ * does not replace the application task executor behind {@code @Async}.</p>
+ */
+public class IntegrationExecutor {
+
+    private final AsyncTaskExecutor delegate;
+    private final boolean virtual;
+
+    public IntegrationExecutor(AsyncTaskExecutor delegate, boolean virtual) {
+        this.delegate = delegate;
+        this.virtual = virtual;
+    }
+
+    public void execute(Runnable task) {
+        delegate.execute(task);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, delegate);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+}
@@ -0,0 +1,52 @@
+package com.collabspace.integration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking token bucket for staying under a remote API's per-second quota.
+ * Waits without holding a monitor, so virtual threads stay unpinned.
+ */
+public class TokenBucket {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final double permitsPerNano;
+    private final double capacity;
+    private double available;
+    private long refilledAt = System.nanoTime();
+
+    public TokenBucket(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least one permit");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.available = burst;
+    }
+
+    /**
+     * Takes {@code permits} tokens, waiting for them if necessary. Requests
+     * larger than the burst are allowed and simply wait longer.
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        lock.lock();
+        try {
+            refill();
+            available -= permits;
+            // Going negative reserves future tokens, which keeps callers in arrival order.
+            waitNanos = available >= 0 ? 0 : (long) (-available / permitsPerNano);
+        } finally {
+            lock.unlock();
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+    }
+}
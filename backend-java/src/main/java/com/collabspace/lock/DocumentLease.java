@@ -0,0 +1,35 @@
+package com.collabspace.lock;
+
+import java.time.Instant;
+
+/**
+ * A time-bounded edit lease on a document. The fencing token increases with
+ * every new lease on the same document, so writes carrying an older token
+ * can be recognised and rejected.
+ */
+public final class DocumentLease {
+
+    private final Long documentId;
+    private final Long holderId;
+    private final long fencingToken;
+    private final Instant expiresAt;
+
+    public DocumentLease(Long documentId, Long holderId, long fencingToken, Instant expiresAt) {
+        this.documentId = documentId;
+        this.holderId = holderId;
+        this.fencingToken = fencingToken;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getDocumentId() { return documentId; }
+
+    public Long getHolderId() { return holderId; }
+
+    public long getFencingToken() { return fencingToken; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isHeldBy(Long userId) {
+        return holderId.equals(userId);
+    }
+}
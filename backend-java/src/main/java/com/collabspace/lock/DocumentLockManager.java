@@ -0,0 +1,73 @@
+package com.collabspace.lock;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lease-based document locks. Leases expire on their own unless renewed by
+ * a heartbeat, so a crashed editor never leaves a document locked.
+ */
+public interface DocumentLockManager {
+
+    /**
+     * Grants a lease, or extends the caller's existing one. Returns the
+     * current holder's lease when someone else holds the document.
+     */
+    LockResult acquire(Long documentId, Long userId, Duration ttl);
+
+    Optional<DocumentLease> renew(Long documentId, Long userId, long fencingToken, Duration ttl);
+
+    boolean release(Long documentId, Long userId, long fencingToken);
+
+    Optional<DocumentLease> currentLease(Long documentId);
+
+    /**
+     * Current leases of the given documents, keyed by document id; unlocked
+     * documents are absent. Implementations answer in one round trip.
+     */
+    default Map<Long, DocumentLease> currentLeases(Collection<Long> documentIds) {
+        Map<Long, DocumentLease> leases = new HashMap<>();
+        for (Long documentId : documentIds) {
+            currentLease(documentId).ifPresent(lease -> leases.put(documentId, lease));
+        }
+        return leases;
+    }
+
+    /**
+     * Fencing check for writes: fails when another user holds the document,
+     * or when the caller presents a token from a lease that has since been
+     * superseded.
+     *
+     * @return the token of the lease the write is made under, or null when
+     *         the document is not locked
+     */
+    default Long checkWriteAllowed(Long documentId, Long userId, Long fencingToken) {
+        return currentLease(documentId).map(lease -> {
+            if (!lease.isHeldBy(userId)) {
+                throw new IllegalStateException("Document is locked by another user");
+            }
+            if (fencingToken != null && fencingToken != lease.getFencingToken()) {
+                throw new IllegalStateException("Stale fencing token " + fencingToken + ", current lease is " + lease.getFencingToken());
+            }
+            return lease.getFencingToken();
+        }).orElse(null);
+    }
+
+    final class LockResult {
+
+        private final boolean acquired;
+        private final DocumentLease lease;
+
+        public LockResult(boolean acquired, DocumentLease lease) {
+            this.acquired = acquired;
+            this.lease = lease;
+        }
+
+        public boolean isAcquired() { return acquired; }
+
+        public DocumentLease getLease() { return lease; }
+    }
+}
@@ -0,0 +1,30 @@
+package com.collabspace.lock;
+
+import java.time.Duration;
+
+/**
+ * Which node owns each live document. The owner is the only node that
+ * applies edits to it; the others forward theirs. Ownership is a lease:
+ * the owner renews it well within the TTL, and a node that dies loses its
+ * documents when the TTL runs out.
+ */
+public interface DocumentOwnership {
+
+    /**
+     * This node's id, as recorded against the documents it owns.
+     */
+    String nodeId();
+
+    /**
+     * Takes the document if no node owns it, or extends the lease if this
+     * node does.
+     *
+     * @return the id of the node that owns the document afterwards
+     */
+    String claim(Long documentId, Duration ttl);
+
+    /**
+     * Gives the document up early, if this node owns it.
+     */
+    void release(Long documentId);
+}
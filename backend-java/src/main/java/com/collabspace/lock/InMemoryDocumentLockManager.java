@@ -0,0 +1,89 @@
+package com.collabspace.lock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-node lease store for tests and local development. Selected with
+ * {@code documents.lock.store=memory}.
+ */
+public class InMemoryDocumentLockManager implements DocumentLockManager {
+
+    private final Map<Long, DocumentLease> leases = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> fences = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public InMemoryDocumentLockManager() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryDocumentLockManager(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public LockResult acquire(Long documentId, Long userId, Duration ttl) {
+        Instant now = clock.instant();
+        boolean[] acquired = new boolean[1];
+        DocumentLease lease = leases.compute(documentId, (id, current) -> {
+            if (current != null && current.getExpiresAt().isAfter(now) && !current.isHeldBy(userId)) {
+                return current;
+            }
+            acquired[0] = true;
+            long token = current != null && current.getExpiresAt().isAfter(now)
+                    ? current.getFencingToken()
+                    : fences.computeIfAbsent(id, key -> new AtomicLong()).incrementAndGet();
+            return new DocumentLease(id, userId, token, now.plus(ttl));
+        });
+        return new LockResult(acquired[0], lease);
+    }
+
+    @Override
+    public Optional<DocumentLease> renew(Long documentId, Long userId, long fencingToken, Duration ttl) {
+        Instant now = clock.instant();
+        DocumentLease[] renewed = new DocumentLease[1];
+        leases.computeIfPresent(documentId, (id, current) -> {
+            if (isLive(current, now) && current.isHeldBy(userId) && current.getFencingToken() == fencingToken) {
+                renewed[0] = new DocumentLease(id, userId, fencingToken, now.plus(ttl));
+                return renewed[0];
+            }
+            return current;
+        });
+        return Optional.ofNullable(renewed[0]);
+    }
+
+    @Override
+    public boolean release(Long documentId, Long userId, long fencingToken) {
+        boolean[] released = new boolean[1];
+        leases.computeIfPresent(documentId, (id, current) -> {
+            if (current.isHeldBy(userId) && current.getFencingToken() == fencingToken) {
+                released[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return released[0];
+    }
+
+    @Override
+    public Optional<DocumentLease> currentLease(Long documentId) {
+        DocumentLease lease = leases.get(documentId);
+        if (lease == null) {
+            return Optional.empty();
+        }
+        if (!isLive(lease, clock.instant())) {
+            leases.remove(documentId, lease);
+            return Optional.empty();
+        }
+        return Optional.of(lease);
+    }
+
+    private boolean isLive(DocumentLease lease, Instant now) {
+        return lease.getExpiresAt().isAfter(now);
+    }
+}
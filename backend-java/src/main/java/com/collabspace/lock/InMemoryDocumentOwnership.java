@@ -0,0 +1,54 @@
+package com.collabspace.lock;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for {@link RedisDocumentOwnership}. Every instance
+ * attached to the same {@link Registry} competes for the same documents, so
+ * several nodes can be wired together in one JVM; with the default registry
+ * a single node owns everything it asks for.
+ */
+public class InMemoryDocumentOwnership implements DocumentOwnership {
+
+    private final Registry registry;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public InMemoryDocumentOwnership() {
+        this(Registry.SHARED);
+    }
+
+    public InMemoryDocumentOwnership(Registry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String claim(Long documentId, Duration ttl) {
+        long now = System.currentTimeMillis();
+        return registry.claims.compute(documentId, (id, current) ->
+                current == null || current.expiresAt() <= now || current.nodeId().equals(nodeId)
+                        ? new Claim(nodeId, now + ttl.toMillis())
+                        : current).nodeId();
+    }
+
+    @Override
+    public void release(Long documentId) {
+        registry.claims.computeIfPresent(documentId, (id, current) -> current.nodeId().equals(nodeId) ? null : current);
+    }
+
+    public static final class Registry {
+
+        public static final Registry SHARED = new Registry();
+
+        private final Map<Long, Claim> claims = new ConcurrentHashMap<>();
+    }
+
+    private record Claim(String nodeId, long expiresAt) {}
+}
@@ -0,0 +1,23 @@
+package com.collabspace.lock;
+
+import java.time.Duration;
+
+/**
+ * A named lease held by at most one node at a time, for work that must run
+ * on a single node. The holder keeps it by renewing well within the TTL; a
+ * node that dies loses it when the TTL runs out.
+ */
+public interface LeaderLease {
+
+    /**
+     * Takes the lease if it is free, or extends it if this node holds it.
+     *
+     * @return whether this node holds the lease afterwards
+     */
+    boolean acquireOrRenew(Duration ttl);
+
+    /**
+     * Gives the lease up early, if this node holds it.
+     */
+    void release();
+}
@@ -0,0 +1,18 @@
+package com.collabspace.lock;
+
+import java.time.Duration;
+
+/**
+ * Always held: for a single node, or local development without Redis.
+ */
+public class LocalLeaderLease implements LeaderLease {
+
+    @Override
+    public boolean acquireOrRenew(Duration ttl) {
+        return true;
+    }
+
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,154 @@
+package com.collabspace.lock;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Redis-backed leases shared by every backend node. Each operation is a
+ * single Lua script, so acquire, renew and release are atomic and cost one
+ * round trip. The lease value is {@code holderId:fencingToken}; tokens come
+ * from a per-document counter that never expires.
+ */
+public class RedisDocumentLockManager implements DocumentLockManager {
+
+    private static final String LEASE_KEY_PREFIX = "doc:lock:";
+    private static final String FENCE_KEY_PREFIX = "doc:lock:fence:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+              local sep = string.find(current, ':')
+              local holder = string.sub(current, 1, sep - 1)
+              if holder ~= ARGV[1] then
+                return {0, tonumber(holder), tonumber(string.sub(current, sep + 1)), redis.call('PTTL', KEYS[1])}
+              end
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+              return {1, tonumber(holder), tonumber(string.sub(current, sep + 1)), tonumber(ARGV[2])}
+            end
+            local token = redis.call('INCR', KEYS[2])
+            redis.call('SET', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])
+            return {1, tonumber(ARGV[1]), token, tonumber(ARGV[2])}
+            """, List.class);
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CURRENT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if not current then
+              return {}
+            end
+            local sep = string.find(current, ':')
+            return {tonumber(string.sub(current, 1, sep - 1)), tonumber(string.sub(current, sep + 1)), redis.call('PTTL', KEYS[1])}
+            """, List.class);
+
+    // One {holderId, fencingToken, pttl} triple per key, zeros for a free document.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CURRENT_ALL = new DefaultRedisScript<>("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+              local current = redis.call('GET', key)
+              if current then
+                local sep = string.find(current, ':')
+                table.insert(result, tonumber(string.sub(current, 1, sep - 1)))
+                table.insert(result, tonumber(string.sub(current, sep + 1)))
+                table.insert(result, redis.call('PTTL', key))
+              else
+                table.insert(result, 0)
+                table.insert(result, 0)
+                table.insert(result, 0)
+              end
+            end
+            return result
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisDocumentLockManager(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public LockResult acquire(Long documentId, Long userId, Duration ttl) {
+        List<?> result = redisTemplate.execute(ACQUIRE, List.of(leaseKey(documentId), FENCE_KEY_PREFIX + documentId),
+                userId.toString(), Long.toString(ttl.toMillis()));
+        boolean acquired = toLong(result.get(0)) == 1;
+        return new LockResult(acquired, lease(documentId, toLong(result.get(1)), toLong(result.get(2)), toLong(result.get(3))));
+    }
+
+    @Override
+    public Optional<DocumentLease> renew(Long documentId, Long userId, long fencingToken, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW, List.of(leaseKey(documentId)),
+                userId + ":" + fencingToken, Long.toString(ttl.toMillis()));
+        return renewed != null && renewed == 1
+                ? Optional.of(lease(documentId, userId, fencingToken, ttl.toMillis()))
+                : Optional.empty();
+    }
+
+    @Override
+    public boolean release(Long documentId, Long userId, long fencingToken) {
+        Long released = redisTemplate.execute(RELEASE, List.of(leaseKey(documentId)), userId + ":" + fencingToken);
+        return released != null && released == 1;
+    }
+
+    @Override
+    public Optional<DocumentLease> currentLease(Long documentId) {
+        List<?> result = redisTemplate.execute(CURRENT, List.of(leaseKey(documentId)));
+        if (result == null || result.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(lease(documentId, toLong(result.get(0)), toLong(result.get(1)), toLong(result.get(2))));
+    }
+
+    @Override
+    public Map<Long, DocumentLease> currentLeases(Collection<Long> documentIds) {
+        Map<Long, DocumentLease> leases = new HashMap<>();
+        if (documentIds.isEmpty()) {
+            return leases;
+        }
+        List<Long> ids = new ArrayList<>(documentIds);
+        List<?> result = redisTemplate.execute(CURRENT_ALL, ids.stream().map(RedisDocumentLockManager::leaseKey).toList());
+        for (int i = 0; result != null && i < ids.size(); i++) {
+            long fencingToken = toLong(result.get(3 * i + 1));
+            if (fencingToken > 0) {
+                leases.put(ids.get(i), lease(ids.get(i), toLong(result.get(3 * i)), fencingToken, toLong(result.get(3 * i + 2))));
+            }
+        }
+        return leases;
+    }
+
+    private DocumentLease lease(Long documentId, long holderId, long fencingToken, long ttlMillis) {
+        return new DocumentLease(documentId, holderId, fencingToken, Instant.now().plusMillis(Math.max(ttlMillis, 0)));
+    }
+
+    private static String leaseKey(Long documentId) {
+        return LEASE_KEY_PREFIX + documentId;
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+}
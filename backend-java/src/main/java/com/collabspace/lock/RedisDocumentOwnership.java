@@ -0,0 +1,59 @@
+package com.collabspace.lock;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Document owners in one Redis key per document holding the owner's node
+ * id. Claim and release are each one atomic script.
+ */
+public class RedisDocumentOwnership implements DocumentOwnership {
+
+    private static final String KEY_PREFIX = "collab:owner:";
+
+    private static final RedisScript<String> CLAIM = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if not current then
+              redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+              return ARGV[1]
+            end
+            if current == ARGV[1] then
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return current
+            """, String.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RedisDocumentOwnership(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String claim(Long documentId, Duration ttl) {
+        return redisTemplate.execute(CLAIM, List.of(KEY_PREFIX + documentId), nodeId, Long.toString(ttl.toMillis()));
+    }
+
+    @Override
+    public void release(Long documentId) {
+        redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + documentId), nodeId);
+    }
+}
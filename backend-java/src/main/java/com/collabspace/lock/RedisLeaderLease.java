@@ -0,0 +1,57 @@
+package com.collabspace.lock;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leader lease in a single Redis key holding the holder's node id. Acquire,
+ * renew and release are each one atomic script.
+ */
+public class RedisLeaderLease implements LeaderLease {
+
+    private static final String KEY_PREFIX = "leader:";
+
+    private static final RedisScript<Long> ACQUIRE_OR_RENEW = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            if current then
+              return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RedisLeaderLease(StringRedisTemplate redisTemplate, String name) {
+        this.redisTemplate = redisTemplate;
+        this.key = KEY_PREFIX + name;
+    }
+
+    @Override
+    public boolean acquireOrRenew(Duration ttl) {
+        Long held = redisTemplate.execute(ACQUIRE_OR_RENEW, List.of(key), nodeId, Long.toString(ttl.toMillis()));
+        return held != null && held == 1;
+    }
+
+    @Override
+    public void release() {
+        redisTemplate.execute(RELEASE, List.of(key), nodeId);
+    }
+}
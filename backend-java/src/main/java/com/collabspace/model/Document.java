@@ -1,5 +1,7 @@
 package com.collabspace.model;
 
+import com.collabspace.analytics.DocumentActivityListener;
+import com.collabspace.cache.DocumentTeamCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -11,7 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "documents")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, DocumentActivityListener.class, DocumentTeamCacheListener.class})
 public class Document {
 
     @Id
@@ -23,8 +25,10 @@ public class Document {
     @Size(max = 255)
     private String title;
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
+    // The body lives in document_contents and is only written over JDBC
+    // through the ContentStore, never by entity saves.
+    @Column(name = "content_hash", insertable = false, updatable = false)
+    private byte[] contentHash;
 
     @Enumerated(EnumType.STRING)
     private DocumentType type = DocumentType.DOCUMENT;
@@ -53,9 +57,14 @@ public class Document {
     @Column(name = "locked_at")
     private LocalDateTime lockedAt;
 
-    @Column(name = "google_drive_id")
+    // Both written only by the export pipeline, never by entity saves, so a
+    // stale entity cannot roll back a completed export.
+    @Column(name = "google_drive_id", updatable = false)
     private String googleDriveId;
 
+    @Column(name = "google_drive_exported_version", insertable = false, updatable = false)
+    private Integer googleDriveExportedVersion;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -81,8 +90,8 @@ public class Document {
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getContent() { return content; }
-    public void setContent(String content) { this.content = content; }
+    public byte[] getContentHash() { return contentHash; }
+    public void setContentHash(byte[] contentHash) { this.contentHash = contentHash; }
 
     public DocumentType getType() { return type; }
     public void setType(DocumentType type) { this.type = type; }
@@ -111,6 +120,9 @@ public class Document {
     public String getGoogleDriveId() { return googleDriveId; }
     public void setGoogleDriveId(String googleDriveId) { this.googleDriveId = googleDriveId; }
 
+    public Integer getGoogleDriveExportedVersion() { return googleDriveExportedVersion; }
+    public void setGoogleDriveExportedVersion(Integer googleDriveExportedVersion) { this.googleDriveExportedVersion = googleDriveExportedVersion; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -54,6 +54,9 @@ public class Meeting {
     @Column(name = "google_calendar_event_id")
     private String googleCalendarEventId;
 
+    @Column(name = "recurrence", columnDefinition = "TEXT")
+    private String recurrence;
+
     @Column(name = "transcript_url")
     private String transcriptUrl;
 
@@ -127,6 +130,9 @@ public class Meeting {
     public String getGoogleCalendarEventId() { return googleCalendarEventId; }
     public void setGoogleCalendarEventId(String googleCalendarEventId) { this.googleCalendarEventId = googleCalendarEventId; }
 
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
     public String getTranscriptUrl() { return transcriptUrl; }
     public void setTranscriptUrl(String transcriptUrl) { this.transcriptUrl = transcriptUrl; }
 
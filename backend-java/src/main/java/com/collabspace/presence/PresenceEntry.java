@@ -0,0 +1,87 @@
+package com.collabspace.presence;
+
+import com.collabspace.dto.PresenceDTO;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Presence of one connection in one room. Heartbeats for a connection
+ * arrive one at a time; the flusher reads concurrently, so the cursor and
+ * selection are swapped in as a single immutable {@link Position}.
+ */
+final class PresenceEntry {
+
+    private final String id;
+    private final String sessionId;
+    private final Long userId;
+    private final String name;
+    private final String profilePicture;
+
+    private volatile Position position = Position.NONE;
+    private volatile long lastActiveAt;
+    private volatile long lastAnnouncedAt;
+    private volatile boolean dirty = true;
+
+    PresenceEntry(String id, String sessionId, Long userId, String name, String profilePicture, long now) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.name = name;
+        this.profilePicture = profilePicture;
+        this.lastActiveAt = now;
+    }
+
+    String getId() { return id; }
+    String getSessionId() { return sessionId; }
+    Long getUserId() { return userId; }
+    long getLastActiveAt() { return lastActiveAt; }
+
+    /**
+     * Records a heartbeat.
+     *
+     * @return whether the entry should go out in the next diff, either
+     *         because it moved or because it has not been announced for
+     *         {@code announceIntervalMs}
+     */
+    boolean touch(Integer cursor, Integer selectionStart, Integer selectionEnd, long now, long announceIntervalMs) {
+        lastActiveAt = now;
+        Position current = position;
+        if (!current.matches(cursor, selectionStart, selectionEnd)) {
+            position = new Position(cursor, selectionStart, selectionEnd);
+            dirty = true;
+        } else if (now - lastAnnouncedAt >= announceIntervalMs) {
+            dirty = true;
+        }
+        return dirty;
+    }
+
+    /**
+     * Clears the dirty flag before the state is read, so a heartbeat racing
+     * with the flush marks the entry again rather than being lost.
+     */
+    boolean takeDirty(long now) {
+        if (!dirty) {
+            return false;
+        }
+        dirty = false;
+        lastAnnouncedAt = now;
+        return true;
+    }
+
+    PresenceDTO toDTO() {
+        Position current = position;
+        return new PresenceDTO(id, userId, name, profilePicture, current.cursor(), current.selectionStart(),
+                current.selectionEnd(), Instant.ofEpochMilli(lastActiveAt));
+    }
+
+    private record Position(Integer cursor, Integer selectionStart, Integer selectionEnd) {
+
+        static final Position NONE = new Position(null, null, null);
+
+        boolean matches(Integer otherCursor, Integer otherStart, Integer otherEnd) {
+            return Objects.equals(cursor, otherCursor) && Objects.equals(selectionStart, otherStart)
+                    && Objects.equals(selectionEnd, otherEnd);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.collabspace.presence;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Everyone present in one document or meeting on this node, keyed by
+ * WebSocket session id, plus the departures not yet sent out.
+ */
+final class PresenceRoom {
+
+    final Map<String, PresenceEntry> entries = new ConcurrentHashMap<>();
+    final Queue<String> departed = new ConcurrentLinkedQueue<>();
+
+    boolean isIdle() {
+        return entries.isEmpty() && departed.isEmpty();
+    }
+}
@@ -0,0 +1,327 @@
+package com.collabspace.presence;
+
+import com.collabspace.dto.CollaborationMessage;
+import com.collabspace.dto.PresenceDTO;
+import com.collabspace.dto.UserDTO;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.service.UserService;
+import com.collabspace.websocket.BroadcastHub;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.OutboundFrame;
+import com.collabspace.websocket.RoomKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is in each document and meeting, where their cursor is and when they
+ * were last active, held in memory and fed by WebSocket heartbeats.
+ *
+ * <p>A heartbeat is two map lookups and a few volatile writes. Changes are
+ * not pushed one by one: rooms with changes are flushed every
+ * {@code presence.flush-interval-ms} as a single diff frame per room.
+ * Diffs are droppable, so presence never pushes a slow client into
+ * overflow; instead every connection is re-announced at least every
+ * {@code presence.announce-interval-ms}, and clients should forget a
+ * connection not heard of for {@code presence.ttl-ms}. Connections that
+ * stop sending heartbeats for that long are removed here too.</p>
+ *
+ * <p>Only this node's connections are tracked. Diffs reach every node's
+ * sockets through the hub; document diffs are also published on the
+ * cluster transport and merged into a view of the other nodes'
+ * connections. That view only answers {@link #getDocumentCollaborators},
+ * and its entries expire like a client's would.</p>
+ */
+@Service
+public class PresenceService {
+
+    static final String CHANNEL = "presence:documents";
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private final Map<RoomKey, PresenceRoom> rooms = new ConcurrentHashMap<>();
+    private final Set<RoomKey> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Map<String, RemotePresence>> remoteDocuments = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired(required = false)
+    private ClusterTransport clusterTransport;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${presence.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${presence.announce-interval-ms:10000}")
+    private long announceIntervalMs;
+
+    private Counter heartbeats;
+    private Counter diffs;
+    private Counter expired;
+
+    @PostConstruct
+    public void init() {
+        heartbeats = Counter.builder("presence.heartbeats").register(meterRegistry);
+        diffs = Counter.builder("presence.diffs").description("Presence diff frames broadcast").register(meterRegistry);
+        expired = Counter.builder("presence.expired").description("Connections dropped for missing heartbeats").register(meterRegistry);
+        Gauge.builder("presence.rooms", rooms, Map::size).register(meterRegistry);
+        if (clusterTransport != null) {
+            clusterTransport.subscribe(CHANNEL, this::receive);
+        }
+    }
+
+    /**
+     * Adds the connection to the room and sends it everyone already there.
+     */
+    public void join(RoomKey room, String sessionId, Long userId) {
+        String name = null;
+        String profilePicture = null;
+        try {
+            UserDTO profile = userService.getUserProfile(userId);
+            name = profile.getName();
+            profilePicture = profile.getProfilePicture();
+        } catch (RuntimeException e) {
+            logger.debug("No profile for user {} joining {}: {}", userId, room, e.getMessage());
+        }
+        PresenceEntry entry = new PresenceEntry(UUID.randomUUID().toString(), sessionId, userId, name, profilePicture,
+                System.currentTimeMillis());
+        rooms.compute(room, (key, existing) -> {
+            PresenceRoom presenceRoom = existing != null ? existing : new PresenceRoom();
+            PresenceEntry replaced = presenceRoom.entries.put(sessionId, entry);
+            if (replaced != null) {
+                presenceRoom.departed.add(replaced.getId());
+            }
+            return presenceRoom;
+        });
+        dirtyRooms.add(room);
+
+        List<PresenceDTO> present = rooms.getOrDefault(room, new PresenceRoom()).entries.values().stream()
+                .map(PresenceEntry::toDTO)
+                .toList();
+        broadcastHub.send(sessionId, OutboundFrame.reliable(toTextMessage(
+                CollaborationMessage.presenceSnapshot(documentId(room), meetingId(room), present))));
+    }
+
+    /**
+     * Records a heartbeat, re-adding the connection if it had expired.
+     *
+     * @return false if the connection is not in the room
+     */
+    public boolean heartbeat(RoomKey room, String sessionId, Long userId,
+                             Integer cursor, Integer selectionStart, Integer selectionEnd) {
+        heartbeats.increment();
+        PresenceRoom presenceRoom = rooms.get(room);
+        PresenceEntry entry = presenceRoom != null ? presenceRoom.entries.get(sessionId) : null;
+        if (entry == null) {
+            if (!broadcastHub.isMember(sessionId, room)) {
+                return false;
+            }
+            join(room, sessionId, userId);
+            presenceRoom = rooms.get(room);
+            entry = presenceRoom != null ? presenceRoom.entries.get(sessionId) : null;
+            if (entry == null) {
+                return true;
+            }
+        }
+        if (entry.touch(cursor, selectionStart, selectionEnd, System.currentTimeMillis(), announceIntervalMs)) {
+            dirtyRooms.add(room);
+        }
+        return true;
+    }
+
+    public void leave(RoomKey room, String sessionId) {
+        remove(room, sessionId, null);
+    }
+
+    /**
+     * Users currently in the document on any node, one entry per user (their
+     * most recently active connection).
+     */
+    public List<PresenceDTO> getDocumentCollaborators(Long documentId, Long userId) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        List<PresenceDTO> present = new ArrayList<>();
+        PresenceRoom presenceRoom = rooms.get(RoomKey.document(documentId));
+        if (presenceRoom != null) {
+            presenceRoom.entries.values().forEach(entry -> present.add(entry.toDTO()));
+        }
+        Map<String, RemotePresence> remote = remoteDocuments.get(documentId);
+        if (remote != null) {
+            remote.values().forEach(entry -> present.add(entry.presence()));
+        }
+        Map<Long, PresenceDTO> latestByUser = new HashMap<>();
+        for (PresenceDTO presence : present) {
+            latestByUser.merge(presence.getUserId(), presence,
+                    (a, b) -> !a.getLastActiveAt().isBefore(b.getLastActiveAt()) ? a : b);
+        }
+        return latestByUser.values().stream()
+                .sorted(Comparator.comparing(PresenceDTO::getLastActiveAt).reversed())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:100}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (RoomKey room : dirtyRooms) {
+            // Unmark before reading, so changes made during the scan are picked up next time.
+            dirtyRooms.remove(room);
+            PresenceRoom presenceRoom = rooms.get(room);
+            if (presenceRoom == null) {
+                continue;
+            }
+            List<PresenceDTO> changed = new ArrayList<>();
+            for (PresenceEntry entry : presenceRoom.entries.values()) {
+                if (entry.takeDirty(now)) {
+                    changed.add(entry.toDTO());
+                }
+            }
+            List<String> departed = new ArrayList<>();
+            for (String id = presenceRoom.departed.poll(); id != null; id = presenceRoom.departed.poll()) {
+                departed.add(id);
+            }
+            if (!changed.isEmpty() || !departed.isEmpty()) {
+                String json = toJson(CollaborationMessage.presence(documentId(room), meetingId(room), changed, departed));
+                broadcastHub.broadcast(room, OutboundFrame.droppable(new TextMessage(json)), null);
+                if (room.type() == RoomKey.Type.DOCUMENT) {
+                    publish(room, json);
+                }
+                diffs.increment();
+            }
+            rooms.computeIfPresent(room, (key, current) -> current.isIdle() ? null : current);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${presence.sweep-interval-ms:1000}")
+    public void expireIdle() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        rooms.forEach((room, presenceRoom) -> {
+            for (PresenceEntry entry : presenceRoom.entries.values()) {
+                if (entry.getLastActiveAt() < cutoff && remove(room, entry.getSessionId(), entry)) {
+                    expired.increment();
+                }
+            }
+        });
+        // Another node's connections are re-announced at least every
+        // announce-interval-ms while they are alive.
+        remoteDocuments.forEach((documentId, remote) -> {
+            remote.values().removeIf(entry -> entry.receivedAt() < cutoff);
+            remoteDocuments.computeIfPresent(documentId, (key, current) -> current.isEmpty() ? null : current);
+        });
+    }
+
+    private void publish(RoomKey room, String json) {
+        if (clusterTransport == null) {
+            return;
+        }
+        try {
+            clusterTransport.publish(CHANNEL, (nodeId + "\n" + json).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // The next announcement carries the same state.
+            logger.warn("Failed to relay presence for {}: {}", room, e.getMessage());
+        }
+    }
+
+    private void receive(byte[] message) {
+        String[] parts = new String(message, StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        CollaborationMessage diff;
+        try {
+            diff = objectMapper.readValue(parts[1], CollaborationMessage.class);
+        } catch (IOException e) {
+            logger.warn("Dropping malformed presence diff: {}", e.getMessage());
+            return;
+        }
+        if (diff.getDocumentId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        remoteDocuments.compute(diff.getDocumentId(), (documentId, existing) -> {
+            Map<String, RemotePresence> remote = existing != null ? existing : new ConcurrentHashMap<>();
+            if (diff.getPresence() != null) {
+                diff.getPresence().forEach(presence -> remote.put(presence.getId(), new RemotePresence(presence, now)));
+            }
+            if (diff.getDeparted() != null) {
+                diff.getDeparted().forEach(remote::remove);
+            }
+            return remote.isEmpty() ? null : remote;
+        });
+    }
+
+    /**
+     * Removes the session's entry, or only {@code expected} if given.
+     */
+    private boolean remove(RoomKey room, String sessionId, PresenceEntry expected) {
+        boolean[] removed = new boolean[1];
+        rooms.computeIfPresent(room, (key, presenceRoom) -> {
+            PresenceEntry entry = presenceRoom.entries.get(sessionId);
+            if (entry != null && (expected == null || entry == expected)) {
+                presenceRoom.entries.remove(sessionId);
+                presenceRoom.departed.add(entry.getId());
+                removed[0] = true;
+            }
+            return presenceRoom;
+        });
+        if (removed[0]) {
+            dirtyRooms.add(room);
+        }
+        return removed[0];
+    }
+
+    private static Long documentId(RoomKey room) {
+        return room.type() == RoomKey.Type.DOCUMENT ? room.id() : null;
+    }
+
+    private static Long meetingId(RoomKey room) {
+        return room.type() == RoomKey.Type.MEETING ? room.id() : null;
+    }
+
+    private TextMessage toTextMessage(CollaborationMessage message) {
+        return new TextMessage(toJson(message));
+    }
+
+    private String toJson(CollaborationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize presence message", e);
+        }
+    }
+
+    /** Another node's connection as last announced. */
+    private record RemotePresence(PresenceDTO presence, long receivedAt) {}
+}
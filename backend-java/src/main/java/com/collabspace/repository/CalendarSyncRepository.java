@@ -0,0 +1,251 @@
+package com.collabspace.repository;
+
+import com.collabspace.integration.CalendarClient.CalendarEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to per-team calendar sync state and the meetings it feeds.
+ *
+ * <p>Teams are claimed for syncing with {@code FOR UPDATE SKIP LOCKED}, so
+ * any number of nodes can poll without syncing a team twice. Changed events
+ * are written with one batched upsert per page, keyed on
+ * {@code (team_id, google_calendar_event_id)}.</p>
+ */
+@Repository
+public class CalendarSyncRepository {
+
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private static final String COLUMNS = "team_id, calendar_id, connected_by, sync_token, page_token, " +
+            "full_sync_started_at, channel_id, channel_resource_id, channel_token, channel_expires_at, next_sync_at, " +
+            "consecutive_failures, last_synced_at, last_full_sync_at, last_error";
+
+    private static final RowMapper<CalendarSync> SYNC_MAPPER = (rs, rowNum) -> new CalendarSync(
+            rs.getLong("team_id"),
+            rs.getString("calendar_id"),
+            rs.getLong("connected_by"),
+            rs.getString("sync_token"),
+            rs.getString("page_token"),
+            instant(rs.getTimestamp("full_sync_started_at")),
+            rs.getString("channel_id"),
+            rs.getString("channel_resource_id"),
+            rs.getString("channel_token"),
+            instant(rs.getTimestamp("channel_expires_at")),
+            instant(rs.getTimestamp("next_sync_at")),
+            rs.getInt("consecutive_failures"),
+            instant(rs.getTimestamp("last_synced_at")),
+            instant(rs.getTimestamp("last_full_sync_at")),
+            rs.getString("last_error"));
+
+    private static final String UPSERT_MEETING_SQL =
+            "INSERT INTO meetings (title, description, team_id, created_by, start_time, end_time, duration_minutes, " +
+            "status, meeting_url, google_calendar_event_id, recurrence, google_calendar_synced_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 'SCHEDULED', ?, ?, ?, now()) " +
+            "ON CONFLICT (team_id, google_calendar_event_id) WHERE google_calendar_event_id IS NOT NULL DO UPDATE SET " +
+            "title = EXCLUDED.title, description = EXCLUDED.description, start_time = EXCLUDED.start_time, " +
+            "end_time = EXCLUDED.end_time, duration_minutes = EXCLUDED.duration_minutes, " +
+            "meeting_url = COALESCE(EXCLUDED.meeting_url, meetings.meeting_url), recurrence = EXCLUDED.recurrence, " +
+            "google_calendar_synced_at = now(), " +
+            "status = CASE WHEN meetings.status = 'CANCELLED' THEN 'SCHEDULED' ELSE meetings.status END";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Connects a calendar to the team, or re-requests a sync if it already is.
+     */
+    public CalendarSync connect(Long teamId, String calendarId, Long connectedBy) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO team_calendar_syncs (team_id, calendar_id, connected_by) VALUES (?, ?, ?) " +
+                "ON CONFLICT (team_id) DO UPDATE SET connected_by = EXCLUDED.connected_by, next_sync_at = now(), " +
+                "consecutive_failures = 0, last_error = NULL, updated_at = now() RETURNING " + COLUMNS,
+                SYNC_MAPPER, teamId, calendarId, connectedBy);
+    }
+
+    public Optional<CalendarSync> findByTeamId(Long teamId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM team_calendar_syncs WHERE team_id = ?", SYNC_MAPPER, teamId)
+                .stream().findFirst();
+    }
+
+    public void delete(Long teamId) {
+        jdbcTemplate.update("DELETE FROM team_calendar_syncs WHERE team_id = ?", teamId);
+    }
+
+    /**
+     * Leases up to {@code limit} teams that are due, oldest first, including
+     * teams whose previous lease ran out.
+     */
+    public List<CalendarSync> claimDue(int limit, long leaseMs) {
+        return jdbcTemplate.query(
+                "UPDATE team_calendar_syncs SET locked_until = now() + ? * interval '1 millisecond', updated_at = now() " +
+                "WHERE team_id IN (" +
+                "  SELECT team_id FROM team_calendar_syncs " +
+                "  WHERE next_sync_at <= now() AND (locked_until IS NULL OR locked_until < now()) " +
+                "  ORDER BY next_sync_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING " + COLUMNS,
+                SYNC_MAPPER, leaseMs, limit);
+    }
+
+    /**
+     * Moves a team's next sync earlier, never later, so a burst of
+     * notifications collapses into one sync.
+     *
+     * @return whether the channel is one of ours
+     */
+    public boolean markDueByChannel(String channelId, String channelToken, long delayMs) {
+        return jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET next_sync_at = LEAST(next_sync_at, now() + ? * interval '1 millisecond') " +
+                "WHERE channel_id = ? AND channel_token = ?",
+                delayMs, channelId, channelToken) > 0;
+    }
+
+    public void markDue(Long teamId) {
+        jdbcTemplate.update("UPDATE team_calendar_syncs SET next_sync_at = now() WHERE team_id = ?", teamId);
+    }
+
+    /**
+     * Applies one page of changes and records where the sync resumes, in one
+     * transaction, so a crash never skips or half-applies a page.
+     *
+     * @return the meetings written
+     */
+    @Transactional
+    public List<Long> applyPage(Long teamId, Long createdBy, List<CalendarEvent> events, String pageToken,
+                          Instant fullSyncStartedAt) {
+        List<CalendarEvent> live = new ArrayList<>();
+        List<String> cancelled = new ArrayList<>();
+        List<String> written = new ArrayList<>();
+        for (CalendarEvent event : events) {
+            if (event.isCancelled()) {
+                cancelled.add(event.id());
+            } else if (event.start() != null) {
+                live.add(event);
+            }
+            written.add(event.id());
+        }
+        if (!live.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_MEETING_SQL, live, live.size(), (ps, event) -> {
+                ps.setString(1, title(event.title()));
+                ps.setString(2, event.description());
+                ps.setLong(3, teamId);
+                ps.setLong(4, createdBy);
+                ps.setTimestamp(5, Timestamp.from(event.start()));
+                ps.setTimestamp(6, event.end() != null ? Timestamp.from(event.end()) : null);
+                if (event.end() != null) {
+                    ps.setInt(7, (int) Duration.between(event.start(), event.end()).toMinutes());
+                } else {
+                    ps.setNull(7, Types.INTEGER);
+                }
+                ps.setString(8, event.meetingUrl());
+                ps.setString(9, event.id());
+                ps.setString(10, event.recurrence() != null ? String.join("\n", event.recurrence()) : null);
+            });
+        }
+        if (!cancelled.isEmpty()) {
+            // Also covers cancelled instances of a series, which never had a row.
+            jdbcTemplate.update(
+                    "UPDATE meetings SET status = 'CANCELLED', google_calendar_synced_at = now() " +
+                    "WHERE team_id = ? AND google_calendar_event_id = ANY(?) AND status <> 'CANCELLED'",
+                    teamId, (Object) cancelled.toArray(new String[0]));
+        }
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET page_token = ?, full_sync_started_at = ?, updated_at = now() WHERE team_id = ?",
+                pageToken, timestamp(fullSyncStartedAt), teamId);
+        if (written.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM meetings WHERE team_id = ? AND google_calendar_event_id = ANY(?)",
+                Long.class, teamId, (Object) written.toArray(new String[0]));
+    }
+
+    /**
+     * Finishes a sync. After a full sync, synced meetings it did not see were
+     * deleted from the calendar in the meantime and are cancelled.
+     *
+     * @return the meetings cancelled that way
+     */
+    @Transactional
+    public List<Long> complete(Long teamId, String syncToken, Instant fullSyncStartedAt, Instant nextSyncAt) {
+        List<Long> cancelled = List.of();
+        if (fullSyncStartedAt != null) {
+            cancelled = jdbcTemplate.query(
+                    "UPDATE meetings SET status = 'CANCELLED' WHERE team_id = ? AND google_calendar_event_id IS NOT NULL " +
+                    "AND google_calendar_synced_at < ? AND status = 'SCHEDULED' RETURNING id",
+                    (rs, rowNum) -> rs.getLong("id"), teamId, Timestamp.from(fullSyncStartedAt));
+        }
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET sync_token = ?, page_token = NULL, full_sync_started_at = NULL, " +
+                "last_synced_at = now(), last_full_sync_at = CASE WHEN ? THEN now() ELSE last_full_sync_at END, " +
+                "consecutive_failures = 0, last_error = NULL, locked_until = NULL, next_sync_at = ?, updated_at = now() " +
+                "WHERE team_id = ?",
+                syncToken, fullSyncStartedAt != null, Timestamp.from(nextSyncAt), teamId);
+        return cancelled;
+    }
+
+    /**
+     * Hands an unfinished sync back to the queue; it resumes from its page token.
+     */
+    public void release(Long teamId, Instant nextSyncAt) {
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET locked_until = NULL, next_sync_at = ?, updated_at = now() WHERE team_id = ?",
+                Timestamp.from(nextSyncAt), teamId);
+    }
+
+    /**
+     * Forgets an expired sync token; the next sync lists the whole calendar.
+     */
+    public void resetSyncToken(Long teamId) {
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET sync_token = NULL, page_token = NULL, full_sync_started_at = NULL, " +
+                "locked_until = NULL, next_sync_at = now(), updated_at = now() WHERE team_id = ?",
+                teamId);
+    }
+
+    public void fail(Long teamId, String error, Instant nextSyncAt) {
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET consecutive_failures = consecutive_failures + 1, last_error = ?, " +
+                "locked_until = NULL, next_sync_at = ?, updated_at = now() WHERE team_id = ?",
+                error, Timestamp.from(nextSyncAt), teamId);
+    }
+
+    public void saveChannel(Long teamId, String channelId, String resourceId, String token, Instant expiresAt) {
+        jdbcTemplate.update(
+                "UPDATE team_calendar_syncs SET channel_id = ?, channel_resource_id = ?, channel_token = ?, " +
+                "channel_expires_at = ?, updated_at = now() WHERE team_id = ?",
+                channelId, resourceId, token, timestamp(expiresAt), teamId);
+    }
+
+    private static String title(String title) {
+        if (title == null || title.isBlank()) {
+            return "(No title)";
+        }
+        return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    public record CalendarSync(Long teamId, String calendarId, Long connectedBy, String syncToken, String pageToken,
+                               Instant fullSyncStartedAt, String channelId, String channelResourceId,
+                               String channelToken, Instant channelExpiresAt, Instant nextSyncAt,
+                               int consecutiveFailures, Instant lastSyncedAt, Instant lastFullSyncAt,
+                               String lastError) {}
+}
@@ -0,0 +1,172 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code document_contents}, the content-addressed store of
+ * document and snapshot bodies. Rows are immutable apart from their codec:
+ * the hash is of the uncompressed text, so recompressing keeps every
+ * reference valid.
+ */
+@Repository
+public class DocumentContentRepository {
+
+    public static final String NONE = "NONE";
+    public static final String ZSTD = "ZSTD";
+
+    /**
+     * Writes {@code content_vector} from a {@link #searchText} parameter.
+     * Must match the expression in the search index.
+     */
+    public static final String CONTENT_VECTOR_SQL = "setweight(to_tsvector('english', ?), 'B')";
+
+    /** Full-text search only covers this much of a body, as tsvector size is bounded. */
+    public static final int MAX_SEARCH_CHARS = 500_000;
+
+    /** Length of {@code content_excerpt}, which search highlights are built from. */
+    public static final int EXCERPT_CHARS = 4096;
+
+    /**
+     * Columns under which queries joining a body select it, for
+     * {@link StoredContent#fromRow}.
+     */
+    public static final String CONTENT_COLUMNS_SQL =
+            "c.codec AS content_codec, c.raw_size AS content_raw_size, c.data AS content_data";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores the bodies that are new and marks the others as used again, so
+     * that garbage collection cannot take a body a caller is about to
+     * reference. Rows are written in hash order so concurrent writers of the
+     * same bodies cannot deadlock.
+     */
+    public void save(List<EncodedContent> contents) {
+        if (contents.isEmpty()) {
+            return;
+        }
+        List<EncodedContent> sorted = contents.stream()
+                .sorted(Comparator.comparing(EncodedContent::hash, Arrays::compareUnsigned))
+                .toList();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO document_contents (hash, codec, raw_size, data) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (hash) DO UPDATE SET last_used_at = CURRENT_TIMESTAMP",
+                sorted, sorted.size(), (ps, content) -> {
+                    ps.setBytes(1, content.hash());
+                    ps.setString(2, content.codec());
+                    ps.setInt(3, content.rawSize());
+                    ps.setBytes(4, content.data());
+                });
+    }
+
+    public Optional<StoredContent> find(byte[] hash) {
+        return jdbcTemplate.query(
+                "SELECT " + CONTENT_COLUMNS_SQL + " FROM document_contents c WHERE c.hash = ?",
+                (rs, rowNum) -> StoredContent.fromRow(rs), hash).stream().findFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} bodies that nothing references and that
+     * have not been stored or reused since {@code unusedSince}. Rows a
+     * writer is reusing right now are locked by it and skipped.
+     */
+    public int deleteUnreferenced(Instant unusedSince, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM document_contents WHERE hash IN (" +
+                "  SELECT c.hash FROM document_contents c " +
+                "  WHERE c.last_used_at < ? " +
+                "    AND NOT EXISTS (SELECT 1 FROM documents d WHERE d.content_hash = c.hash) " +
+                "    AND NOT EXISTS (SELECT 1 FROM document_versions v WHERE v.content_hash = c.hash) " +
+                "  ORDER BY c.last_used_at LIMIT ? FOR UPDATE SKIP LOCKED)",
+                Timestamp.from(unusedSince), limit);
+    }
+
+    /**
+     * Uncompressed bodies of at least {@code minSize} bytes, largest first.
+     */
+    public List<UncompressedContent> findUncompressed(int minSize, int limit) {
+        return jdbcTemplate.query(
+                "SELECT hash, data FROM document_contents WHERE codec = 'NONE' AND raw_size >= ? " +
+                "ORDER BY raw_size DESC LIMIT ?",
+                (rs, rowNum) -> new UncompressedContent(rs.getBytes("hash"), rs.getBytes("data")),
+                minSize, limit);
+    }
+
+    public int replaceData(byte[] hash, String codec, byte[] data) {
+        return jdbcTemplate.update("UPDATE document_contents SET codec = ?, data = ? WHERE hash = ? AND codec <> ?",
+                codec, data, hash, codec);
+    }
+
+    /**
+     * The part of a body that full-text search covers.
+     */
+    public static String searchText(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() > MAX_SEARCH_CHARS ? content.substring(0, MAX_SEARCH_CHARS) : content;
+    }
+
+    /**
+     * Documents with a body but no excerpt yet, as left by the migration for
+     * compressed bodies, with the body to take it from.
+     */
+    public List<MissingExcerpt> findMissingExcerpts(int limit) {
+        return jdbcTemplate.query(
+                "SELECT d.id, " + CONTENT_COLUMNS_SQL + " FROM documents d JOIN document_contents c ON c.hash = d.content_hash " +
+                "WHERE d.content_excerpt IS NULL LIMIT ?",
+                (rs, rowNum) -> new MissingExcerpt(rs.getLong("id"), StoredContent.fromRow(rs)), limit);
+    }
+
+    public void updateExcerpts(Map<Long, String> excerpts) {
+        if (excerpts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE documents SET content_excerpt = ? WHERE id = ? AND content_excerpt IS NULL",
+                List.copyOf(excerpts.entrySet()), excerpts.size(), (ps, entry) -> {
+                    ps.setString(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+    }
+
+    /**
+     * The part of a body that search highlights are built from.
+     */
+    public static String excerpt(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() > EXCERPT_CHARS ? content.substring(0, EXCERPT_CHARS) : content;
+    }
+
+    public record MissingExcerpt(Long documentId, StoredContent content) {}
+
+    public record EncodedContent(byte[] hash, String codec, int rawSize, byte[] data) {}
+
+    public record UncompressedContent(byte[] hash, byte[] data) {}
+
+    public record StoredContent(String codec, int rawSize, byte[] data) {
+
+        /**
+         * The body selected with {@link #CONTENT_COLUMNS_SQL}, or null when
+         * the row has none.
+         */
+        public static StoredContent fromRow(ResultSet rs) throws SQLException {
+            byte[] data = rs.getBytes("content_data");
+            return data != null ? new StoredContent(rs.getString("content_codec"), rs.getInt("content_raw_size"), data) : null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to the append-only operation log and its snapshots.
+ * Log rows are written in batches, which the JPA identity-based entities
+ * cannot do.
+ */
+@Repository
+public class DocumentOperationLogRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends the rows and returns those whose version is already logged
+     * with different operations. A row logged with the same operations, as
+     * after a retried batch, is not a conflict.
+     */
+    public List<LoggedOperation> insertOperations(List<LoggedOperation> operations) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO document_operations (document_id, version, user_id, operations, created_at) " +
+                "VALUES (?, ?, ?, ?::jsonb, ?) ON CONFLICT (document_id, version) DO NOTHING",
+                operations, operations.size(), (ps, operation) -> {
+                    ps.setLong(1, operation.documentId());
+                    ps.setInt(2, operation.version());
+                    ps.setObject(3, operation.userId());
+                    ps.setString(4, operation.operationsJson());
+                    ps.setTimestamp(5, Timestamp.from(operation.createdAt()));
+                });
+        List<LoggedOperation> conflicts = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (counts[0][i] == 0 && !isLogged(operations.get(i))) {
+                conflicts.add(operations.get(i));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Removes the log rows and snapshots above the version, which belong to
+     * edits that never reached the documents row. Returns the number of log
+     * rows removed.
+     */
+    public int deleteAfter(Long documentId, int version) {
+        jdbcTemplate.update("DELETE FROM document_versions WHERE document_id = ? AND version_number > ?", documentId, version);
+        return jdbcTemplate.update("DELETE FROM document_operations WHERE document_id = ? AND version > ?", documentId, version);
+    }
+
+    public List<LoggedOperation> findOperations(Long documentId, int afterVersion, int toVersion, int limit) {
+        return jdbcTemplate.query(
+                "SELECT document_id, version, user_id, operations::text AS operations, created_at FROM document_operations " +
+                "WHERE document_id = ? AND version > ? AND version <= ? ORDER BY version LIMIT ?",
+                (rs, rowNum) -> new LoggedOperation(
+                        rs.getLong("document_id"),
+                        rs.getInt("version"),
+                        (Long) rs.getObject("user_id"),
+                        rs.getString("operations"),
+                        rs.getTimestamp("created_at").toInstant()),
+                documentId, afterVersion, toVersion, limit);
+    }
+
+    public void insertSnapshot(Long documentId, int version, byte[] contentHash, Long createdBy, String summary) {
+        jdbcTemplate.update(
+                "INSERT INTO document_versions (document_id, version_number, content_hash, changes_summary, created_by) " +
+                "VALUES (?, ?, ?, ?, ?) ON CONFLICT (document_id, version_number) DO NOTHING",
+                documentId, version, contentHash, summary, createdBy);
+    }
+
+    public Optional<Snapshot> findNearestSnapshot(Long documentId, int atOrBeforeVersion) {
+        return jdbcTemplate.query(
+                "SELECT version_number, content_hash FROM document_versions " +
+                "WHERE document_id = ? AND version_number <= ? ORDER BY version_number DESC LIMIT 1",
+                (rs, rowNum) -> new Snapshot(rs.getInt("version_number"), rs.getBytes("content_hash")),
+                documentId, atOrBeforeVersion).stream().findFirst();
+    }
+
+    public Optional<Integer> findLatestSnapshotVersion(Long documentId) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MAX(version_number) FROM document_versions WHERE document_id = ?",
+                Integer.class, documentId));
+    }
+
+    public Optional<Snapshot> findCurrentContent(Long documentId) {
+        return jdbcTemplate.query(
+                "SELECT version, content_hash FROM documents WHERE id = ?",
+                (rs, rowNum) -> new Snapshot(rs.getInt("version"), rs.getBytes("content_hash")),
+                documentId).stream().findFirst();
+    }
+
+    private boolean isLogged(LoggedOperation operation) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(
+                "SELECT operations = ?::jsonb FROM document_operations WHERE document_id = ? AND version = ?",
+                rs -> rs.next() && rs.getBoolean(1),
+                operation.operationsJson(), operation.documentId(), operation.version()));
+    }
+
+    public record LoggedOperation(Long documentId, int version, Long userId, String operationsJson, Instant createdAt) {}
+
+    /**
+     * A version of a document and the hash of its body in the content store.
+     */
+    public record Snapshot(int version, byte[] contentHash) {}
+}
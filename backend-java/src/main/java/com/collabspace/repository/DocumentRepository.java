@@ -1,5 +1,6 @@
 package com.collabspace.repository;
 
+import com.collabspace.dto.DocumentSummaryDTO;
 import com.collabspace.model.Document;
 import com.collabspace.model.Team;
 import com.collabspace.model.User;
@@ -26,12 +27,6 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     @Query("SELECT d FROM Document d WHERE d.team.id = :teamId AND d.title ILIKE %:title%")
     List<Document> findByTeamIdAndTitleContainingIgnoreCase(@Param("teamId") Long teamId, @Param("title") String title);
 
-    @Query("SELECT d FROM Document d WHERE d.team.id = :teamId AND d.isLocked = true")
-    List<Document> findLockedDocumentsByTeamId(@Param("teamId") Long teamId);
-
-    @Query("SELECT d FROM Document d WHERE d.isLocked = true AND d.lockedAt < :lockTimeout")
-    List<Document> findExpiredLockedDocuments(@Param("lockTimeout") LocalDateTime lockTimeout);
-
     @Query("SELECT COUNT(d) FROM Document d WHERE d.team.id = :teamId")
     Long countDocumentsByTeamId(@Param("teamId") Long teamId);
 
@@ -39,4 +34,24 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findRecentlyUpdatedDocuments(@Param("teamId") Long teamId, @Param("since") LocalDateTime since);
 
     Optional<Document> findByIdAndTeamId(Long id, Long teamId);
+
+    // Lock state lives in the DocumentLockManager and is filled in by the caller.
+    String SUMMARY_SELECT = "SELECT new com.collabspace.dto.DocumentSummaryDTO(" +
+            "d.id, d.title, d.type, d.version, d.googleDriveId, " +
+            "c.id, c.name, m.id, m.name, d.createdAt, d.updatedAt) " +
+            "FROM Document d JOIN d.createdBy c LEFT JOIN d.lastModifiedBy m ";
+
+    @Query(SUMMARY_SELECT + "WHERE d.team.id = :teamId ORDER BY d.updatedAt DESC, d.id DESC")
+    List<DocumentSummaryDTO> findSummaryFirstPageByTeamId(@Param("teamId") Long teamId, Pageable pageable);
+
+    // The redundant "updatedAt <= :updatedAt" lets the planner start the index scan at the cursor.
+    @Query(SUMMARY_SELECT + "WHERE d.team.id = :teamId AND d.updatedAt <= :updatedAt " +
+           "AND (d.updatedAt < :updatedAt OR d.id < :id) ORDER BY d.updatedAt DESC, d.id DESC")
+    List<DocumentSummaryDTO> findSummaryPageByTeamIdAfter(@Param("teamId") Long teamId,
+                                                          @Param("updatedAt") LocalDateTime updatedAt,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @Query("SELECT d.team.id FROM Document d WHERE d.id = :id")
+    Optional<Long> findTeamIdById(@Param("id") Long id);
 }
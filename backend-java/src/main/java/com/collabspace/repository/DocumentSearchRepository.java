@@ -0,0 +1,62 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Team-scoped full-text search backed by the GIN index over the title and
+ * content vectors and the trigram index on titles.
+ */
+@Repository
+public class DocumentSearchRepository {
+
+    // Must match the expression of idx_documents_team_search for the index to apply.
+    private static final String SEARCH_VECTOR =
+            "(setweight(to_tsvector('english', coalesce(d.title, '')), 'A') || coalesce(d.content_vector, ''::tsvector))";
+
+    // Rank and page on the indexed columns first; highlights are only built
+    // for the rows on the requested page, from their stored excerpt.
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query), " +
+            "page AS (" +
+            "    SELECT d.id, ts_rank_cd(" + SEARCH_VECTOR + ", q.query) + similarity(d.title, ?) AS rank " +
+            "    FROM documents d, q " +
+            "    WHERE d.team_id = ? AND (" + SEARCH_VECTOR + " @@ q.query OR d.title ILIKE ?) " +
+            "    ORDER BY rank DESC, d.id DESC " +
+            "    LIMIT ? OFFSET ?" +
+            ") " +
+            "SELECT d.id, d.title, d.type, d.version, d.updated_at, page.rank, " +
+            "       ts_headline('english', coalesce(d.content_excerpt, ''), q.query, " +
+            "                   'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5') AS highlight " +
+            "FROM page " +
+            "JOIN documents d ON d.id = page.id " +
+            "CROSS JOIN q " +
+            "ORDER BY page.rank DESC, d.id DESC";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<SearchHit> search(Long teamId, String query, int limit, int offset) {
+        return jdbcTemplate.query(SEARCH_SQL,
+                (rs, rowNum) -> new SearchHit(
+                        rs.getLong("id"),
+                        rs.getString("title"),
+                        rs.getString("type"),
+                        rs.getInt("version"),
+                        rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : null,
+                        rs.getDouble("rank"),
+                        rs.getString("highlight")),
+                query, query, teamId, "%" + escapeLike(query) + "%", limit, offset);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public record SearchHit(Long id, String title, String type, int version, LocalDateTime updatedAt, double rank,
+                            String highlight) {}
+}
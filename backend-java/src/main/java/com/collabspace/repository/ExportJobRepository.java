@@ -0,0 +1,170 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access to the export job queue. Claiming uses
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of nodes can poll the same
+ * queue without handing a job out twice.
+ */
+@Repository
+public class ExportJobRepository {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String FAILED = "FAILED";
+
+    private static final String COLUMNS = "id, document_id, requested_by, status, attempts, exported_version, " +
+            "google_drive_id, last_error, next_attempt_at, created_at, updated_at";
+
+    private static final RowMapper<ExportJob> JOB_MAPPER = (rs, rowNum) -> new ExportJob(
+            rs.getLong("id"),
+            rs.getLong("document_id"),
+            (Long) rs.getObject("requested_by"),
+            rs.getString("status"),
+            rs.getInt("attempts"),
+            (Integer) rs.getObject("exported_version"),
+            rs.getString("google_drive_id"),
+            rs.getString("last_error"),
+            rs.getTimestamp("next_attempt_at").toInstant(),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getTimestamp("updated_at").toInstant());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Queues an export, or returns the export already queued for the document.
+     */
+    public ExportJob enqueue(Long documentId, Long requestedBy) {
+        // A queued job can be claimed between the insert and the lookup; try again then.
+        for (int attempt = 0; attempt < 3; attempt++) {
+            List<ExportJob> inserted = jdbcTemplate.query(
+                    "INSERT INTO document_export_jobs (document_id, requested_by) VALUES (?, ?) " +
+                    "ON CONFLICT (document_id) WHERE status = 'QUEUED' DO NOTHING RETURNING " + COLUMNS,
+                    JOB_MAPPER, documentId, requestedBy);
+            if (!inserted.isEmpty()) {
+                return inserted.get(0);
+            }
+            List<ExportJob> queued = jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM document_export_jobs WHERE document_id = ? AND status = 'QUEUED'",
+                    JOB_MAPPER, documentId);
+            if (!queued.isEmpty()) {
+                return queued.get(0);
+            }
+        }
+        throw new IllegalStateException("Could not queue export for document " + documentId);
+    }
+
+    public Optional<ExportJob> findById(Long jobId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM document_export_jobs WHERE id = ?", JOB_MAPPER, jobId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Leases up to {@code limit} due jobs, including running jobs whose lease
+     * has expired. A document never has two jobs running at once.
+     */
+    public List<ExportJob> claim(int limit, long leaseMs) {
+        return jdbcTemplate.query(
+                "UPDATE document_export_jobs SET status = 'RUNNING', attempts = attempts + 1, " +
+                "locked_until = now() + ? * interval '1 millisecond', updated_at = now() " +
+                "WHERE id IN (" +
+                "  SELECT j.id FROM document_export_jobs j " +
+                "  WHERE ((j.status = 'QUEUED' AND j.next_attempt_at <= now()) " +
+                "      OR (j.status = 'RUNNING' AND j.locked_until < now())) " +
+                "    AND NOT EXISTS (SELECT 1 FROM document_export_jobs r WHERE r.document_id = j.document_id " +
+                "      AND r.status = 'RUNNING' AND r.locked_until >= now() AND r.id <> j.id) " +
+                "  ORDER BY j.next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING " + COLUMNS,
+                JOB_MAPPER, leaseMs, limit);
+    }
+
+    public void complete(Long jobId, String status, Integer exportedVersion, String googleDriveId) {
+        jdbcTemplate.update(
+                "UPDATE document_export_jobs SET status = ?, exported_version = ?, google_drive_id = ?, " +
+                "last_error = NULL, locked_until = NULL, updated_at = now() WHERE id = ?",
+                status, exportedVersion, googleDriveId, jobId);
+    }
+
+    public void retryAt(Long jobId, Instant nextAttemptAt, String error) {
+        jdbcTemplate.update(
+                "UPDATE document_export_jobs SET status = 'QUEUED', next_attempt_at = ?, last_error = ?, " +
+                "locked_until = NULL, updated_at = now() WHERE id = ?",
+                Timestamp.from(nextAttemptAt), error, jobId);
+    }
+
+    public void fail(Long jobId, String error) {
+        jdbcTemplate.update(
+                "UPDATE document_export_jobs SET status = 'FAILED', last_error = ?, locked_until = NULL, " +
+                "updated_at = now() WHERE id = ?",
+                error, jobId);
+    }
+
+    public int deleteFinishedBefore(Instant cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM document_export_jobs WHERE status IN ('SUCCEEDED', 'SKIPPED', 'FAILED') AND updated_at < ?",
+                Timestamp.from(cutoff));
+    }
+
+    /**
+     * Export state of the documents, without their content.
+     */
+    public List<ExportSource> findSources(Collection<Long> documentIds) {
+        return jdbcTemplate.query(
+                "SELECT id, title, version, google_drive_id, google_drive_exported_version FROM documents WHERE id = ANY(?)",
+                (rs, rowNum) -> new ExportSource(
+                        rs.getLong("id"),
+                        rs.getString("title"),
+                        rs.getInt("version"),
+                        rs.getString("google_drive_id"),
+                        (Integer) rs.getObject("google_drive_exported_version")),
+                (Object) documentIds.toArray(new Long[0]));
+    }
+
+    public byte[] findContentHash(Long documentId) {
+        return jdbcTemplate.query("SELECT content_hash FROM documents WHERE id = ?",
+                        (rs, rowNum) -> rs.getBytes("content_hash"), documentId)
+                .stream().findFirst().orElse(null);
+    }
+
+    public Map<Long, String> findEmails(Collection<Long> userIds) {
+        Map<Long, String> emails = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users WHERE id = ANY(?)",
+                rs -> {
+                    emails.put(rs.getLong("id"), rs.getString("email"));
+                },
+                (Object) userIds.toArray(new Long[0]));
+        return emails;
+    }
+
+    /**
+     * Records an upload next to the document, unless a newer one already was.
+     */
+    public void recordExport(Long documentId, String googleDriveId, int version) {
+        jdbcTemplate.update(
+                "UPDATE documents SET google_drive_id = ?, google_drive_exported_version = ? " +
+                "WHERE id = ? AND (google_drive_exported_version IS NULL OR google_drive_exported_version <= ?)",
+                googleDriveId, version, documentId, version);
+    }
+
+    public record ExportJob(Long id, Long documentId, Long requestedBy, String status, int attempts,
+                            Integer exportedVersion, String googleDriveId, String lastError,
+                            Instant nextAttemptAt, Instant createdAt, Instant updatedAt) {}
+
+    public record ExportSource(Long documentId, String title, int version, String googleDriveId,
+                               Integer exportedVersion) {}
+}
@@ -0,0 +1,86 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC access for the meeting lifecycle scheduler: range loads over the
+ * partial index on live meetings, and guarded batch transitions that only
+ * touch meetings still in the expected state, so a late or duplicate timer
+ * changes nothing.
+ */
+@Repository
+public class MeetingLifecycleRepository {
+
+    private static final String COLUMNS = "id, status, start_time, end_time";
+
+    private static final RowMapper<MeetingTimes> TIMES_MAPPER = (rs, rowNum) -> new MeetingTimes(
+            rs.getLong("id"),
+            rs.getString("status"),
+            rs.getTimestamp("start_time").toInstant(),
+            rs.getTimestamp("end_time") != null ? rs.getTimestamp("end_time").toInstant() : null);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Scheduled meetings starting in {@code (after, until]}.
+     */
+    public List<MeetingTimes> findScheduledStarting(Instant after, Instant until) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM meetings WHERE status = 'SCHEDULED' AND start_time > ? AND start_time <= ?",
+                TIMES_MAPPER, Timestamp.from(after), Timestamp.from(until));
+    }
+
+    public List<MeetingTimes> findInProgress() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM meetings WHERE status = 'IN_PROGRESS'", TIMES_MAPPER);
+    }
+
+    public List<MeetingTimes> findByIds(Collection<Long> meetingIds) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM meetings WHERE id = ANY(?)",
+                TIMES_MAPPER, (Object) meetingIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Starts meetings whose start is at or before {@code now}, the
+     * scheduler's clock rather than the database's.
+     *
+     * @return the meetings that actually started
+     */
+    public List<Long> start(Collection<Long> meetingIds, Instant now) {
+        return jdbcTemplate.query(
+                "UPDATE meetings SET status = 'IN_PROGRESS' " +
+                "WHERE id = ANY(?) AND status = 'SCHEDULED' AND start_time <= ? RETURNING id",
+                (rs, rowNum) -> rs.getLong("id"), (Object) meetingIds.toArray(new Long[0]), Timestamp.from(now));
+    }
+
+    /**
+     * Completes meetings whose end is at or before {@code now}. Meetings
+     * without an end time end {@code openEndedMinutes} after they start.
+     *
+     * @return the meetings that actually ended
+     */
+    public List<EndedMeeting> end(Collection<Long> meetingIds, int openEndedMinutes, Instant now) {
+        Timestamp at = Timestamp.from(now);
+        return jdbcTemplate.query(
+                "UPDATE meetings SET status = 'COMPLETED', end_time = COALESCE(end_time, ?), " +
+                "duration_minutes = (EXTRACT(EPOCH FROM COALESCE(end_time, ?) - start_time) / 60)::int " +
+                "WHERE id = ANY(?) AND status IN ('SCHEDULED', 'IN_PROGRESS') " +
+                "AND COALESCE(end_time, start_time + ? * interval '1 minute') <= ? " +
+                "RETURNING id, team_id, end_time, duration_minutes",
+                (rs, rowNum) -> new EndedMeeting(rs.getLong("id"), rs.getLong("team_id"),
+                        rs.getTimestamp("end_time").toInstant(), rs.getInt("duration_minutes")),
+                at, at, (Object) meetingIds.toArray(new Long[0]), openEndedMinutes, at);
+    }
+
+    public record MeetingTimes(Long id, String status, Instant startTime, Instant endTime) {}
+
+    public record EndedMeeting(Long id, Long teamId, Instant endTime, int durationMinutes) {}
+}
@@ -5,12 +5,14 @@ import com.collabspace.model.Team;
 import com.collabspace.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,7 @@ public interface MeetingRepository extends JpaRepository<Meeting, Long> {
 
     List<Meeting> findByCreatedBy(User user);
 
+    @EntityGraph(attributePaths = {"team", "createdBy"})
     @Query("SELECT m FROM Meeting m JOIN m.participants p WHERE p.id = :userId ORDER BY m.startTime DESC")
     List<Meeting> findByParticipantId(@Param("userId") Long userId);
 
@@ -31,16 +34,33 @@ public interface MeetingRepository extends JpaRepository<Meeting, Long> {
                                          @Param("startDate") LocalDateTime startDate, 
                                          @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT m FROM Meeting m WHERE m.status = 'SCHEDULED' AND m.startTime <= :now")
-    List<Meeting> findOverdueMeetings(@Param("now") LocalDateTime now);
+    Optional<Meeting> findByIdAndTeamId(Long id, Long teamId);
 
-    @Query("SELECT COUNT(m) FROM Meeting m WHERE m.team.id = :teamId AND m.status = 'COMPLETED'")
-    Long countCompletedMeetingsByTeamId(@Param("teamId") Long teamId);
+    Optional<Meeting> findByGoogleCalendarEventId(String eventId);
 
-    @Query("SELECT AVG(m.durationMinutes) FROM Meeting m WHERE m.team.id = :teamId AND m.status = 'COMPLETED'")
-    Double findAverageMeetingDurationByTeamId(@Param("teamId") Long teamId);
+    @Query("SELECT m.team.id FROM Meeting m WHERE m.id = :meetingId")
+    Optional<Long> findTeamIdById(@Param("meetingId") Long meetingId);
 
-    Optional<Meeting> findByIdAndTeamId(Long id, Long teamId);
+    @EntityGraph(attributePaths = {"createdBy"})
+    @Query("SELECT m FROM Meeting m WHERE m.team.id = :teamId ORDER BY m.startTime DESC, m.id DESC")
+    List<Meeting> findFirstPageByTeamId(@Param("teamId") Long teamId, Pageable pageable);
 
-    Optional<Meeting> findByGoogleCalendarEventId(String eventId);
+    @EntityGraph(attributePaths = {"createdBy"})
+    @Query("SELECT m FROM Meeting m WHERE m.team.id = :teamId AND m.startTime <= :startTime " +
+           "AND (m.startTime < :startTime OR m.id < :id) ORDER BY m.startTime DESC, m.id DESC")
+    List<Meeting> findPageByTeamIdAfter(@Param("teamId") Long teamId,
+                                        @Param("startTime") LocalDateTime startTime,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("SELECT COUNT(m) FROM Meeting m WHERE m.team.id = :teamId")
+    Long countMeetingsByTeamId(@Param("teamId") Long teamId);
+
+    /**
+     * Participants of several meetings in one query, as
+     * {@code [meetingId, userId, email, name, profilePicture]} rows.
+     */
+    @Query("SELECT m.id, u.id, u.email, u.name, u.profilePicture FROM Meeting m JOIN m.participants u " +
+           "WHERE m.id IN :meetingIds ORDER BY m.id, u.name")
+    List<Object[]> findParticipantSummaries(@Param("meetingIds") Collection<Long> meetingIds);
 }
@@ -0,0 +1,193 @@
+package com.collabspace.repository;
+
+import com.collabspace.dto.TaskDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access for the task board: card loads over {@code idx_tasks_board},
+ * rank lookups at the edges of a gap, multi-row inserts and batched
+ * re-ranking.
+ *
+ * <p>Every write that picks ranks first takes the team's board lock, a
+ * transaction-scoped advisory lock, so two writers never pick the same gap
+ * and ranks within a column stay unique.</p>
+ */
+@Repository
+public class TaskBoardRepository {
+
+    // Advisory lock class for task boards; the team id is the object.
+    private static final int BOARD_LOCK = 0x7461736b;
+
+    private static final int INSERT_CHUNK_SIZE = 100;
+
+    private static final String CARD_COLUMNS = "id, title, team_id, created_by, assigned_to, status, priority, " +
+            "due_date, completed_at, rank, version, created_at, updated_at";
+
+    private static final RowMapper<TaskDTO> CARD_MAPPER = (rs, rowNum) -> map(rs, false);
+
+    private static final RowMapper<TaskDTO> TASK_MAPPER = (rs, rowNum) -> map(rs, true);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Every card on the team's board, in no particular order.
+     */
+    public List<TaskDTO> findBoard(Long teamId) {
+        return jdbcTemplate.query("SELECT " + CARD_COLUMNS + " FROM tasks WHERE team_id = ?", CARD_MAPPER, teamId);
+    }
+
+    public List<TaskDTO> findCards(Collection<Long> taskIds) {
+        return jdbcTemplate.query("SELECT " + CARD_COLUMNS + " FROM tasks WHERE id = ANY(?)",
+                CARD_MAPPER, (Object) taskIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Holds the team's board lock until the current transaction ends.
+     */
+    public void lockBoard(Long teamId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", (ResultSetExtractor<Void>) rs -> null,
+                BOARD_LOCK, Long.hashCode(teamId));
+    }
+
+    /**
+     * Ranks of the given tasks that are in the team's {@code status} column.
+     */
+    public Map<Long, String> findRanks(Long teamId, String status, Collection<Long> taskIds) {
+        Map<Long, String> ranks = new HashMap<>();
+        jdbcTemplate.query("SELECT id, rank FROM tasks WHERE team_id = ? AND status = ? AND id = ANY(?)",
+                rs -> { ranks.put(rs.getLong("id"), rs.getString("rank")); },
+                teamId, status, taskIds.toArray(new Long[0]));
+        return ranks;
+    }
+
+    /**
+     * The lowest rank above {@code rank} in the column, ignoring
+     * {@code excludedIds}; {@code null} if there is none.
+     */
+    public String findRankAfter(Long teamId, String status, String rank, Collection<Long> excludedIds) {
+        return jdbcTemplate.queryForObject(
+                "SELECT min(rank) FROM tasks WHERE team_id = ? AND status = ? AND rank > ? AND id <> ALL(?)",
+                String.class, teamId, status, rank, excludedIds.toArray(new Long[0]));
+    }
+
+    public String findRankBefore(Long teamId, String status, String rank, Collection<Long> excludedIds) {
+        return jdbcTemplate.queryForObject(
+                "SELECT max(rank) FROM tasks WHERE team_id = ? AND status = ? AND rank < ? AND id <> ALL(?)",
+                String.class, teamId, status, rank, excludedIds.toArray(new Long[0]));
+    }
+
+    public String findLastRank(Long teamId, String status, Collection<Long> excludedIds) {
+        return jdbcTemplate.queryForObject(
+                "SELECT max(rank) FROM tasks WHERE team_id = ? AND status = ? AND id <> ALL(?)",
+                String.class, teamId, status, excludedIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Inserts tasks with multi-row {@code INSERT ... RETURNING} statements of
+     * up to {@value #INSERT_CHUNK_SIZE} rows.
+     *
+     * @return the created tasks, descriptions included
+     */
+    @Transactional
+    public List<TaskDTO> insertAll(Long teamId, Long createdBy, List<NewTask> tasks) {
+        List<TaskDTO> created = new ArrayList<>(tasks.size());
+        for (int from = 0; from < tasks.size(); from += INSERT_CHUNK_SIZE) {
+            List<NewTask> chunk = tasks.subList(from, Math.min(from + INSERT_CHUNK_SIZE, tasks.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO tasks (title, description, team_id, created_by, " +
+                    "assigned_to, status, priority, due_date, completed_at, rank) VALUES ");
+            List<Object> args = new ArrayList<>(chunk.size() * 10);
+            for (int i = 0; i < chunk.size(); i++) {
+                NewTask task = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                args.add(task.title());
+                args.add(task.description());
+                args.add(teamId);
+                args.add(createdBy);
+                args.add(task.assignedTo());
+                args.add(task.status());
+                args.add(task.priority());
+                args.add(timestamp(task.dueDate()));
+                args.add(timestamp(task.completedAt()));
+                args.add(task.rank());
+            }
+            sql.append(" RETURNING ").append(CARD_COLUMNS).append(", description");
+            created.addAll(jdbcTemplate.query(sql.toString(), TASK_MAPPER, args.toArray()));
+        }
+        return created;
+    }
+
+    /**
+     * Moves tasks into the team's {@code status} column at the given ranks,
+     * in one batch. Tasks entering the done column are stamped completed;
+     * tasks leaving it lose the stamp.
+     *
+     * @return the moved tasks as cards; tasks of other teams are left alone
+     */
+    @Transactional
+    public List<TaskDTO> place(Long teamId, String status, List<Long> taskIds, List<String> ranks) {
+        List<Integer> indexes = new ArrayList<>(taskIds.size());
+        for (int i = 0; i < taskIds.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE tasks SET status = ?, rank = ?, version = version + 1, " +
+                "completed_at = CASE WHEN ? = 'DONE' THEN COALESCE(completed_at, now()) END " +
+                "WHERE id = ? AND team_id = ?",
+                indexes, indexes.size(), (ps, i) -> {
+                    ps.setString(1, status);
+                    ps.setString(2, ranks.get(i));
+                    ps.setString(3, status);
+                    ps.setLong(4, taskIds.get(i));
+                    ps.setLong(5, teamId);
+                });
+        return findCards(taskIds);
+    }
+
+    private static TaskDTO map(ResultSet rs, boolean withDescription) throws SQLException {
+        TaskDTO task = new TaskDTO();
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        task.setTeamId(rs.getLong("team_id"));
+        task.setCreatedById(rs.getLong("created_by"));
+        task.setAssignedToId(rs.getObject("assigned_to", Long.class));
+        task.setStatus(rs.getString("status"));
+        task.setPriority(rs.getString("priority"));
+        task.setDueDate(localDateTime(rs.getTimestamp("due_date")));
+        task.setCompletedAt(localDateTime(rs.getTimestamp("completed_at")));
+        task.setRank(rs.getString("rank"));
+        task.setVersion(rs.getLong("version"));
+        task.setCreatedAt(localDateTime(rs.getTimestamp("created_at")));
+        task.setUpdatedAt(localDateTime(rs.getTimestamp("updated_at")));
+        if (withDescription) {
+            task.setDescription(rs.getString("description"));
+        }
+        return task;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+
+    private static LocalDateTime localDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public record NewTask(String title, String description, Long assignedTo, String status, String priority,
+                          LocalDateTime dueDate, LocalDateTime completedAt, String rank) {}
+}
@@ -0,0 +1,91 @@
+package com.collabspace.repository;
+
+import com.collabspace.event.TaskRemindersEvent.Kind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC access for the task reminder scheduler: window loads over the
+ * partial index on open tasks with a due date, and reminder claims that
+ * record each reminder in {@code task_reminders} as they select it, so a
+ * reminder is sent once per task, kind and due date whichever node sends it.
+ */
+@Repository
+public class TaskReminderRepository {
+
+    private static final RowMapper<TaskDue> DUE_MAPPER = (rs, rowNum) -> new TaskDue(
+            rs.getLong("id"),
+            rs.getString("status"),
+            rs.getTimestamp("due_date") != null ? rs.getTimestamp("due_date").toInstant() : null);
+
+    private static final RowMapper<ClaimedReminder> CLAIMED_MAPPER = (rs, rowNum) -> new ClaimedReminder(
+            rs.getLong("id"),
+            rs.getLong("team_id"),
+            rs.getString("title"),
+            rs.getTimestamp("due_date").toInstant(),
+            rs.getLong("recipient_id"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Open tasks due in {@code (after, until]}.
+     */
+    public List<TaskDue> findOpenDue(Instant after, Instant until) {
+        return jdbcTemplate.query(
+                "SELECT id, status, due_date FROM tasks " +
+                "WHERE status <> 'DONE' AND due_date IS NOT NULL AND due_date > ? AND due_date <= ?",
+                DUE_MAPPER, Timestamp.from(after), Timestamp.from(until));
+    }
+
+    public List<TaskDue> findByIds(Collection<Long> taskIds) {
+        return jdbcTemplate.query("SELECT id, status, due_date FROM tasks WHERE id = ANY(?)",
+                DUE_MAPPER, (Object) taskIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Claims the reminders of open tasks due in {@code (after, until]} that
+     * were not sent for their current due date yet.
+     *
+     * @return the reminders claimed, with their recipient
+     */
+    public List<ClaimedReminder> claim(Kind kind, Collection<Long> taskIds, Instant after, Instant until) {
+        return jdbcTemplate.query(
+                "WITH claimed AS (" +
+                "  INSERT INTO task_reminders (task_id, kind, due_date) " +
+                "  SELECT id, ?, due_date FROM tasks " +
+                "  WHERE id = ANY(?) AND status <> 'DONE' AND due_date > ? AND due_date <= ? " +
+                "  ON CONFLICT DO NOTHING RETURNING task_id) " +
+                "SELECT t.id, t.team_id, t.title, t.due_date, COALESCE(t.assigned_to, t.created_by) AS recipient_id " +
+                "FROM claimed c JOIN tasks t ON t.id = c.task_id",
+                CLAIMED_MAPPER, kind.name(), taskIds.toArray(new Long[0]), Timestamp.from(after), Timestamp.from(until));
+    }
+
+    /**
+     * Writes one notification per row in a single batch.
+     */
+    public void saveNotifications(List<Notification> notifications) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notifications (user_id, type, title, content, data) VALUES (?, ?, ?, ?, ?::jsonb)",
+                notifications, notifications.size(), (ps, notification) -> {
+                    ps.setLong(1, notification.userId());
+                    ps.setString(2, notification.type());
+                    ps.setString(3, notification.title());
+                    ps.setString(4, notification.content());
+                    ps.setString(5, notification.data());
+                });
+    }
+
+    public record TaskDue(Long id, String status, Instant dueDate) {}
+
+    public record ClaimedReminder(Long taskId, Long teamId, String title, Instant dueDate, Long recipientId) {}
+
+    public record Notification(Long userId, String type, String title, String content, String data) {}
+}
@@ -0,0 +1,33 @@
+package com.collabspace.repository;
+
+import com.collabspace.model.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    @Query("SELECT t FROM Task t WHERE t.team.id = :teamId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findFirstPageByTeamId(@Param("teamId") Long teamId, Pageable pageable);
+
+    @Query("SELECT t FROM Task t WHERE t.team.id = :teamId AND t.createdAt <= :createdAt " +
+           "AND (t.createdAt < :createdAt OR t.id < :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findPageByTeamIdAfter(@Param("teamId") Long teamId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.team.id = :teamId")
+    Long countTasksByTeamId(@Param("teamId") Long teamId);
+
+    // The DONE literal (not a parameter) lets the planner use the partial index idx_tasks_team_open_due.
+    @Query("SELECT t FROM Task t WHERE t.team.id = :teamId AND t.status <> com.collabspace.model.Task$TaskStatus.DONE " +
+           "AND t.dueDate IS NOT NULL AND t.dueDate < :now ORDER BY t.dueDate, t.id")
+    List<Task> findOverdueByTeamId(@Param("teamId") Long teamId, @Param("now") LocalDateTime now, Pageable pageable);
+}
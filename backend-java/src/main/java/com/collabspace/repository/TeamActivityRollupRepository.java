@@ -0,0 +1,226 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC access to the team activity rollups. Increments are upserts that add
+ * to the hourly and daily rows; distinct counts only grow for users and
+ * documents not yet recorded in {@code team_activity_seen} for the bucket.
+ */
+@Repository
+public class TeamActivityRollupRepository {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    private static final String USER = "USER";
+    private static final String DOCUMENT = "DOCUMENT";
+
+    private static final String COUNTERS = "meetings_completed, meeting_minutes, documents_created, documents_edited, " +
+            "active_users, tasks_created, tasks_completed";
+
+    private static final RowMapper<Rollup> ROLLUP_MAPPER = (rs, rowNum) -> new Rollup(
+            rs.getTimestamp("bucket_start").toInstant(),
+            rs.getInt("meetings_completed"),
+            rs.getLong("meeting_minutes"),
+            rs.getInt("documents_created"),
+            rs.getInt("documents_edited"),
+            rs.getInt("active_users"),
+            rs.getInt("tasks_created"),
+            rs.getInt("tasks_completed"));
+
+    // Sorted so that concurrent flushes from several nodes lock rows in the same order.
+    private static final Comparator<Row> ROW_ORDER = Comparator.comparing(Row::teamId)
+            .thenComparing(Row::granularity)
+            .thenComparing(Row::bucketStart);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Buckets of the team in {@code [from, to)}, oldest first. Buckets
+     * without activity have no row.
+     */
+    public List<Rollup> findRange(Long teamId, String granularity, Instant from, Instant to) {
+        return jdbcTemplate.query(
+                "SELECT bucket_start, " + COUNTERS + " FROM team_activity_rollups " +
+                "WHERE team_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ? " +
+                "ORDER BY bucket_start",
+                ROLLUP_MAPPER, teamId, granularity, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * Adds hourly deltas to their hour and day rollups.
+     */
+    @Transactional
+    public void apply(List<Delta> deltas) {
+        Map<Row, Counters> rows = new HashMap<>();
+        List<Seen> seen = new ArrayList<>();
+        for (Delta delta : deltas) {
+            for (Row row : List.of(new Row(delta.teamId(), HOUR, delta.hour()),
+                    new Row(delta.teamId(), DAY, delta.hour().truncatedTo(ChronoUnit.DAYS)))) {
+                rows.computeIfAbsent(row, r -> new Counters()).add(delta);
+                delta.userIds().forEach(userId -> seen.add(new Seen(row, USER, userId)));
+                delta.documentIds().forEach(documentId -> seen.add(new Seen(row, DOCUMENT, documentId)));
+            }
+        }
+
+        if (!seen.isEmpty()) {
+            seen.sort(Comparator.comparing(Seen::row, ROW_ORDER).thenComparing(Seen::kind).thenComparing(Seen::subjectId));
+            int[] inserted = jdbcTemplate.batchUpdate(
+                    "INSERT INTO team_activity_seen (team_id, granularity, bucket_start, kind, subject_id) " +
+                    "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                    seen, seen.size(), (ps, entry) -> {
+                        ps.setLong(1, entry.row().teamId());
+                        ps.setString(2, entry.row().granularity());
+                        ps.setTimestamp(3, Timestamp.from(entry.row().bucketStart()));
+                        ps.setString(4, entry.kind());
+                        ps.setLong(5, entry.subjectId());
+                    })[0];
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] > 0) {
+                    rows.get(seen.get(i).row()).addFirstSeen(seen.get(i).kind());
+                }
+            }
+        }
+
+        List<Row> ordered = new ArrayList<>(rows.keySet());
+        ordered.sort(ROW_ORDER);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO team_activity_rollups (team_id, granularity, bucket_start, " + COUNTERS + ") " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (team_id, granularity, bucket_start) DO UPDATE SET " +
+                "meetings_completed = team_activity_rollups.meetings_completed + EXCLUDED.meetings_completed, " +
+                "meeting_minutes = team_activity_rollups.meeting_minutes + EXCLUDED.meeting_minutes, " +
+                "documents_created = team_activity_rollups.documents_created + EXCLUDED.documents_created, " +
+                "documents_edited = team_activity_rollups.documents_edited + EXCLUDED.documents_edited, " +
+                "active_users = team_activity_rollups.active_users + EXCLUDED.active_users, " +
+                "tasks_created = team_activity_rollups.tasks_created + EXCLUDED.tasks_created, " +
+                "tasks_completed = team_activity_rollups.tasks_completed + EXCLUDED.tasks_completed",
+                ordered, ordered.size(), (ps, row) -> {
+                    Counters counters = rows.get(row);
+                    ps.setLong(1, row.teamId());
+                    ps.setString(2, row.granularity());
+                    ps.setTimestamp(3, Timestamp.from(row.bucketStart()));
+                    ps.setInt(4, counters.meetingsCompleted);
+                    ps.setLong(5, counters.meetingMinutes);
+                    ps.setInt(6, counters.documentsCreated);
+                    ps.setInt(7, counters.documentsEdited);
+                    ps.setInt(8, counters.activeUsers);
+                    ps.setInt(9, counters.tasksCreated);
+                    ps.setInt(10, counters.tasksCompleted);
+                });
+    }
+
+    /**
+     * Forgets which users and documents were counted in buckets that
+     * started before {@code before}.
+     *
+     * @return the number of entries removed
+     */
+    public int pruneSeen(Instant before) {
+        return jdbcTemplate.update("DELETE FROM team_activity_seen WHERE bucket_start < ?", Timestamp.from(before));
+    }
+
+    /**
+     * Recomputes the team's rollups in {@code [from, to)} from the meetings,
+     * documents, operation log and tasks tables, replacing what is there.
+     * Who completed a task is not stored, so history only counts task
+     * creators, document creators and editors as active users.
+     *
+     * @return the number of buckets written
+     */
+    @Transactional
+    public int rebuild(Long teamId, String granularity, Instant from, Instant to) {
+        Timestamp start = Timestamp.from(from);
+        Timestamp end = Timestamp.from(to);
+        String unit = DAY.equals(granularity) ? "day" : "hour";
+        jdbcTemplate.update(
+                "DELETE FROM team_activity_rollups WHERE team_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+                teamId, granularity, start, end);
+        return jdbcTemplate.update(
+                "INSERT INTO team_activity_rollups (team_id, granularity, bucket_start, " + COUNTERS + ") " +
+                "SELECT ?, ?, date_trunc(?, at, 'UTC') AS bucket, " +
+                "COUNT(*) FILTER (WHERE kind = 'M'), COALESCE(SUM(minutes) FILTER (WHERE kind = 'M'), 0), " +
+                "COUNT(*) FILTER (WHERE kind = 'C'), COUNT(DISTINCT document_id) FILTER (WHERE kind = 'E'), " +
+                "COUNT(DISTINCT user_id), COUNT(*) FILTER (WHERE kind = 'T'), COUNT(*) FILTER (WHERE kind = 'D') " +
+                "FROM (" +
+                "  SELECT end_time AS at, 'M' AS kind, NULL::bigint AS user_id, NULL::bigint AS document_id, " +
+                "         COALESCE(duration_minutes, 0) AS minutes " +
+                "  FROM meetings WHERE team_id = ? AND status = 'COMPLETED' AND end_time >= ? AND end_time < ? " +
+                "  UNION ALL " +
+                "  SELECT created_at, 'C', created_by, id, 0 FROM documents " +
+                "  WHERE team_id = ? AND created_at >= ? AND created_at < ? " +
+                "  UNION ALL " +
+                "  SELECT o.created_at, 'E', o.user_id, o.document_id, 0 " +
+                "  FROM document_operations o JOIN documents d ON d.id = o.document_id " +
+                "  WHERE d.team_id = ? AND o.created_at >= ? AND o.created_at < ? " +
+                "  UNION ALL " +
+                "  SELECT created_at, 'T', created_by, NULL, 0 FROM tasks " +
+                "  WHERE team_id = ? AND created_at >= ? AND created_at < ? " +
+                "  UNION ALL " +
+                "  SELECT completed_at, 'D', NULL, NULL, 0 FROM tasks " +
+                "  WHERE team_id = ? AND completed_at >= ? AND completed_at < ?" +
+                ") activity GROUP BY bucket",
+                teamId, granularity, unit,
+                teamId, start, end,
+                teamId, start, end,
+                teamId, start, end,
+                teamId, start, end,
+                teamId, start, end);
+    }
+
+    /**
+     * Activity of one team in one hour.
+     */
+    public record Delta(Long teamId, Instant hour, int meetingsCompleted, long meetingMinutes, int documentsCreated,
+                        int tasksCreated, int tasksCompleted, Set<Long> userIds, Set<Long> documentIds) {}
+
+    public record Rollup(Instant bucketStart, int meetingsCompleted, long meetingMinutes, int documentsCreated,
+                         int documentsEdited, int activeUsers, int tasksCreated, int tasksCompleted) {}
+
+    private record Row(Long teamId, String granularity, Instant bucketStart) {}
+
+    private record Seen(Row row, String kind, Long subjectId) {}
+
+    private static final class Counters {
+
+        private int meetingsCompleted;
+        private long meetingMinutes;
+        private int documentsCreated;
+        private int documentsEdited;
+        private int activeUsers;
+        private int tasksCreated;
+        private int tasksCompleted;
+
+        void add(Delta delta) {
+            meetingsCompleted += delta.meetingsCompleted();
+            meetingMinutes += delta.meetingMinutes();
+            documentsCreated += delta.documentsCreated();
+            tasksCreated += delta.tasksCreated();
+            tasksCompleted += delta.tasksCompleted();
+        }
+
+        void addFirstSeen(String kind) {
+            if (USER.equals(kind)) {
+                activeUsers++;
+            } else {
+                documentsEdited++;
+            }
+        }
+    }
+}
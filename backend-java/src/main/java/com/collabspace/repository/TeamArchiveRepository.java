@@ -0,0 +1,259 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access for team archives. Exports stream each table through a
+ * server-side cursor, a few hundred rows at a time, so memory stays
+ * flat however large the team is; the selected columns are the archive
+ * format. Imports write in JDBC batches and return the new ids that
+ * later records need.
+ */
+@Repository
+public class TeamArchiveRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String TEAM_SQL =
+            "SELECT id, name, description, subscription_plan, owner_id, created_at FROM teams WHERE id = ?";
+
+    // Members plus every user the team's records point at, so that imports can remap all of them.
+    private static final String USERS_SQL =
+            "SELECT u.id, u.email, u.name, u.profile_picture, tm.role AS team_role, tm.joined_at FROM users u " +
+            "LEFT JOIN team_members tm ON tm.user_id = u.id AND tm.team_id = ? " +
+            "WHERE u.id IN (" +
+            "  SELECT user_id FROM team_members WHERE team_id = ? " +
+            "  UNION SELECT owner_id FROM teams WHERE id = ? " +
+            "  UNION SELECT created_by FROM documents WHERE team_id = ? " +
+            "  UNION SELECT last_modified_by FROM documents WHERE team_id = ? " +
+            "  UNION SELECT created_by FROM meetings WHERE team_id = ? " +
+            "  UNION SELECT p.user_id FROM meeting_participants p JOIN meetings m ON m.id = p.meeting_id WHERE m.team_id = ? " +
+            "  UNION SELECT created_by FROM tasks WHERE team_id = ? " +
+            "  UNION SELECT assigned_to FROM tasks WHERE team_id = ?" +
+            ") ORDER BY u.id";
+
+    // Bodies come out compressed and are decoded as they are written, see StoredContent.
+    private static final String DOCUMENTS_SQL =
+            "SELECT d.id, d.title, " + DocumentContentRepository.CONTENT_COLUMNS_SQL + ", d.type, d.created_by, " +
+            "d.last_modified_by, d.created_at, d.updated_at " +
+            "FROM documents d LEFT JOIN document_contents c ON c.hash = d.content_hash WHERE d.team_id = ? ORDER BY d.id";
+
+    private static final String MEETINGS_SQL =
+            "SELECT m.id, m.title, m.description, m.created_by, m.start_time, m.end_time, m.duration_minutes, m.status, " +
+            "m.meeting_url, m.recurrence, m.transcript_url, m.summary, m.action_items, m.created_at, " +
+            "(SELECT COALESCE(json_agg(json_build_object('user_id', p.user_id, 'joined_at', p.joined_at, " +
+            "  'left_at', p.left_at, 'attendance_duration_minutes', p.attendance_duration_minutes) ORDER BY p.user_id), '[]') " +
+            " FROM meeting_participants p WHERE p.meeting_id = m.id) AS participants " +
+            "FROM meetings m WHERE m.team_id = ? ORDER BY m.id";
+
+    private static final String TASKS_SQL =
+            "SELECT id, title, description, created_by, assigned_to, status, priority, due_date, completed_at, rank, created_at " +
+            "FROM tasks WHERE team_id = ? ORDER BY id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void streamTeam(Long teamId, RowCallbackHandler handler) {
+        stream(TEAM_SQL, handler, teamId);
+    }
+
+    public void streamUsers(Long teamId, RowCallbackHandler handler) {
+        stream(USERS_SQL, handler, teamId, teamId, teamId, teamId, teamId, teamId, teamId, teamId, teamId);
+    }
+
+    public void streamDocuments(Long teamId, RowCallbackHandler handler) {
+        stream(DOCUMENTS_SQL, handler, teamId);
+    }
+
+    public void streamMeetings(Long teamId, RowCallbackHandler handler) {
+        stream(MEETINGS_SQL, handler, teamId);
+    }
+
+    public void streamTasks(Long teamId, RowCallbackHandler handler) {
+        stream(TASKS_SQL, handler, teamId);
+    }
+
+    /**
+     * Postgres only uses a cursor for a fetch size inside a transaction;
+     * callers hold one.
+     */
+    private void stream(String sql, RowCallbackHandler handler, Long... args) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setLong(i + 1, args[i]);
+            }
+            return ps;
+        }, handler);
+    }
+
+    public Long insertTeam(String name, String description, String subscriptionPlan, Long ownerId) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO teams (name, description, subscription_plan, owner_id) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, name, description, subscriptionPlan, ownerId);
+    }
+
+    /**
+     * Creates the users whose email is not registered yet and returns the
+     * ids of all of them by email. Created users link to their Google
+     * account on first login.
+     */
+    public Map<String, Long> resolveUsers(List<ArchivedUser> users) {
+        String[] emails = users.stream().map(ArchivedUser::email).toArray(String[]::new);
+        jdbcTemplate.update(
+                "INSERT INTO users (email, name, profile_picture) " +
+                "SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::text[]) ON CONFLICT (email) DO NOTHING",
+                emails,
+                users.stream().map(ArchivedUser::name).toArray(String[]::new),
+                users.stream().map(ArchivedUser::profilePicture).toArray(String[]::new));
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email = ANY(?)",
+                rs -> { ids.put(rs.getString("email"), rs.getLong("id")); }, (Object) emails);
+        return ids;
+    }
+
+    public void insertMembers(Long teamId, List<ArchivedMember> members) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO team_members (team_id, user_id, role, joined_at) VALUES (?, ?, ?, COALESCE(?, now())) " +
+                "ON CONFLICT (team_id, user_id) DO NOTHING",
+                members, members.size(), (ps, member) -> {
+                    ps.setLong(1, teamId);
+                    ps.setLong(2, member.userId());
+                    ps.setString(3, member.role());
+                    ps.setTimestamp(4, timestamp(member.joinedAt()));
+                });
+    }
+
+    /**
+     * Inserts the documents; {@code contentHashes} are their bodies, already
+     * in the content store, in the same order.
+     */
+    public void insertDocuments(Long teamId, List<ArchivedDocument> documents, List<byte[]> contentHashes) {
+        List<Integer> indexes = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO documents (title, content_hash, content_vector, content_excerpt, type, team_id, created_by, " +
+                "last_modified_by, created_at, updated_at) VALUES (?, ?, " + DocumentContentRepository.CONTENT_VECTOR_SQL + ", ?, ?, ?, ?, ?, " +
+                "COALESCE(?, now()), COALESCE(?, now()))",
+                indexes, indexes.size(), (ps, i) -> {
+                    ArchivedDocument document = documents.get(i);
+                    ps.setString(1, document.title());
+                    ps.setBytes(2, contentHashes.get(i));
+                    ps.setString(3, DocumentContentRepository.searchText(document.content()));
+                    ps.setString(4, DocumentContentRepository.excerpt(document.content()));
+                    ps.setString(5, document.type());
+                    ps.setLong(6, teamId);
+                    ps.setLong(7, document.createdBy());
+                    ps.setObject(8, document.lastModifiedBy(), Types.BIGINT);
+                    ps.setTimestamp(9, timestamp(document.createdAt()));
+                    ps.setTimestamp(10, timestamp(document.updatedAt()));
+                });
+    }
+
+    /**
+     * Inserts the meetings with ids drawn from their sequence up front, so
+     * their participants can go in the same batch round.
+     *
+     * @return the new meeting ids, in the order given
+     */
+    public List<Long> insertMeetings(Long teamId, List<ArchivedMeeting> meetings) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('meetings', 'id')) FROM generate_series(1, ?)",
+                Long.class, meetings.size());
+        List<Integer> indexes = new ArrayList<>(meetings.size());
+        for (int i = 0; i < meetings.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO meetings (id, title, description, team_id, created_by, start_time, end_time, duration_minutes, " +
+                "status, meeting_url, recurrence, transcript_url, summary, action_items, participants_count, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, now()))",
+                indexes, indexes.size(), (ps, i) -> {
+                    ArchivedMeeting meeting = meetings.get(i);
+                    ps.setLong(1, ids.get(i));
+                    ps.setString(2, meeting.title());
+                    ps.setString(3, meeting.description());
+                    ps.setLong(4, teamId);
+                    ps.setLong(5, meeting.createdBy());
+                    ps.setTimestamp(6, timestamp(meeting.startTime()));
+                    ps.setTimestamp(7, timestamp(meeting.endTime()));
+                    ps.setObject(8, meeting.durationMinutes(), Types.INTEGER);
+                    ps.setString(9, meeting.status());
+                    ps.setString(10, meeting.meetingUrl());
+                    ps.setString(11, meeting.recurrence());
+                    ps.setString(12, meeting.transcriptUrl());
+                    ps.setString(13, meeting.summary());
+                    ps.setString(14, meeting.actionItems());
+                    ps.setInt(15, meeting.participants().size());
+                    ps.setTimestamp(16, timestamp(meeting.createdAt()));
+                });
+        List<Object[]> participants = new ArrayList<>();
+        for (int i = 0; i < meetings.size(); i++) {
+            for (ArchivedParticipant participant : meetings.get(i).participants()) {
+                participants.add(new Object[] {ids.get(i), participant.userId(), timestamp(participant.joinedAt()),
+                        timestamp(participant.leftAt()), participant.attendanceDurationMinutes()});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO meeting_participants (meeting_id, user_id, joined_at, left_at, attendance_duration_minutes) " +
+                "VALUES (?, ?, ?, ?, ?) ON CONFLICT (meeting_id, user_id) DO NOTHING",
+                participants, new int[] {Types.BIGINT, Types.BIGINT, Types.TIMESTAMP_WITH_TIMEZONE,
+                        Types.TIMESTAMP_WITH_TIMEZONE, Types.INTEGER});
+        return ids;
+    }
+
+    public void insertTasks(Long teamId, List<ArchivedTask> tasks) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO tasks (title, description, team_id, created_by, assigned_to, status, priority, due_date, " +
+                "completed_at, rank, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, now()))",
+                tasks, tasks.size(), (ps, task) -> {
+                    ps.setString(1, task.title());
+                    ps.setString(2, task.description());
+                    ps.setLong(3, teamId);
+                    ps.setLong(4, task.createdBy());
+                    ps.setObject(5, task.assignedTo(), Types.BIGINT);
+                    ps.setString(6, task.status());
+                    ps.setString(7, task.priority());
+                    ps.setTimestamp(8, timestamp(task.dueDate()));
+                    ps.setTimestamp(9, timestamp(task.completedAt()));
+                    ps.setString(10, task.rank());
+                    ps.setTimestamp(11, timestamp(task.createdAt()));
+                });
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    public record ArchivedUser(String email, String name, String profilePicture) {}
+
+    public record ArchivedMember(Long userId, String role, Instant joinedAt) {}
+
+    public record ArchivedDocument(String title, String content, String type, Long createdBy, Long lastModifiedBy,
+                                   Instant createdAt, Instant updatedAt) {}
+
+    public record ArchivedMeeting(String title, String description, Long createdBy, Instant startTime, Instant endTime,
+                                  Integer durationMinutes, String status, String meetingUrl, String recurrence,
+                                  String transcriptUrl, String summary, String actionItems,
+                                  List<ArchivedParticipant> participants, Instant createdAt) {}
+
+    public record ArchivedParticipant(Long userId, Instant joinedAt, Instant leftAt, Integer attendanceDurationMinutes) {}
+
+    public record ArchivedTask(String title, String description, Long createdBy, Long assignedTo, String status,
+                               String priority, Instant dueDate, Instant completedAt, String rank, Instant createdAt) {}
+}
@@ -0,0 +1,20 @@
+package com.collabspace.repository;
+
+import com.collabspace.model.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    @Query("SELECT t.id FROM Team t ORDER BY t.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT t.owner.id FROM Team t WHERE t.id = :teamId")
+    Optional<Long> findOwnerId(@Param("teamId") Long teamId);
+}
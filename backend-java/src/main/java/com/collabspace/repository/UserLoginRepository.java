@@ -0,0 +1,102 @@
+package com.collabspace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Plain JDBC writes for the login path: a single-statement user upsert and
+ * batched last-login updates.
+ */
+@Repository
+public class UserLoginRepository {
+
+    /*
+     * Inserts new users and updates changed profiles in one statement. The
+     * conflict update only fires when something differs, so a returning user
+     * with an unchanged profile costs no row write; the second branch then
+     * reads the existing row.
+     */
+    private static final String UPSERT_SQL =
+            "WITH upserted AS (" +
+            "  INSERT INTO users (email, name, google_id, profile_picture, last_login_at) VALUES (?, ?, ?, ?, ?) " +
+            "  ON CONFLICT (google_id) DO UPDATE SET email = EXCLUDED.email, name = EXCLUDED.name, " +
+            "    profile_picture = EXCLUDED.profile_picture " +
+            "  WHERE (users.email, users.name, users.profile_picture) IS DISTINCT FROM " +
+            "    (EXCLUDED.email, EXCLUDED.name, EXCLUDED.profile_picture) " +
+            "  RETURNING id, email, name, profile_picture, role, is_active, (xmax = 0) AS created, true AS changed" +
+            ") " +
+            "SELECT * FROM upserted " +
+            "UNION ALL " +
+            "SELECT id, email, name, profile_picture, role, is_active, false, false FROM users " +
+            "WHERE google_id = ? AND NOT EXISTS (SELECT 1 FROM upserted)";
+
+    // An account created before Google sign-in (e.g. seeded) is linked by email.
+    private static final String LINK_BY_EMAIL_SQL =
+            "UPDATE users SET google_id = ?, name = ?, profile_picture = ? " +
+            "WHERE email = ? AND google_id IS NULL " +
+            "RETURNING id, email, name, profile_picture, role, is_active, false AS created, true AS changed";
+
+    private static final RowMapper<LoginUser> LOGIN_USER_MAPPER = (rs, rowNum) -> new LoginUser(
+            rs.getLong("id"),
+            rs.getString("email"),
+            rs.getString("name"),
+            rs.getString("profile_picture"),
+            rs.getString("role"),
+            rs.getBoolean("is_active"),
+            rs.getBoolean("created"),
+            rs.getBoolean("changed"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public LoginUser upsertGoogleUser(String googleId, String email, String name, String profilePicture) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Optional<LoginUser> user;
+        try {
+            user = jdbcTemplate.query(UPSERT_SQL, LOGIN_USER_MAPPER,
+                    email, name, googleId, profilePicture, now, googleId).stream().findFirst();
+        } catch (DuplicateKeyException e) {
+            // The email belongs to a row without this google_id.
+            user = jdbcTemplate.query(LINK_BY_EMAIL_SQL, LOGIN_USER_MAPPER,
+                    googleId, name, profilePicture, email).stream().findFirst();
+            if (user.isEmpty()) {
+                throw new IllegalStateException("Email is already registered to another Google account");
+            }
+        }
+        // Empty only if the row was inserted by a concurrent login after this
+        // statement's snapshot; it is committed by now.
+        return user.orElseGet(() -> jdbcTemplate.queryForObject(
+                "SELECT id, email, name, profile_picture, role, is_active, false AS created, false AS changed " +
+                "FROM users WHERE google_id = ?", LOGIN_USER_MAPPER, googleId));
+    }
+
+    /**
+     * Writes last-login times in id order, so concurrent flushes on several
+     * nodes lock rows in the same order.
+     */
+    public void updateLastLogins(Map<Long, Instant> lastLogins) {
+        List<Map.Entry<Long, Instant>> rows = lastLogins.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        jdbcTemplate.batchUpdate(
+                "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)",
+                rows, rows.size(), (ps, row) -> {
+                    Timestamp at = Timestamp.from(row.getValue());
+                    ps.setTimestamp(1, at);
+                    ps.setLong(2, row.getKey());
+                    ps.setTimestamp(3, at);
+                });
+    }
+
+    public record LoginUser(Long id, String email, String name, String profilePicture, String role,
+                            boolean active, boolean created, boolean changed) {}
+}
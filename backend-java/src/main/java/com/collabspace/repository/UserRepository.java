@@ -25,10 +25,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u JOIN u.teams t WHERE t.id = :teamId")
     List<User> findByTeamId(@Param("teamId") Long teamId);
 
-    @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startDate AND u.createdAt <= :endDate")
-    Long countUsersCreatedBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT u.id FROM User u JOIN u.teams t WHERE t.id = :teamId")
+    List<Long> findIdsByTeamId(@Param("teamId") Long teamId);
 
     boolean existsByEmail(String email);
 
     boolean existsByGoogleId(String googleId);
+
+    boolean existsByIdAndTeamsId(Long userId, Long teamId);
 }
@@ -0,0 +1,130 @@
+package com.collabspace.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexed binary min-heap of deadlines keyed by {@code K}. Unlike
+ * {@link java.util.PriorityQueue}, each entry knows its heap position, so
+ * scheduling, rescheduling and cancelling a key are all O(log n).
+ *
+ * <p>Not thread-safe; the owner serialises access.</p>
+ */
+public final class DeadlineQueue<K> {
+
+    private final List<Entry<K>> heap = new ArrayList<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    /**
+     * Schedules {@code key} at {@code deadlineMs}, replacing its previous
+     * deadline if it had one.
+     */
+    public void schedule(K key, long deadlineMs) {
+        Entry<K> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, deadlineMs, heap.size());
+            entries.put(key, entry);
+            heap.add(entry);
+            siftUp(entry.index);
+            return;
+        }
+        long previous = entry.deadlineMs;
+        entry.deadlineMs = deadlineMs;
+        if (deadlineMs < previous) {
+            siftUp(entry.index);
+        } else {
+            siftDown(entry.index);
+        }
+    }
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        Entry<K> last = heap.remove(heap.size() - 1);
+        if (last != entry) {
+            heap.set(entry.index, last);
+            last.index = entry.index;
+            siftDown(last.index);
+            siftUp(last.index);
+        }
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Removes and returns the keys due at or before {@code nowMs}, earliest
+     * first, at most {@code limit} of them.
+     */
+    public List<K> pollDue(long nowMs, int limit) {
+        List<K> due = new ArrayList<>();
+        while (!heap.isEmpty() && due.size() < limit && heap.get(0).deadlineMs <= nowMs) {
+            K key = heap.get(0).key;
+            cancel(key);
+            due.add(key);
+        }
+        return due;
+    }
+
+    private void siftUp(int index) {
+        Entry<K> entry = heap.get(index);
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Entry<K> above = heap.get(parent);
+            if (above.deadlineMs <= entry.deadlineMs) {
+                break;
+            }
+            heap.set(index, above);
+            above.index = index;
+            index = parent;
+        }
+        heap.set(index, entry);
+        entry.index = index;
+    }
+
+    private void siftDown(int index) {
+        Entry<K> entry = heap.get(index);
+        int size = heap.size();
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap.get(child + 1).deadlineMs < heap.get(child).deadlineMs) {
+                child++;
+            }
+            Entry<K> below = heap.get(child);
+            if (entry.deadlineMs <= below.deadlineMs) {
+                break;
+            }
+            heap.set(index, below);
+            below.index = index;
+            index = child;
+        }
+        heap.set(index, entry);
+        entry.index = index;
+    }
+
+    private static final class Entry<K> {
+
+        private final K key;
+        private long deadlineMs;
+        private int index;
+
+        private Entry(K key, long deadlineMs, int index) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.collabspace.scheduling;
+
+import com.collabspace.dto.CollaborationMessage;
+import com.collabspace.event.MeetingScheduleChangedEvent;
+import com.collabspace.event.TeamActivityEvent;
+import com.collabspace.lock.LeaderLease;
+import com.collabspace.model.Meeting.MeetingStatus;
+import com.collabspace.repository.MeetingLifecycleRepository;
+import com.collabspace.repository.MeetingLifecycleRepository.EndedMeeting;
+import com.collabspace.repository.MeetingLifecycleRepository.MeetingTimes;
+import com.collabspace.websocket.BroadcastHub;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.OutboundFrame;
+import com.collabspace.websocket.RoomKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Fires meeting reminders, starts and auto-ends on time from an in-memory
+ * {@link TimingWheel}, instead of polling the meetings table.
+ *
+ * <p>Only the node holding the {@code meetings.lifecycle} leader lease keeps
+ * a wheel. On taking the lease it loads in-progress meetings and scheduled
+ * meetings starting within {@code horizon-ms}, then extends that window
+ * every {@code reload-interval-ms}; each load is a range scan over the
+ * partial index on live meetings. Meetings changed on any node reach the
+ * leader as a {@link MeetingScheduleChangedEvent}, relayed over the cluster
+ * transport, and their timers are replaced.</p>
+ *
+ * <p>Timers due in the same tick are written as one guarded UPDATE per
+ * transition, and the meetings that actually changed are announced to
+ * their rooms. Should two nodes briefly both think they lead, the guards
+ * let only one of them apply and announce each transition.</p>
+ */
+@Component
+public class MeetingLifecycleScheduler {
+
+    static final String CHANNEL = "meetings:schedule";
+
+    private static final Logger logger = LoggerFactory.getLogger(MeetingLifecycleScheduler.class);
+
+    @Autowired
+    private MeetingLifecycleRepository meetingLifecycleRepository;
+
+    @Autowired
+    private LeaderLease meetingLifecycleLease;
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired(required = false)
+    private ClusterTransport clusterTransport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${meetings.lifecycle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${meetings.lifecycle.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${meetings.lifecycle.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${meetings.lifecycle.horizon-ms:86400000}")
+    private long horizonMs;
+
+    @Value("${meetings.lifecycle.reload-interval-ms:600000}")
+    private long reloadIntervalMs;
+
+    @Value("${meetings.lifecycle.catch-up-ms:3600000}")
+    private long catchUpMs;
+
+    @Value("${meetings.lifecycle.reminder-lead-ms:300000}")
+    private long reminderLeadMs;
+
+    @Value("${meetings.lifecycle.open-ended-minutes:240}")
+    private int openEndedMinutes;
+
+    @Value("${meetings.lifecycle.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${meetings.lifecycle.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    @Value("${meetings.lifecycle.lease-renew-interval-ms:5000}")
+    private long leaseRenewIntervalMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Everything below is only touched on the ticker thread.
+    private ScheduledExecutorService ticker;
+    private TimingWheel<TimerKey> wheel;
+    private Instant loadedUntil;
+    private long nextReloadAt;
+    private long nextLeaseCheckAt;
+    private volatile boolean leader;
+    private volatile int timerCount;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meeting-lifecycle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        if (clusterTransport != null) {
+            clusterTransport.subscribe(CHANNEL, this::receive);
+        }
+        Gauge.builder("meetings.lifecycle.timers", () -> timerCount).register(meterRegistry);
+        Gauge.builder("meetings.lifecycle.leader", () -> leader ? 1 : 0).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (ticker == null) {
+            return;
+        }
+        ticker.shutdown();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+        if (leader) {
+            meetingLifecycleLease.release();
+        }
+    }
+
+    /**
+     * Replaces the timers of meetings changed on this node, and tells the
+     * leader if that is another node.
+     */
+    @EventListener
+    public void onScheduleChanged(MeetingScheduleChangedEvent event) {
+        if (ticker == null || event.getMeetingIds().isEmpty()) {
+            return;
+        }
+        List<Long> meetingIds = List.copyOf(event.getMeetingIds());
+        ticker.execute(() -> reschedule(meetingIds));
+        if (clusterTransport != null) {
+            String ids = meetingIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            try {
+                clusterTransport.publish(CHANNEL, (nodeId + "\n" + ids).getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                // The leader picks the change up on its next lease change; the write guards keep it correct meanwhile.
+                logger.warn("Failed to relay schedule change for {} meetings: {}", meetingIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void receive(byte[] message) {
+        String[] parts = new String(message, StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length != 2 || nodeId.equals(parts[0]) || parts[1].isEmpty()) {
+            return;
+        }
+        List<Long> meetingIds = Arrays.stream(parts[1].split(",")).map(Long::valueOf).toList();
+        ticker.execute(() -> reschedule(meetingIds));
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            checkLease(now);
+            if (wheel == null) {
+                return;
+            }
+            if (now >= nextReloadAt) {
+                extendWindow(now);
+            }
+            fire(wheel.advance(now));
+            timerCount = wheel.size();
+        } catch (RuntimeException e) {
+            logger.warn("Meeting lifecycle tick failed", e);
+        }
+    }
+
+    private void checkLease(long now) {
+        if (now < nextLeaseCheckAt) {
+            return;
+        }
+        nextLeaseCheckAt = now + leaseRenewIntervalMs;
+        boolean held;
+        try {
+            held = meetingLifecycleLease.acquireOrRenew(Duration.ofMillis(leaseTtlMs));
+        } catch (RuntimeException e) {
+            // Without a renewal the lease may lapse to another node: stop firing to be safe.
+            logger.warn("Could not renew meeting lifecycle lease: {}", e.getMessage());
+            held = false;
+        }
+        if (held && wheel == null) {
+            logger.info("Took the meeting lifecycle lease; loading upcoming meetings");
+            List<MeetingTimes> inProgress = meetingLifecycleRepository.findInProgress();
+            wheel = new TimingWheel<>(tickMs, wheelSize, now);
+            leader = true;
+            loadedUntil = Instant.ofEpochMilli(now - catchUpMs);
+            nextReloadAt = now;
+            schedule(inProgress);
+        } else if (!held && wheel != null) {
+            logger.info("Lost the meeting lifecycle lease");
+            wheel = null;
+            leader = false;
+            timerCount = 0;
+        }
+    }
+
+    private void extendWindow(long now) {
+        Instant until = Instant.ofEpochMilli(now + horizonMs);
+        schedule(meetingLifecycleRepository.findScheduledStarting(loadedUntil, until));
+        loadedUntil = until;
+        nextReloadAt = now + reloadIntervalMs;
+    }
+
+    private void reschedule(List<Long> meetingIds) {
+        if (wheel == null) {
+            return;
+        }
+        try {
+            for (Long meetingId : meetingIds) {
+                for (Transition transition : Transition.values()) {
+                    wheel.cancel(new TimerKey(meetingId, transition));
+                }
+            }
+            schedule(meetingLifecycleRepository.findByIds(meetingIds));
+            timerCount = wheel.size();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reschedule {} meetings", meetingIds.size(), e);
+        }
+    }
+
+    /**
+     * Sets the timers for each meeting's remaining transitions. Transitions
+     * that are already due fire right away; a reminder is only sent late if
+     * the meeting has not started yet.
+     */
+    private void schedule(List<MeetingTimes> meetings) {
+        List<TimerKey> due = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (MeetingTimes meeting : meetings) {
+            boolean scheduled = MeetingStatus.SCHEDULED.name().equals(meeting.status());
+            if (!scheduled && !MeetingStatus.IN_PROGRESS.name().equals(meeting.status())) {
+                continue;
+            }
+            long start = meeting.startTime().toEpochMilli();
+            if (scheduled) {
+                if (start > now) {
+                    scheduleOrFire(new TimerKey(meeting.id(), Transition.REMINDER), start - reminderLeadMs, due);
+                }
+                scheduleOrFire(new TimerKey(meeting.id(), Transition.START), start, due);
+            }
+            long end = meeting.endTime() != null
+                    ? meeting.endTime().toEpochMilli()
+                    : start + Duration.ofMinutes(openEndedMinutes).toMillis();
+            scheduleOrFire(new TimerKey(meeting.id(), Transition.END), end, due);
+        }
+        fire(due);
+    }
+
+    private void scheduleOrFire(TimerKey key, long deadlineMs, List<TimerKey> due) {
+        if (!wheel.schedule(key, deadlineMs)) {
+            due.add(key);
+        }
+    }
+
+    /**
+     * Applies the transitions in one batch each: reminders, then starts, then
+     * ends, so a meeting whose start and end are both due goes through both.
+     */
+    private void fire(List<TimerKey> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<Transition, List<Long>> byTransition = new EnumMap<>(Transition.class);
+        for (TimerKey key : due) {
+            byTransition.computeIfAbsent(key.transition(), transition -> new ArrayList<>()).add(key.meetingId());
+        }
+        List<Long> reminders = byTransition.getOrDefault(Transition.REMINDER, List.of());
+        if (!reminders.isEmpty()) {
+            List<MeetingTimes> meetings = meetingLifecycleRepository.findByIds(reminders);
+            for (MeetingTimes meeting : meetings) {
+                if (MeetingStatus.SCHEDULED.name().equals(meeting.status())) {
+                    announce(meeting.id(), CollaborationMessage.meetingReminder(meeting.id(), meeting.startTime()));
+                }
+            }
+            record(Transition.REMINDER, meetings.size());
+        }
+        apply(Transition.START, byTransition.get(Transition.START), MeetingStatus.IN_PROGRESS);
+        apply(Transition.END, byTransition.get(Transition.END), MeetingStatus.COMPLETED);
+    }
+
+    private void apply(Transition transition, List<Long> meetingIds, MeetingStatus status) {
+        if (meetingIds == null) {
+            return;
+        }
+        List<Long> changed;
+        List<EndedMeeting> ended = List.of();
+        Instant now = Instant.now();
+        try {
+            if (transition == Transition.START) {
+                changed = meetingLifecycleRepository.start(meetingIds, now);
+            } else {
+                ended = meetingLifecycleRepository.end(meetingIds, openEndedMinutes, now);
+                changed = ended.stream().map(EndedMeeting::id).toList();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to {} {} meetings, retrying in {} ms: {}", transition.name().toLowerCase(),
+                    meetingIds.size(), retryDelayMs, e.getMessage());
+            long retryAt = System.currentTimeMillis() + retryDelayMs;
+            meetingIds.forEach(meetingId -> wheel.schedule(new TimerKey(meetingId, transition), retryAt));
+            return;
+        }
+        changed.forEach(meetingId -> announce(meetingId, CollaborationMessage.meetingStatus(meetingId, status.name())));
+        ended.forEach(meeting -> eventPublisher.publishEvent(
+                TeamActivityEvent.meetingCompleted(meeting.teamId(), meeting.durationMinutes(), meeting.endTime())));
+        record(transition, changed.size());
+    }
+
+    private void announce(Long meetingId, CollaborationMessage message) {
+        try {
+            broadcastHub.broadcast(RoomKey.meeting(meetingId),
+                    OutboundFrame.reliable(new TextMessage(objectMapper.writeValueAsString(message))), null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize meeting message", e);
+        }
+    }
+
+    private void record(Transition transition, int count) {
+        meterRegistry.counter("meetings.lifecycle.transitions", "transition", transition.name().toLowerCase()).increment(count);
+    }
+
+    enum Transition { REMINDER, START, END }
+
+    record TimerKey(Long meetingId, Transition transition) {}
+}
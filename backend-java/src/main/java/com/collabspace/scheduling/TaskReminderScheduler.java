@@ -0,0 +1,320 @@
+package com.collabspace.scheduling;
+
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.event.TaskBoardChangedEvent;
+import com.collabspace.event.TaskRemindersEvent.Kind;
+import com.collabspace.lock.LeaderLease;
+import com.collabspace.model.Task.TaskStatus;
+import com.collabspace.repository.TaskReminderRepository;
+import com.collabspace.repository.TaskReminderRepository.TaskDue;
+import com.collabspace.service.TaskReminderService;
+import com.collabspace.websocket.ClusterTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sends due-soon and overdue task reminders from an in-memory
+ * {@link DeadlineQueue}, instead of scanning tasks for overdue ones.
+ *
+ * <p>Only the node holding the {@code tasks.reminders} leader lease keeps
+ * a queue, and only for open tasks due within the next {@code horizon-ms}
+ * plus {@code due-soon-lead-ms}, so its size follows the tasks coming due
+ * rather than all open tasks. The window is extended every
+ * {@code reload-interval-ms} by a range scan over the partial index on open
+ * tasks. Task changes on any node reach the leader after commit, relayed
+ * over the cluster transport, and replace that task's timers in O(log n).</p>
+ *
+ * <p>Due reminders are collected for up to {@code batch-window-ms} (or
+ * {@code batch-size} reminders) and then sent in one batch per kind, which
+ * notifies each recipient once for all their tasks in it. Sending claims
+ * each reminder in the database first, so a brief second leader or a
+ * retry never sends one twice.</p>
+ */
+@Component
+public class TaskReminderScheduler {
+
+    static final String CHANNEL = "tasks:due";
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskReminderScheduler.class);
+
+    @Autowired
+    private TaskReminderRepository taskReminderRepository;
+
+    @Autowired
+    private TaskReminderService taskReminderService;
+
+    @Autowired
+    private LeaderLease taskReminderLease;
+
+    @Autowired(required = false)
+    private ClusterTransport clusterTransport;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tasks.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tasks.reminders.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${tasks.reminders.horizon-ms:21600000}")
+    private long horizonMs;
+
+    @Value("${tasks.reminders.reload-interval-ms:600000}")
+    private long reloadIntervalMs;
+
+    @Value("${tasks.reminders.catch-up-ms:86400000}")
+    private long catchUpMs;
+
+    @Value("${tasks.reminders.due-soon-lead-ms:86400000}")
+    private long dueSoonLeadMs;
+
+    @Value("${tasks.reminders.batch-window-ms:30000}")
+    private long batchWindowMs;
+
+    @Value("${tasks.reminders.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${tasks.reminders.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    @Value("${tasks.reminders.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    @Value("${tasks.reminders.lease-renew-interval-ms:5000}")
+    private long leaseRenewIntervalMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Everything below is only touched on the ticker thread.
+    private ScheduledExecutorService ticker;
+    private DeadlineQueue<TimerKey> queue;
+    private Instant loadedUntil;
+    private long nextReloadAt;
+    private long nextLeaseCheckAt;
+    private final Map<Kind, Set<Long>> pending = new EnumMap<>(Kind.class);
+    private int pendingCount;
+    private long pendingSince;
+    private volatile boolean leader;
+    private volatile int timerCount;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        for (Kind kind : Kind.values()) {
+            pending.put(kind, new LinkedHashSet<>());
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        if (clusterTransport != null) {
+            clusterTransport.subscribe(CHANNEL, this::receive);
+        }
+        Gauge.builder("tasks.reminders.timers", () -> timerCount).register(meterRegistry);
+        Gauge.builder("tasks.reminders.leader", () -> leader ? 1 : 0).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (ticker == null) {
+            return;
+        }
+        ticker.shutdown();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+        if (leader) {
+            taskReminderLease.release();
+        }
+    }
+
+    /**
+     * Replaces the timers of tasks changed on this node, and tells the
+     * leader if that is another node.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBoardChanged(TaskBoardChangedEvent event) {
+        if (ticker == null) {
+            return;
+        }
+        List<Long> taskIds = Stream.concat(event.getTasks().stream().map(TaskDTO::getId), event.getRemovedTaskIds().stream())
+                .toList();
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        ticker.execute(() -> reschedule(taskIds));
+        if (clusterTransport != null) {
+            String ids = taskIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            try {
+                clusterTransport.publish(CHANNEL, (nodeId + "\n" + ids).getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                // Stale timers are harmless, sending re-checks the due date; only a due date moved earlier is missed.
+                logger.warn("Failed to relay due date change for {} tasks: {}", taskIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void receive(byte[] message) {
+        String[] parts = new String(message, StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length != 2 || nodeId.equals(parts[0]) || parts[1].isEmpty()) {
+            return;
+        }
+        List<Long> taskIds = Arrays.stream(parts[1].split(",")).map(Long::valueOf).toList();
+        ticker.execute(() -> reschedule(taskIds));
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            checkLease(now);
+            if (queue == null) {
+                return;
+            }
+            if (now >= nextReloadAt) {
+                extendWindow(now);
+            }
+            for (TimerKey key : queue.pollDue(now, Integer.MAX_VALUE)) {
+                if (pending.get(key.kind()).add(key.taskId()) && pendingCount++ == 0) {
+                    pendingSince = now;
+                }
+            }
+            if (pendingCount > 0 && (pendingCount >= batchSize || now - pendingSince >= batchWindowMs)) {
+                flush(now);
+            }
+            timerCount = queue.size();
+        } catch (RuntimeException e) {
+            logger.warn("Task reminder tick failed", e);
+        }
+    }
+
+    private void checkLease(long now) {
+        if (now < nextLeaseCheckAt) {
+            return;
+        }
+        nextLeaseCheckAt = now + leaseRenewIntervalMs;
+        boolean held;
+        try {
+            held = taskReminderLease.acquireOrRenew(Duration.ofMillis(leaseTtlMs));
+        } catch (RuntimeException e) {
+            logger.warn("Could not renew task reminder lease: {}", e.getMessage());
+            held = false;
+        }
+        if (held && queue == null) {
+            logger.info("Took the task reminder lease; loading tasks coming due");
+            queue = new DeadlineQueue<>();
+            leader = true;
+            loadedUntil = Instant.ofEpochMilli(now - catchUpMs);
+            nextReloadAt = now;
+        } else if (!held && queue != null) {
+            logger.info("Lost the task reminder lease");
+            queue = null;
+            leader = false;
+            pending.values().forEach(Set::clear);
+            pendingCount = 0;
+            timerCount = 0;
+        }
+    }
+
+    private void extendWindow(long now) {
+        Instant until = Instant.ofEpochMilli(now + horizonMs + dueSoonLeadMs);
+        schedule(taskReminderRepository.findOpenDue(loadedUntil, until), now);
+        loadedUntil = until;
+        nextReloadAt = now + reloadIntervalMs;
+    }
+
+    private void reschedule(List<Long> taskIds) {
+        if (queue == null) {
+            return;
+        }
+        try {
+            for (Long taskId : taskIds) {
+                for (Kind kind : Kind.values()) {
+                    queue.cancel(new TimerKey(taskId, kind));
+                }
+            }
+            List<TaskDue> inWindow = taskReminderRepository.findByIds(taskIds).stream()
+                    .filter(task -> task.dueDate() != null && !task.dueDate().isAfter(loadedUntil))
+                    .toList();
+            schedule(inWindow, System.currentTimeMillis());
+            timerCount = queue.size();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reschedule reminders for {} tasks", taskIds.size(), e);
+        }
+    }
+
+    /**
+     * Sets the timers for each open task. Timers already due fire on this
+     * tick; a due-soon reminder is only sent while the task is not overdue.
+     */
+    private void schedule(List<TaskDue> tasks, long now) {
+        for (TaskDue task : tasks) {
+            if (task.dueDate() == null || TaskStatus.DONE.name().equals(task.status())) {
+                continue;
+            }
+            long due = task.dueDate().toEpochMilli();
+            if (due > now) {
+                queue.schedule(new TimerKey(task.id(), Kind.DUE_SOON), due - dueSoonLeadMs);
+            }
+            queue.schedule(new TimerKey(task.id(), Kind.OVERDUE), due);
+        }
+    }
+
+    /**
+     * Sends the pending reminders in batches of at most {@code batch-size}.
+     * A failed batch is retried after {@code retry-delay-ms}.
+     */
+    private void flush(long now) {
+        Instant at = Instant.ofEpochMilli(now);
+        for (Kind kind : Kind.values()) {
+            Iterator<Long> ids = pending.get(kind).iterator();
+            while (ids.hasNext()) {
+                List<Long> batch = new ArrayList<>(Math.min(batchSize, pendingCount));
+                while (ids.hasNext() && batch.size() < batchSize) {
+                    batch.add(ids.next());
+                }
+                try {
+                    taskReminderService.send(kind, batch, at, dueSoonLeadMs);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to send {} {} reminders, retrying in {} ms: {}", batch.size(),
+                            kind.name().toLowerCase(), retryDelayMs, e.getMessage());
+                    batch.forEach(taskId -> queue.schedule(new TimerKey(taskId, kind), now + retryDelayMs));
+                }
+            }
+            pending.get(kind).clear();
+        }
+        pendingCount = 0;
+    }
+
+    record TimerKey(Long taskId, Kind kind) {}
+}
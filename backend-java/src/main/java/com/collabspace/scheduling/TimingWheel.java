@@ -0,0 +1,157 @@
+package com.collabspace.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by {@code K}: scheduling, rescheduling and
+ * cancelling are O(1), and advancing costs O(1) per tick plus the timers
+ * that fire or cascade.
+ *
+ * <p>Level {@code n} has {@code wheelSize} slots of {@code wheelSize^n}
+ * ticks each. A timer goes into the lowest level whose span covers its
+ * delay and drops a level each time its slot comes round, until it fires
+ * from level 0. Levels are added as far-off timers need them.</p>
+ *
+ * <p>Not thread-safe; the owner serialises access.</p>
+ */
+public final class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<K>> levels = new ArrayList<>();
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMs / tickMs;
+        levels.add(new Level<>(wheelSize, 1));
+    }
+
+    /**
+     * Schedules {@code key} to fire at {@code deadlineMs}, replacing any timer
+     * already scheduled for it.
+     *
+     * @return {@code false} if the deadline has already passed; nothing is
+     *         scheduled then and the caller should act right away
+     */
+    public boolean schedule(K key, long deadlineMs) {
+        cancel(key);
+        long deadlineTick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        timers.put(key, timer);
+        place(timer);
+        return true;
+    }
+
+    public boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(timer);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMs}.
+     *
+     * @return the keys whose deadline has been reached, in deadline order
+     */
+    public List<K> advance(long nowMs) {
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade from the top so timers due now have reached level 0.
+            for (int n = levels.size() - 1; n > 0; n--) {
+                Level<K> level = levels.get(n);
+                if (currentTick % level.ticksPerSlot == 0) {
+                    Set<Timer<K>> slot = level.slotFor(currentTick);
+                    if (!slot.isEmpty()) {
+                        List<Timer<K>> cascading = new ArrayList<>(slot);
+                        slot.clear();
+                        cascading.forEach(this::place);
+                    }
+                }
+            }
+            Set<Timer<K>> due = levels.get(0).slotFor(currentTick);
+            if (!due.isEmpty()) {
+                for (Timer<K> timer : due) {
+                    timers.remove(timer.key);
+                    expired.add(timer.key);
+                }
+                due.clear();
+            }
+        }
+        return expired;
+    }
+
+    private void place(Timer<K> timer) {
+        long delay = timer.deadlineTick - currentTick;
+        int n = 0;
+        long span = wheelSize;
+        while (delay >= span) {
+            n++;
+            span = span > Long.MAX_VALUE / wheelSize ? Long.MAX_VALUE : span * wheelSize;
+        }
+        while (levels.size() <= n) {
+            Level<K> top = levels.get(levels.size() - 1);
+            levels.add(new Level<>(wheelSize, top.ticksPerSlot * wheelSize));
+        }
+        // A timer due this very tick (after a cascade) sits in level 0's current slot.
+        Set<Timer<K>> slot = levels.get(n).slotFor(Math.max(timer.deadlineTick, currentTick));
+        slot.add(timer);
+        timer.slot = slot;
+    }
+
+    private static final class Level<K> {
+
+        private final long ticksPerSlot;
+        private final List<Set<Timer<K>>> slots;
+
+        private Level(int wheelSize, long ticksPerSlot) {
+            this.ticksPerSlot = ticksPerSlot;
+            this.slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                slots.add(new HashSet<>());
+            }
+        }
+
+        private Set<Timer<K>> slotFor(long tick) {
+            return slots.get((int) ((tick / ticksPerSlot) % slots.size()));
+        }
+    }
+
+    private static final class Timer<K> {
+
+        private final K key;
+        private final long deadlineTick;
+        private Set<Timer<K>> slot;
+
+        private Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.collabspace.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Google's ID token signing keys, fetched from the JWKS endpoint and
+ * refreshed in the background shortly before the {@code Cache-Control}
+ * max-age runs out, so logins never wait on the fetch.
+ *
+ * <p>An unknown {@code kid} triggers an immediate refresh (Google rotated
+ * early), rate limited by {@code google.oauth.certs-min-refresh-interval-ms}.
+ * Pointing {@code google.oauth.certs-url} at a local JWKS file server is
+ * enough to verify self-signed tokens in tests.</p>
+ */
+@Component
+public class GoogleCertificateCache extends LocatorAdapter<Key> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleCertificateCache.class);
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final long DEFAULT_MAX_AGE_MS = Duration.ofHours(1).toMillis();
+
+    @Value("${google.oauth.certs-url:https://www.googleapis.com/oauth2/v3/certs}")
+    private String certsUrl;
+
+    @Value("${google.oauth.certs-refresh-ahead-ms:300000}")
+    private long refreshAheadMs;
+
+    @Value("${google.oauth.certs-min-refresh-interval-ms:30000}")
+    private long minRefreshIntervalMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // Not a monitor: the fetch blocks on the network and must not pin a virtual thread's carrier.
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long expiresAt;
+    private volatile long lastFetchAt;
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Logins will retry the fetch on first use.
+            logger.warn("Initial Google certificate fetch failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${google.oauth.certs-check-interval-ms:60000}")
+    public void refreshIfStale() {
+        if (System.currentTimeMillis() >= expiresAt - refreshAheadMs) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                // Keep serving the current keys; they are usually still valid.
+                logger.warn("Google certificate refresh failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        PublicKey key = keyId != null ? keys.get(keyId) : null;
+        if (key == null && System.currentTimeMillis() - lastFetchAt >= minRefreshIntervalMs) {
+            refresh();
+            key = keyId != null ? keys.get(keyId) : null;
+        }
+        if (key == null) {
+            throw new io.jsonwebtoken.security.SecurityException("Unknown Google signing key: " + keyId);
+        }
+        return key;
+    }
+
+    private void refresh() {
+        refreshLock.lock();
+        try {
+            fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void fetch() {
+        lastFetchAt = System.currentTimeMillis();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(HttpRequest.newBuilder(URI.create(certsUrl))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            meterRegistry.counter("google.certs.refresh", "result", "error").increment();
+            throw new IllegalStateException("Failed to fetch Google certificates: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching Google certificates", e);
+        }
+        if (response.statusCode() != 200) {
+            meterRegistry.counter("google.certs.refresh", "result", "error").increment();
+            throw new IllegalStateException("Google certificate endpoint returned " + response.statusCode());
+        }
+
+        JwkSet jwkSet = Jwks.setParser().build().parse(response.body());
+        Map<String, PublicKey> fetched = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                fetched.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        keys = Map.copyOf(fetched);
+        expiresAt = System.currentTimeMillis() + maxAgeMs(response);
+        meterRegistry.counter("google.certs.refresh", "result", "success").increment();
+    }
+
+    private static long maxAgeMs(HttpResponse<?> response) {
+        return response.headers().firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Long.parseLong(matcher.group(1)) * 1000)
+                .orElse(DEFAULT_MAX_AGE_MS);
+    }
+}
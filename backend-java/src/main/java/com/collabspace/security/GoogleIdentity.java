@@ -0,0 +1,6 @@
+package com.collabspace.security;
+
+/**
+ * The verified claims of a Google ID token that login needs.
+ */
+public record GoogleIdentity(String googleId, String email, boolean emailVerified, String name, String pictureUrl) {}
@@ -0,0 +1,62 @@
+package com.collabspace.security;
+
+import com.collabspace.exception.InvalidTokenException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Verifies Google ID tokens locally against the cached certificates.
+ */
+@Component
+public class GoogleTokenVerifier {
+
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    @Autowired
+    private GoogleCertificateCache certificateCache;
+
+    @Value("${google.oauth.client-id}")
+    private String clientId;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parser()
+                .keyLocator(certificateCache)
+                .requireAudience(clientId)
+                .clockSkewSeconds(60)
+                .build();
+    }
+
+    public GoogleIdentity verify(String idToken) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(idToken).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid Google token: " + e.getMessage(), e);
+        }
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            throw new InvalidTokenException("Unexpected Google token issuer: " + claims.getIssuer());
+        }
+        String email = claims.get("email", String.class);
+        if (claims.getSubject() == null || email == null) {
+            throw new InvalidTokenException("Google token is missing subject or email");
+        }
+        String name = claims.get("name", String.class);
+        return new GoogleIdentity(
+                claims.getSubject(),
+                email,
+                Boolean.TRUE.equals(claims.get("email_verified", Boolean.class)),
+                name != null && !name.isBlank() ? name : email,
+                claims.get("picture", String.class));
+    }
+}
@@ -0,0 +1,76 @@
+package com.collabspace.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HMAC signing keys addressed by the {@code kid} JWT header. New tokens are
+ * signed with the active key; keys listed in {@code jwt.previous-keys}
+ * ({@code kid=secret,...}) still verify until the tokens they signed expire.
+ *
+ * <p>To rotate: move the current {@code kid=secret} into
+ * {@code jwt.previous-keys}, set a new {@code jwt.secret} and
+ * {@code jwt.key-id}, and drop the old entry after {@code jwt.expiration}.</p>
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.key-id:default}")
+    private String activeKeyId;
+
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys;
+
+    private SecretKey activeKey;
+    private Map<String, SecretKey> keys;
+
+    @PostConstruct
+    public void init() {
+        activeKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        Map<String, SecretKey> ring = new HashMap<>();
+        for (String entry : previousKeys.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                ring.put(entry.substring(0, separator).trim(),
+                        Keys.hmacShaKeyFor(entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        ring.put(activeKeyId, activeKey);
+        keys = Map.copyOf(ring);
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public SecretKey getActiveKey() {
+        return activeKey;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            // Tokens issued before key ids were introduced.
+            return activeKey;
+        }
+        SecretKey key = keys.get(keyId);
+        if (key == null) {
+            throw new io.jsonwebtoken.security.SecurityException("Unknown signing key: " + keyId);
+        }
+        return key;
+    }
+}
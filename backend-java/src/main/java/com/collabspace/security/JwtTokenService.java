@@ -0,0 +1,188 @@
+package com.collabspace.security;
+
+import com.collabspace.exception.InvalidTokenException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and verifies access tokens locally, without a database round trip.
+ *
+ * <p>A token's signature is checked once; the resulting claims are cached
+ * under the SHA-256 of the token until it expires, so repeat requests cost a
+ * hash, a cache lookup and a bloom filter probe for revocation.</p>
+ */
+@Service
+public class JwtTokenService {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration:86400000}")
+    private long expirationMs;
+
+    @Value("${jwt.claims-cache-size:100000}")
+    private long claimsCacheSize;
+
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private Timer verifyTimer;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parser().keyLocator(keyRing).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtClaims");
+        verifyTimer = Timer.builder("auth.token.verify")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public String issueToken(Long userId) {
+        return issue(userId).token();
+    }
+
+    public IssuedToken issue(Long userId) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(expirationMs);
+        String tokenId = UUID.randomUUID().toString();
+        String token = Jwts.builder()
+                .header().keyId(keyRing.getActiveKeyId()).and()
+                .id(tokenId)
+                .subject(userId.toString())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(expiresAt))
+                .signWith(keyRing.getActiveKey())
+                .compact();
+        return new IssuedToken(token, tokenId, expiresAt);
+    }
+
+    /**
+     * Revokes an access token by id, e.g. when the session that issued it is
+     * revoked and the token itself is not at hand.
+     */
+    public void revokeById(String tokenId, Instant expiresAt) {
+        revocationList.revoke(tokenId, expiresAt);
+    }
+
+    /**
+     * @throws InvalidTokenException if the token is malformed, expired, signed
+     *                               with an unknown key or revoked
+     */
+    public VerifiedToken verify(String token) {
+        return verifyTimer.record(() -> {
+            VerifiedToken verified = verifyUnrevoked(token);
+            if (revocationList.isRevoked(verified.tokenId())) {
+                throw new InvalidTokenException("Token has been revoked");
+            }
+            return verified;
+        });
+    }
+
+    public VerifiedToken verify(HttpServletRequest request) {
+        return verify(extractToken(request));
+    }
+
+    public Long getUserId(HttpServletRequest request) {
+        return verify(request).userId();
+    }
+
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    /**
+     * Revokes the token until it expires. Logging out twice is harmless.
+     */
+    public void revoke(String token) {
+        VerifiedToken verified = verifyUnrevoked(token);
+        revocationList.revoke(verified.tokenId(), verified.expiresAt());
+        verifiedTokens.invalidate(TokenHashes.sha256(token));
+    }
+
+    public String extractToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    private VerifiedToken verifyUnrevoked(String token) {
+        String key = TokenHashes.sha256(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && !verified.isExpired(Instant.now())) {
+            return verified;
+        }
+        verified = parse(token, key);
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
+    private VerifiedToken parse(String token, String tokenHash) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid token: " + e.getMessage(), e);
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new InvalidTokenException("Token is missing subject or expiry");
+        }
+        Long userId;
+        try {
+            userId = Long.valueOf(claims.getSubject());
+        } catch (NumberFormatException e) {
+            throw new InvalidTokenException("Invalid token subject", e);
+        }
+        // Tokens issued without a jti are revoked by their hash instead.
+        String tokenId = claims.getId() != null ? claims.getId() : tokenHash;
+        return new VerifiedToken(userId, tokenId, claims.getExpiration().toInstant());
+    }
+
+    public record IssuedToken(String token, String tokenId, Instant expiresAt) {}
+}
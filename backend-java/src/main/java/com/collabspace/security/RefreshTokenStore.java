@@ -0,0 +1,270 @@
+package com.collabspace.security;
+
+import com.collabspace.dto.SessionDTO;
+import com.collabspace.exception.InvalidTokenException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Login sessions and their refresh tokens, kept entirely in Redis so that
+ * refreshing never touches Postgres.
+ *
+ * <p>A refresh token is {@code userId.sessionId.secret}; only its SHA-256 is
+ * stored. The user id lets the caller sign the next access token before the
+ * rotation script runs, so a refresh is a single round trip.
+ * Every use rotates it. Presenting a superseded token is treated as theft and
+ * kills the session, except within {@code auth.session.reuse-grace-ms} of the
+ * rotation, when the token pair issued by that rotation is replayed instead.
+ * This lets several tabs that woke up together refresh with the same token.</p>
+ *
+ * <p>Sessions slide: each rotation extends the idle TTL, capped by the
+ * absolute lifetime fixed at login.</p>
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final String SESSION_KEY_PREFIX = "auth:session:";
+    private static final String USER_SESSIONS_KEY_PREFIX = "auth:user-sessions:";
+    private static final String GRACE_KEY_PREFIX = "auth:refresh-grace:";
+
+    /**
+     * KEYS: session, grace entry for the presented hash.
+     * ARGV: presented hash, new hash, replay value, now, idle TTL, grace TTL,
+     * new access token id, new access token expiry, claimed user id.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>("""
+            local s = redis.call('HMGET', KEYS[1], 'userId', 'tokenHash', 'previousHash', 'expiresAt', 'accessTokenId', 'accessExpiresAt')
+            if not s[1] or s[1] ~= ARGV[9] then
+              return {'missing'}
+            end
+            local now = tonumber(ARGV[4])
+            if s[2] == ARGV[1] then
+              local expiresAt = tonumber(s[4])
+              if expiresAt <= now then
+                redis.call('DEL', KEYS[1])
+                return {'expired', s[1]}
+              end
+              redis.call('HSET', KEYS[1], 'tokenHash', ARGV[2], 'previousHash', ARGV[1], 'lastUsedAt', ARGV[4],
+                'accessTokenId', ARGV[7], 'accessExpiresAt', ARGV[8])
+              redis.call('PEXPIRE', KEYS[1], math.min(tonumber(ARGV[5]), expiresAt - now))
+              redis.call('SET', KEYS[2], ARGV[3], 'PX', ARGV[6])
+              return {'rotated', s[1]}
+            end
+            if s[3] == ARGV[1] then
+              local replay = redis.call('GET', KEYS[2])
+              if replay then
+                return {'grace', s[1], replay}
+              end
+            end
+            redis.call('DEL', KEYS[1])
+            return {'reused', s[1], s[5], s[6]}
+            """, List.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${auth.session.idle-ttl-ms:1209600000}")
+    private long idleTtlMs;
+
+    @Value("${auth.session.max-lifetime-ms:7776000000}")
+    private long maxLifetimeMs;
+
+    @Value("${auth.session.reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    /**
+     * Creates a session for a fresh login.
+     *
+     * @return the refresh token; it is not stored and cannot be recovered
+     */
+    public String createSession(Long userId, String userAgent, JwtTokenService.IssuedToken accessToken) {
+        String sessionId = TokenHashes.randomToken(16);
+        String refreshToken = userId + "." + sessionId + "." + TokenHashes.randomToken(32);
+        long now = System.currentTimeMillis();
+        String sessionKey = SESSION_KEY_PREFIX + sessionId;
+
+        redisTemplate.opsForHash().putAll(sessionKey, Map.of(
+                "userId", userId.toString(),
+                "tokenHash", TokenHashes.sha256(refreshToken),
+                "previousHash", "",
+                "createdAt", Long.toString(now),
+                "lastUsedAt", Long.toString(now),
+                "expiresAt", Long.toString(now + maxLifetimeMs),
+                "userAgent", userAgent != null ? userAgent : "",
+                "accessTokenId", accessToken.tokenId(),
+                "accessExpiresAt", Long.toString(accessToken.expiresAt().toEpochMilli())));
+        redisTemplate.expire(sessionKey, Duration.ofMillis(Math.min(idleTtlMs, maxLifetimeMs)));
+        String userKey = USER_SESSIONS_KEY_PREFIX + userId;
+        redisTemplate.opsForSet().add(userKey, sessionId);
+        redisTemplate.expire(userKey, Duration.ofMillis(maxLifetimeMs));
+        return refreshToken;
+    }
+
+    /**
+     * The user a refresh token claims to belong to. Not authenticated until
+     * {@link #rotate} succeeds.
+     */
+    public Long claimedUserId(String refreshToken) {
+        try {
+            return Long.valueOf(parts(refreshToken)[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidTokenException("Malformed refresh token");
+        }
+    }
+
+    /**
+     * Rotates a refresh token in one atomic step.
+     *
+     * @param accessToken the access token for {@link #claimedUserId} to bind to
+     *                    the session if the rotation succeeds; discarded otherwise
+     * @throws InvalidTokenException if the token is unknown, expired or reused
+     */
+    public Rotation rotate(String refreshToken, JwtTokenService.IssuedToken accessToken) {
+        String[] parts = parts(refreshToken);
+        String sessionId = parts[1];
+        String presentedHash = TokenHashes.sha256(refreshToken);
+        String newRefreshToken = parts[0] + "." + sessionId + "." + TokenHashes.randomToken(32);
+
+        List<?> result = redisTemplate.execute(ROTATE,
+                List.of(SESSION_KEY_PREFIX + sessionId, GRACE_KEY_PREFIX + presentedHash),
+                presentedHash,
+                TokenHashes.sha256(newRefreshToken),
+                newRefreshToken + "\n" + accessToken.token() + "\n" + accessToken.expiresAt().toEpochMilli(),
+                Long.toString(System.currentTimeMillis()),
+                Long.toString(idleTtlMs),
+                Long.toString(reuseGraceMs),
+                accessToken.tokenId(),
+                Long.toString(accessToken.expiresAt().toEpochMilli()),
+                parts[0]);
+
+        String outcome = result != null && !result.isEmpty() ? (String) result.get(0) : "missing";
+        switch (outcome) {
+            case "rotated":
+                return new Rotation(Outcome.ROTATED, Long.valueOf((String) result.get(1)), newRefreshToken,
+                        accessToken.token(), accessToken.expiresAt());
+            case "grace": {
+                String[] replay = ((String) result.get(2)).split("\n", 3);
+                return new Rotation(Outcome.GRACE, Long.valueOf((String) result.get(1)), replay[0],
+                        replay[1], Instant.ofEpochMilli(Long.parseLong(replay[2])));
+            }
+            case "reused": {
+                Long userId = Long.valueOf((String) result.get(1));
+                redisTemplate.opsForSet().remove(USER_SESSIONS_KEY_PREFIX + userId, sessionId);
+                throw new RefreshTokenReuseException(userId, sessionId,
+                        result.size() > 3 ? new BoundAccessToken((String) result.get(2), Long.parseLong((String) result.get(3))) : null);
+            }
+            case "expired":
+                redisTemplate.opsForSet().remove(USER_SESSIONS_KEY_PREFIX + result.get(1), sessionId);
+                throw new InvalidTokenException("Session has expired");
+            default:
+                throw new InvalidTokenException("Unknown refresh token");
+        }
+    }
+
+    public List<SessionDTO> listSessions(Long userId) {
+        String userKey = USER_SESSIONS_KEY_PREFIX + userId;
+        Set<String> sessionIds = redisTemplate.opsForSet().members(userKey);
+        List<SessionDTO> sessions = new ArrayList<>();
+        if (sessionIds == null) {
+            return sessions;
+        }
+        for (String sessionId : sessionIds) {
+            List<Object> fields = redisTemplate.opsForHash().multiGet(SESSION_KEY_PREFIX + sessionId,
+                    List.of("userId", "userAgent", "createdAt", "lastUsedAt", "expiresAt"));
+            if (fields.get(0) == null) {
+                // Expired through its idle TTL.
+                redisTemplate.opsForSet().remove(userKey, sessionId);
+                continue;
+            }
+            sessions.add(new SessionDTO(sessionId, emptyToNull((String) fields.get(1)),
+                    Instant.ofEpochMilli(Long.parseLong((String) fields.get(2))),
+                    Instant.ofEpochMilli(Long.parseLong((String) fields.get(3))),
+                    Instant.ofEpochMilli(Long.parseLong((String) fields.get(4)))));
+        }
+        sessions.sort(Comparator.comparing(SessionDTO::getLastUsedAt).reversed());
+        return sessions;
+    }
+
+    /**
+     * Deletes a session owned by the user.
+     *
+     * @return the access token currently bound to it, or {@code null} if the
+     *         session does not exist or belongs to someone else
+     */
+    public BoundAccessToken revokeSession(Long userId, String sessionId) {
+        String sessionKey = SESSION_KEY_PREFIX + sessionId;
+        List<Object> fields = redisTemplate.opsForHash().multiGet(sessionKey,
+                List.of("userId", "accessTokenId", "accessExpiresAt"));
+        redisTemplate.opsForSet().remove(USER_SESSIONS_KEY_PREFIX + userId, sessionId);
+        if (fields.get(0) == null || !userId.toString().equals(fields.get(0))) {
+            return null;
+        }
+        redisTemplate.delete(sessionKey);
+        return new BoundAccessToken((String) fields.get(1), Long.parseLong((String) fields.get(2)));
+    }
+
+    public List<BoundAccessToken> revokeAllSessions(Long userId) {
+        Set<String> sessionIds = redisTemplate.opsForSet().members(USER_SESSIONS_KEY_PREFIX + userId);
+        List<BoundAccessToken> revoked = new ArrayList<>();
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                BoundAccessToken accessToken = revokeSession(userId, sessionId);
+                if (accessToken != null) {
+                    revoked.add(accessToken);
+                }
+            }
+        }
+        redisTemplate.delete(USER_SESSIONS_KEY_PREFIX + userId);
+        return revoked;
+    }
+
+    private static String[] parts(String refreshToken) {
+        String[] parts = refreshToken != null ? refreshToken.split("\\.") : new String[0];
+        if (parts.length != 3 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            throw new InvalidTokenException("Malformed refresh token");
+        }
+        return parts;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public enum Outcome { ROTATED, GRACE }
+
+    public record Rotation(Outcome outcome, Long userId, String refreshToken, String accessToken, Instant accessExpiresAt) {}
+
+    /** The access token last issued for a session, so it can be revoked with it. */
+    public record BoundAccessToken(String tokenId, long expiresAtMillis) {}
+
+    public static class RefreshTokenReuseException extends InvalidTokenException {
+
+        private final Long userId;
+        private final String sessionId;
+        private final BoundAccessToken accessToken;
+
+        RefreshTokenReuseException(Long userId, String sessionId, BoundAccessToken accessToken) {
+            super("Refresh token reuse detected; session revoked");
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.accessToken = accessToken;
+        }
+
+        public Long getUserId() { return userId; }
+        public String getSessionId() { return sessionId; }
+        public BoundAccessToken getAccessToken() { return accessToken; }
+    }
+}
@@ -0,0 +1,104 @@
+package com.collabspace.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids. The source of truth is a Redis sorted set scored by
+ * token expiry, so entries drop out once the token could no longer be used
+ * anyway. Each node keeps a bloom filter of it: the common case, a token
+ * that was never revoked, is answered locally, and only filter hits are
+ * confirmed against Redis.
+ *
+ * <p>Revocations on this node take effect immediately; other nodes pick
+ * them up on their next reload, within {@code jwt.revocation.refresh-interval-ms}.</p>
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+    private static final String REVOKED_KEY = "auth:revoked";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Revocations made on this node, re-added to every rebuilt filter until they expire. */
+    private final Map<String, Long> localRevocations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    @PostConstruct
+    public void init() {
+        filter = BloomFilter.create(expectedRevocations, falsePositiveRate);
+        reload();
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        synchronized (this) {
+            localRevocations.put(tokenId, expiresAt.toEpochMilli());
+            filter.put(tokenId);
+        }
+        redisTemplate.opsForZSet().add(REVOKED_KEY, tokenId, expiresAt.toEpochMilli());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (localRevocations.containsKey(tokenId)) {
+            return true;
+        }
+        try {
+            Double expiresAt = redisTemplate.opsForZSet().score(REVOKED_KEY, tokenId);
+            return expiresAt != null && expiresAt > System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            // Fail closed: only tokens that already hit the filter get here.
+            logger.warn("Revocation lookup failed, rejecting token: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Rebuilds the filter from Redis, dropping expired entries so that false
+     * positives do not accumulate.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        localRevocations.values().removeIf(expiresAt -> expiresAt <= now);
+        Set<String> revoked;
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+            revoked = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload revoked tokens, keeping the current filter: {}", e.getMessage());
+            return;
+        }
+        int size = (revoked != null ? revoked.size() : 0) + localRevocations.size();
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedRevocations, size * 2), falsePositiveRate);
+        if (revoked != null) {
+            revoked.forEach(rebuilt::put);
+        }
+        synchronized (this) {
+            localRevocations.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+    }
+}
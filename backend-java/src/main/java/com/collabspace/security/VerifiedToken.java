@@ -0,0 +1,13 @@
+package com.collabspace.security;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature and expiry have been checked.
+ */
+public record VerifiedToken(Long userId, String tokenId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
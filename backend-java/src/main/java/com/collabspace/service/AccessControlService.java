@@ -0,0 +1,54 @@
+package com.collabspace.service;
+
+import com.collabspace.repository.MeetingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Team and document access checks, answered from cached membership sets
+ * rather than a join query per request.
+ */
+@Service
+public class AccessControlService {
+
+    @Autowired
+    private TeamMembershipService teamMembershipService;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    public boolean isTeamMember(Long teamId, Long userId) {
+        return userId != null && teamMembershipService.getMemberIds(teamId).contains(userId);
+    }
+
+    public void checkTeamAccess(Long teamId, Long userId) {
+        if (!isTeamMember(teamId, userId)) {
+            throw new SecurityException("User is not a member of the team");
+        }
+    }
+
+    /**
+     * @return the document's team id
+     */
+    public Long checkDocumentAccess(Long documentId, Long userId) {
+        Long teamId = teamMembershipService.getDocumentTeamId(documentId);
+        if (teamId == null) {
+            throw new IllegalArgumentException("Document not found: " + documentId);
+        }
+        if (!isTeamMember(teamId, userId)) {
+            throw new SecurityException("User is not a member of the document's team");
+        }
+        return teamId;
+    }
+
+    public boolean canAccessDocument(Long documentId, Long userId) {
+        Long teamId = teamMembershipService.getDocumentTeamId(documentId);
+        return teamId != null && isTeamMember(teamId, userId);
+    }
+
+    public boolean canAccessMeeting(Long meetingId, Long userId) {
+        return meetingRepository.findTeamIdById(meetingId)
+                .map(teamId -> isTeamMember(teamId, userId))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,301 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.CalendarSyncDTO;
+import com.collabspace.event.MeetingScheduleChangedEvent;
+import com.collabspace.integration.CalendarClient;
+import com.collabspace.integration.CalendarClient.CalendarException;
+import com.collabspace.integration.CalendarClient.EventPage;
+import com.collabspace.integration.CalendarClient.WatchChannel;
+import com.collabspace.integration.IntegrationExecutor;
+import com.collabspace.repository.CalendarSyncRepository;
+import com.collabspace.repository.CalendarSyncRepository.CalendarSync;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incremental Google Calendar sync into each team's meetings.
+ *
+ * <p>Every node polls {@code team_calendar_syncs} for due teams, leasing up
+ * to {@code batch-size} at a time and syncing at most
+ * {@code max-concurrency} teams at once on the {@link IntegrationExecutor}.
+ * A sync lists only what changed since the team's sync token, writing each
+ * page as one batched upsert together with its page token. A run stops
+ * after {@code max-pages-per-run} pages and goes back in the queue behind
+ * teams that have waited longer, so a large calendar cannot use up the
+ * quota on its own. Calendar calls are rate-limited by the client.</p>
+ *
+ * <p>Push notifications make a team due within
+ * {@code notification-delay-ms}; polling at {@code interval-ms} remains as
+ * a fallback. Only an expired sync token (410) triggers a full resync, and
+ * only for that team.</p>
+ */
+@Service
+public class CalendarSyncService {
+
+    private static final String SYNC_STATE = "sync";
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarSyncService.class);
+
+    @Autowired
+    private CalendarSyncRepository calendarSyncRepository;
+
+    @Autowired
+    private CalendarClient calendarClient;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private IntegrationExecutor integrationExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${google.calendar.sync.batch-size:10}")
+    private int batchSize;
+
+    @Value("${google.calendar.sync.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${google.calendar.sync.page-size:250}")
+    private int pageSize;
+
+    @Value("${google.calendar.sync.max-pages-per-run:20}")
+    private int maxPagesPerRun;
+
+    @Value("${google.calendar.sync.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${google.calendar.sync.interval-ms:300000}")
+    private long intervalMs;
+
+    @Value("${google.calendar.sync.interval-with-channel-ms:3600000}")
+    private long intervalWithChannelMs;
+
+    @Value("${google.calendar.sync.notification-delay-ms:2000}")
+    private long notificationDelayMs;
+
+    @Value("${google.calendar.sync.backoff-base-ms:10000}")
+    private long backoffBaseMs;
+
+    @Value("${google.calendar.sync.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${google.calendar.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${google.calendar.channel-ttl-ms:604800000}")
+    private long channelTtlMs;
+
+    @Value("${google.calendar.channel-renew-ahead-ms:86400000}")
+    private long channelRenewAheadMs;
+
+    private final AtomicInteger activeSyncs = new AtomicInteger();
+
+    /**
+     * Connects a calendar to the team and syncs it right away. Switching to
+     * another calendar starts over with a full sync.
+     */
+    public CalendarSyncDTO connect(Long teamId, String calendarId, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        if (!calendarClient.isConfigured()) {
+            throw new IllegalStateException("Google Calendar sync is not configured");
+        }
+        if (calendarId == null || calendarId.isBlank()) {
+            throw new IllegalArgumentException("calendarId is required");
+        }
+        calendarSyncRepository.findByTeamId(teamId)
+                .filter(existing -> !existing.calendarId().equals(calendarId))
+                .ifPresent(this::remove);
+        return new CalendarSyncDTO(calendarSyncRepository.connect(teamId, calendarId, userId));
+    }
+
+    /**
+     * Stops syncing. Meetings already synced are kept.
+     */
+    public void disconnect(Long teamId, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        calendarSyncRepository.findByTeamId(teamId).ifPresent(this::remove);
+    }
+
+    public CalendarSyncDTO getStatus(Long teamId, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        return calendarSyncRepository.findByTeamId(teamId)
+                .map(CalendarSyncDTO::new)
+                .orElseThrow(() -> new IllegalArgumentException("No calendar is connected to team " + teamId));
+    }
+
+    public void requestSync(Long teamId, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        calendarSyncRepository.markDue(teamId);
+    }
+
+    /**
+     * Handles a push notification. Google sends one per change, so this only
+     * makes the team due; unknown channels and the initial {@code sync}
+     * message are ignored.
+     */
+    public void handleNotification(String channelId, String channelToken, String resourceState) {
+        if (channelId == null || channelToken == null || SYNC_STATE.equals(resourceState)) {
+            return;
+        }
+        if (!calendarSyncRepository.markDueByChannel(channelId, channelToken, notificationDelayMs)) {
+            logger.debug("Ignoring notification for unknown calendar channel {}", channelId);
+            meterRegistry.counter("calendar.sync.notifications", "result", "unknown").increment();
+            return;
+        }
+        meterRegistry.counter("calendar.sync.notifications", "result", "accepted").increment();
+    }
+
+    @Scheduled(fixedDelayString = "${google.calendar.sync.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!calendarClient.isConfigured()) {
+            return;
+        }
+        while (activeSyncs.get() < maxConcurrency) {
+            List<CalendarSync> due = calendarSyncRepository.claimDue(Math.min(batchSize, maxConcurrency - activeSyncs.get()), leaseMs);
+            if (due.isEmpty()) {
+                return;
+            }
+            for (CalendarSync sync : due) {
+                activeSyncs.incrementAndGet();
+                try {
+                    integrationExecutor.execute(() -> {
+                        try {
+                            syncTeam(sync);
+                        } finally {
+                            activeSyncs.decrementAndGet();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // The lease runs out and another poll picks the team up again.
+                    activeSyncs.decrementAndGet();
+                    logger.warn("Could not start calendar sync for team {}: {}", sync.teamId(), e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void syncTeam(CalendarSync sync) {
+        String pageToken = sync.pageToken();
+        Instant fullSyncStartedAt = sync.syncToken() == null
+                ? (sync.fullSyncStartedAt() != null ? sync.fullSyncStartedAt() : Instant.now())
+                : null;
+        try {
+            for (int pages = 0; pages < maxPagesPerRun; pages++) {
+                EventPage page = calendarClient.listEvents(sync.calendarId(), sync.syncToken(), pageToken, pageSize);
+                pageToken = page.nextPageToken();
+                publishChanged(calendarSyncRepository.applyPage(sync.teamId(), sync.connectedBy(), page.events(),
+                        pageToken, fullSyncStartedAt));
+                meterRegistry.counter("calendar.sync.events").increment(page.events().size());
+
+                if (page.nextSyncToken() != null) {
+                    boolean channelOpen = ensureChannel(sync);
+                    publishChanged(calendarSyncRepository.complete(sync.teamId(), page.nextSyncToken(), fullSyncStartedAt,
+                            Instant.now().plusMillis(channelOpen ? intervalWithChannelMs : intervalMs)));
+                    record(fullSyncStartedAt != null ? "full" : "incremental");
+                    return;
+                }
+                if (pageToken == null) {
+                    throw new CalendarException("Calendar listing ended without a sync token", true, false);
+                }
+            }
+            calendarSyncRepository.release(sync.teamId(), Instant.now());
+            record("partial");
+        } catch (CalendarException e) {
+            if (e.isSyncTokenInvalid()) {
+                logger.info("Calendar sync token for team {} expired, resyncing from scratch", sync.teamId());
+                calendarSyncRepository.resetSyncToken(sync.teamId());
+                record("reset");
+            } else {
+                handleFailure(sync, e.getMessage(), e.isRetryable());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Calendar sync for team {} failed", sync.teamId(), e);
+            handleFailure(sync, e.getMessage(), true);
+        }
+    }
+
+    /**
+     * Opens a push channel when there is none or it is about to expire. A
+     * failure only costs push notifications, so it is logged and sync goes on.
+     *
+     * @return whether a channel is open afterwards
+     */
+    private boolean ensureChannel(CalendarSync sync) {
+        if (webhookUrl.isBlank()) {
+            return false;
+        }
+        Instant renewAt = Instant.now().plusMillis(channelRenewAheadMs);
+        if (sync.channelId() != null && sync.channelExpiresAt() != null && sync.channelExpiresAt().isAfter(renewAt)) {
+            return true;
+        }
+        // Google echoes the token in every notification; it proves the sender knows the channel.
+        String token = UUID.randomUUID().toString();
+        try {
+            WatchChannel channel = calendarClient.watch(sync.calendarId(), UUID.randomUUID().toString(), token,
+                    webhookUrl, channelTtlMs);
+            calendarSyncRepository.saveChannel(sync.teamId(), channel.id(), channel.resourceId(), token, channel.expiresAt());
+        } catch (CalendarException e) {
+            logger.warn("Could not open calendar push channel for team {}: {}", sync.teamId(), e.getMessage());
+            return sync.channelExpiresAt() != null && sync.channelExpiresAt().isAfter(Instant.now());
+        }
+        stopChannel(sync);
+        return true;
+    }
+
+    private void publishChanged(List<Long> meetingIds) {
+        if (!meetingIds.isEmpty()) {
+            eventPublisher.publishEvent(new MeetingScheduleChangedEvent(meetingIds));
+        }
+    }
+
+    private void remove(CalendarSync sync) {
+        stopChannel(sync);
+        calendarSyncRepository.delete(sync.teamId());
+    }
+
+    private void stopChannel(CalendarSync sync) {
+        if (sync.channelId() == null) {
+            return;
+        }
+        try {
+            calendarClient.stop(sync.channelId(), sync.channelResourceId());
+        } catch (CalendarException e) {
+            // It expires on its own; notifications for it are ignored meanwhile.
+            logger.debug("Could not stop calendar channel {}: {}", sync.channelId(), e.getMessage());
+        }
+    }
+
+    private void handleFailure(CalendarSync sync, String error, boolean retryable) {
+        long delay = retryable ? backoff(sync.consecutiveFailures() + 1) : backoffMaxMs;
+        calendarSyncRepository.fail(sync.teamId(), error, Instant.now().plusMillis(delay));
+        record(retryable ? "retried" : "failed");
+    }
+
+    private long backoff(int failures) {
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(failures - 1, 20));
+        // +/-20% jitter so teams that failed together do not retry in lockstep.
+        return (long) (delay * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    }
+
+    private void record(String result) {
+        meterRegistry.counter("calendar.sync.runs", "result", result).increment();
+    }
+}
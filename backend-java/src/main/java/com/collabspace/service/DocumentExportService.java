@@ -0,0 +1,260 @@
+package com.collabspace.service;
+
+import com.collabspace.collaboration.CollaborationEngine;
+import com.collabspace.collaboration.DocumentSession;
+import com.collabspace.content.ContentStore;
+import com.collabspace.dto.ExportJobDTO;
+import com.collabspace.integration.GoogleDriveClient;
+import com.collabspace.integration.GoogleDriveClient.DriveException;
+import com.collabspace.integration.IntegrationExecutor;
+import com.collabspace.repository.ExportJobRepository;
+import com.collabspace.repository.ExportJobRepository.ExportJob;
+import com.collabspace.repository.ExportJobRepository.ExportSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Google Docs export as a background job queue.
+ *
+ * <p>A request only queues a job and returns its id. Every node polls the
+ * queue, leasing up to {@code documents.export.batch-size} jobs at a time
+ * and running at most {@code max-concurrency} such rounds on the
+ * {@link IntegrationExecutor}. Drive calls are rate-limited by the
+ * {@link GoogleDriveClient}.</p>
+ *
+ * <p>A round loads the export state of all its documents in one query and
+ * skips any document whose current version was already exported. It then
+ * uploads the rest one by one, since Drive batches cannot carry media.
+ * Finally it grants the requesters access in a single batch request.
+ * Retryable failures are retried with exponential backoff and jitter, up to
+ * {@code max-attempts}.</p>
+ */
+@Service
+public class DocumentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentExportService.class);
+
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+
+    @Autowired
+    private GoogleDriveClient driveClient;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private CollaborationEngine collaborationEngine;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private IntegrationExecutor integrationExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.export.batch-size:10}")
+    private int batchSize;
+
+    @Value("${documents.export.max-concurrency:2}")
+    private int maxConcurrency;
+
+    @Value("${documents.export.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${documents.export.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${documents.export.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${documents.export.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${documents.export.retention-days:7}")
+    private int retentionDays;
+
+    private final AtomicInteger activeRounds = new AtomicInteger();
+
+    /**
+     * Queues an export of the document. Repeated requests while one is still
+     * queued return the same job.
+     */
+    public ExportJobDTO requestExport(Long documentId, Long userId) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        if (!driveClient.isConfigured()) {
+            throw new IllegalStateException("Google Drive export is not configured");
+        }
+        return new ExportJobDTO(exportJobRepository.enqueue(documentId, userId));
+    }
+
+    public ExportJobDTO getJob(Long jobId, Long userId) {
+        ExportJob job = exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Export job not found: " + jobId));
+        accessControlService.checkDocumentAccess(job.documentId(), userId);
+        return new ExportJobDTO(job);
+    }
+
+    @Scheduled(fixedDelayString = "${documents.export.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!driveClient.isConfigured()) {
+            return;
+        }
+        while (activeRounds.get() < maxConcurrency) {
+            List<ExportJob> jobs = exportJobRepository.claim(batchSize, leaseMs);
+            if (jobs.isEmpty()) {
+                return;
+            }
+            activeRounds.incrementAndGet();
+            try {
+                integrationExecutor.execute(() -> {
+                    try {
+                        runRound(jobs);
+                    } finally {
+                        activeRounds.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // The leases run out and another poll picks the jobs up again.
+                activeRounds.decrementAndGet();
+                logger.warn("Could not start export round for {} jobs: {}", jobs.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.export.cleanup-interval-ms:3600000}")
+    public void deleteFinishedJobs() {
+        int deleted = exportJobRepository.deleteFinishedBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+        if (deleted > 0) {
+            logger.info("Deleted {} finished export jobs", deleted);
+        }
+    }
+
+    private void runRound(List<ExportJob> jobs) {
+        Map<Long, ExportSource> sources = exportJobRepository.findSources(jobs.stream().map(ExportJob::documentId).toList())
+                .stream()
+                .collect(Collectors.toMap(ExportSource::documentId, Function.identity()));
+
+        List<Completion> completions = new ArrayList<>();
+        for (ExportJob job : jobs) {
+            ExportSource source = sources.get(job.documentId());
+            if (source == null) {
+                exportJobRepository.fail(job.id(), "Document no longer exists");
+                record("failed");
+                continue;
+            }
+            try {
+                completions.add(export(job, source));
+            } catch (DriveException e) {
+                handleFailure(job, e.getMessage(), e.isRetryable());
+            } catch (RuntimeException e) {
+                logger.warn("Export job {} for document {} failed", job.id(), job.documentId(), e);
+                handleFailure(job, e.getMessage(), true);
+            }
+        }
+        if (completions.isEmpty()) {
+            return;
+        }
+
+        // Share before reporting success, so the returned link already opens for the requester.
+        share(completions);
+        for (Completion completion : completions) {
+            exportJobRepository.complete(completion.job().id(), completion.status(), completion.version(), completion.fileId());
+            record(completion.status().toLowerCase());
+        }
+    }
+
+    private Completion export(ExportJob job, ExportSource source) {
+        // Live sessions can be ahead of the database by one write-behind window.
+        Optional<DocumentSession.Snapshot> live = collaborationEngine.currentSnapshot(source.documentId())
+                .filter(snapshot -> snapshot.getVersion() >= source.version());
+        int version = live.map(DocumentSession.Snapshot::getVersion).orElse(source.version());
+
+        String fileId = source.googleDriveId();
+        if (fileId != null && Objects.equals(source.exportedVersion(), version)) {
+            return new Completion(job, ExportJobRepository.SKIPPED, version, fileId);
+        }
+
+        String content = live.map(DocumentSession.Snapshot::getContent)
+                .orElseGet(() -> contentStore.read(exportJobRepository.findContentHash(source.documentId())));
+        if (fileId != null) {
+            try {
+                driveClient.updateDocument(fileId, source.title(), content);
+            } catch (DriveException e) {
+                if (!e.isNotFound()) {
+                    throw e;
+                }
+                logger.info("Drive file {} for document {} is gone, exporting a new one", fileId, source.documentId());
+                fileId = null;
+            }
+        }
+        if (fileId == null) {
+            fileId = driveClient.createDocument(source.title(), content);
+        }
+        exportJobRepository.recordExport(source.documentId(), fileId, version);
+        return new Completion(job, ExportJobRepository.SUCCEEDED, version, fileId);
+    }
+
+    private void share(List<Completion> completions) {
+        List<Long> requesters = completions.stream()
+                .map(completion -> completion.job().requestedBy())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (requesters.isEmpty()) {
+            return;
+        }
+        Map<Long, String> emails = exportJobRepository.findEmails(requesters);
+        List<GoogleDriveClient.Share> shares = completions.stream()
+                .filter(completion -> emails.containsKey(completion.job().requestedBy()))
+                .map(completion -> new GoogleDriveClient.Share(completion.fileId(), emails.get(completion.job().requestedBy())))
+                .toList();
+        try {
+            driveClient.shareAll(shares);
+        } catch (DriveException e) {
+            logger.warn("Failed to share {} exported documents: {}", shares.size(), e.getMessage());
+        }
+    }
+
+    private void handleFailure(ExportJob job, String error, boolean retryable) {
+        if (retryable && job.attempts() < maxAttempts) {
+            exportJobRepository.retryAt(job.id(), Instant.now().plusMillis(backoff(job.attempts())), error);
+            record("retried");
+        } else {
+            exportJobRepository.fail(job.id(), error);
+            record("failed");
+        }
+    }
+
+    private long backoff(int attempts) {
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        // +/-20% jitter so a burst of failures does not retry in lockstep.
+        return (long) (delay * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    }
+
+    private void record(String result) {
+        meterRegistry.counter("documents.export.jobs", "result", result).increment();
+    }
+
+    private record Completion(ExportJob job, String status, int version, String fileId) {}
+}
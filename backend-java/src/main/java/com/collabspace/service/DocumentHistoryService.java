@@ -0,0 +1,148 @@
+package com.collabspace.service;
+
+import com.collabspace.collaboration.AppliedRevision;
+import com.collabspace.collaboration.OperationLogWriter;
+import com.collabspace.collaboration.TextOperation;
+import com.collabspace.content.ContentStore;
+import com.collabspace.dto.DocumentOperationDTO;
+import com.collabspace.dto.DocumentRevisionDTO;
+import com.collabspace.repository.DocumentOperationLogRepository;
+import com.collabspace.repository.DocumentOperationLogRepository.LoggedOperation;
+import com.collabspace.repository.DocumentOperationLogRepository.Snapshot;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Read side of the operation log: incremental catch-up for reconnecting
+ * clients and reconstruction of a document at an arbitrary version.
+ * Revisions not yet written to the log are read from the writer's memory,
+ * so a read never waits for or forces a flush.
+ */
+@Service
+public class DocumentHistoryService {
+
+    private static final int MAX_REVISIONS_PER_PAGE = 1000;
+    private static final int REPLAY_PAGE_SIZE = 1000;
+    private static final TypeReference<List<DocumentOperationDTO>> OPERATIONS_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private DocumentOperationLogRepository logRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private OperationLogWriter operationLogWriter;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Map<String, Object> getOperationsSince(Long documentId, int sinceVersion, int limit, Long userId) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        NavigableMap<Integer, AppliedRevision> pending = operationLogWriter.pendingRevisions(documentId);
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_REVISIONS_PER_PAGE);
+        List<DocumentRevisionDTO> found = findRevisions(documentId, sinceVersion, Integer.MAX_VALUE, pageSize + 1, pending);
+        boolean hasMore = found.size() > pageSize;
+
+        List<DocumentRevisionDTO> revisions = found.subList(0, Math.min(found.size(), pageSize));
+        if (!revisions.isEmpty() && revisions.get(0).getVersion() != sinceVersion + 1) {
+            throw new IllegalStateException("Operation log does not reach back to version " + sinceVersion + ", refetch the document");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("sinceVersion", sinceVersion);
+        result.put("revisions", revisions);
+        result.put("hasMore", hasMore);
+        return result;
+    }
+
+    public Map<String, Object> getDocumentAtVersion(Long documentId, int version, Long userId) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        NavigableMap<Integer, AppliedRevision> pending = operationLogWriter.pendingRevisions(documentId);
+
+        Snapshot snapshot = logRepository.findNearestSnapshot(documentId, version)
+                .orElseThrow(() -> new IllegalArgumentException("No history is recorded for version " + version));
+
+        StringBuilder content = new StringBuilder();
+        try (Reader body = contentStore.open(snapshot.contentHash())) {
+            char[] buffer = new char[8192];
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                content.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read snapshot " + snapshot.version(), e);
+        }
+        int replayed = snapshot.version();
+        while (replayed < version) {
+            List<DocumentRevisionDTO> page = findRevisions(documentId, replayed, version, REPLAY_PAGE_SIZE, pending);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (DocumentRevisionDTO revision : page) {
+                if (revision.getVersion() != replayed + 1) {
+                    throw new IllegalStateException("Operation log is missing version " + (replayed + 1));
+                }
+                List<TextOperation> operations = TextOperation.fromAll(revision.getOperations());
+                TextOperation.checkApplicable(operations, content.length());
+                operations.forEach(op -> op.applyTo(content));
+                replayed = revision.getVersion();
+            }
+        }
+        if (replayed != version) {
+            throw new IllegalArgumentException("Version " + version + " is not available, history ends at " + replayed);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documentId", documentId);
+        result.put("version", version);
+        result.put("snapshotVersion", snapshot.version());
+        result.put("content", content.toString());
+        return result;
+    }
+
+    /**
+     * Logged revisions in ({@code afterVersion}, {@code toVersion}], completed
+     * with those still waiting for the log, in version order and at most
+     * {@code limit} of them. The pending ones must be read before the log.
+     */
+    private List<DocumentRevisionDTO> findRevisions(Long documentId, int afterVersion, int toVersion, int limit,
+                                                    NavigableMap<Integer, AppliedRevision> pending) {
+        TreeMap<Integer, DocumentRevisionDTO> revisions = new TreeMap<>();
+        for (LoggedOperation operation : logRepository.findOperations(documentId, afterVersion, toVersion, limit)) {
+            revisions.put(operation.version(), new DocumentRevisionDTO(operation.version(), operation.userId(),
+                    parseOperations(operation.operationsJson()), operation.createdAt()));
+        }
+        for (AppliedRevision revision : pending.subMap(afterVersion, false, toVersion, true).values()) {
+            if (revisions.size() >= limit && revision.getVersion() > revisions.lastKey()) {
+                break;
+            }
+            revisions.putIfAbsent(revision.getVersion(), new DocumentRevisionDTO(revision.getVersion(), revision.getUserId(),
+                    revision.getOperations().stream().map(DocumentOperationDTO::new).toList(), revision.getAppliedAt()));
+        }
+        return new ArrayList<>(revisions.values()).subList(0, Math.min(revisions.size(), limit));
+    }
+
+    private List<DocumentOperationDTO> parseOperations(String json) {
+        try {
+            return objectMapper.readValue(json, OPERATIONS_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt operation log entry", e);
+        }
+    }
+}
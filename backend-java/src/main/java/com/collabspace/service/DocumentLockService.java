@@ -0,0 +1,64 @@
+package com.collabspace.service;
+
+import com.collabspace.lock.DocumentLease;
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.lock.DocumentLockManager.LockResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Edit leases on documents. Lock state lives entirely in the
+ * {@link DocumentLockManager}; the documents row is not touched.
+ */
+@Service
+public class DocumentLockService {
+
+    @Autowired
+    private DocumentLockManager lockManager;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Value("${documents.lock.ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    public LockResult lock(Long documentId, Long userId) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        return lockManager.acquire(documentId, userId, leaseTtl());
+    }
+
+    public Optional<DocumentLease> heartbeat(Long documentId, Long userId, long fencingToken) {
+        accessControlService.checkDocumentAccess(documentId, userId);
+        return lockManager.renew(documentId, userId, fencingToken, leaseTtl());
+    }
+
+    /**
+     * Releases the caller's lease. Without a token the caller's current
+     * lease is released, if it still holds one.
+     */
+    public boolean unlock(Long documentId, Long userId, Long fencingToken) {
+        if (fencingToken != null) {
+            return lockManager.release(documentId, userId, fencingToken);
+        }
+        return lockManager.currentLease(documentId)
+                .filter(lease -> lease.isHeldBy(userId))
+                .map(lease -> lockManager.release(documentId, userId, lease.getFencingToken()))
+                .orElse(false);
+    }
+
+    /**
+     * @return the fencing token the write must carry to the database, or
+     *         null when the document is not locked
+     */
+    public Long checkWriteAllowed(Long documentId, Long userId, Long fencingToken) {
+        return lockManager.checkWriteAllowed(documentId, userId, fencingToken);
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofMillis(leaseTtlMs);
+    }
+}
@@ -0,0 +1,50 @@
+package com.collabspace.service;
+
+import com.collabspace.collaboration.AppliedRevision;
+import com.collabspace.collaboration.CollaborationEngine;
+import com.collabspace.collaboration.TextOperation;
+import com.collabspace.dto.DocumentPatchDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies ordered insert/delete batches to a document so that clients only
+ * ship their edits instead of the whole content on every save.
+ *
+ * <p>Patches go through the {@link CollaborationEngine} whether or not
+ * anyone has the document open, so REST saves and live edits share one
+ * version sequence and are written back together by the write-behind
+ * buffer instead of one transaction per save.</p>
+ */
+@Service
+public class DocumentPatchService {
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private CollaborationEngine collaborationEngine;
+
+    @Autowired
+    private DocumentLockService documentLockService;
+
+    public Map<String, Object> applyPatch(Long documentId, DocumentPatchDTO patch, Long userId) {
+        List<TextOperation> operations = TextOperation.fromAll(patch.getOperations());
+
+        accessControlService.checkDocumentAccess(documentId, userId);
+        Long fencingToken = documentLockService.checkWriteAllowed(documentId, userId, patch.getFencingToken());
+
+        AppliedRevision revision = collaborationEngine.submit(documentId, patch.getBaseVersion(), operations, userId,
+                fencingToken, null, null);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", documentId);
+        result.put("version", revision.getVersion());
+        result.put("appliedOperations", revision.getOperations().size());
+        return result;
+    }
+}
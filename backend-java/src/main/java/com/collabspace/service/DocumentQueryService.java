@@ -0,0 +1,64 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.DocumentSummaryDTO;
+import com.collabspace.dto.KeysetCursor;
+import com.collabspace.lock.DocumentLease;
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.repository.DocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only team document listings using keyset pagination on
+ * {@code (updated_at, id)}, so deep pages cost the same as the first one.
+ * Listings are metadata-only summaries; content is only loaded for a
+ * single document.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DocumentQueryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private DocumentLockManager lockManager;
+
+    public CursorPageDTO<DocumentSummaryDTO> getTeamDocuments(Long teamId, String cursor, int size, boolean includeTotal, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether there is a next page.
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<DocumentSummaryDTO> documents;
+        if (cursor == null || cursor.isEmpty()) {
+            documents = documentRepository.findSummaryFirstPageByTeamId(teamId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            documents = documentRepository.findSummaryPageByTeamIdAfter(teamId, position.getTimestamp(), position.getId(), limit);
+        }
+
+        boolean hasMore = documents.size() > pageSize;
+        List<DocumentSummaryDTO> page = hasMore ? documents.subList(0, pageSize) : documents;
+        String nextCursor = null;
+        if (hasMore) {
+            DocumentSummaryDTO last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        Map<Long, DocumentLease> leases = lockManager.currentLeases(page.stream().map(DocumentSummaryDTO::getId).toList());
+        page.forEach(document -> document.setIsLocked(leases.containsKey(document.getId())));
+        Long total = includeTotal ? documentRepository.countDocumentsByTeamId(teamId) : null;
+        return new CursorPageDTO<>(List.copyOf(page), nextCursor, total);
+    }
+}
@@ -0,0 +1,57 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.DocumentSearchResultDTO;
+import com.collabspace.repository.DocumentSearchRepository;
+import com.collabspace.repository.DocumentSearchRepository.SearchHit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class DocumentSearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_QUERY_LENGTH = 256;
+
+    @Autowired
+    private DocumentSearchRepository documentSearchRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    public Map<String, Object> search(Long teamId, String query, int page, int size, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        String trimmed = query != null ? query.trim() : "";
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_QUERY_LENGTH);
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+
+        // Fetch one extra row to tell whether another page exists without a COUNT.
+        List<SearchHit> hits = documentSearchRepository.search(teamId, trimmed, pageSize + 1, pageNumber * pageSize);
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        List<DocumentSearchResultDTO> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            results.add(new DocumentSearchResultDTO(hit.id(), hit.title(), hit.type(), hit.version(), hit.updatedAt(),
+                    hit.rank(), hit.highlight()));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("results", results);
+        response.put("currentPage", pageNumber);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+}
@@ -0,0 +1,64 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.UserDTO;
+import com.collabspace.repository.UserLoginRepository;
+import com.collabspace.repository.UserLoginRepository.LoginUser;
+import com.collabspace.security.GoogleIdentity;
+import com.collabspace.security.GoogleTokenVerifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Google sign-in: local ID token verification, one upsert statement, a
+ * deferred last-login write and a new session.
+ */
+@Service
+public class GoogleLoginService {
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    @Autowired
+    private GoogleTokenVerifier googleTokenVerifier;
+
+    @Autowired
+    private UserLoginRepository userLoginRepository;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    public Map<String, Object> login(String googleToken, String userAgent) {
+        GoogleIdentity identity = googleTokenVerifier.verify(googleToken);
+        if (!identity.emailVerified()) {
+            throw new SecurityException("Google account email is not verified");
+        }
+        String name = identity.name().length() > MAX_NAME_LENGTH ? identity.name().substring(0, MAX_NAME_LENGTH) : identity.name();
+        LoginUser user = userLoginRepository.upsertGoogleUser(identity.googleId(), identity.email(), name, identity.pictureUrl());
+        if (!user.active()) {
+            throw new SecurityException("User account is disabled");
+        }
+        if (user.changed() && !user.created()) {
+            userService.evictUserProfile(user.id());
+        }
+        if (!user.created()) {
+            lastLoginRecorder.record(user.id());
+        }
+
+        UserDTO profile = new UserDTO(user.id(), user.email(), user.name(), user.profilePicture());
+        profile.setRole(user.role());
+        profile.setIsActive(user.active());
+
+        Map<String, Object> response = new LinkedHashMap<>(sessionService.startSession(user.id(), userAgent));
+        response.put("user", profile);
+        response.put("newUser", user.created());
+        return response;
+    }
+}
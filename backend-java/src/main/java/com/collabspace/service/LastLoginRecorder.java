@@ -0,0 +1,59 @@
+package com.collabspace.service;
+
+import com.collabspace.repository.UserLoginRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects login times and writes them in one batch per interval, so a burst
+ * of logins does not queue up on single-row updates. Repeated logins by the
+ * same user within an interval collapse into one write.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private final ConcurrentHashMap<Long, Instant> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserLoginRepository userLoginRepository;
+
+    public void record(Long userId) {
+        pending.merge(userId, Instant.now(), (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Instant> batch = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            Instant at = pending.remove(userId);
+            if (at != null) {
+                batch.put(userId, at);
+            }
+        }
+        try {
+            userLoginRepository.updateLastLogins(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write {} last-login times, retrying next flush: {}", batch.size(), e.getMessage());
+            batch.forEach((userId, at) -> pending.merge(userId, at, (current, next) -> next.isAfter(current) ? next : current));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
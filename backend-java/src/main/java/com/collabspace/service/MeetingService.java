@@ -0,0 +1,81 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.KeysetCursor;
+import com.collabspace.dto.MeetingDTO;
+import com.collabspace.dto.UserDTO;
+import com.collabspace.model.Meeting;
+import com.collabspace.repository.MeetingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class MeetingService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    /**
+     * Team meetings, most recent start first, paged by a {@code (start_time, id)} cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MeetingDTO> getTeamMeetings(Long teamId, String cursor, int size, boolean includeTotal,
+                                                     boolean includeParticipants, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Meeting> meetings;
+        if (cursor == null || cursor.isEmpty()) {
+            meetings = meetingRepository.findFirstPageByTeamId(teamId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            meetings = meetingRepository.findPageByTeamIdAfter(teamId, position.getTimestamp(), position.getId(), limit);
+        }
+
+        boolean hasMore = meetings.size() > pageSize;
+        List<Meeting> page = hasMore ? meetings.subList(0, pageSize) : meetings;
+        String nextCursor = null;
+        if (hasMore) {
+            Meeting last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getStartTime(), last.getId()).encode();
+        }
+        Long total = includeTotal ? meetingRepository.countMeetingsByTeamId(teamId) : null;
+        return new CursorPageDTO<>(toDTOs(page, includeParticipants), nextCursor, total);
+    }
+
+    /**
+     * Maps a page of meetings with at most one extra query for all of their
+     * participants. Without participants the DTOs carry none at all.
+     */
+    private List<MeetingDTO> toDTOs(List<Meeting> meetings, boolean includeParticipants) {
+        if (meetings.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<UserDTO>> participants = new HashMap<>();
+        if (includeParticipants) {
+            List<Long> meetingIds = meetings.stream().map(Meeting::getId).toList();
+            for (Object[] row : meetingRepository.findParticipantSummaries(meetingIds)) {
+                participants.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(new UserDTO((Long) row[1], (String) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        return meetings.stream()
+                .map(meeting -> new MeetingDTO(meeting, includeParticipants
+                        ? participants.getOrDefault(meeting.getId(), List.of())
+                        : null))
+                .toList();
+    }
+}
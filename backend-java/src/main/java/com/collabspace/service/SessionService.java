@@ -0,0 +1,109 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.SessionDTO;
+import com.collabspace.security.JwtTokenService;
+import com.collabspace.security.JwtTokenService.IssuedToken;
+import com.collabspace.security.RefreshTokenStore;
+import com.collabspace.security.RefreshTokenStore.BoundAccessToken;
+import com.collabspace.security.RefreshTokenStore.RefreshTokenReuseException;
+import com.collabspace.security.RefreshTokenStore.Rotation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues access/refresh token pairs and manages the sessions behind them.
+ * Nothing here reads the database: a refresh is one signature and one
+ * Redis script.
+ */
+@Service
+public class SessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer refreshTimer;
+
+    @PostConstruct
+    public void init() {
+        refreshTimer = Timer.builder("auth.refresh.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a session after a successful login.
+     */
+    public Map<String, Object> startSession(Long userId, String userAgent) {
+        IssuedToken accessToken = jwtTokenService.issue(userId);
+        String refreshToken = refreshTokenStore.createSession(userId, userAgent, accessToken);
+        return tokenResponse(accessToken.token(), accessToken.expiresAt(), refreshToken);
+    }
+
+    public Map<String, Object> refresh(String refreshToken) {
+        return refreshTimer.record(() -> {
+            String result = "invalid";
+            try {
+                IssuedToken accessToken = jwtTokenService.issue(refreshTokenStore.claimedUserId(refreshToken));
+                Rotation rotation = refreshTokenStore.rotate(refreshToken, accessToken);
+                result = rotation.outcome().name().toLowerCase();
+                return tokenResponse(rotation.accessToken(), rotation.accessExpiresAt(), rotation.refreshToken());
+            } catch (RefreshTokenReuseException e) {
+                result = "reused";
+                logger.warn("Refresh token reuse for user {}, session {} revoked", e.getUserId(), e.getSessionId());
+                revokeAccessToken(e.getAccessToken());
+                throw e;
+            } finally {
+                meterRegistry.counter("auth.refresh", "result", result).increment();
+            }
+        });
+    }
+
+    public List<SessionDTO> listSessions(Long userId) {
+        return refreshTokenStore.listSessions(userId);
+    }
+
+    public boolean revokeSession(Long userId, String sessionId) {
+        BoundAccessToken accessToken = refreshTokenStore.revokeSession(userId, sessionId);
+        revokeAccessToken(accessToken);
+        return accessToken != null;
+    }
+
+    public int revokeAllSessions(Long userId) {
+        List<BoundAccessToken> accessTokens = refreshTokenStore.revokeAllSessions(userId);
+        accessTokens.forEach(this::revokeAccessToken);
+        return accessTokens.size();
+    }
+
+    private void revokeAccessToken(BoundAccessToken accessToken) {
+        if (accessToken != null && accessToken.expiresAtMillis() > System.currentTimeMillis()) {
+            jwtTokenService.revokeById(accessToken.tokenId(), Instant.ofEpochMilli(accessToken.expiresAtMillis()));
+        }
+    }
+
+    private Map<String, Object> tokenResponse(String accessToken, Instant accessExpiresAt, String refreshToken) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accessToken", accessToken);
+        response.put("refreshToken", refreshToken);
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", Math.max(0, (accessExpiresAt.toEpochMilli() - System.currentTimeMillis()) / 1000));
+        return response;
+    }
+}
@@ -0,0 +1,98 @@
+package com.collabspace.service;
+
+import com.collabspace.event.TaskRemindersEvent;
+import com.collabspace.event.TaskRemindersEvent.Kind;
+import com.collabspace.event.TaskRemindersEvent.Reminder;
+import com.collabspace.repository.TaskReminderRepository;
+import com.collabspace.repository.TaskReminderRepository.ClaimedReminder;
+import com.collabspace.repository.TaskReminderRepository.Notification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends batches of task reminders: one notification and one
+ * {@link TaskRemindersEvent} per recipient, however many of their tasks
+ * are in the batch.
+ */
+@Service
+public class TaskReminderService {
+
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_LISTED_TASKS = 20;
+
+    @Autowired
+    private TaskReminderRepository taskReminderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Sends the reminders of {@code kind} still due for the given tasks:
+     * due-soon reminders for open tasks due within {@code dueSoonLeadMs},
+     * overdue reminders for open tasks past due. Claiming and notifying
+     * commit together, so a failed batch can simply be retried.
+     *
+     * @return how many reminders were sent
+     */
+    @Transactional
+    public int send(Kind kind, Collection<Long> taskIds, Instant now, long dueSoonLeadMs) {
+        List<ClaimedReminder> claimed = kind == Kind.DUE_SOON
+                ? taskReminderRepository.claim(kind, taskIds, now, now.plusMillis(dueSoonLeadMs))
+                : taskReminderRepository.claim(kind, taskIds, Instant.EPOCH, now);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Reminder>> byRecipient = new LinkedHashMap<>();
+        for (ClaimedReminder reminder : claimed) {
+            byRecipient.computeIfAbsent(reminder.recipientId(), id -> new ArrayList<>())
+                    .add(new Reminder(reminder.taskId(), reminder.teamId(), reminder.title(), reminder.dueDate()));
+        }
+        List<Notification> notifications = new ArrayList<>(byRecipient.size());
+        byRecipient.forEach((userId, reminders) -> notifications.add(toNotification(userId, kind, reminders)));
+        taskReminderRepository.saveNotifications(notifications);
+        byRecipient.forEach((userId, reminders) -> eventPublisher.publishEvent(new TaskRemindersEvent(userId, kind, reminders)));
+        meterRegistry.counter("tasks.reminders.sent", "kind", kind.name().toLowerCase()).increment(claimed.size());
+        return claimed.size();
+    }
+
+    private Notification toNotification(Long userId, Kind kind, List<Reminder> reminders) {
+        String label = kind == Kind.DUE_SOON ? "due soon" : "overdue";
+        String title = reminders.size() == 1
+                ? "Task " + label + ": " + reminders.get(0).title()
+                : reminders.size() + " tasks " + label;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < Math.min(reminders.size(), MAX_LISTED_TASKS); i++) {
+            content.append(i == 0 ? "" : "\n").append(reminders.get(i).title());
+        }
+        if (reminders.size() > MAX_LISTED_TASKS) {
+            content.append("\n...and ").append(reminders.size() - MAX_LISTED_TASKS).append(" more");
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(Map.of("taskIds", reminders.stream().map(Reminder::taskId).toList()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize reminder data", e);
+        }
+        return new Notification(userId, "TASK_" + kind.name(),
+                title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title,
+                content.toString(), data);
+    }
+}
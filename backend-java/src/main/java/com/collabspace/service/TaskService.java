@@ -0,0 +1,341 @@
+package com.collabspace.service;
+
+import com.collabspace.board.FractionalRank;
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.KeysetCursor;
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.dto.TaskMoveDTO;
+import com.collabspace.event.TaskBoardChangedEvent;
+import com.collabspace.event.TeamActivityEvent;
+import com.collabspace.model.Task;
+import com.collabspace.model.Task.TaskPriority;
+import com.collabspace.model.Task.TaskStatus;
+import com.collabspace.repository.TaskBoardRepository;
+import com.collabspace.repository.TaskBoardRepository.NewTask;
+import com.collabspace.repository.TaskRepository;
+import com.collabspace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Task CRUD, bulk creation and board placement.
+ *
+ * <p>New tasks and tasks changing column go to the bottom of their column.
+ * Every committed change is published as a {@link TaskBoardChangedEvent},
+ * which keeps the materialized boards and their clients up to date.</p>
+ */
+@Service
+public class TaskService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskBoardRepository taskBoardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.bulk.max-size:500}")
+    private int maxBulkSize;
+
+    /**
+     * Team tasks, most recently created first, paged by a {@code (created_at, id)} cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TaskDTO> getTeamTasks(Long teamId, String cursor, int size, boolean includeTotal, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Task> tasks;
+        if (cursor == null || cursor.isEmpty()) {
+            tasks = taskRepository.findFirstPageByTeamId(teamId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            tasks = taskRepository.findPageByTeamIdAfter(teamId, position.getTimestamp(), position.getId(), limit);
+        }
+
+        boolean hasMore = tasks.size() > pageSize;
+        List<Task> page = hasMore ? tasks.subList(0, pageSize) : tasks;
+        String nextCursor = null;
+        if (hasMore) {
+            Task last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        Long total = includeTotal ? taskRepository.countTasksByTeamId(teamId) : null;
+        return new CursorPageDTO<>(page.stream().map(TaskDTO::new).toList(), nextCursor, total);
+    }
+
+    /**
+     * The team's open tasks past due, longest overdue first.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getOverdueTasks(Long teamId, int limit, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        PageRequest page = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        return taskRepository.findOverdueByTeamId(teamId, LocalDateTime.now(), page).stream().map(TaskDTO::new).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public TaskDTO getTask(Long taskId, Long userId) {
+        return new TaskDTO(findAccessibleTask(taskId, userId));
+    }
+
+    @Transactional
+    public TaskDTO createTask(TaskDTO taskDTO, Long userId) {
+        if (taskDTO.getTeamId() == null) {
+            throw new IllegalArgumentException("teamId is required");
+        }
+        return createTasks(taskDTO.getTeamId(), List.of(taskDTO), userId).get(0);
+    }
+
+    /**
+     * Creates up to {@code tasks.bulk.max-size} tasks in a few multi-row
+     * inserts. Each column's new tasks go below its current bottom, in the
+     * order given.
+     */
+    @Transactional
+    public List<TaskDTO> createTasks(Long teamId, List<TaskDTO> taskDTOs, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        if (taskDTOs == null || taskDTOs.isEmpty()) {
+            throw new IllegalArgumentException("At least one task is required");
+        }
+        if (taskDTOs.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " tasks can be created at once");
+        }
+        Map<TaskStatus, List<TaskDTO>> byStatus = new LinkedHashMap<>();
+        for (TaskDTO taskDTO : taskDTOs) {
+            validateTitle(taskDTO.getTitle());
+            checkAssignee(teamId, taskDTO.getAssignedToId());
+            TaskStatus status = taskDTO.getStatus() != null ? parseStatus(taskDTO.getStatus()) : TaskStatus.TODO;
+            byStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(taskDTO);
+        }
+
+        taskBoardRepository.lockBoard(teamId);
+        LocalDateTime now = LocalDateTime.now();
+        List<NewTask> newTasks = new ArrayList<>(taskDTOs.size());
+        for (Map.Entry<TaskStatus, List<TaskDTO>> column : byStatus.entrySet()) {
+            TaskStatus status = column.getKey();
+            List<String> ranks = FractionalRank.between(
+                    taskBoardRepository.findLastRank(teamId, status.name(), List.of()), null, column.getValue().size());
+            for (int i = 0; i < ranks.size(); i++) {
+                TaskDTO taskDTO = column.getValue().get(i);
+                TaskPriority priority = taskDTO.getPriority() != null ? parsePriority(taskDTO.getPriority()) : TaskPriority.MEDIUM;
+                newTasks.add(new NewTask(taskDTO.getTitle(), taskDTO.getDescription(), taskDTO.getAssignedToId(),
+                        status.name(), priority.name(), taskDTO.getDueDate(),
+                        status == TaskStatus.DONE ? now : null, ranks.get(i)));
+            }
+        }
+        List<TaskDTO> created = taskBoardRepository.insertAll(teamId, userId, newTasks);
+        publish(teamId, created, List.of());
+        eventPublisher.publishEvent(TeamActivityEvent.tasksCreated(teamId, userId, created.size()));
+        int completed = byStatus.getOrDefault(TaskStatus.DONE, List.of()).size();
+        if (completed > 0) {
+            eventPublisher.publishEvent(TeamActivityEvent.tasksCompleted(teamId, userId, completed));
+        }
+        return created;
+    }
+
+    /**
+     * Updates a task's fields. A status change moves it to the bottom of the
+     * new column; a missing status or priority leaves it unchanged.
+     */
+    @Transactional
+    public TaskDTO updateTask(Long taskId, TaskDTO taskDTO, Long userId) {
+        Task task = findAccessibleTask(taskId, userId);
+        Long teamId = task.getTeam().getId();
+        validateTitle(taskDTO.getTitle());
+        checkAssignee(teamId, taskDTO.getAssignedToId());
+
+        task.setTitle(taskDTO.getTitle());
+        task.setDescription(taskDTO.getDescription());
+        task.setAssignedTo(taskDTO.getAssignedToId() != null ? userRepository.getReferenceById(taskDTO.getAssignedToId()) : null);
+        task.setDueDate(taskDTO.getDueDate());
+        if (taskDTO.getPriority() != null) {
+            task.setPriority(parsePriority(taskDTO.getPriority()));
+        }
+        if (taskDTO.getStatus() != null) {
+            changeStatus(task, parseStatus(taskDTO.getStatus()), userId);
+        }
+        return save(task);
+    }
+
+    @Transactional
+    public TaskDTO completeTask(Long taskId, Long userId) {
+        Task task = findAccessibleTask(taskId, userId);
+        changeStatus(task, TaskStatus.DONE, userId);
+        return save(task);
+    }
+
+    @Transactional
+    public void deleteTask(Long taskId, Long userId) {
+        Task task = findAccessibleTask(taskId, userId);
+        Long teamId = task.getTeam().getId();
+        taskRepository.delete(task);
+        publish(teamId, List.of(), List.of(taskId));
+    }
+
+    /**
+     * Drops a task into a column between two others.
+     */
+    @Transactional
+    public TaskDTO moveTask(Long taskId, TaskMoveDTO moveDTO, Long userId) {
+        Long teamId = findAccessibleTask(taskId, userId).getTeam().getId();
+        return place(teamId, moveDTO, List.of(taskId), userId).get(0);
+    }
+
+    /**
+     * Moves several tasks of the team together, keeping the given order.
+     */
+    @Transactional
+    public List<TaskDTO> reorderTasks(Long teamId, TaskMoveDTO moveDTO, Long userId) {
+        accessControlService.checkTeamAccess(teamId, userId);
+        if (moveDTO.getTaskIds() == null || moveDTO.getTaskIds().isEmpty()) {
+            throw new IllegalArgumentException("taskIds is required");
+        }
+        if (moveDTO.getTaskIds().size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " tasks can be reordered at once");
+        }
+        return place(teamId, moveDTO, moveDTO.getTaskIds(), userId);
+    }
+
+    /**
+     * Ranks the tasks into the gap right after {@code previousId}, else right
+     * before {@code nextId}, else at the bottom of the column. The gap is
+     * read under the board lock, so a stale client view cannot make two
+     * tasks share a rank.
+     */
+    private List<TaskDTO> place(Long teamId, TaskMoveDTO moveDTO, List<Long> taskIds, Long userId) {
+        TaskStatus status = parseStatus(moveDTO.getStatus());
+        Set<Long> moving = new HashSet<>(taskIds);
+        if (moving.size() != taskIds.size()) {
+            throw new IllegalArgumentException("taskIds contains duplicates");
+        }
+        Long anchorId = moveDTO.getPreviousId() != null ? moveDTO.getPreviousId() : moveDTO.getNextId();
+        if (anchorId != null && moving.contains(anchorId)) {
+            throw new IllegalArgumentException("A task cannot be placed next to itself");
+        }
+
+        taskBoardRepository.lockBoard(teamId);
+        String lower;
+        String upper;
+        if (anchorId == null) {
+            lower = taskBoardRepository.findLastRank(teamId, status.name(), taskIds);
+            upper = null;
+        } else {
+            String anchorRank = taskBoardRepository.findRanks(teamId, status.name(), List.of(anchorId)).get(anchorId);
+            if (anchorRank == null) {
+                throw new IllegalArgumentException("Task " + anchorId + " is not in the " + status + " column");
+            }
+            if (moveDTO.getPreviousId() != null) {
+                lower = anchorRank;
+                upper = taskBoardRepository.findRankAfter(teamId, status.name(), anchorRank, taskIds);
+            } else {
+                lower = taskBoardRepository.findRankBefore(teamId, status.name(), anchorRank, taskIds);
+                upper = anchorRank;
+            }
+        }
+        int completing = status == TaskStatus.DONE
+                ? taskIds.size() - taskBoardRepository.findRanks(teamId, status.name(), taskIds).size() : 0;
+        List<TaskDTO> placed = taskBoardRepository.place(teamId, status.name(), taskIds,
+                FractionalRank.between(lower, upper, taskIds.size()));
+        if (placed.size() != taskIds.size() || placed.stream().anyMatch(task -> !teamId.equals(task.getTeamId()))) {
+            // Rolls the batch back.
+            throw new IllegalArgumentException("Some tasks were not found in team " + teamId);
+        }
+        publish(teamId, placed, List.of());
+        if (completing > 0) {
+            eventPublisher.publishEvent(TeamActivityEvent.tasksCompleted(teamId, userId, completing));
+        }
+        return placed;
+    }
+
+    private void changeStatus(Task task, TaskStatus status, Long userId) {
+        if (task.getStatus() == status) {
+            return;
+        }
+        Long teamId = task.getTeam().getId();
+        taskBoardRepository.lockBoard(teamId);
+        task.setRank(FractionalRank.between(
+                taskBoardRepository.findLastRank(teamId, status.name(), List.of(task.getId())), null));
+        if (status == TaskStatus.DONE) {
+            task.complete();
+            eventPublisher.publishEvent(TeamActivityEvent.tasksCompleted(teamId, userId, 1));
+        } else {
+            task.setStatus(status);
+            task.setCompletedAt(null);
+        }
+    }
+
+    private TaskDTO save(Task task) {
+        // Flushing bumps the version the board diff carries.
+        TaskDTO saved = new TaskDTO(taskRepository.saveAndFlush(task));
+        publish(saved.getTeamId(), List.of(saved), List.of());
+        return saved;
+    }
+
+    private void publish(Long teamId, List<TaskDTO> tasks, List<Long> removedTaskIds) {
+        eventPublisher.publishEvent(new TaskBoardChangedEvent(teamId,
+                tasks.stream().map(TaskDTO::toCard).toList(), removedTaskIds));
+    }
+
+    private Task findAccessibleTask(Long taskId, Long userId) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
+        accessControlService.checkTeamAccess(task.getTeam().getId(), userId);
+        return task;
+    }
+
+    private void checkAssignee(Long teamId, Long assigneeId) {
+        if (assigneeId != null && !accessControlService.isTeamMember(teamId, assigneeId)) {
+            throw new IllegalArgumentException("Assignee " + assigneeId + " is not a member of the team");
+        }
+    }
+
+    private static void validateTitle(String title) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title must be at most " + MAX_TITLE_LENGTH + " characters");
+        }
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+    }
+
+    private static TaskPriority parsePriority(String priority) {
+        try {
+            return TaskPriority.valueOf(priority);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid priority: " + priority);
+        }
+    }
+}
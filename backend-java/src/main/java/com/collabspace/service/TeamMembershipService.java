@@ -0,0 +1,94 @@
+package com.collabspace.service;
+
+import com.collabspace.cache.CacheNames;
+import com.collabspace.event.TeamMembershipChangedEvent;
+import com.collabspace.model.Team;
+import com.collabspace.model.User;
+import com.collabspace.repository.DocumentRepository;
+import com.collabspace.repository.TeamRepository;
+import com.collabspace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+/**
+ * Team membership and document ownership lookups behind the two-tier cache.
+ * Membership changes must go through {@link #addMember} and
+ * {@link #removeMember}, or publish a {@link TeamMembershipChangedEvent}
+ * themselves, so the cached member sets are invalidated. Cached document
+ * teams are invalidated by {@link com.collabspace.cache.DocumentTeamCacheListener}.
+ */
+@Service
+public class TeamMembershipService {
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Cacheable(CacheNames.TEAM_MEMBERS)
+    public Set<Long> getMemberIds(Long teamId) {
+        return Set.copyOf(userRepository.findIdsByTeamId(teamId));
+    }
+
+    /**
+     * Owning team of a document, or {@code null} if it does not exist.
+     */
+    @Cacheable(cacheNames = CacheNames.DOCUMENT_TEAMS, unless = "#result == null")
+    public Long getDocumentTeamId(Long documentId) {
+        return documentRepository.findTeamIdById(documentId).orElse(null);
+    }
+
+    /**
+     * Adds a user to the team. Only the team owner and admins may.
+     */
+    @Transactional
+    public void addMember(Long teamId, Long userId, Long requesterId) {
+        Team team = findTeam(teamId);
+        checkManageAccess(team, requesterId);
+        team.addMember(findUser(userId));
+        eventPublisher.publishEvent(new TeamMembershipChangedEvent(teamId, userId, true));
+    }
+
+    /**
+     * Removes a user from the team. Only the team owner and admins may;
+     * the owner cannot be removed.
+     */
+    @Transactional
+    public void removeMember(Long teamId, Long userId, Long requesterId) {
+        Team team = findTeam(teamId);
+        checkManageAccess(team, requesterId);
+        if (team.getOwner().getId().equals(userId)) {
+            throw new IllegalArgumentException("The team owner cannot be removed");
+        }
+        team.removeMember(findUser(userId));
+        eventPublisher.publishEvent(new TeamMembershipChangedEvent(teamId, userId, false));
+    }
+
+    private void checkManageAccess(Team team, Long requesterId) {
+        if (!team.getOwner().getId().equals(requesterId) && findUser(requesterId).getRole() != User.UserRole.ADMIN) {
+            throw new SecurityException("Only the team owner can change its members");
+        }
+    }
+
+    private Team findTeam(Long teamId) {
+        return teamRepository.findById(teamId)
+                .orElseThrow(() -> new IllegalArgumentException("Team not found: " + teamId));
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+    }
+}
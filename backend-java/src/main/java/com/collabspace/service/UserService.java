@@ -0,0 +1,53 @@
+package com.collabspace.service;
+
+import com.collabspace.cache.CacheNames;
+import com.collabspace.dto.UserDTO;
+import com.collabspace.event.UserProfileChangedEvent;
+import com.collabspace.model.User;
+import com.collabspace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Cacheable(CacheNames.USER_PROFILES)
+    @Transactional(readOnly = true)
+    public UserDTO getUserProfile(Long userId) {
+        return userRepository.findById(userId)
+                .map(UserDTO::new)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+    }
+
+    /**
+     * Updates the user's display name and picture. Email and role are not
+     * the user's to change here. The cached profile is evicted after commit.
+     */
+    @Transactional
+    public UserDTO updateUserProfile(Long userId, UserDTO profile) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+        user.setName(profile.getName());
+        user.setProfilePicture(profile.getProfilePicture());
+        UserDTO updated = new UserDTO(userRepository.save(user));
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        return updated;
+    }
+
+    /**
+     * Call after any change to a user's profile fields or team list.
+     */
+    @CacheEvict(CacheNames.USER_PROFILES)
+    public void evictUserProfile(Long userId) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.collabspace.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Room membership and fan-out for every WebSocket on this node.
+ *
+ * <p>Broadcasting enqueues one shared, pre-serialized frame per member and
+ * returns. Each connection has at most one non-blocking write in flight and
+ * sends its next frame when that write completes, so a socket that stops
+ * reading ties up no thread and holds back no other connection; it is closed
+ * once a write has waited {@code send-timeout-ms}. The small sender pool only
+ * starts a connection's sending and never waits on a socket. Its queue is
+ * unbounded because it holds at most one task per connection.</p>
+ *
+ * <p>With a {@link BroadcastRelay} installed, broadcasts also go to the
+ * other nodes, and the relay is told when a room gains its first or loses
+ * its last local member. Document operations do not travel this way: every
+ * node renders them for its own sockets from the owner's revisions, see
+ * {@code DocumentRouter}.</p>
+ */
+@Component
+public class BroadcastHub {
+
+    // Tomcat's per-session limit on how long a blocking write, such as the
+    // close frame, may take.
+    private static final String TOMCAT_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final Map<String, ClientConnection> connections = new ConcurrentHashMap<>();
+    private final Map<RoomKey, Set<ClientConnection>> rooms = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${collaboration.websocket.outbound-queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${collaboration.websocket.sender-threads:0}")
+    private int senderThreads;
+
+    @Value("${collaboration.websocket.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private volatile BroadcastRelay relay;
+
+    private ExecutorService senders;
+    private ClientConnection.Counters counters;
+    private DistributionSummary fanOut;
+
+    @PostConstruct
+    public void init() {
+        int threads = senderThreads > 0 ? senderThreads : Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "ws-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        counters = new ClientConnection.Counters(
+                Counter.builder("websocket.outbound.dropped").register(meterRegistry),
+                Counter.builder("websocket.outbound.coalesced").register(meterRegistry),
+                Counter.builder("websocket.outbound.overflow").description("Connections closed as slow consumers").register(meterRegistry),
+                Counter.builder("websocket.outbound.timeouts").description("Connections closed after a write timed out").register(meterRegistry));
+        fanOut = DistributionSummary.builder("websocket.broadcast.recipients").register(meterRegistry);
+        Gauge.builder("websocket.connections", connections, Map::size).register(meterRegistry);
+        Gauge.builder("websocket.rooms", rooms, Map::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(connection -> connection.close(CloseStatus.GOING_AWAY));
+        senders.shutdown();
+    }
+
+    public void setRelay(BroadcastRelay relay) {
+        this.relay = relay;
+    }
+
+    public void register(WebSocketSession session) {
+        jakarta.websocket.RemoteEndpoint.Async remote = null;
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session standardSession = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(TOMCAT_SEND_TIMEOUT, sendTimeoutMs);
+                remote = standardSession.getAsyncRemote();
+                remote.setSendTimeout(sendTimeoutMs);
+            }
+        }
+        connections.put(session.getId(), new ClientConnection(session, remote, queueCapacity, senders, counters));
+    }
+
+    /**
+     * Forgets a closed socket.
+     *
+     * @return the rooms it was still in
+     */
+    public Set<RoomKey> unregister(String sessionId) {
+        ClientConnection connection = connections.remove(sessionId);
+        if (connection == null) {
+            return Set.of();
+        }
+        connection.close(CloseStatus.NORMAL);
+        Set<RoomKey> left = Set.copyOf(connection.getRooms());
+        left.forEach(room -> removeMember(room, connection));
+        return left;
+    }
+
+    public void join(String sessionId, RoomKey room) {
+        ClientConnection connection = connections.get(sessionId);
+        if (connection == null || !connection.getRooms().add(room)) {
+            return;
+        }
+        boolean[] opened = new boolean[1];
+        rooms.compute(room, (key, members) -> {
+            Set<ClientConnection> updated = members;
+            if (updated == null) {
+                updated = ConcurrentHashMap.newKeySet();
+                opened[0] = true;
+            }
+            updated.add(connection);
+            return updated;
+        });
+        BroadcastRelay currentRelay = relay;
+        if (opened[0] && currentRelay != null) {
+            currentRelay.roomOpened(room);
+        }
+    }
+
+    public boolean leave(String sessionId, RoomKey room) {
+        ClientConnection connection = connections.get(sessionId);
+        if (connection == null || !connection.getRooms().remove(room)) {
+            return false;
+        }
+        removeMember(room, connection);
+        return true;
+    }
+
+    public boolean isMember(String sessionId, RoomKey room) {
+        ClientConnection connection = connections.get(sessionId);
+        return connection != null && connection.getRooms().contains(room);
+    }
+
+    public boolean hasMembers(RoomKey room) {
+        Set<ClientConnection> members = rooms.get(room);
+        return members != null && !members.isEmpty();
+    }
+
+    public void send(String sessionId, OutboundFrame frame) {
+        ClientConnection connection = connections.get(sessionId);
+        if (connection != null) {
+            connection.enqueue(frame);
+        }
+    }
+
+    /**
+     * Queues the frame for every member of the room except {@code exceptSessionId},
+     * here and, through the relay, on every other node.
+     */
+    public void broadcast(RoomKey room, OutboundFrame frame, String exceptSessionId) {
+        broadcastLocal(room, frame, exceptSessionId);
+        BroadcastRelay currentRelay = relay;
+        if (currentRelay != null) {
+            currentRelay.relay(room, frame, exceptSessionId);
+        }
+    }
+
+    /**
+     * Queues the frame for this node's members of the room only.
+     */
+    public void broadcastLocal(RoomKey room, OutboundFrame frame, String exceptSessionId) {
+        Set<ClientConnection> members = rooms.get(room);
+        if (members == null) {
+            return;
+        }
+        int recipients = 0;
+        for (ClientConnection member : members) {
+            if (!member.getId().equals(exceptSessionId) && member.enqueue(frame)) {
+                recipients++;
+            }
+        }
+        fanOut.record(recipients);
+    }
+
+    private void removeMember(RoomKey room, ClientConnection connection) {
+        Set<ClientConnection> remaining = rooms.computeIfPresent(room, (key, members) -> {
+            members.remove(connection);
+            return members.isEmpty() ? null : members;
+        });
+        BroadcastRelay currentRelay = relay;
+        if (remaining == null && currentRelay != null) {
+            currentRelay.roomClosed(room);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.collabspace.websocket;
+
+/**
+ * Carries broadcasts beyond this node. The {@link BroadcastHub} delivers to
+ * its own sockets first and then hands the same frame to the relay; frames
+ * arriving from other nodes come back through
+ * {@link BroadcastHub#broadcastLocal}.
+ *
+ * <p>Called from the broadcasting thread, often while a document is held,
+ * so implementations must not block.</p>
+ */
+public interface BroadcastRelay {
+
+    void relay(RoomKey room, OutboundFrame frame, String exceptSessionId);
+
+    /** The room gained its first local member. */
+    void roomOpened(RoomKey room);
+
+    /** The room lost its last local member. */
+    void roomClosed(RoomKey room);
+}
@@ -0,0 +1,259 @@
+package com.collabspace.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One socket's bounded outbound queue. Producers only enqueue; at most one
+ * write per socket is in flight, and the next frame is sent from the
+ * previous write's completion handler. Writes go through the container's
+ * non-blocking {@link RemoteEndpoint.Async}, so a socket that stops reading
+ * holds no thread and delays nobody but itself. Sessions without one fall
+ * back to blocking writes on the sender pool.
+ */
+final class ClientConnection {
+
+    static final CloseStatus SLOW_CONSUMER = new CloseStatus(4008, "Slow consumer, reconnect and rejoin");
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientConnection.class);
+
+    // Hand the thread back after this many frames that completed without
+    // waiting, so one busy socket cannot monopolise it.
+    private static final int MAX_FRAMES_PER_DRAIN = 64;
+
+    private final WebSocketSession session;
+    private final RemoteEndpoint.Async remote;
+    private final int capacity;
+    private final Executor senders;
+    private final Counters counters;
+    private final Set<RoomKey> rooms = ConcurrentHashMap.newKeySet();
+
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    private final Map<String, Slot> pendingByCoalesceKey = new HashMap<>();
+    private boolean sending;
+    private boolean closed;
+
+    /**
+     * @param remote the socket's non-blocking endpoint, or {@code null} to
+     *               write through {@link WebSocketSession#sendMessage}
+     */
+    ClientConnection(WebSocketSession session, RemoteEndpoint.Async remote, int capacity, Executor senders, Counters counters) {
+        this.session = session;
+        this.remote = remote;
+        this.capacity = capacity;
+        this.senders = senders;
+        this.counters = counters;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    Set<RoomKey> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * @return whether the frame was queued (or merged into a queued one)
+     */
+    boolean enqueue(OutboundFrame frame) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (frame.delivery() == OutboundFrame.Delivery.COALESCE) {
+                Slot pending = pendingByCoalesceKey.get(frame.coalesceKey());
+                if (pending != null) {
+                    pending.frame = frame;
+                    counters.coalesced().increment();
+                    return true;
+                }
+            }
+            if (queue.size() >= capacity && !makeRoomFor(frame)) {
+                return false;
+            }
+            Slot slot = new Slot(frame);
+            queue.addLast(slot);
+            if (frame.delivery() == OutboundFrame.Delivery.COALESCE) {
+                pendingByCoalesceKey.put(frame.coalesceKey(), slot);
+            }
+            if (!sending) {
+                sending = true;
+                senders.execute(this::sendNext);
+            }
+            return true;
+        }
+    }
+
+    synchronized void close(CloseStatus status) {
+        if (!closed) {
+            closeLocked(status);
+        }
+    }
+
+    /** Called with the lock held and a full queue. */
+    private boolean makeRoomFor(OutboundFrame frame) {
+        if (frame.delivery() != OutboundFrame.Delivery.RELIABLE) {
+            counters.dropped().increment();
+            return false;
+        }
+        Iterator<Slot> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Slot queued = iterator.next();
+            if (queued.frame.delivery() != OutboundFrame.Delivery.RELIABLE) {
+                iterator.remove();
+                if (queued.frame.coalesceKey() != null) {
+                    pendingByCoalesceKey.remove(queued.frame.coalesceKey());
+                }
+                counters.dropped().increment();
+                return true;
+            }
+        }
+        // Only ordered frames are queued: dropping any would corrupt the
+        // client's state, so make it reconnect and catch up instead.
+        counters.overflowed().increment();
+        logger.debug("Outbound queue full for session {}, closing", session.getId());
+        closeLocked(SLOW_CONSUMER);
+        return false;
+    }
+
+    private void closeLocked(CloseStatus status) {
+        closed = true;
+        queue.clear();
+        pendingByCoalesceKey.clear();
+        senders.execute(() -> {
+            try {
+                session.close(status);
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Sends queued frames until the queue is empty or a write has to wait
+     * for the socket, in which case its completion handler carries on.
+     */
+    private void sendNext() {
+        for (int sent = 0; ; sent++) {
+            OutboundFrame frame;
+            synchronized (this) {
+                if (sent == MAX_FRAMES_PER_DRAIN && !queue.isEmpty()) {
+                    senders.execute(this::sendNext);
+                    return;
+                }
+                Slot slot = queue.pollFirst();
+                if (slot == null || closed) {
+                    sending = false;
+                    return;
+                }
+                frame = slot.frame;
+                if (frame.coalesceKey() != null) {
+                    pendingByCoalesceKey.remove(frame.coalesceKey(), slot);
+                }
+            }
+            if (remote == null) {
+                try {
+                    session.sendMessage(frame.message());
+                } catch (IOException | IllegalStateException e) {
+                    failed(e);
+                    return;
+                }
+                continue;
+            }
+            Write write = new Write();
+            try {
+                remote.sendText(frame.message().getPayload(), write);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                failed(e);
+                return;
+            }
+            if (!write.completedInline()) {
+                return;
+            }
+            if (write.failure != null) {
+                failed(write.failure);
+                return;
+            }
+        }
+    }
+
+    private void failed(Throwable failure) {
+        logger.debug("Failed to send to session {}: {}", session.getId(), failure.getMessage());
+        synchronized (this) {
+            sending = false;
+            if (closed) {
+                return;
+            }
+            if (failure instanceof SocketTimeoutException) {
+                // Stopped reading: make it reconnect and catch up rather than
+                // leave it with a gap.
+                counters.timedOut().increment();
+                closeLocked(SLOW_CONSUMER);
+            } else {
+                closed = true;
+                queue.clear();
+                pendingByCoalesceKey.clear();
+            }
+        }
+    }
+
+    /**
+     * Completion of one write. The container may call it before
+     * {@code sendText} returns; whichever side gets there second continues
+     * with the next frame, so the queue is never sent from two threads.
+     */
+    private final class Write implements SendHandler {
+
+        private final AtomicBoolean handedOver = new AtomicBoolean();
+        private volatile Throwable failure;
+
+        @Override
+        public void onResult(SendResult result) {
+            failure = result.isOK() ? null : result.getException();
+            if (handedOver.compareAndSet(false, true)) {
+                return;
+            }
+            if (failure != null) {
+                failed(failure);
+            } else {
+                sendNext();
+            }
+        }
+
+        boolean completedInline() {
+            return !handedOver.compareAndSet(false, true);
+        }
+    }
+
+    private static final class Slot {
+        private OutboundFrame frame;
+
+        private Slot(OutboundFrame frame) {
+            this.frame = frame;
+        }
+    }
+
+    record Counters(Counter dropped, Counter coalesced, Counter overflowed, Counter timedOut) {}
+}
@@ -0,0 +1,199 @@
+package com.collabspace.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays room broadcasts between nodes over a {@link ClusterTransport}, one
+ * channel per room.
+ *
+ * <p>Local sockets are served by the {@link BroadcastHub} before anything
+ * reaches the bus. Relayed frames are buffered per room and published every
+ * {@code collaboration.cluster.batch-interval-ms} as one binary
+ * {@link ClusterEnvelope}, or sooner once {@code max-batch-frames} are
+ * waiting. All publishing happens on one thread, so each room's frames leave
+ * a node in the order they were broadcast.</p>
+ *
+ * <p>A node only subscribes to rooms it has members in. Subscriptions are
+ * reconciled against the hub on the same thread, so a room that opens and
+ * closes in quick succession settles on the right state.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "collaboration.cluster.enabled", havingValue = "true", matchIfMissing = true)
+public class ClusterBus implements BroadcastRelay {
+
+    static final String CHANNEL_PREFIX = "ws:room:";
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBus.class);
+
+    private final UUID nodeId = UUID.randomUUID();
+    private final Map<RoomKey, List<OutboundFrame>> pending = new LinkedHashMap<>();
+    private final Set<RoomKey> subscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private int pendingFrames;
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired
+    private ClusterTransport transport;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${collaboration.cluster.batch-interval-ms:5}")
+    private long batchIntervalMs;
+
+    @Value("${collaboration.cluster.max-batch-frames:256}")
+    private int maxBatchFrames;
+
+    private ScheduledExecutorService publisher;
+    private Counter published;
+    private Counter received;
+    private Counter errors;
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    public void init() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-cluster-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        published = Counter.builder("websocket.cluster.published").description("Envelopes published").register(meterRegistry);
+        received = Counter.builder("websocket.cluster.received").description("Envelopes received from other nodes").register(meterRegistry);
+        errors = Counter.builder("websocket.cluster.errors").register(meterRegistry);
+        batchSize = DistributionSummary.builder("websocket.cluster.batch.frames").register(meterRegistry);
+        Gauge.builder("websocket.cluster.subscriptions", subscribed, Set::size).register(meterRegistry);
+
+        publisher.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+        broadcastHub.setRelay(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcastHub.setRelay(null);
+        publisher.execute(this::flush);
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void relay(RoomKey room, OutboundFrame frame, String exceptSessionId) {
+        // The excluded sender is on this node; other nodes deliver to everyone.
+        boolean full;
+        synchronized (pending) {
+            pending.computeIfAbsent(room, key -> new ArrayList<>()).add(frame);
+            full = ++pendingFrames >= maxBatchFrames;
+        }
+        if (full && flushRequested.compareAndSet(false, true)) {
+            publisher.execute(this::flush);
+        }
+    }
+
+    @Override
+    public void roomOpened(RoomKey room) {
+        publisher.execute(() -> reconcile(room));
+    }
+
+    @Override
+    public void roomClosed(RoomKey room) {
+        publisher.execute(() -> reconcile(room));
+    }
+
+    private void flush() {
+        flushRequested.set(false);
+        List<Map.Entry<RoomKey, List<OutboundFrame>>> batches;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batches = new ArrayList<>(pending.entrySet());
+            pending.clear();
+            pendingFrames = 0;
+        }
+        for (Map.Entry<RoomKey, List<OutboundFrame>> batch : batches) {
+            List<OutboundFrame> frames = batch.getValue();
+            int chunk = Math.min(maxBatchFrames, ClusterEnvelope.MAX_FRAMES);
+            for (int from = 0; from < frames.size(); from += chunk) {
+                publish(batch.getKey(), frames.subList(from, Math.min(frames.size(), from + chunk)));
+            }
+        }
+    }
+
+    private void publish(RoomKey room, List<OutboundFrame> frames) {
+        try {
+            transport.publish(channel(room), ClusterEnvelope.encode(nodeId, room, frames));
+            published.increment();
+            batchSize.record(frames.size());
+        } catch (RuntimeException e) {
+            errors.increment();
+            logger.warn("Failed to relay {} frames for {}: {}", frames.size(), room, e.getMessage());
+        }
+    }
+
+    private void reconcile(RoomKey room) {
+        try {
+            boolean wanted = broadcastHub.hasMembers(room);
+            if (wanted && !subscribed.contains(room)) {
+                transport.subscribe(channel(room), this::receive);
+                subscribed.add(room);
+            } else if (!wanted && subscribed.contains(room)) {
+                transport.unsubscribe(channel(room));
+                subscribed.remove(room);
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            logger.warn("Failed to update subscription for {}: {}", room, e.getMessage());
+        }
+    }
+
+    private void receive(byte[] message) {
+        ClusterEnvelope.Decoded envelope;
+        try {
+            envelope = ClusterEnvelope.decode(message);
+        } catch (IllegalArgumentException e) {
+            errors.increment();
+            logger.warn("Dropping cluster message: {}", e.getMessage());
+            return;
+        }
+        // Our own sockets were served before the frame was relayed.
+        if (nodeId.equals(envelope.node())) {
+            return;
+        }
+        received.increment();
+        for (OutboundFrame frame : envelope.frames()) {
+            broadcastHub.broadcastLocal(envelope.room(), frame, null);
+        }
+    }
+
+    private static String channel(RoomKey room) {
+        return CHANNEL_PREFIX + room;
+    }
+}
@@ -0,0 +1,99 @@
+package com.collabspace.websocket;
+
+import org.springframework.web.socket.TextMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary wire format for a batch of frames for one room:
+ *
+ * <pre>
+ * version:u8  node:uuid(16)  roomType:u8  roomId:i64  count:u16
+ * count x { flags:u8  [coalesceKey:utf]  length:i32  payload:utf8 }
+ * </pre>
+ *
+ * The low two flag bits hold the delivery mode; the next says whether a
+ * coalesce key follows. Session ids are not carried: they are only unique
+ * per node, and a broadcast's excluded sender is always on the publishing
+ * node. Payloads are the frames' already-serialized
+ * JSON, so nothing is re-encoded on either side.
+ */
+final class ClusterEnvelope {
+
+    static final int MAX_FRAMES = 0xFFFF;
+
+    private static final byte VERSION = 1;
+    private static final int DELIVERY_MASK = 0x03;
+    private static final int HAS_COALESCE_KEY = 0x04;
+
+    private ClusterEnvelope() {
+    }
+
+    static byte[] encode(UUID node, RoomKey room, List<OutboundFrame> frames) {
+        if (frames.size() > MAX_FRAMES) {
+            throw new IllegalArgumentException("Too many frames in one envelope: " + frames.size());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + frames.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(node.getMostSignificantBits());
+            out.writeLong(node.getLeastSignificantBits());
+            out.writeByte(room.type().ordinal());
+            out.writeLong(room.id());
+            out.writeShort(frames.size());
+            for (OutboundFrame frame : frames) {
+                int flags = frame.delivery().ordinal();
+                if (frame.coalesceKey() != null) {
+                    flags |= HAS_COALESCE_KEY;
+                }
+                out.writeByte(flags);
+                if (frame.coalesceKey() != null) {
+                    out.writeUTF(frame.coalesceKey());
+                }
+                byte[] payload = frame.message().asBytes();
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the message is not a valid envelope
+     */
+    static Decoded decode(byte[] message) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported envelope version " + version);
+            }
+            UUID node = new UUID(in.readLong(), in.readLong());
+            RoomKey room = new RoomKey(RoomKey.Type.values()[in.readUnsignedByte()], in.readLong());
+            int count = in.readUnsignedShort();
+            List<OutboundFrame> frames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int flags = in.readUnsignedByte();
+                String coalesceKey = (flags & HAS_COALESCE_KEY) != 0 ? in.readUTF() : null;
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                frames.add(new OutboundFrame(new TextMessage(payload),
+                        OutboundFrame.Delivery.values()[flags & DELIVERY_MASK], coalesceKey));
+            }
+            return new Decoded(node, room, frames);
+        } catch (IOException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Malformed cluster envelope", e);
+        }
+    }
+
+    record Decoded(UUID node, RoomKey room, List<OutboundFrame> frames) {}
+}
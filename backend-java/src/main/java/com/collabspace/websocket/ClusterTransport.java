@@ -0,0 +1,20 @@
+package com.collabspace.websocket;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel-based publish/subscribe between nodes, as used by the
+ * {@link ClusterBus}. Delivery is best effort and per-publisher ordered.
+ */
+public interface ClusterTransport {
+
+    void publish(String channel, byte[] message);
+
+    /**
+     * Starts delivering messages on the channel to the handler. The handler
+     * runs on a transport thread and must not block.
+     */
+    void subscribe(String channel, Consumer<byte[]> handler);
+
+    void unsubscribe(String channel);
+}
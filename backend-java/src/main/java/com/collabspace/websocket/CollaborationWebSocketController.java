@@ -0,0 +1,243 @@
+package com.collabspace.websocket;
+
+import com.collabspace.collaboration.AppliedRevision;
+import com.collabspace.collaboration.CollaborationEngine;
+import com.collabspace.collaboration.DocumentSession;
+import com.collabspace.collaboration.JoinHandler;
+import com.collabspace.collaboration.RevisionListener;
+import com.collabspace.collaboration.TextOperation;
+import com.collabspace.config.WebSocketConfig;
+import com.collabspace.dto.CollaborationMessage;
+import com.collabspace.exception.VersionConflictException;
+import com.collabspace.exception.WriteBufferFullException;
+import com.collabspace.presence.PresenceService;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.service.DocumentLockService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+/**
+ * Message side of live editing: joins sessions to document and meeting
+ * rooms, feeds their operations into the {@link CollaborationEngine} and
+ * fans committed revisions out through the {@link BroadcastHub}.
+ */
+@Controller
+public class CollaborationWebSocketController implements RevisionListener {
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired
+    private CollaborationEngine collaborationEngine;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private DocumentLockService documentLockService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void init() {
+        collaborationEngine.addListener(this);
+    }
+
+    public void handle(WebSocketSession session, CollaborationMessage message) {
+        if (message.getType() != null && message.getMeetingId() != null && message.getDocumentId() == null) {
+            handleMeeting(session, message);
+            return;
+        }
+        if (message.getType() != null && message.getTeamId() != null && message.getDocumentId() == null) {
+            handleBoard(session, message);
+            return;
+        }
+        if (message.getType() == null || message.getDocumentId() == null) {
+            sendError(session, message.getDocumentId(), "Message type and documentId are required");
+            return;
+        }
+        switch (message.getType()) {
+            case CollaborationMessage.JOIN -> join(session, message.getDocumentId(), message.getBaseVersion());
+            case CollaborationMessage.OPERATION -> submit(session, message);
+            case CollaborationMessage.PRESENCE -> heartbeat(session, RoomKey.document(message.getDocumentId()), message);
+            case CollaborationMessage.LEAVE -> leave(session, message.getDocumentId());
+            default -> sendError(session, message.getDocumentId(), "Unknown message type: " + message.getType());
+        }
+    }
+
+    public void disconnect(WebSocketSession session) {
+        for (RoomKey room : broadcastHub.unregister(session.getId())) {
+            presenceService.leave(room, session.getId());
+            if (room.type() == RoomKey.Type.DOCUMENT) {
+                collaborationEngine.close(room.id());
+            }
+        }
+    }
+
+    /**
+     * Runs under the document's lock, so frames are queued in version order.
+     * Every node with editors of the document gets the revision, from its own
+     * session or its replica, and serves only its own sockets: the author's
+     * ack has to come from the node the author is connected to.
+     */
+    @Override
+    public void onRevisionApplied(AppliedRevision revision) {
+        // Serialize once per revision; only the author gets a different (ack) frame.
+        broadcastHub.broadcastLocal(RoomKey.document(revision.getDocumentId()), OutboundFrame.reliable(toTextMessage(CollaborationMessage.operation(revision))), revision.getOrigin());
+        if (revision.getOrigin() != null) {
+            send(revision.getOrigin(), toTextMessage(CollaborationMessage.ack(revision)));
+        }
+    }
+
+    @Override
+    public boolean followsReplicas() {
+        return true;
+    }
+
+    public void sendError(WebSocketSession session, Long documentId, String error) {
+        send(session.getId(), toTextMessage(CollaborationMessage.error(documentId, error)));
+    }
+
+    private void handleMeeting(WebSocketSession session, CollaborationMessage message) {
+        RoomKey room = RoomKey.meeting(message.getMeetingId());
+        switch (message.getType()) {
+            case CollaborationMessage.JOIN -> {
+                if (!accessControlService.canAccessMeeting(message.getMeetingId(), userId(session))) {
+                    sendError(session, null, "Access denied");
+                    return;
+                }
+                if (broadcastHub.isMember(session.getId(), room)) {
+                    return;
+                }
+                broadcastHub.join(session.getId(), room);
+                send(session.getId(), toTextMessage(CollaborationMessage.joinedMeeting(message.getMeetingId())));
+                presenceService.join(room, session.getId(), userId(session));
+            }
+            case CollaborationMessage.PRESENCE -> heartbeat(session, room, message);
+            case CollaborationMessage.LEAVE -> {
+                broadcastHub.leave(session.getId(), room);
+                presenceService.leave(room, session.getId());
+            }
+            default -> sendError(session, null, "Unsupported meeting message type: " + message.getType());
+        }
+    }
+
+    /**
+     * Board rooms only carry {@code board-update} diffs; clients join before
+     * fetching the board so no change falls in between.
+     */
+    private void handleBoard(WebSocketSession session, CollaborationMessage message) {
+        RoomKey room = RoomKey.board(message.getTeamId());
+        switch (message.getType()) {
+            case CollaborationMessage.JOIN -> {
+                if (!accessControlService.isTeamMember(message.getTeamId(), userId(session))) {
+                    sendError(session, null, "Access denied");
+                    return;
+                }
+                if (!broadcastHub.isMember(session.getId(), room)) {
+                    broadcastHub.join(session.getId(), room);
+                }
+                send(session.getId(), toTextMessage(CollaborationMessage.joinedBoard(message.getTeamId())));
+            }
+            case CollaborationMessage.LEAVE -> broadcastHub.leave(session.getId(), room);
+            default -> sendError(session, null, "Unsupported board message type: " + message.getType());
+        }
+    }
+
+    private void join(WebSocketSession session, Long documentId, Integer knownVersion) {
+        Long userId = userId(session);
+        if (!accessControlService.canAccessDocument(documentId, userId)) {
+            sendError(session, documentId, "Access denied");
+            return;
+        }
+        RoomKey room = RoomKey.document(documentId);
+        if (broadcastHub.isMember(session.getId(), room)) {
+            return;
+        }
+        try {
+            collaborationEngine.open(documentId, knownVersion, new JoinHandler() {
+                @Override
+                public void onSnapshot(DocumentSession.Snapshot snapshot) {
+                    send(session.getId(), toTextMessage(CollaborationMessage.joined(documentId, snapshot.getContent(), snapshot.getVersion())));
+                    broadcastHub.join(session.getId(), room);
+                }
+
+                @Override
+                public void onCatchUp(int version, List<AppliedRevision> missed) {
+                    send(session.getId(), toTextMessage(CollaborationMessage.joined(documentId, null, version)));
+                    for (AppliedRevision revision : missed) {
+                        boolean own = revision.getClientOpId() != null && userId.equals(revision.getUserId());
+                        send(session.getId(), toTextMessage(own ? CollaborationMessage.ack(revision) : CollaborationMessage.operation(revision)));
+                    }
+                    broadcastHub.join(session.getId(), room);
+                }
+            });
+            presenceService.join(room, session.getId(), userId);
+        } catch (IllegalArgumentException e) {
+            sendError(session, documentId, e.getMessage());
+        }
+    }
+
+    private void leave(WebSocketSession session, Long documentId) {
+        RoomKey room = RoomKey.document(documentId);
+        if (broadcastHub.leave(session.getId(), room)) {
+            presenceService.leave(room, session.getId());
+            collaborationEngine.close(documentId);
+        }
+    }
+
+    private void heartbeat(WebSocketSession session, RoomKey room, CollaborationMessage message) {
+        if (!presenceService.heartbeat(room, session.getId(), userId(session),
+                message.getCursor(), message.getSelectionStart(), message.getSelectionEnd())) {
+            sendError(session, message.getDocumentId(), "Join before sending presence");
+        }
+    }
+
+    private void submit(WebSocketSession session, CollaborationMessage message) {
+        Long documentId = message.getDocumentId();
+        if (!broadcastHub.isMember(session.getId(), RoomKey.document(documentId))) {
+            sendError(session, documentId, "Join the document before sending operations");
+            return;
+        }
+        if (message.getBaseVersion() == null || message.getOperations() == null) {
+            sendError(session, documentId, "baseVersion and operations are required");
+            return;
+        }
+        try {
+            Long fencingToken = documentLockService.checkWriteAllowed(documentId, userId(session), null);
+            collaborationEngine.submit(documentId, message.getBaseVersion(), TextOperation.fromAll(message.getOperations()),
+                    userId(session), fencingToken, session.getId(), message.getClientOpId());
+        } catch (VersionConflictException e) {
+            sendError(session, documentId, "Version conflict: " + e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException | WriteBufferFullException e) {
+            sendError(session, documentId, e.getMessage());
+        }
+    }
+
+    private Long userId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(WebSocketConfig.USER_ID_ATTRIBUTE);
+    }
+
+    private TextMessage toTextMessage(CollaborationMessage message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize collaboration message", e);
+        }
+    }
+
+    private void send(String sessionId, TextMessage message) {
+        broadcastHub.send(sessionId, OutboundFrame.reliable(message));
+    }
+}
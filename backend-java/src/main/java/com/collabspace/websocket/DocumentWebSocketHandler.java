@@ -0,0 +1,58 @@
+package com.collabspace.websocket;
+
+import com.collabspace.dto.CollaborationMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Transport side of live editing: registers sockets with the
+ * {@link BroadcastHub}, decodes frames and hands them to
+ * {@link CollaborationWebSocketController}.
+ */
+@Component
+public class DocumentWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentWebSocketHandler.class);
+
+    @Autowired
+    private BroadcastHub broadcastHub;
+
+    @Autowired
+    private CollaborationWebSocketController collaborationController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        broadcastHub.register(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            CollaborationMessage payload = objectMapper.readValue(message.getPayload(), CollaborationMessage.class);
+            collaborationController.handle(session, payload);
+        } catch (Exception e) {
+            logger.debug("Rejected message on session {}: {}", session.getId(), e.getMessage());
+            collaborationController.sendError(session, null, e.getMessage());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        collaborationController.disconnect(session);
+    }
+}
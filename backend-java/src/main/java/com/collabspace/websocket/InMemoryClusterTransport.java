@@ -0,0 +1,74 @@
+package com.collabspace.websocket;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for Redis pub/sub. Every transport attached to the
+ * same {@link Broker} sees the others' messages, so several buses can be
+ * wired together in one JVM; with the default broker a single node simply
+ * talks to itself.
+ *
+ * <p>Messages are delivered synchronously on the publishing thread.</p>
+ */
+public class InMemoryClusterTransport implements ClusterTransport {
+
+    private final Broker broker;
+    private final Map<String, Consumer<byte[]>> handlers = new ConcurrentHashMap<>();
+
+    public InMemoryClusterTransport() {
+        this(Broker.SHARED);
+    }
+
+    public InMemoryClusterTransport(Broker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        for (InMemoryClusterTransport subscriber : broker.subscribers(channel)) {
+            Consumer<byte[]> handler = subscriber.handlers.get(channel);
+            if (handler != null) {
+                handler.accept(message.clone());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<byte[]> handler) {
+        if (handlers.putIfAbsent(channel, handler) == null) {
+            broker.add(channel, this);
+        }
+    }
+
+    @Override
+    public void unsubscribe(String channel) {
+        if (handlers.remove(channel) != null) {
+            broker.remove(channel, this);
+        }
+    }
+
+    public static final class Broker {
+
+        public static final Broker SHARED = new Broker();
+
+        private final Map<String, Set<InMemoryClusterTransport>> channels = new ConcurrentHashMap<>();
+
+        private Set<InMemoryClusterTransport> subscribers(String channel) {
+            return channels.getOrDefault(channel, Set.of());
+        }
+
+        private void add(String channel, InMemoryClusterTransport transport) {
+            channels.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(transport);
+        }
+
+        private void remove(String channel, InMemoryClusterTransport transport) {
+            channels.computeIfPresent(channel, (key, subscribers) -> {
+                subscribers.remove(transport);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+}
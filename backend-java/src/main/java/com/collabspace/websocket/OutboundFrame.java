@@ -0,0 +1,34 @@
+package com.collabspace.websocket;
+
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * An already-serialized message plus what may happen to it when the
+ * recipient cannot keep up. One frame instance is shared by every recipient
+ * of a broadcast.
+ *
+ * <ul>
+ *   <li>{@code RELIABLE}: must arrive in order (operations, acks, errors).
+ *       If it does not fit, the connection is closed so the client rejoins
+ *       and catches up from its last version.</li>
+ *   <li>{@code COALESCE}: only the latest state matters; a queued frame with
+ *       the same key is replaced in place. Dropped when the queue is full.</li>
+ *   <li>{@code DROPPABLE}: best effort; dropped when the queue is full.</li>
+ * </ul>
+ */
+public record OutboundFrame(TextMessage message, Delivery delivery, String coalesceKey) {
+
+    public enum Delivery { RELIABLE, COALESCE, DROPPABLE }
+
+    public static OutboundFrame reliable(TextMessage message) {
+        return new OutboundFrame(message, Delivery.RELIABLE, null);
+    }
+
+    public static OutboundFrame coalescing(TextMessage message, String coalesceKey) {
+        return new OutboundFrame(message, Delivery.COALESCE, coalesceKey);
+    }
+
+    public static OutboundFrame droppable(TextMessage message) {
+        return new OutboundFrame(message, Delivery.DROPPABLE, null);
+    }
+}
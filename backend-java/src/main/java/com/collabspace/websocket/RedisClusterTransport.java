@@ -0,0 +1,51 @@
+package com.collabspace.websocket;
+
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub transport. Messages are published as raw bytes on the
+ * shared connection; subscriptions are added to and removed from one
+ * listener container as rooms open and close.
+ */
+public class RedisClusterTransport implements ClusterTransport {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<String, MessageListener> listeners = new ConcurrentHashMap<>();
+
+    public RedisClusterTransport(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(String channel, byte[] message) {
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channelBytes, message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<byte[]> handler) {
+        MessageListener listener = (message, pattern) -> handler.accept(message.getBody());
+        if (listeners.putIfAbsent(channel, listener) == null) {
+            listenerContainer.addMessageListener(listener, new ChannelTopic(channel));
+        }
+    }
+
+    @Override
+    public void unsubscribe(String channel) {
+        MessageListener listener = listeners.remove(channel);
+        if (listener != null) {
+            listenerContainer.removeMessageListener(listener, new ChannelTopic(channel));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.collabspace.websocket;
+
+/**
+ * A broadcast room: everyone with a given document, meeting or team board open.
+ */
+public record RoomKey(Type type, Long id) {
+
+    public enum Type { DOCUMENT, MEETING, BOARD }
+
+    public static RoomKey document(Long documentId) {
+        return new RoomKey(Type.DOCUMENT, documentId);
+    }
+
+    public static RoomKey meeting(Long meetingId) {
+        return new RoomKey(Type.MEETING, meetingId);
+    }
+
+    public static RoomKey board(Long teamId) {
+        return new RoomKey(Type.BOARD, teamId);
+    }
+
+    @Override
+    public String toString() {
+        return type.name().toLowerCase() + ":" + id;
+    }
+}
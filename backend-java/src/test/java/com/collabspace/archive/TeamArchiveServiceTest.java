@@ -0,0 +1,144 @@
+package com.collabspace.archive;
+
+import com.collabspace.archive.TeamArchiveImporter.ImportedTeam;
+import com.collabspace.dto.TaskDTO;
+import com.collabspace.event.MeetingScheduleChangedEvent;
+import com.collabspace.event.TaskBoardChangedEvent;
+import com.collabspace.event.TeamMembershipChangedEvent;
+import com.collabspace.model.User;
+import com.collabspace.model.User.UserRole;
+import com.collabspace.repository.TaskBoardRepository;
+import com.collabspace.repository.TeamRepository;
+import com.collabspace.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * What a finished import announces: its members, and its meetings and
+ * tasks in import-sized batches, so schedulers and boards pick them up.
+ */
+@SpringJUnitConfig({TeamArchiveService.class, SimpleMeterRegistry.class, TeamArchiveServiceTest.Events.class})
+@TestPropertySource(properties = "teams.archive.import-batch-size=2")
+class TeamArchiveServiceTest {
+
+    private static final Long ADMIN_ID = 1L;
+    private static final Long TEAM_ID = 40L;
+
+    @Autowired
+    private TeamArchiveService archiveService;
+
+    @Autowired
+    private Events events;
+
+    @MockBean
+    private TeamArchiveExporter exporter;
+
+    @MockBean
+    private TeamArchiveImporter importer;
+
+    @MockBean
+    private TeamRepository teamRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private TaskBoardRepository taskBoardRepository;
+
+    @BeforeEach
+    void admin() {
+        User admin = new User("admin@example.com", "Admin", null);
+        admin.setRole(UserRole.ADMIN);
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(admin));
+        events.received.clear();
+    }
+
+    @Test
+    void importedMeetingsAndTasksArePublishedInBatches() throws Exception {
+        when(importer.importArchive(any(), eq(ADMIN_ID), any()))
+                .thenReturn(new ImportedTeam(TEAM_ID, List.of(ADMIN_ID), List.of(7L, 8L, 9L)));
+        when(taskBoardRepository.findBoard(TEAM_ID))
+                .thenReturn(LongStream.rangeClosed(11, 13).mapToObj(TeamArchiveServiceTest::card).toList());
+
+        runImport();
+
+        assertThat(events.of(MeetingScheduleChangedEvent.class))
+                .extracting(MeetingScheduleChangedEvent::getMeetingIds)
+                .containsExactly(List.of(7L, 8L), List.of(9L));
+        List<TaskBoardChangedEvent> boardEvents = events.of(TaskBoardChangedEvent.class);
+        assertThat(boardEvents).extracting(TaskBoardChangedEvent::getTeamId).containsOnly(TEAM_ID);
+        assertThat(boardEvents).flatExtracting(TaskBoardChangedEvent::getTasks).extracting(TaskDTO::getId)
+                .containsExactly(11L, 12L, 13L);
+        assertThat(boardEvents).hasSize(2).allSatisfy(event -> assertThat(event.getRemovedTaskIds()).isEmpty());
+        assertThat(events.of(TeamMembershipChangedEvent.class)).hasSize(1);
+    }
+
+    @Test
+    void emptyTeamPublishesNoScheduleOrBoardChanges() throws Exception {
+        when(importer.importArchive(any(), eq(ADMIN_ID), any()))
+                .thenReturn(new ImportedTeam(TEAM_ID, List.of(ADMIN_ID), List.of()));
+        when(taskBoardRepository.findBoard(TEAM_ID)).thenReturn(List.of());
+
+        runImport();
+
+        assertThat(events.of(MeetingScheduleChangedEvent.class)).isEmpty();
+        assertThat(events.of(TaskBoardChangedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void failedImportPublishesNothing() throws Exception {
+        when(importer.importArchive(any(), eq(ADMIN_ID), any())).thenThrow(new IllegalArgumentException("Not a team archive"));
+
+        String jobId = archiveService.startImport(new ByteArrayInputStream(new byte[] {1}), ADMIN_ID).getJobId();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !archiveService.getImport(jobId, ADMIN_ID).isRunning());
+
+        assertThat(archiveService.getImport(jobId, ADMIN_ID).getError()).isEqualTo("Not a team archive");
+        assertThat(events.received).isEmpty();
+    }
+
+    private void runImport() throws Exception {
+        String jobId = archiveService.startImport(new ByteArrayInputStream(new byte[] {1}), ADMIN_ID).getJobId();
+        await().atMost(Duration.ofSeconds(5)).until(() -> !archiveService.getImport(jobId, ADMIN_ID).isRunning());
+        assertThat(archiveService.getImport(jobId, ADMIN_ID).getError()).isNull();
+    }
+
+    private static TaskDTO card(long id) {
+        TaskDTO card = new TaskDTO();
+        card.setId(id);
+        card.setTeamId(TEAM_ID);
+        return card;
+    }
+
+    static class Events {
+
+        private final List<Object> received = new CopyOnWriteArrayList<>();
+
+        @EventListener({MeetingScheduleChangedEvent.class, TaskBoardChangedEvent.class, TeamMembershipChangedEvent.class})
+        public void on(Object event) {
+            received.add(event);
+        }
+
+        <T> List<T> of(Class<T> type) {
+            return received.stream().filter(type::isInstance).map(type::cast).toList();
+        }
+    }
+}
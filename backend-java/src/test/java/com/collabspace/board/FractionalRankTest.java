@@ -0,0 +1,119 @@
+package com.collabspace.board;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FractionalRankTest {
+
+    @Test
+    void firstKeyOfAnEmptyColumn() {
+        assertThat(FractionalRank.between(null, null)).isEqualTo("a0");
+    }
+
+    @Test
+    void appendingStepsTheIntegerAndStaysShort() {
+        String key = "a0";
+        for (int i = 0; i < 1_000; i++) {
+            String next = FractionalRank.between(key, null);
+            assertThat(next).isGreaterThan(key);
+            key = next;
+        }
+        assertThat(key).hasSizeLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void prependingStepsTheIntegerDownAndStaysShort() {
+        String key = "a0";
+        for (int i = 0; i < 1_000; i++) {
+            String next = FractionalRank.between(null, key);
+            assertThat(next).isLessThan(key);
+            key = next;
+        }
+        assertThat(key).hasSizeLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void keyBetweenAdjacentIntegersUsesAFraction() {
+        String key = FractionalRank.between("a0", "a1");
+
+        assertThat(key).isGreaterThan("a0").isLessThan("a1").startsWith("a0");
+    }
+
+    @Test
+    void repeatedInsertsBeforeTheSameNeighbourStayOrdered() {
+        String lower = "a0";
+        String upper = "a1";
+        for (int i = 0; i < 200; i++) {
+            String key = FractionalRank.between(lower, upper);
+            assertThat(key).isGreaterThan(lower).isLessThan(upper).doesNotEndWith("0");
+            upper = key;
+        }
+    }
+
+    @Test
+    void bulkKeysAreAscendingAndInsideTheBounds() {
+        List<String> keys = FractionalRank.between("a0", "a1", 100);
+
+        assertThat(keys).hasSize(100).isSorted().doesNotHaveDuplicates();
+        assertThat(keys.get(0)).isGreaterThan("a0");
+        assertThat(keys.get(99)).isLessThan("a1");
+        assertThat(FractionalRank.between(null, "a0", 5)).hasSize(5).isSorted()
+                .allSatisfy(key -> assertThat(key).isLessThan("a0"));
+        assertThat(FractionalRank.between("a0", null, 5)).hasSize(5).isSorted()
+                .allSatisfy(key -> assertThat(key).isGreaterThan("a0"));
+        assertThat(FractionalRank.between("a0", "a1", 0)).isEmpty();
+    }
+
+    @Test
+    void rejectsOutOfOrderBoundsAndInvalidKeys() {
+        assertThatThrownBy(() -> FractionalRank.between("a1", "a0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalRank.between("a0", "a0")).isInstanceOf(IllegalArgumentException.class);
+        // Integer part shorter than its head letter promises.
+        assertThatThrownBy(() -> FractionalRank.between("b0", null)).isInstanceOf(IllegalArgumentException.class);
+        // A fraction ending in zero.
+        assertThatThrownBy(() -> FractionalRank.between("a10", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalRank.between(null, "a!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalRank.between("", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FractionalRank.between(null, "A" + "0".repeat(26)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void acceptsMigratedIntegerRanks() {
+        assertThat(FractionalRank.between("h00000001", "h00000002"))
+                .isGreaterThan("h00000001").isLessThan("h00000002");
+        assertThat(FractionalRank.between("h00000002", null)).isEqualTo("h00000003");
+    }
+
+    /**
+     * Random drops into a column, each key fed back as a later bound: the
+     * column stays strictly sorted as plain strings.
+     */
+    @Test
+    void randomInsertsKeepStringOrder() {
+        Random random = new Random(7);
+        List<String> column = new ArrayList<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            int position = random.nextInt(column.size() + 1);
+            String lower = position == 0 ? null : column.get(position - 1);
+            String upper = position == column.size() ? null : column.get(position);
+            String key = FractionalRank.between(lower, upper);
+            if (lower != null) {
+                assertThat(key).isGreaterThan(lower);
+            }
+            if (upper != null) {
+                assertThat(key).isLessThan(upper);
+            }
+            column.add(position, key);
+        }
+
+        assertThat(column).isSorted().doesNotHaveDuplicates();
+    }
+}
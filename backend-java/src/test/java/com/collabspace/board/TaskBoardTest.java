@@ -0,0 +1,141 @@
+package com.collabspace.board;
+
+import com.collabspace.dto.TaskBoardDTO;
+import com.collabspace.dto.TaskDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskBoardTest {
+
+    private static final Long TEAM_ID = 1L;
+
+    @Test
+    void columnsSortByRankThenPriorityThenId() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+
+        board.apply(List.of(
+                card(1L, "TODO", "LOW", "a2", 1),
+                card(2L, "TODO", "LOW", "a1", 1),
+                card(3L, "TODO", "URGENT", "a1", 1),
+                card(4L, "TODO", "LOW", "a1", 1),
+                card(5L, "TODO", "HIGH", null, 1),
+                card(6L, "DONE", "LOW", "a0", 1)), List.of());
+
+        TaskBoardDTO snapshot = board.snapshot();
+        assertThat(ids(snapshot, "TODO")).containsExactly(3L, 2L, 4L, 1L, 5L);
+        assertThat(ids(snapshot, "DONE")).containsExactly(6L);
+        assertThat(ids(snapshot, "IN_PROGRESS")).isEmpty();
+        assertThat(snapshot.getColumns()).containsOnlyKeys("TODO", "IN_PROGRESS", "REVIEW", "DONE");
+        assertThat(snapshot.getTaskCount()).isEqualTo(6);
+        assertThat(snapshot.getTeamId()).isEqualTo(TEAM_ID);
+    }
+
+    @Test
+    void movedCardLeavesItsOldColumn() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 1)), List.of());
+
+        board.apply(List.of(card(1L, "IN_PROGRESS", "LOW", "a5", 2)), List.of());
+
+        TaskBoardDTO snapshot = board.snapshot();
+        assertThat(ids(snapshot, "TODO")).isEmpty();
+        assertThat(ids(snapshot, "IN_PROGRESS")).containsExactly(1L);
+        assertThat(snapshot.getTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    void olderVersionsAreIgnored() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+        board.apply(List.of(card(1L, "REVIEW", "LOW", "a0", 3)), List.of());
+
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 2)), List.of());
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 3)), List.of());
+
+        TaskBoardDTO snapshot = board.snapshot();
+        assertThat(ids(snapshot, "REVIEW")).containsExactly(1L);
+        assertThat(ids(snapshot, "TODO")).isEmpty();
+    }
+
+    @Test
+    void deletedTaskStaysDeleted() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 1)), List.of());
+
+        board.apply(List.of(), List.of(1L));
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 5)), List.of());
+
+        assertThat(ids(board.snapshot(), "TODO")).isEmpty();
+        assertThat(board.snapshot().getTaskCount()).isZero();
+    }
+
+    @Test
+    void unchangedColumnsAreNotCopiedAgain() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+        board.apply(List.of(card(1L, "TODO", "LOW", "a0", 1), card(2L, "DONE", "LOW", "a0", 1)), List.of());
+        TaskBoardDTO first = board.snapshot();
+
+        board.apply(List.of(card(2L, "DONE", "LOW", "a1", 2)), List.of());
+        TaskBoardDTO second = board.snapshot();
+
+        assertThat(second.getColumns().get("TODO")).isSameAs(first.getColumns().get("TODO"));
+        assertThat(second.getColumns().get("DONE")).isNotSameAs(first.getColumns().get("DONE"));
+    }
+
+    @Test
+    void changesAppliedDuringTheLoadWin() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+
+        board.ensureLoaded(() -> {
+            // Arrive while the loader's (older) rows are still in flight.
+            board.apply(List.of(card(1L, "DONE", "LOW", "a0", 2)), List.of(2L));
+            return List.of(card(1L, "TODO", "LOW", "a0", 1), card(2L, "TODO", "LOW", "a1", 1),
+                    card(3L, "TODO", "LOW", "a2", 1));
+        });
+
+        TaskBoardDTO snapshot = board.snapshot();
+        assertThat(ids(snapshot, "TODO")).containsExactly(3L);
+        assertThat(ids(snapshot, "DONE")).containsExactly(1L);
+    }
+
+    @Test
+    void loadsOnceAndRetriesAfterAFailure() {
+        TaskBoard board = new TaskBoard(TEAM_ID);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThatThrownBy(() -> board.ensureLoaded(() -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        board.ensureLoaded(() -> {
+            loads.incrementAndGet();
+            return List.of(card(1L, "TODO", "LOW", "a0", 1));
+        });
+        board.ensureLoaded(() -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(2);
+        assertThat(ids(board.snapshot(), "TODO")).containsExactly(1L);
+    }
+
+    private static TaskDTO card(Long id, String status, String priority, String rank, long version) {
+        TaskDTO card = new TaskDTO();
+        card.setId(id);
+        card.setTeamId(TEAM_ID);
+        card.setStatus(status);
+        card.setPriority(priority);
+        card.setRank(rank);
+        card.setVersion(version);
+        return card;
+    }
+
+    private static List<Long> ids(TaskBoardDTO snapshot, String status) {
+        return snapshot.getColumns().get(status).stream().map(TaskDTO::getId).toList();
+    }
+}
@@ -0,0 +1,230 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.config.WebSocketConfig;
+import com.collabspace.content.ContentStore;
+import com.collabspace.dto.CollaborationMessage;
+import com.collabspace.dto.DocumentOperationDTO;
+import com.collabspace.lock.DocumentOwnership;
+import com.collabspace.lock.InMemoryDocumentOwnership;
+import com.collabspace.model.Document;
+import com.collabspace.presence.PresenceService;
+import com.collabspace.repository.DocumentRepository;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.service.DocumentLockService;
+import com.collabspace.websocket.BroadcastHub;
+import com.collabspace.websocket.ClusterBus;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.CollaborationWebSocketController;
+import com.collabspace.websocket.InMemoryClusterTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes editing one document, joined by an in-memory broker and an
+ * in-memory ownership registry standing in for Redis: edits made on the
+ * node that does not own the document are applied by the one that does,
+ * and every revision reaches the editors on both.
+ */
+class DocumentRouterTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+    private static final Long DOCUMENT_ID = 7L;
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        InMemoryClusterTransport.Broker broker = new InMemoryClusterTransport.Broker();
+        InMemoryDocumentOwnership.Registry registry = new InMemoryDocumentOwnership.Registry();
+        nodeA = new Node(broker, registry);
+        nodeB = new Node(broker, registry);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void editOnTheOtherNodeIsAppliedByTheOwner() {
+        Client owner = nodeA.join("a-1", 1L);
+        Client author = nodeB.join("b-1", 2L);
+        Client watcher = nodeB.join("b-2", 3L);
+        assertThat(author.awaitFrame("joined").path("content").asText()).isEqualTo("hello");
+
+        author.submit(1, DocumentOperationDTO.insert(5, " world"), "op-1");
+
+        JsonNode operation = owner.awaitFrame("op");
+        assertThat(operation.path("version").asInt()).isEqualTo(2);
+        assertThat(operation.path("operations").get(0).path("text").asText()).isEqualTo(" world");
+        JsonNode ack = author.awaitFrame("ack");
+        assertThat(ack.path("version").asInt()).isEqualTo(2);
+        assertThat(ack.path("clientOpId").asText()).isEqualTo("op-1");
+        assertThat(watcher.awaitFrame("op").path("version").asInt()).isEqualTo(2);
+        assertThat(author.frames("op")).isEmpty();
+        // Only the owner ever loaded the document.
+        verify(nodeB.documentRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void editOnTheOwnerReachesTheOtherNode() {
+        Client author = nodeA.join("a-1", 1L);
+        Client remote = nodeB.join("b-1", 2L);
+        remote.awaitFrame("joined");
+
+        author.submit(1, DocumentOperationDTO.insert(0, "> "), "op-1");
+
+        assertThat(author.awaitFrame("ack").path("version").asInt()).isEqualTo(2);
+        JsonNode operation = remote.awaitFrame("op");
+        assertThat(operation.path("version").asInt()).isEqualTo(2);
+        assertThat(operation.path("operations").get(0).path("text").asText()).isEqualTo("> ");
+    }
+
+    @Test
+    void concurrentEditsOnBothNodesConverge() {
+        Client first = nodeA.join("a-1", 1L);
+        Client second = nodeB.join("b-1", 2L);
+        second.awaitFrame("joined");
+
+        // Both against version 1: the owner transforms whichever comes second.
+        first.submit(1, DocumentOperationDTO.insert(0, "oh "), "op-a");
+        second.submit(1, DocumentOperationDTO.insert(5, "!"), "op-b");
+
+        first.awaitFrames(2);
+        second.awaitFrames(2);
+        await().atMost(WAIT).until(() -> nodeB.content().equals("oh hello!"));
+        assertThat(nodeA.content()).isEqualTo("oh hello!");
+    }
+
+    private static final class Node {
+
+        private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+        private final CollaborationWebSocketController controller;
+        private final BroadcastHub hub;
+        private final CollaborationEngine engine;
+
+        Node(InMemoryClusterTransport.Broker broker, InMemoryDocumentOwnership.Registry registry) {
+            Document document = new Document();
+            document.setVersion(1);
+            document.setContentHash(new byte[] {1});
+            when(documentRepository.findById(DOCUMENT_ID)).thenReturn(Optional.of(document));
+            ContentStore contentStore = mock(ContentStore.class);
+            when(contentStore.read(any())).thenReturn("hello");
+            AccessControlService accessControlService = mock(AccessControlService.class);
+            when(accessControlService.canAccessDocument(any(), any())).thenReturn(true);
+
+            // Registered as singletons, so Spring leaves the mocks' own fields alone.
+            context.getBeanFactory().registerSingleton("documentRepository", documentRepository);
+            context.getBeanFactory().registerSingleton("contentStore", contentStore);
+            context.getBeanFactory().registerSingleton("accessControlService", accessControlService);
+            context.getBeanFactory().registerSingleton("writeBehindBuffer", mock(DocumentWriteBehindBuffer.class));
+            context.getBeanFactory().registerSingleton("presenceService", mock(PresenceService.class));
+            context.getBeanFactory().registerSingleton("documentLockService", mock(DocumentLockService.class));
+            context.registerBean(ClusterTransport.class, () -> new InMemoryClusterTransport(broker));
+            context.registerBean(DocumentOwnership.class, () -> new InMemoryDocumentOwnership(registry));
+            context.register(SimpleMeterRegistry.class, ObjectMapper.class, BroadcastHub.class, ClusterBus.class,
+                    DocumentRouter.class, CollaborationEngine.class, CollaborationWebSocketController.class);
+            context.refresh();
+            controller = context.getBean(CollaborationWebSocketController.class);
+            hub = context.getBean(BroadcastHub.class);
+            engine = context.getBean(CollaborationEngine.class);
+        }
+
+        Client join(String sessionId, Long userId) {
+            Client client = new Client(this, sessionId, userId);
+            hub.register(client.session);
+            CollaborationMessage join = new CollaborationMessage();
+            join.setType(CollaborationMessage.JOIN);
+            join.setDocumentId(DOCUMENT_ID);
+            controller.handle(client.session, join);
+            client.awaitFrame("joined");
+            return client;
+        }
+
+        String content() {
+            return engine.currentSnapshot(DOCUMENT_ID).orElseThrow().getContent();
+        }
+
+        void close() {
+            context.close();
+        }
+    }
+
+    /** A socket that keeps every frame it is sent. */
+    private static final class Client {
+
+        private static final ObjectMapper JSON = new ObjectMapper();
+
+        private final Node node;
+        private final WebSocketSession session = mock(WebSocketSession.class);
+        private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+
+        private Client(Node node, String sessionId, Long userId) {
+            this.node = node;
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put(WebSocketConfig.USER_ID_ATTRIBUTE, userId);
+            when(session.getId()).thenReturn(sessionId);
+            when(session.getAttributes()).thenReturn(attributes);
+            try {
+                doAnswer(invocation -> {
+                    received.add(JSON.readTree(invocation.<TextMessage>getArgument(0).getPayload()));
+                    return null;
+                }).when(session).sendMessage(any());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void submit(int baseVersion, DocumentOperationDTO operation, String clientOpId) {
+            CollaborationMessage message = new CollaborationMessage();
+            message.setType(CollaborationMessage.OPERATION);
+            message.setDocumentId(DOCUMENT_ID);
+            message.setBaseVersion(baseVersion);
+            message.setOperations(List.of(operation));
+            message.setClientOpId(clientOpId);
+            node.controller.handle(session, message);
+        }
+
+        List<JsonNode> frames(String type) {
+            return received.stream().filter(frame -> frame.path("type").asText().equals(type)).toList();
+        }
+
+        JsonNode awaitFrame(String type) {
+            await().atMost(WAIT).until(() -> !frames(type).isEmpty());
+            return frames(type).get(0);
+        }
+
+        /** Waits for this many operation frames and acks between them. */
+        void awaitFrames(int count) {
+            await().atMost(WAIT).until(() -> frames("op").size() + frames("ack").size() == count);
+            assertThat(frames("error")).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.exception.VersionConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The session as the serialization point: batches from a stale base are
+ * rebased on what was committed since, and every client that applies the
+ * broadcast revisions ends up with the session's content.
+ */
+class DocumentSessionTest {
+
+    private static final Long DOCUMENT_ID = 1L;
+
+    @Test
+    void staleBatchIsRebasedOnCommittedRevisions() {
+        DocumentSession session = new DocumentSession(DOCUMENT_ID, "hello world", 0, 100);
+
+        session.apply(0, List.of(TextOperation.insert(0, ">> ")), 1L, null, "a", "a-1", List.of());
+        AppliedRevision rebased = session.apply(0, List.of(TextOperation.delete(5, 6)), 2L, null, "b", "b-1", List.of());
+
+        assertThat(rebased.getVersion()).isEqualTo(2);
+        assertThat(rebased.getOperations()).extracting(TextOperation::getPosition).containsExactly(8);
+        assertThat(session.snapshot().getContent()).isEqualTo(">> hello");
+    }
+
+    @Test
+    void twoClientsFromTheSameBaseConverge() {
+        Server server = new Server("abc", 100);
+        Client alice = server.connect("alice");
+        Client bob = server.connect("bob");
+
+        alice.edit(TextOperation.insert(1, "X"));
+        bob.edit(TextOperation.insert(1, "Y"));
+        bob.edit(TextOperation.delete(2, 1));
+        alice.send();
+        bob.send();
+        server.deliverAll();
+
+        assertThat(alice.content.toString()).isEqualTo(server.content()).isEqualTo(bob.content.toString());
+    }
+
+    @Test
+    void baseOlderThanTheHistoryIsRefused() {
+        DocumentSession session = new DocumentSession(DOCUMENT_ID, "", 0, 2);
+        for (int i = 0; i < 3; i++) {
+            session.apply(i, List.of(TextOperation.insert(0, "x")), 1L, null, "a", null, List.of());
+        }
+
+        assertThatThrownBy(() -> session.apply(0, List.of(TextOperation.insert(0, "y")), 1L, null, "b", null, List.of()))
+                .isInstanceOf(VersionConflictException.class);
+        assertThatThrownBy(() -> session.apply(4, List.of(TextOperation.insert(0, "y")), 1L, null, "b", null, List.of()))
+                .isInstanceOf(VersionConflictException.class);
+    }
+
+    @Test
+    void batchBeyondTheContentLeavesNoPartialEdit() {
+        DocumentSession session = new DocumentSession(DOCUMENT_ID, "abc", 0, 10);
+
+        assertThatThrownBy(() -> session.apply(0, List.of(TextOperation.insert(0, "x"), TextOperation.delete(2, 10)),
+                1L, null, "a", null, List.of())).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(session.snapshot().getContent()).isEqualTo("abc");
+        assertThat(session.getVersion()).isZero();
+    }
+
+    /**
+     * Several clients edit at random, each with one batch in flight and
+     * more buffered, while the server handles their batches in a random
+     * interleaving and every revision reaches every client in order.
+     */
+    @Test
+    void randomConcurrentEditingConverges() {
+        Random random = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            Server server = new Server(OperationTransformerTest.randomText(random, 8), 1_000);
+            List<Client> clients = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                clients.add(server.connect("client-" + i));
+            }
+            for (int step = 0; step < 60; step++) {
+                Client client = clients.get(random.nextInt(clients.size()));
+                switch (random.nextInt(4)) {
+                    case 0 -> client.edit(OperationTransformerTest.randomOperation(random, client.content.length()));
+                    case 1 -> client.send();
+                    case 2 -> server.handleOne(random);
+                    default -> client.receiveOne();
+                }
+            }
+            for (int drain = 0; drain < 100 && !server.idle(); drain++) {
+                clients.forEach(Client::send);
+                server.deliverAll();
+            }
+
+            for (Client client : clients) {
+                assertThat(client.content.toString()).as("round %d, %s", round, client.id).isEqualTo(server.content());
+            }
+        }
+    }
+
+    private static final class Server {
+
+        private final DocumentSession session;
+        private final List<Client> clients = new ArrayList<>();
+
+        Server(String content, int maxHistory) {
+            session = new DocumentSession(DOCUMENT_ID, content, 0, maxHistory);
+        }
+
+        Client connect(String id) {
+            Client client = new Client(id, session.snapshot());
+            clients.add(client);
+            return client;
+        }
+
+        String content() {
+            return session.snapshot().getContent();
+        }
+
+        void handleOne(Random random) {
+            List<Client> waiting = clients.stream().filter(client -> !client.outbox.isEmpty()).toList();
+            if (!waiting.isEmpty()) {
+                handle(waiting.get(random.nextInt(waiting.size())));
+            }
+        }
+
+        void handle(Client client) {
+            Batch batch = client.outbox.remove();
+            AppliedRevision revision = session.apply(batch.baseVersion, batch.operations, 1L, null, client.id, null, List.of());
+            clients.forEach(receiver -> receiver.inbox.add(revision));
+        }
+
+        boolean idle() {
+            return clients.stream().allMatch(client -> client.outbox.isEmpty() && client.inbox.isEmpty()
+                    && client.inflight == null && client.buffer.isEmpty());
+        }
+
+        void deliverAll() {
+            while (clients.stream().anyMatch(client -> !client.outbox.isEmpty())) {
+                for (Client client : clients) {
+                    if (!client.outbox.isEmpty()) {
+                        handle(client);
+                    }
+                }
+            }
+            clients.forEach(client -> {
+                while (!client.inbox.isEmpty()) {
+                    client.receiveOne();
+                }
+            });
+        }
+    }
+
+    private record Batch(int baseVersion, List<TextOperation> operations) {}
+
+    /**
+     * Client side of the protocol: local edits apply at once, one batch is
+     * in flight until its own revision comes back, and other clients'
+     * revisions are transformed past the local pending edits.
+     */
+    private static final class Client {
+
+        private final String id;
+        private final StringBuilder content;
+        private final Queue<Batch> outbox = new ArrayDeque<>();
+        private final Queue<AppliedRevision> inbox = new ArrayDeque<>();
+        private int version;
+        private List<TextOperation> inflight;
+        private List<TextOperation> buffer = new ArrayList<>();
+
+        Client(String id, DocumentSession.Snapshot snapshot) {
+            this.id = id;
+            this.content = new StringBuilder(snapshot.getContent());
+            this.version = snapshot.getVersion();
+        }
+
+        void edit(TextOperation operation) {
+            operation.applyTo(content);
+            buffer.add(operation);
+        }
+
+        void send() {
+            if (inflight == null && !buffer.isEmpty()) {
+                inflight = buffer;
+                buffer = new ArrayList<>();
+                outbox.add(new Batch(version, inflight));
+            }
+        }
+
+        void receiveOne() {
+            AppliedRevision revision = inbox.poll();
+            if (revision == null) {
+                return;
+            }
+            version = revision.getVersion();
+            if (id.equals(revision.getOrigin())) {
+                inflight = null;
+                return;
+            }
+            List<TextOperation> incoming = revision.getOperations();
+            if (inflight != null) {
+                List<List<TextOperation>> transformed = OperationTransformer.transform(inflight, incoming);
+                inflight = transformed.get(0);
+                incoming = transformed.get(1);
+            }
+            List<List<TextOperation>> transformed = OperationTransformer.transform(buffer, incoming);
+            buffer = new ArrayList<>(transformed.get(0));
+            for (TextOperation operation : transformed.get(1)) {
+                operation.applyTo(content);
+            }
+        }
+    }
+}
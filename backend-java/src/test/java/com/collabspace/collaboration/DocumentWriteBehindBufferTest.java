@@ -0,0 +1,169 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.repository.DocumentContentRepository;
+import com.collabspace.support.PostgresTestSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write-back against Postgres when the row has moved on underneath the
+ * session: a miss is only taken as written when the row holds this very
+ * version and content, and content edited under a superseded lease is
+ * refused by the row's fencing token.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DocumentWriteBehindBuffer.class, ContentStore.class, DocumentContentRepository.class, SimpleMeterRegistry.class})
+class DocumentWriteBehindBufferTest extends PostgresTestSupport {
+
+    @Autowired
+    private DocumentWriteBehindBuffer buffer;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private DocumentLockManager lockManager;
+
+    private Long userId;
+    private Long documentId;
+
+    @BeforeEach
+    void createDocument() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Writer') RETURNING id",
+                Long.class, "write-behind-" + System.nanoTime() + "@example.com");
+        Long teamId = jdbcTemplate.queryForObject("INSERT INTO teams (name, owner_id) VALUES ('Team', ?) RETURNING id",
+                Long.class, userId);
+        documentId = jdbcTemplate.queryForObject(
+                "INSERT INTO documents (title, team_id, created_by, version, content_hash) VALUES ('Doc', ?, ?, 1, ?) RETURNING id",
+                Long.class, teamId, userId, contentStore.store("hello"));
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void editIsWrittenBack() {
+        DocumentSession session = edit(new DocumentSession(documentId, "hello", 1, 10), " world");
+
+        buffer.markDirty(session);
+        buffer.flush();
+
+        assertThat(session.isDirty()).isFalse();
+        assertThat(storedVersion()).isEqualTo(2);
+        assertThat(contentStore.read(storedHash())).isEqualTo("hello world");
+    }
+
+    @Test
+    void sameVersionWrittenByAnotherSessionIsAConflict() {
+        double conflicts = conflicts();
+        DocumentSession other = edit(new DocumentSession(documentId, "hello", 1, 10), " there");
+        buffer.markDirty(other);
+        buffer.flush();
+
+        DocumentSession session = edit(new DocumentSession(documentId, "hello", 1, 10), " world");
+        buffer.markDirty(session);
+        buffer.flush();
+
+        assertThat(session.subscribe()).isFalse();
+        assertThat(conflicts()).isEqualTo(conflicts + 1);
+        assertThat(contentStore.read(storedHash())).isEqualTo("hello there");
+    }
+
+    @Test
+    void newerRowIsAConflict() {
+        double conflicts = conflicts();
+        jdbcTemplate.update("UPDATE documents SET version = 5 WHERE id = ?", documentId);
+
+        DocumentSession session = edit(new DocumentSession(documentId, "hello", 1, 10), " world");
+        buffer.markDirty(session);
+        buffer.flush();
+
+        assertThat(session.subscribe()).isFalse();
+        assertThat(conflicts()).isEqualTo(conflicts + 1);
+        assertThat(storedVersion()).isEqualTo(5);
+    }
+
+    @Test
+    void repeatOfALandedWriteIsNotAConflict() {
+        double conflicts = conflicts();
+        DocumentSession session = edit(new DocumentSession(documentId, "hello", 1, 10), " world");
+        jdbcTemplate.update("UPDATE documents SET version = 2, content_hash = ? WHERE id = ?",
+                contentStore.store("hello world"), documentId);
+
+        buffer.markDirty(session);
+        buffer.flush();
+
+        assertThat(session.isDirty()).isFalse();
+        assertThat(session.subscribe()).isTrue();
+        assertThat(conflicts()).isEqualTo(conflicts);
+    }
+
+    @Test
+    void staleLeaseHolderCannotOverwriteItsSuccessor() {
+        double fenced = meterRegistry.counter("documents.write_behind.fenced").count();
+        DocumentSession successor = edit(new DocumentSession(documentId, "hello", 1, 10), " from the new holder", 2L);
+        buffer.markDirty(successor);
+        buffer.flush();
+
+        // Further ahead than the row, so only the fencing token stands in its way; its lease is long gone.
+        DocumentSession stale = edit(edit(new DocumentSession(documentId, "hello", 1, 10), " late", 1L), " edits", 1L);
+        buffer.markDirty(stale);
+        buffer.flush();
+
+        assertThat(stale.subscribe()).isFalse();
+        assertThat(meterRegistry.counter("documents.write_behind.fenced").count()).isEqualTo(fenced + 1);
+        assertThat(storedVersion()).isEqualTo(2);
+        assertThat(contentStore.read(storedHash())).isEqualTo("hello from the new holder");
+        assertThat(jdbcTemplate.queryForObject("SELECT lock_fencing_token FROM documents WHERE id = ?", Long.class, documentId))
+                .isEqualTo(2L);
+    }
+
+    private DocumentSession edit(DocumentSession session, String suffix) {
+        return edit(session, suffix, null);
+    }
+
+    private DocumentSession edit(DocumentSession session, String suffix, Long fencingToken) {
+        session.apply(session.getVersion(), List.of(TextOperation.insert(session.getContentLength(), suffix)),
+                userId, fencingToken, "editor", null, List.of());
+        return session;
+    }
+
+    private int storedVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM documents WHERE id = ?", Integer.class, documentId);
+    }
+
+    private byte[] storedHash() {
+        return jdbcTemplate.queryForObject("SELECT content_hash FROM documents WHERE id = ?", byte[].class, documentId);
+    }
+
+    private double conflicts() {
+        return meterRegistry.counter("documents.write_behind.conflicts").count();
+    }
+}
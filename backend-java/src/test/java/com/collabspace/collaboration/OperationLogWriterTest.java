@@ -0,0 +1,206 @@
+package com.collabspace.collaboration;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.dto.DocumentRevisionDTO;
+import com.collabspace.lock.DocumentLease;
+import com.collabspace.lock.DocumentLockManager;
+import com.collabspace.repository.DocumentContentRepository;
+import com.collabspace.repository.DocumentOperationLogRepository;
+import com.collabspace.repository.DocumentOperationLogRepository.LoggedOperation;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.service.DocumentHistoryService;
+import com.collabspace.support.PostgresTestSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * History across a session reload against Postgres: a session is fenced
+ * after logging edits that never reach the documents row, and the session
+ * that replaces it reuses those version numbers with other edits.
+ */
+// Flushes only happen when the test asks for them.
+@DataJpaTest(properties = {"collaboration.log.flush-interval-ms=3600000", "documents.write-behind.flush-interval-ms=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CollaborationEngine.class, DocumentRouter.class, OperationLogWriter.class, DocumentWriteBehindBuffer.class,
+        DocumentHistoryService.class, DocumentOperationLogRepository.class, ContentStore.class, DocumentContentRepository.class,
+        ObjectMapper.class, SimpleMeterRegistry.class})
+class OperationLogWriterTest extends PostgresTestSupport {
+
+    private static final long LEASE_TOKEN = 1L;
+
+    @Autowired
+    private CollaborationEngine engine;
+
+    @Autowired
+    private OperationLogWriter logWriter;
+
+    @Autowired
+    private DocumentWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private DocumentHistoryService historyService;
+
+    @Autowired
+    private DocumentOperationLogRepository logRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private DocumentLockManager lockManager;
+
+    @MockBean
+    private AccessControlService accessControlService;
+
+    private Long userId;
+    private Long documentId;
+
+    @BeforeEach
+    void createDocument() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Editor') RETURNING id",
+                Long.class, "op-log-" + System.nanoTime() + "@example.com");
+        Long teamId = jdbcTemplate.queryForObject("INSERT INTO teams (name, owner_id) VALUES ('Team', ?) RETURNING id",
+                Long.class, userId);
+        byte[] hash = contentStore.store("hello");
+        documentId = jdbcTemplate.queryForObject(
+                "INSERT INTO documents (title, team_id, created_by, version, content_hash) VALUES ('Doc', ?, ?, 1, ?) RETURNING id",
+                Long.class, teamId, userId, hash);
+        logRepository.insertSnapshot(documentId, 1, hash, userId, "Initial");
+        when(lockManager.currentLease(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void loggedEditsOfAFencedSessionAreReplacedOnReload() {
+        submit(1, 5, ", world");
+        writeBehindBuffer.flush();
+        logWriter.flush();
+
+        submitUnderLease(2, 12, " (draft)");
+        submitUnderLease(3, 20, " (draft 2)");
+        logWriter.flush();
+        fenceLiveSession();
+
+        submit(2, 12, "!");
+        submit(3, 13, "?");
+        writeBehindBuffer.flush();
+        logWriter.flush();
+
+        assertHistoryReplays("hello, world!?");
+    }
+
+    @Test
+    void queuedEditsOfAFencedSessionAreDiscardedOnReload() {
+        submit(1, 5, ", world");
+        writeBehindBuffer.flush();
+        logWriter.flush();
+
+        submitUnderLease(2, 12, " (draft)");
+        fenceLiveSession();
+
+        submit(2, 12, "!");
+        writeBehindBuffer.flush();
+        logWriter.flush();
+
+        assertHistoryReplays("hello, world!");
+    }
+
+    @Test
+    void historyIncludesRevisionsNotYetLogged() {
+        submit(1, 5, ", world");
+        logWriter.flush();
+        submit(2, 12, "!");
+        submit(3, 13, "?");
+
+        assertHistoryReplays("hello, world!?");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_operations WHERE document_id = ?",
+                Integer.class, documentId)).isEqualTo(1);
+
+        logWriter.flush();
+
+        assertThat(logWriter.pendingRevisions(documentId)).isEmpty();
+        assertHistoryReplays("hello, world!?");
+    }
+
+    @Test
+    void differentOperationsAtALoggedVersionAreAConflict() {
+        LoggedOperation logged = new LoggedOperation(documentId, 2, userId, "[{\"type\":\"INSERT\"}]", Instant.now());
+        logRepository.insertOperations(List.of(logged));
+
+        LoggedOperation other = new LoggedOperation(documentId, 2, userId, "[{\"type\":\"DELETE\"}]", Instant.now());
+
+        assertThat(logRepository.insertOperations(List.of(logged))).isEmpty();
+        assertThat(logRepository.insertOperations(List.of(other))).containsExactly(other);
+    }
+
+    private void submit(int baseVersion, int position, String text) {
+        submit(baseVersion, position, text, null);
+    }
+
+    private void submitUnderLease(int baseVersion, int position, String text) {
+        submit(baseVersion, position, text, LEASE_TOKEN);
+    }
+
+    private void submit(int baseVersion, int position, String text, Long fencingToken) {
+        engine.submit(documentId, baseVersion, List.of(TextOperation.insert(position, text)), userId, fencingToken, "editor", null);
+    }
+
+    /**
+     * A newer lease is granted elsewhere, so the write-behind drops the
+     * session's content and retires it.
+     */
+    private void fenceLiveSession() {
+        when(lockManager.currentLease(documentId))
+                .thenReturn(Optional.of(new DocumentLease(documentId, userId, LEASE_TOKEN + 1, Instant.now().plusSeconds(60))));
+        writeBehindBuffer.flush();
+        when(lockManager.currentLease(documentId)).thenReturn(Optional.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertHistoryReplays(String expected) {
+        int version = engine.currentSnapshot(documentId).orElseThrow().getVersion();
+        assertThat(engine.currentSnapshot(documentId).orElseThrow().getContent()).isEqualTo(expected);
+
+        Map<String, Object> atVersion = historyService.getDocumentAtVersion(documentId, version, userId);
+        assertThat(atVersion.get("content")).isEqualTo(expected);
+
+        List<DocumentRevisionDTO> revisions = (List<DocumentRevisionDTO>) historyService
+                .getOperationsSince(documentId, 1, 100, userId).get("revisions");
+        StringBuilder replayed = new StringBuilder("hello");
+        revisions.forEach(revision -> TextOperation.fromAll(revision.getOperations()).forEach(op -> op.applyTo(replayed)));
+        assertThat(replayed.toString()).isEqualTo(expected);
+        assertThat(meterRegistry.counter("collaboration.log.conflicts").count()).isZero();
+    }
+}
@@ -0,0 +1,133 @@
+package com.collabspace.collaboration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Convergence of {@link OperationTransformer#transform}: for batches {@code a}
+ * and {@code b} made against the same content, {@code b} then {@code a'}
+ * and {@code a} then {@code b'} give the same text.
+ */
+class OperationTransformerTest {
+
+    private static final String BASE = "abcdef";
+
+    @Test
+    void insertsAtTheSamePositionPutTheAppliedSideFirst() {
+        String converged = converge(BASE, List.of(TextOperation.insert(2, "X")), List.of(TextOperation.insert(2, "Y")));
+
+        assertThat(converged).isEqualTo("abYXcdef");
+    }
+
+    @Test
+    void insertsAtDifferentPositionsKeepBoth() {
+        assertThat(converge(BASE, List.of(TextOperation.insert(1, "X")), List.of(TextOperation.insert(4, "Y"))))
+                .isEqualTo("aXbcdYef");
+    }
+
+    @Test
+    void insertInsideAConcurrentDeleteSurvives() {
+        String converged = converge(BASE, List.of(TextOperation.insert(3, "X")), List.of(TextOperation.delete(1, 4)));
+
+        assertThat(converged).isEqualTo("aXf");
+    }
+
+    @Test
+    void deleteAroundAConcurrentInsertKeepsTheInsert() {
+        String converged = converge(BASE, List.of(TextOperation.delete(1, 4)), List.of(TextOperation.insert(3, "X")));
+
+        assertThat(converged).isEqualTo("aXf");
+    }
+
+    @Test
+    void insertAtTheEdgesOfADeleteStaysOutside() {
+        assertThat(converge(BASE, List.of(TextOperation.insert(1, "X")), List.of(TextOperation.delete(1, 2))))
+                .isEqualTo("aXdef");
+        assertThat(converge(BASE, List.of(TextOperation.insert(3, "X")), List.of(TextOperation.delete(1, 2))))
+                .isEqualTo("aXdef");
+    }
+
+    @Test
+    void overlappingDeletesRemoveTheUnionOnce() {
+        assertThat(converge(BASE, List.of(TextOperation.delete(1, 3)), List.of(TextOperation.delete(2, 3))))
+                .isEqualTo("af");
+        assertThat(converge(BASE, List.of(TextOperation.delete(1, 4)), List.of(TextOperation.delete(2, 1))))
+                .isEqualTo("af");
+        assertThat(converge(BASE, List.of(TextOperation.delete(2, 2)), List.of(TextOperation.delete(2, 2))))
+                .isEqualTo("abef");
+    }
+
+    @Test
+    void deleteCoveredByTheAppliedDeleteBecomesEmpty() {
+        List<List<TextOperation>> transformed = OperationTransformer.transform(
+                List.of(TextOperation.delete(2, 1)), List.of(TextOperation.delete(1, 4)));
+
+        assertThat(transformed.get(0)).isEmpty();
+    }
+
+    @Test
+    void multiOperationBatchesConverge() {
+        List<TextOperation> a = List.of(TextOperation.insert(0, ">"), TextOperation.delete(3, 2), TextOperation.insert(5, "!"));
+        List<TextOperation> b = List.of(TextOperation.delete(0, 1), TextOperation.insert(2, "YY"), TextOperation.delete(4, 1));
+
+        String converged = converge(BASE, a, b);
+
+        assertThat(converged).isEqualTo(TextOperation.applyAll(
+                TextOperation.applyAll(BASE, b), OperationTransformer.transform(a, b).get(0)));
+    }
+
+    @Test
+    void randomBatchesConverge() {
+        Random random = new Random(11);
+        for (int round = 0; round < 5_000; round++) {
+            String base = randomText(random, random.nextInt(12));
+            List<TextOperation> a = randomBatch(random, base, 1 + random.nextInt(3));
+            List<TextOperation> b = randomBatch(random, base, 1 + random.nextInt(3));
+
+            converge(base, a, b);
+        }
+    }
+
+    /**
+     * Applies both orders, checks they agree and returns the result.
+     */
+    private static String converge(String base, List<TextOperation> a, List<TextOperation> b) {
+        List<List<TextOperation>> transformed = OperationTransformer.transform(a, b);
+        String bThenA = TextOperation.applyAll(TextOperation.applyAll(base, b), transformed.get(0));
+        String aThenB = TextOperation.applyAll(TextOperation.applyAll(base, a), transformed.get(1));
+        assertThat(bThenA).as("%s vs %s on '%s'", a, b, base).isEqualTo(aThenB);
+        return bThenA;
+    }
+
+    static List<TextOperation> randomBatch(Random random, String base, int size) {
+        List<TextOperation> batch = new ArrayList<>(size);
+        StringBuilder content = new StringBuilder(base);
+        for (int i = 0; i < size; i++) {
+            TextOperation operation = randomOperation(random, content.length());
+            operation.applyTo(content);
+            batch.add(operation);
+        }
+        return batch;
+    }
+
+    static TextOperation randomOperation(Random random, int length) {
+        if (length == 0 || random.nextBoolean()) {
+            return TextOperation.insert(random.nextInt(length + 1), randomText(random, 1 + random.nextInt(3)));
+        }
+        int position = random.nextInt(length);
+        return TextOperation.delete(position, 1 + random.nextInt(length - position));
+    }
+
+    static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.collabspace.content;
+
+import com.collabspace.repository.DocumentContentRepository;
+import com.collabspace.repository.DocumentContentRepository.StoredContent;
+import com.collabspace.support.PostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bodies through the store and back against Postgres: what is compressed,
+ * what is kept as is, and that equal text is stored once.
+ */
+@DataJpaTest(properties = "documents.content.min-compress-bytes=512")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ContentStore.class, DocumentContentRepository.class, SimpleMeterRegistry.class})
+class ContentStoreTest extends PostgresTestSupport {
+
+    // Repetitive, multi-byte and outside the BMP, as real documents are.
+    private static final String LONG_TEXT = "# Résumé 📄\n\nThe quick brown fox jumps over the lazy dog. ".repeat(400);
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private DocumentContentRepository contentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void longBodyIsCompressedAndReadsBack() throws Exception {
+        byte[] hash = contentStore.store(LONG_TEXT);
+
+        byte[] utf8 = LONG_TEXT.getBytes(StandardCharsets.UTF_8);
+        assertThat(hash).isEqualTo(MessageDigest.getInstance("SHA-256").digest(utf8));
+        StoredContent stored = contentRepository.find(hash).orElseThrow();
+        assertThat(stored.codec()).isEqualTo(DocumentContentRepository.ZSTD);
+        assertThat(stored.rawSize()).isEqualTo(utf8.length);
+        assertThat(stored.data().length).isLessThan(utf8.length / 10);
+        assertThat(contentStore.read(hash)).isEqualTo(LONG_TEXT);
+        assertThat(readAll(contentStore.open(hash))).isEqualTo(LONG_TEXT);
+    }
+
+    @Test
+    void shortBodyIsStoredAsIs() {
+        String text = "Meeting notes: ship it ✅";
+
+        byte[] hash = contentStore.store(text);
+
+        StoredContent stored = contentRepository.find(hash).orElseThrow();
+        assertThat(stored.codec()).isEqualTo(DocumentContentRepository.NONE);
+        assertThat(stored.data()).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+        assertThat(contentStore.read(hash)).isEqualTo(text);
+    }
+
+    @Test
+    void equalBodiesAreStoredOnce() {
+        List<byte[]> hashes = contentStore.store(List.of(LONG_TEXT, "short", LONG_TEXT));
+        byte[] again = contentStore.store(LONG_TEXT);
+
+        assertThat(hashes.get(0)).isEqualTo(hashes.get(2)).isEqualTo(again);
+        assertThat(hashes.get(1)).isNotEqualTo(hashes.get(0));
+        assertThat(rows(hashes.get(0))).isEqualTo(1);
+        assertThat(rows(hashes.get(1))).isEqualTo(1);
+    }
+
+    @Test
+    void nullBodiesHaveNoHash() throws Exception {
+        List<byte[]> hashes = contentStore.store(Arrays.asList("text", null));
+
+        assertThat(hashes.get(0)).isNotNull();
+        assertThat(hashes.get(1)).isNull();
+        assertThat(contentStore.read(null)).isNull();
+        assertThat(readAll(contentStore.open((byte[]) null))).isEmpty();
+    }
+
+    @Test
+    void prefixStopsAtTheLimit() {
+        StoredContent stored = contentRepository.find(contentStore.store(LONG_TEXT)).orElseThrow();
+
+        assertThat(contentStore.readPrefix(stored, 100)).isEqualTo(LONG_TEXT.substring(0, 100));
+        assertThat(contentStore.readPrefix(stored, LONG_TEXT.length() * 2)).isEqualTo(LONG_TEXT);
+        assertThat(contentStore.readPrefix(null, 100)).isNull();
+    }
+
+    @Test
+    void recompressedBodyReadsBack() {
+        String text = "plain ".repeat(20);
+        byte[] hash = contentStore.store(text);
+
+        contentRepository.replaceData(hash, DocumentContentRepository.ZSTD,
+                contentStore.compress(text.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(contentRepository.find(hash).orElseThrow().codec()).isEqualTo(DocumentContentRepository.ZSTD);
+        assertThat(contentStore.read(hash)).isEqualTo(text);
+    }
+
+    private int rows(byte[] hash) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_contents WHERE hash = ?", Integer.class, hash);
+    }
+
+    private static String readAll(Reader reader) throws Exception {
+        try (reader) {
+            StringWriter out = new StringWriter();
+            reader.transferTo(out);
+            return out.toString();
+        }
+    }
+}
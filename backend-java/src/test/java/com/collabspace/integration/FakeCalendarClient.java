@@ -0,0 +1,157 @@
+package com.collabspace.integration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the Calendar API, for sync tests.
+ *
+ * <p>It keeps the semantics sync depends on: every change gets the next
+ * sequence number, a sync token is the sequence it was issued at, pages of
+ * one listing stop at the sequence current when the listing began, and
+ * deleted events are returned as cancelled until
+ * {@link #expireSyncTokens} forgets them and answers old tokens with 410.
+ * Push channels are recorded but never fire, so sync falls back to
+ * polling.</p>
+ */
+public class FakeCalendarClient implements CalendarClient {
+
+    private static final String SYNC_TOKEN_PREFIX = "fake-sync-";
+
+    private final Map<String, FakeCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<String, WatchChannel> channels = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isConfigured() {
+        return true;
+    }
+
+    public void putEvent(String calendarId, CalendarEvent event) {
+        FakeCalendar calendar = calendar(calendarId);
+        synchronized (calendar) {
+            calendar.record(event);
+        }
+    }
+
+    public void deleteEvent(String calendarId, String eventId) {
+        FakeCalendar calendar = calendar(calendarId);
+        synchronized (calendar) {
+            FakeCalendar.Entry entry = calendar.events.get(eventId);
+            if (entry != null && !entry.event.isCancelled()) {
+                CalendarEvent event = entry.event;
+                calendar.record(new CalendarEvent(event.id(), "cancelled", null, null, null, null, null, null,
+                        event.recurringEventId()));
+            }
+        }
+    }
+
+    /**
+     * Drops deleted events and invalidates every sync and page token issued
+     * so far, as Google does after a while.
+     */
+    public void expireSyncTokens(String calendarId) {
+        FakeCalendar calendar = calendar(calendarId);
+        synchronized (calendar) {
+            calendar.events.values().removeIf(entry -> {
+                if (entry.event.isCancelled()) {
+                    calendar.bySequence.remove(entry.sequence);
+                    return true;
+                }
+                return false;
+            });
+            calendar.sequence++;
+            calendar.validFrom = calendar.sequence;
+        }
+    }
+
+    public List<WatchChannel> getChannels() {
+        return List.copyOf(channels.values());
+    }
+
+    @Override
+    public EventPage listEvents(String calendarId, String syncToken, String pageToken, int pageSize) {
+        FakeCalendar calendar = calendar(calendarId);
+        synchronized (calendar) {
+            long after;
+            long upTo;
+            boolean full;
+            if (pageToken != null) {
+                String[] parts = pageToken.split(":");
+                after = Long.parseLong(parts[0]);
+                upTo = Long.parseLong(parts[1]);
+                full = Boolean.parseBoolean(parts[2]);
+            } else {
+                full = syncToken == null;
+                after = full ? 0 : parseSyncToken(syncToken);
+                upTo = calendar.sequence;
+            }
+            if (pageToken != null ? upTo < calendar.validFrom : !full && after < calendar.validFrom) {
+                throw new CalendarException("Sync token is no longer valid", false, true);
+            }
+
+            List<CalendarEvent> events = new ArrayList<>();
+            long last = after;
+            for (Map.Entry<Long, String> change : calendar.bySequence.subMap(after, false, upTo, true).entrySet()) {
+                if (events.size() == pageSize) {
+                    return new EventPage(events, last + ":" + upTo + ":" + full, null);
+                }
+                last = change.getKey();
+                CalendarEvent event = calendar.events.get(change.getValue()).event;
+                // A full listing only returns live events.
+                if (!full || !event.isCancelled()) {
+                    events.add(event);
+                }
+            }
+            return new EventPage(events, null, SYNC_TOKEN_PREFIX + upTo);
+        }
+    }
+
+    @Override
+    public WatchChannel watch(String calendarId, String channelId, String token, String address, long ttlMs) {
+        WatchChannel channel = new WatchChannel(channelId, "fake-resource-" + calendarId, Instant.now().plusMillis(ttlMs));
+        channels.put(channelId, channel);
+        return channel;
+    }
+
+    @Override
+    public void stop(String channelId, String resourceId) {
+        channels.remove(channelId);
+    }
+
+    private FakeCalendar calendar(String calendarId) {
+        return calendars.computeIfAbsent(calendarId, id -> new FakeCalendar());
+    }
+
+    private static long parseSyncToken(String syncToken) {
+        if (!syncToken.startsWith(SYNC_TOKEN_PREFIX)) {
+            throw new CalendarException("Malformed sync token", false, true);
+        }
+        return Long.parseLong(syncToken.substring(SYNC_TOKEN_PREFIX.length()));
+    }
+
+    private static final class FakeCalendar {
+
+        private final Map<String, Entry> events = new HashMap<>();
+        private final NavigableMap<Long, String> bySequence = new TreeMap<>();
+        private long sequence;
+        private long validFrom;
+
+        private void record(CalendarEvent event) {
+            Entry previous = events.get(event.id());
+            if (previous != null) {
+                bySequence.remove(previous.sequence);
+            }
+            sequence++;
+            events.put(event.id(), new Entry(event, sequence));
+            bySequence.put(sequence, event.id());
+        }
+
+        private record Entry(CalendarEvent event, long sequence) {}
+    }
+}
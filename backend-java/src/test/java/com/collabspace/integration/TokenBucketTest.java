@@ -0,0 +1,67 @@
+package com.collabspace.integration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Refill of the bucket in real time, with bounds loose enough for a busy
+ * build machine.
+ */
+class TokenBucketTest {
+
+    @Test
+    void burstIsAvailableAtOnce() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 5);
+
+        assertThat(millisToAcquire(bucket, 5)).isLessThan(50);
+    }
+
+    @Test
+    void emptyBucketWaitsForTheRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        bucket.acquire(1);
+
+        // Two permits at 20 per second.
+        assertThat(millisToAcquire(bucket, 2)).isBetween(80L, 400L);
+    }
+
+    @Test
+    void idleBucketRefillsUpToTheBurstOnly() throws Exception {
+        TokenBucket bucket = new TokenBucket(20, 2);
+        bucket.acquire(2);
+
+        // Long enough for ten permits, of which the bucket keeps two.
+        Thread.sleep(500);
+
+        assertThat(millisToAcquire(bucket, 2)).isLessThan(50);
+        assertThat(millisToAcquire(bucket, 2)).isGreaterThanOrEqualTo(80);
+    }
+
+    @Test
+    void sustainedRateSpacesPermitsEvenly() throws Exception {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        bucket.acquire(1);
+
+        long first = millisToAcquire(bucket, 1);
+        long second = millisToAcquire(bucket, 1);
+
+        assertThat(first).isBetween(30L, 300L);
+        assertThat(second).isBetween(30L, 300L);
+    }
+
+    @Test
+    void rateAndBurstMustAllowAPermit() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long millisToAcquire(TokenBucket bucket, int permits) throws InterruptedException {
+        long start = System.nanoTime();
+        bucket.acquire(permits);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,128 @@
+package com.collabspace.lock;
+
+import com.collabspace.lock.DocumentLockManager.LockResult;
+import com.collabspace.support.RedisTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The lease scripts against Redis: fencing tokens only ever grow, an
+ * expired lease can be taken over, and the holder it was taken from can
+ * no longer renew or release it.
+ */
+class RedisDocumentLockManagerTest extends RedisTestSupport {
+
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    // Documents are unique per test, so runs never see each other's counters.
+    private static final AtomicLong DOCUMENTS = new AtomicLong(System.currentTimeMillis());
+
+    private static RedisDocumentLockManager lockManager;
+
+    private Long documentId;
+
+    @BeforeAll
+    static void connect() {
+        lockManager = new RedisDocumentLockManager(redisTemplate());
+    }
+
+    @BeforeEach
+    void document() {
+        documentId = DOCUMENTS.incrementAndGet();
+    }
+
+    @Test
+    void everyNewLeaseGetsAHigherToken() {
+        long previous = 0;
+        for (int i = 0; i < 5; i++) {
+            Long holder = i % 2 == 0 ? ALICE : BOB;
+            LockResult result = lockManager.acquire(documentId, holder, TTL);
+
+            assertThat(result.isAcquired()).isTrue();
+            assertThat(result.getLease().getFencingToken()).isGreaterThan(previous);
+            previous = result.getLease().getFencingToken();
+            assertThat(lockManager.release(documentId, holder, previous)).isTrue();
+        }
+    }
+
+    @Test
+    void heldLeaseIsRefusedToOthers() {
+        DocumentLease held = lockManager.acquire(documentId, ALICE, TTL).getLease();
+
+        LockResult refused = lockManager.acquire(documentId, BOB, TTL);
+
+        assertThat(refused.isAcquired()).isFalse();
+        assertThat(refused.getLease().getHolderId()).isEqualTo(ALICE);
+        assertThat(refused.getLease().getFencingToken()).isEqualTo(held.getFencingToken());
+    }
+
+    @Test
+    void holderReacquiresWithTheSameToken() {
+        DocumentLease held = lockManager.acquire(documentId, ALICE, TTL).getLease();
+
+        LockResult again = lockManager.acquire(documentId, ALICE, TTL);
+
+        assertThat(again.isAcquired()).isTrue();
+        assertThat(again.getLease().getFencingToken()).isEqualTo(held.getFencingToken());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverWithANewerToken() throws Exception {
+        DocumentLease stale = lockManager.acquire(documentId, ALICE, Duration.ofMillis(100)).getLease();
+        Thread.sleep(250);
+
+        LockResult takeover = lockManager.acquire(documentId, BOB, TTL);
+
+        assertThat(takeover.isAcquired()).isTrue();
+        assertThat(takeover.getLease().getFencingToken()).isGreaterThan(stale.getFencingToken());
+        assertThat(lockManager.currentLease(documentId)).hasValueSatisfying(lease -> {
+            assertThat(lease.getHolderId()).isEqualTo(BOB);
+            assertThat(lease.getFencingToken()).isEqualTo(takeover.getLease().getFencingToken());
+        });
+    }
+
+    @Test
+    void staleHolderCannotRenewOrRelease() throws Exception {
+        DocumentLease stale = lockManager.acquire(documentId, ALICE, Duration.ofMillis(100)).getLease();
+        Thread.sleep(250);
+        DocumentLease current = lockManager.acquire(documentId, BOB, TTL).getLease();
+
+        assertThat(lockManager.renew(documentId, ALICE, stale.getFencingToken(), TTL)).isEmpty();
+        assertThat(lockManager.release(documentId, ALICE, stale.getFencingToken())).isFalse();
+        assertThat(lockManager.currentLease(documentId)).hasValueSatisfying(
+                lease -> assertThat(lease.getFencingToken()).isEqualTo(current.getFencingToken()));
+    }
+
+    @Test
+    void staleTokenIsRefusedEvenToTheSameUser() throws Exception {
+        DocumentLease stale = lockManager.acquire(documentId, ALICE, Duration.ofMillis(100)).getLease();
+        Thread.sleep(250);
+        DocumentLease current = lockManager.acquire(documentId, ALICE, TTL).getLease();
+
+        assertThat(current.getFencingToken()).isGreaterThan(stale.getFencingToken());
+        assertThat(lockManager.renew(documentId, ALICE, stale.getFencingToken(), TTL)).isEmpty();
+        assertThat(lockManager.renew(documentId, ALICE, current.getFencingToken(), TTL)).isPresent();
+    }
+
+    @Test
+    void currentLeasesReportsOnlyHeldDocuments() {
+        Long free = DOCUMENTS.incrementAndGet();
+        DocumentLease held = lockManager.acquire(documentId, ALICE, TTL).getLease();
+
+        Map<Long, DocumentLease> leases = lockManager.currentLeases(List.of(documentId, free));
+
+        assertThat(leases).containsOnlyKeys(documentId);
+        assertThat(leases.get(documentId).getFencingToken()).isEqualTo(held.getFencingToken());
+        assertThat(lockManager.currentLease(free)).isEmpty();
+    }
+}
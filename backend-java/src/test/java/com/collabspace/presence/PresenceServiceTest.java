@@ -0,0 +1,140 @@
+package com.collabspace.presence;
+
+import com.collabspace.dto.PresenceDTO;
+import com.collabspace.dto.UserDTO;
+import com.collabspace.service.AccessControlService;
+import com.collabspace.service.UserService;
+import com.collabspace.websocket.BroadcastHub;
+import com.collabspace.websocket.ClusterTransport;
+import com.collabspace.websocket.InMemoryClusterTransport;
+import com.collabspace.websocket.RoomKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Document presence across two nodes joined by an in-memory broker: each
+ * node answers for the whole cluster from its own connections plus the
+ * diffs the other node published.
+ */
+class PresenceServiceTest {
+
+    private static final RoomKey DOCUMENT = RoomKey.document(5L);
+    private static final long TTL_MS = 200;
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        InMemoryClusterTransport.Broker broker = new InMemoryClusterTransport.Broker();
+        nodeA = new Node(broker);
+        nodeB = new Node(broker);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void collaboratorsIncludeOtherNodesConnections() {
+        nodeA.presence.join(DOCUMENT, "a-1", 1L);
+        nodeB.presence.join(DOCUMENT, "b-1", 2L);
+        nodeA.presence.flush();
+        nodeB.presence.flush();
+
+        assertThat(userIds(nodeA)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(userIds(nodeB)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void departureReachesOtherNodes() {
+        nodeA.presence.join(DOCUMENT, "a-1", 1L);
+        nodeA.presence.flush();
+        assertThat(userIds(nodeB)).containsExactly(1L);
+
+        nodeA.presence.leave(DOCUMENT, "a-1");
+        nodeA.presence.flush();
+
+        assertThat(userIds(nodeB)).isEmpty();
+    }
+
+    @Test
+    void userOnBothNodesIsListedOnce() {
+        nodeA.presence.join(DOCUMENT, "a-1", 1L);
+        nodeB.presence.join(DOCUMENT, "b-1", 1L);
+        nodeA.presence.flush();
+        nodeB.presence.flush();
+
+        assertThat(userIds(nodeA)).containsExactly(1L);
+    }
+
+    @Test
+    void silentNodesConnectionsExpire() throws InterruptedException {
+        nodeA.presence.join(DOCUMENT, "a-1", 1L);
+        nodeA.presence.flush();
+        assertThat(userIds(nodeB)).containsExactly(1L);
+
+        // Node A goes away without announcing a departure.
+        Thread.sleep(TTL_MS * 2);
+        nodeB.presence.expireIdle();
+
+        assertThat(userIds(nodeB)).isEmpty();
+    }
+
+    @Test
+    void meetingPresenceIsNotPublished() {
+        nodeA.presence.join(RoomKey.meeting(5L), "a-1", 1L);
+        nodeA.presence.flush();
+
+        assertThat(userIds(nodeB)).isEmpty();
+    }
+
+    private static List<Long> userIds(Node node) {
+        return node.presence.getDocumentCollaborators(DOCUMENT.id(), 99L).stream()
+                .map(PresenceDTO::getUserId)
+                .toList();
+    }
+
+    private static final class Node {
+
+        private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        private final PresenceService presence;
+
+        Node(InMemoryClusterTransport.Broker broker) {
+            UserService userService = mock(UserService.class);
+            when(userService.getUserProfile(anyLong())).thenAnswer(invocation ->
+                    new UserDTO(invocation.getArgument(0), "user@example.com", "User", null));
+            context.getEnvironment().getPropertySources().addFirst(
+                    new MapPropertySource("test", Map.of("presence.ttl-ms", TTL_MS)));
+            context.registerBean(ClusterTransport.class, () -> new InMemoryClusterTransport(broker));
+            // Registered as instances, so the mocks' own @Autowired fields are left alone.
+            context.getBeanFactory().registerSingleton("broadcastHub", mock(BroadcastHub.class));
+            context.getBeanFactory().registerSingleton("accessControlService", mock(AccessControlService.class));
+            context.getBeanFactory().registerSingleton("userService", userService);
+            context.registerBean(ObjectMapper.class, () -> Jackson2ObjectMapperBuilder.json().build());
+            context.register(SimpleMeterRegistry.class, PresenceService.class);
+            context.refresh();
+            presence = context.getBean(PresenceService.class);
+        }
+
+        void close() {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.collabspace.repository;
+
+import com.collabspace.content.ContentStore;
+import com.collabspace.content.ContentStoreMaintenance;
+import com.collabspace.repository.DocumentSearchRepository.SearchHit;
+import com.collabspace.support.PostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Highlights against Postgres: built in the search query from the stored
+ * excerpt, which the maintenance job fills in for bodies the migration
+ * could not read.
+ */
+@DataJpaTest(properties = "documents.content.min-compress-bytes=512")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DocumentSearchRepository.class, DocumentContentRepository.class, ContentStore.class, ContentStoreMaintenance.class,
+        SimpleMeterRegistry.class})
+class DocumentSearchRepositoryTest extends PostgresTestSupport {
+
+    private static final String BODY = "Quarterly planning notes. The roadmap covers the migration to the new billing system. "
+            + "Filler paragraph about nothing in particular. ".repeat(200);
+
+    @Autowired
+    private DocumentSearchRepository searchRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private ContentStoreMaintenance maintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long teamId;
+
+    @BeforeEach
+    void createTeam() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Searcher') RETURNING id",
+                Long.class, "search-" + System.nanoTime() + "@example.com");
+        teamId = jdbcTemplate.queryForObject("INSERT INTO teams (name, owner_id) VALUES ('Team', ?) RETURNING id",
+                Long.class, userId);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void highlightComesFromTheExcerpt() {
+        insertDocument("Plan", BODY, DocumentContentRepository.excerpt(BODY));
+
+        List<SearchHit> hits = searchRepository.search(teamId, "billing", 10, 0);
+
+        assertThat(hits).singleElement().satisfies(hit -> assertThat(hit.highlight()).contains("<mark>billing</mark>"));
+    }
+
+    @Test
+    void missingExcerptIsFilledFromTheCompressedBody() {
+        Long documentId = insertDocument("Plan", BODY, null);
+        assertThat(searchRepository.search(teamId, "billing", 10, 0).get(0).highlight()).doesNotContain("<mark>");
+
+        maintenance.fillMissingExcerpts();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT content_excerpt FROM documents WHERE id = ?", String.class, documentId))
+                .hasSize(DocumentContentRepository.EXCERPT_CHARS)
+                .isEqualTo(BODY.substring(0, DocumentContentRepository.EXCERPT_CHARS));
+        assertThat(searchRepository.search(teamId, "billing", 10, 0).get(0).highlight()).contains("<mark>billing</mark>");
+    }
+
+    private Long insertDocument(String title, String body, String excerpt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO documents (title, team_id, created_by, content_hash, content_vector, content_excerpt) " +
+                "VALUES (?, ?, ?, ?, " + DocumentContentRepository.CONTENT_VECTOR_SQL + ", ?) RETURNING id",
+                Long.class, title, teamId, userId, contentStore.store(body), DocumentContentRepository.searchText(body), excerpt);
+    }
+}
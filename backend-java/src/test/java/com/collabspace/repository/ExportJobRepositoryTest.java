@@ -0,0 +1,161 @@
+package com.collabspace.repository;
+
+import com.collabspace.repository.ExportJobRepository.ExportJob;
+import com.collabspace.support.PostgresTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The export job state machine against Postgres: queued, leased by one
+ * claimer, reclaimed once its lease runs out, and back in the queue for
+ * a retry only when it is due.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ExportJobRepository.class)
+class ExportJobRepositoryTest extends PostgresTestSupport {
+
+    private static final long LEASE_MS = 60_000;
+
+    @Autowired
+    private ExportJobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long teamId;
+    private Long documentId;
+
+    @BeforeEach
+    void createDocument() {
+        // Jobs left by other tests would be claimed here too.
+        jdbcTemplate.update("DELETE FROM document_export_jobs");
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Exporter') RETURNING id",
+                Long.class, "export-" + System.nanoTime() + "@example.com");
+        teamId = jdbcTemplate.queryForObject("INSERT INTO teams (name, owner_id) VALUES ('Team', ?) RETURNING id",
+                Long.class, userId);
+        documentId = insertDocument();
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void repeatedRequestsShareTheQueuedJob() {
+        ExportJob first = jobRepository.enqueue(documentId, userId);
+        ExportJob second = jobRepository.enqueue(documentId, userId);
+
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(first.status()).isEqualTo(ExportJobRepository.QUEUED);
+        assertThat(first.attempts()).isZero();
+    }
+
+    @Test
+    void claimedJobIsLeasedToOneClaimer() {
+        ExportJob queued = jobRepository.enqueue(documentId, userId);
+
+        List<ExportJob> claimed = jobRepository.claim(10, LEASE_MS);
+
+        assertThat(claimed).singleElement().satisfies(job -> {
+            assertThat(job.id()).isEqualTo(queued.id());
+            assertThat(job.status()).isEqualTo(ExportJobRepository.RUNNING);
+            assertThat(job.attempts()).isEqualTo(1);
+        });
+        assertThat(jobRepository.claim(10, LEASE_MS)).isEmpty();
+    }
+
+    @Test
+    void expiredLeaseIsClaimedAgain() {
+        ExportJob queued = jobRepository.enqueue(documentId, userId);
+        jobRepository.claim(10, LEASE_MS);
+
+        expireLease(queued.id());
+        List<ExportJob> reclaimed = jobRepository.claim(10, LEASE_MS);
+
+        assertThat(reclaimed).singleElement().satisfies(job -> {
+            assertThat(job.id()).isEqualTo(queued.id());
+            assertThat(job.attempts()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void documentIsNotExportedTwiceAtOnce() {
+        ExportJob running = jobRepository.enqueue(documentId, userId);
+        jobRepository.claim(10, LEASE_MS);
+        ExportJob next = jobRepository.enqueue(documentId, userId);
+        Long otherDocument = insertDocument();
+        ExportJob other = jobRepository.enqueue(otherDocument, userId);
+
+        assertThat(next.id()).isNotEqualTo(running.id());
+        assertThat(jobRepository.claim(10, LEASE_MS)).extracting(ExportJob::id).containsExactly(other.id());
+
+        jobRepository.complete(running.id(), ExportJobRepository.SUCCEEDED, 1, "file-1");
+
+        assertThat(jobRepository.claim(10, LEASE_MS)).extracting(ExportJob::id).containsExactly(next.id());
+    }
+
+    @Test
+    void retryWaitsUntilItIsDue() {
+        ExportJob queued = jobRepository.enqueue(documentId, userId);
+        jobRepository.claim(10, LEASE_MS);
+
+        jobRepository.retryAt(queued.id(), Instant.now().plusSeconds(60), "Rate limited");
+
+        ExportJob retrying = jobRepository.findById(queued.id()).orElseThrow();
+        assertThat(retrying.status()).isEqualTo(ExportJobRepository.QUEUED);
+        assertThat(retrying.lastError()).isEqualTo("Rate limited");
+        assertThat(jobRepository.claim(10, LEASE_MS)).isEmpty();
+
+        jdbcTemplate.update("UPDATE document_export_jobs SET next_attempt_at = now() - interval '1 second' WHERE id = ?",
+                queued.id());
+
+        assertThat(jobRepository.claim(10, LEASE_MS)).singleElement()
+                .satisfies(job -> assertThat(job.attempts()).isEqualTo(2));
+    }
+
+    @Test
+    void finishedJobsAreNotClaimed() {
+        ExportJob succeeded = jobRepository.enqueue(documentId, userId);
+        jobRepository.claim(10, LEASE_MS);
+        jobRepository.complete(succeeded.id(), ExportJobRepository.SKIPPED, 3, "file-1");
+        ExportJob failed = jobRepository.enqueue(documentId, userId);
+        jobRepository.claim(10, LEASE_MS);
+        jobRepository.fail(failed.id(), "Forbidden");
+
+        expireLease(succeeded.id());
+        expireLease(failed.id());
+
+        assertThat(jobRepository.claim(10, LEASE_MS)).isEmpty();
+        assertThat(jobRepository.findById(succeeded.id()).orElseThrow())
+                .extracting(ExportJob::status, ExportJob::exportedVersion, ExportJob::googleDriveId)
+                .containsExactly(ExportJobRepository.SKIPPED, 3, "file-1");
+        assertThat(jobRepository.findById(failed.id()).orElseThrow().status()).isEqualTo(ExportJobRepository.FAILED);
+    }
+
+    private Long insertDocument() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO documents (title, team_id, created_by) VALUES ('Doc', ?, ?) RETURNING id",
+                Long.class, teamId, userId);
+    }
+
+    private void expireLease(Long jobId) {
+        jdbcTemplate.update("UPDATE document_export_jobs SET locked_until = now() - interval '1 second' WHERE id = ?", jobId);
+    }
+}
@@ -0,0 +1,131 @@
+package com.collabspace.repository;
+
+import com.collabspace.repository.TeamActivityRollupRepository.Delta;
+import com.collabspace.repository.TeamActivityRollupRepository.Rollup;
+import com.collabspace.support.PostgresTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static com.collabspace.repository.TeamActivityRollupRepository.DAY;
+import static com.collabspace.repository.TeamActivityRollupRepository.HOUR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Distinct counts across flushes: a user or document already counted in a
+ * bucket is not counted again, while plain counters keep adding up.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TeamActivityRollupRepository.class)
+class TeamActivityRollupRepositoryTest extends PostgresTestSupport {
+
+    private static final Instant DAY_START = Instant.parse("2026-03-02T00:00:00Z");
+    private static final Instant TEN = DAY_START.plus(10, ChronoUnit.HOURS);
+    private static final Instant ELEVEN = DAY_START.plus(11, ChronoUnit.HOURS);
+
+    @Autowired
+    private TeamActivityRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long teamId;
+    private Long otherTeamId;
+
+    @BeforeEach
+    void createTeams() {
+        Long ownerId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, ?) RETURNING id",
+                Long.class, "rollups-" + System.nanoTime() + "@example.com", "Owner");
+        teamId = jdbcTemplate.queryForObject(
+                "INSERT INTO teams (name, owner_id) VALUES ('Rollups', ?) RETURNING id", Long.class, ownerId);
+        otherTeamId = jdbcTemplate.queryForObject(
+                "INSERT INTO teams (name, owner_id) VALUES ('Other', ?) RETURNING id", Long.class, ownerId);
+    }
+
+    @Test
+    void userSeenInTwoFlushesOfTheSameHourCountsOnce() {
+        rollupRepository.apply(List.of(delta(teamId, TEN, 1, Set.of(1L), Set.of(10L))));
+        rollupRepository.apply(List.of(delta(teamId, TEN, 2, Set.of(1L, 2L), Set.of(10L))));
+
+        Rollup hour = single(teamId, HOUR);
+        assertThat(hour.activeUsers()).isEqualTo(2);
+        assertThat(hour.documentsEdited()).isEqualTo(1);
+        assertThat(hour.tasksCreated()).isEqualTo(3);
+        Rollup day = single(teamId, DAY);
+        assertThat(day.activeUsers()).isEqualTo(2);
+        assertThat(day.documentsEdited()).isEqualTo(1);
+        assertThat(day.tasksCreated()).isEqualTo(3);
+    }
+
+    @Test
+    void userActiveInTwoHoursCountsOnceForTheDay() {
+        rollupRepository.apply(List.of(delta(teamId, TEN, 0, Set.of(1L), Set.of(10L))));
+        rollupRepository.apply(List.of(delta(teamId, ELEVEN, 0, Set.of(1L), Set.of(10L, 11L))));
+
+        List<Rollup> hours = rollupRepository.findRange(teamId, HOUR, DAY_START, DAY_START.plus(1, ChronoUnit.DAYS));
+        assertThat(hours).extracting(Rollup::bucketStart).containsExactly(TEN, ELEVEN);
+        assertThat(hours).extracting(Rollup::activeUsers).containsExactly(1, 1);
+        assertThat(hours).extracting(Rollup::documentsEdited).containsExactly(1, 2);
+        Rollup day = single(teamId, DAY);
+        assertThat(day.activeUsers()).isEqualTo(1);
+        assertThat(day.documentsEdited()).isEqualTo(2);
+    }
+
+    @Test
+    void sameUserInOneBatchTwiceCountsOnce() {
+        // Two nodes' deltas for the same bucket can meet in one batch.
+        rollupRepository.apply(List.of(
+                delta(teamId, TEN, 1, Set.of(1L), Set.of()),
+                delta(teamId, TEN, 1, Set.of(1L), Set.of())));
+
+        Rollup hour = single(teamId, HOUR);
+        assertThat(hour.activeUsers()).isEqualTo(1);
+        assertThat(hour.tasksCreated()).isEqualTo(2);
+    }
+
+    @Test
+    void teamsAreCountedSeparately() {
+        rollupRepository.apply(List.of(
+                delta(teamId, TEN, 0, Set.of(1L), Set.of(10L)),
+                delta(otherTeamId, TEN, 0, Set.of(1L), Set.of(10L))));
+
+        assertThat(single(teamId, HOUR).activeUsers()).isEqualTo(1);
+        assertThat(single(otherTeamId, HOUR).activeUsers()).isEqualTo(1);
+        assertThat(single(otherTeamId, DAY).documentsEdited()).isEqualTo(1);
+    }
+
+    @Test
+    void pruneForgetsOnlyEarlierBuckets() {
+        Instant nextDay = DAY_START.plus(1, ChronoUnit.DAYS);
+        rollupRepository.apply(List.of(
+                delta(teamId, TEN, 0, Set.of(1L), Set.of()),
+                delta(teamId, nextDay, 0, Set.of(1L), Set.of())));
+
+        // Hour and day entry for the first day only.
+        assertThat(rollupRepository.pruneSeen(nextDay)).isEqualTo(2);
+        rollupRepository.apply(List.of(delta(teamId, nextDay, 0, Set.of(1L), Set.of())));
+
+        assertThat(rollupRepository.findRange(teamId, DAY, nextDay, nextDay.plus(1, ChronoUnit.DAYS)))
+                .singleElement().extracting(Rollup::activeUsers).isEqualTo(1);
+    }
+
+    private Rollup single(Long team, String granularity) {
+        List<Rollup> rollups = rollupRepository.findRange(team, granularity, DAY_START, DAY_START.plus(1, ChronoUnit.DAYS));
+        assertThat(rollups).hasSize(1);
+        return rollups.get(0);
+    }
+
+    private static Delta delta(Long team, Instant hour, int tasksCreated, Set<Long> userIds, Set<Long> documentIds) {
+        return new Delta(team, hour, 0, 0, 0, tasksCreated, 0, userIds, documentIds);
+    }
+}
@@ -0,0 +1,112 @@
+package com.collabspace.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineQueueTest {
+
+    @Test
+    void pollsDueKeysEarliestFirst() {
+        DeadlineQueue<String> queue = new DeadlineQueue<>();
+        queue.schedule("c", 300);
+        queue.schedule("a", 100);
+        queue.schedule("d", 400);
+        queue.schedule("b", 200);
+
+        assertThat(queue.pollDue(99, 10)).isEmpty();
+        assertThat(queue.pollDue(300, 10)).containsExactly("a", "b", "c");
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.contains("d")).isTrue();
+        assertThat(queue.contains("a")).isFalse();
+    }
+
+    @Test
+    void pollStopsAtTheLimit() {
+        DeadlineQueue<String> queue = new DeadlineQueue<>();
+        queue.schedule("a", 10);
+        queue.schedule("b", 20);
+        queue.schedule("c", 30);
+
+        assertThat(queue.pollDue(100, 2)).containsExactly("a", "b");
+        assertThat(queue.pollDue(100, 2)).containsExactly("c");
+    }
+
+    @Test
+    void rescheduleMovesTheKeyEitherWay() {
+        DeadlineQueue<String> queue = new DeadlineQueue<>();
+        queue.schedule("a", 100);
+        queue.schedule("b", 200);
+        queue.schedule("c", 300);
+
+        queue.schedule("a", 400);
+        queue.schedule("c", 50);
+
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(queue.pollDue(1_000, 10)).containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void cancelRemovesOnlyThatKey() {
+        DeadlineQueue<String> queue = new DeadlineQueue<>();
+        queue.schedule("a", 100);
+        queue.schedule("b", 200);
+        queue.schedule("c", 300);
+
+        assertThat(queue.cancel("a")).isTrue();
+        assertThat(queue.cancel("a")).isFalse();
+        assertThat(queue.cancel("missing")).isFalse();
+
+        assertThat(queue.pollDue(1_000, 10)).containsExactly("b", "c");
+        assertThat(queue.size()).isZero();
+    }
+
+    /**
+     * Random schedules, reschedules, cancels and polls, checked against a
+     * plain map of deadlines: every poll returns exactly the due keys, in
+     * deadline order.
+     */
+    @Test
+    void matchesReferenceModelUnderRandomOperations() {
+        Random random = new Random(42);
+        DeadlineQueue<Integer> queue = new DeadlineQueue<>();
+        Map<Integer, Long> deadlines = new HashMap<>();
+        long now = 0;
+
+        for (int op = 0; op < 20_000; op++) {
+            int key = random.nextInt(300);
+            int action = random.nextInt(10);
+            if (action < 5) {
+                long deadline = now + random.nextInt(1_000);
+                queue.schedule(key, deadline);
+                deadlines.put(key, deadline);
+            } else if (action < 7) {
+                assertThat(queue.cancel(key)).isEqualTo(deadlines.remove(key) != null);
+            } else {
+                now += random.nextInt(100);
+                long reached = now;
+                int limit = 1 + random.nextInt(20);
+                List<Integer> polled = queue.pollDue(reached, limit);
+                long dueCount = deadlines.values().stream().filter(deadline -> deadline <= reached).count();
+                assertThat(polled).hasSize((int) Math.min(dueCount, limit));
+                List<Long> polledDeadlines = new ArrayList<>();
+                for (Integer polledKey : polled) {
+                    polledDeadlines.add(deadlines.remove(polledKey));
+                }
+                assertThat(polledDeadlines).doesNotContainNull().isSorted()
+                        .allSatisfy(deadline -> assertThat(deadline).isLessThanOrEqualTo(reached));
+                if (!polledDeadlines.isEmpty()) {
+                    long last = polledDeadlines.get(polledDeadlines.size() - 1);
+                    assertThat(deadlines.values()).allSatisfy(deadline -> assertThat(deadline).isGreaterThanOrEqualTo(last));
+                }
+            }
+            assertThat(queue.size()).isEqualTo(deadlines.size());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.collabspace.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    @Test
+    void firesOnTheTickThatReachesTheDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, 4, 0);
+
+        assertThat(wheel.schedule("a", 25)).isTrue();
+
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineIsNotScheduled() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, 4, 1_000);
+
+        assertThat(wheel.schedule("a", 1_000)).isFalse();
+        assertThat(wheel.schedule("b", 990)).isFalse();
+        assertThat(wheel.contains("a")).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduleReplacesAndCancelRemoves() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, 4, 0);
+        wheel.schedule("a", 50);
+        wheel.schedule("b", 50);
+
+        wheel.schedule("a", 500);
+        assertThat(wheel.cancel("b")).isTrue();
+        assertThat(wheel.cancel("b")).isFalse();
+
+        assertThat(wheel.advance(490)).isEmpty();
+        assertThat(wheel.advance(500)).containsExactly("a");
+    }
+
+    @Test
+    void farTimersCascadeDownAndFireOnTime() {
+        TimingWheel<String> stepped = new TimingWheel<>(TICK_MS, 4, 0);
+        TimingWheel<String> jumped = new TimingWheel<>(TICK_MS, 4, 0);
+        long deadline = 10_000 * TICK_MS + 3;
+        stepped.schedule("far", deadline);
+        jumped.schedule("far", deadline);
+
+        List<String> fired = new ArrayList<>();
+        long firedAt = -1;
+        for (long now = TICK_MS; now <= deadline + TICK_MS && fired.isEmpty(); now += TICK_MS) {
+            fired.addAll(stepped.advance(now));
+            firedAt = now;
+        }
+
+        assertThat(fired).containsExactly("far");
+        assertThat(firedAt).isGreaterThanOrEqualTo(deadline).isLessThan(deadline + TICK_MS);
+        assertThat(jumped.advance(deadline - 1)).isEmpty();
+        assertThat(jumped.advance(deadline + TICK_MS)).containsExactly("far");
+    }
+
+    @Test
+    void firesInDeadlineOrderWhenSeveralTicksPassAtOnce() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, 4, 0);
+        wheel.schedule("third", 300);
+        wheel.schedule("first", 20);
+        wheel.schedule("second", 110);
+
+        assertThat(wheel.advance(1_000)).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new TimingWheel<>(0, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<>(TICK_MS, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Random schedules, reschedules, cancels and uneven advances, checked
+     * against a plain map of deadlines: nothing fires early, late by a tick
+     * or more, twice, or after being cancelled.
+     */
+    @Test
+    void matchesReferenceModelUnderRandomOperations() {
+        Random random = new Random(42);
+        long now = 1_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK_MS, 8, now);
+        Map<Integer, Long> deadlines = new HashMap<>();
+
+        for (int op = 0; op < 5_000; op++) {
+            int key = random.nextInt(500);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                // Mostly near, sometimes far enough to need several levels.
+                long delay = random.nextInt(4) == 0 ? random.nextInt(2_000_000) : random.nextInt(2_000) - 100;
+                long deadline = now + delay;
+                if (wheel.schedule(key, deadline)) {
+                    deadlines.put(key, deadline);
+                } else {
+                    assertThat(Math.floorDiv(deadline + TICK_MS - 1, TICK_MS)).isLessThanOrEqualTo(now / TICK_MS);
+                    deadlines.remove(key);
+                }
+            } else if (action < 8) {
+                assertThat(wheel.cancel(key)).isEqualTo(deadlines.remove(key) != null);
+            } else {
+                now += random.nextInt(3) == 0 ? random.nextInt(50_000) : random.nextInt(40);
+                List<Integer> fired = wheel.advance(now);
+                long reachedTick = now / TICK_MS;
+                long previousTick = Long.MIN_VALUE;
+                for (Integer firedKey : fired) {
+                    Long deadline = deadlines.remove(firedKey);
+                    assertThat(deadline).as("fired %s twice or after cancel", firedKey).isNotNull();
+                    assertThat(deadline).as("fired %s early", firedKey).isLessThanOrEqualTo(now);
+                    long deadlineTick = Math.floorDiv(deadline + TICK_MS - 1, TICK_MS);
+                    assertThat(deadlineTick).isGreaterThanOrEqualTo(previousTick);
+                    previousTick = deadlineTick;
+                }
+                for (Map.Entry<Integer, Long> pending : deadlines.entrySet()) {
+                    assertThat(Math.floorDiv(pending.getValue() + TICK_MS - 1, TICK_MS))
+                            .as("%s should have fired", pending.getKey())
+                            .isGreaterThan(reachedTick);
+                }
+            }
+            assertThat(wheel.size()).isEqualTo(deadlines.size());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.collabspace.security;
+
+import com.collabspace.exception.InvalidTokenException;
+import com.collabspace.support.JwksTestServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies Google ID tokens against a local JWKS server: keys are served from
+ * the cache, an unknown key id refetches the rotated set, and the background
+ * refresh follows the endpoint's max-age.
+ */
+@SpringJUnitConfig({GoogleCertificateCache.class, GoogleTokenVerifier.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+        "google.oauth.client-id=" + GoogleCertificateCacheTest.CLIENT_ID,
+        "google.oauth.certs-min-refresh-interval-ms=0"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class GoogleCertificateCacheTest {
+
+    static final String CLIENT_ID = "test-client";
+
+    private static final JwksTestServer JWKS = JwksTestServer.start();
+
+    static {
+        JWKS.publish("k1");
+    }
+
+    @DynamicPropertySource
+    static void certsUrl(DynamicPropertyRegistry registry) {
+        registry.add("google.oauth.certs-url", JWKS::certsUrl);
+    }
+
+    @Autowired
+    private GoogleCertificateCache certificateCache;
+
+    @Autowired
+    private GoogleTokenVerifier verifier;
+
+    @AfterEach
+    void resetKeys() {
+        // The next test's context fetches on startup.
+        JWKS.publish("k1");
+        JWKS.setMaxAgeSeconds(3600);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        JWKS.stop();
+    }
+
+    @Test
+    void cachedKeysVerifyWithoutRefetching() {
+        int fetches = JWKS.fetches();
+
+        for (int i = 0; i < 3; i++) {
+            GoogleIdentity identity = verifier.verify(JWKS.idToken("k1", CLIENT_ID, "g-" + i, "user" + i + "@example.com", true));
+            assertThat(identity.googleId()).isEqualTo("g-" + i);
+            assertThat(identity.email()).isEqualTo("user" + i + "@example.com");
+            assertThat(identity.emailVerified()).isTrue();
+        }
+        certificateCache.refreshIfStale();
+
+        assertThat(JWKS.fetches()).isEqualTo(fetches);
+    }
+
+    @Test
+    void unknownKeyIdRefetchesRotatedKeys() {
+        int fetches = JWKS.fetches();
+        JWKS.publish("k2");
+
+        assertThat(verifier.verify(JWKS.idToken("k2", CLIENT_ID, "g-1", "user@example.com", true)).googleId())
+                .isEqualTo("g-1");
+        assertThat(JWKS.fetches()).isEqualTo(fetches + 1);
+
+        // The retired key is gone after the rotation.
+        assertThatThrownBy(() -> verifier.verify(JWKS.idToken("k1", CLIENT_ID, "g-1", "user@example.com", true)))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void backgroundRefreshFollowsMaxAge() {
+        JWKS.setMaxAgeSeconds(60);
+        JWKS.publish("k1", "k2");
+        verifier.verify(JWKS.idToken("k2", CLIENT_ID, "g-1", "user@example.com", true));
+        int fetches = JWKS.fetches();
+
+        // A 60s max-age is inside the 5 minute refresh-ahead window.
+        certificateCache.refreshIfStale();
+
+        assertThat(JWKS.fetches()).isEqualTo(fetches + 1);
+    }
+
+    @Test
+    void rejectsTokenForAnotherAudience() {
+        assertThatThrownBy(() -> verifier.verify(JWKS.idToken("k1", "other-client", "g-1", "user@example.com", true)))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "google.oauth.certs-min-refresh-interval-ms=60000")
+    class RateLimited {
+
+        @Autowired
+        private GoogleTokenVerifier verifier;
+
+        @Test
+        void unknownKeyIdDoesNotRefetchWithinInterval() {
+            int fetches = JWKS.fetches();
+
+            assertThatThrownBy(() -> verifier.verify(JWKS.idToken("k9", CLIENT_ID, "g-1", "user@example.com", true)))
+                    .isInstanceOf(InvalidTokenException.class);
+            assertThat(JWKS.fetches()).isEqualTo(fetches);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.collabspace.security;
+
+import com.collabspace.exception.InvalidTokenException;
+import com.collabspace.security.RefreshTokenStore.Outcome;
+import com.collabspace.security.RefreshTokenStore.RefreshTokenReuseException;
+import com.collabspace.security.RefreshTokenStore.Rotation;
+import com.collabspace.support.RedisTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The rotation script against Redis: a superseded token replays its
+ * successor within the grace window and kills the session after it.
+ */
+@SpringJUnitConfig({RefreshTokenStore.class, RefreshTokenStoreTest.Redis.class})
+@TestPropertySource(properties = "auth.session.reuse-grace-ms=" + RefreshTokenStoreTest.GRACE_MS)
+class RefreshTokenStoreTest extends RedisTestSupport {
+
+    static final long GRACE_MS = 500;
+
+    // Users are unique per test, so runs never see each other's sessions.
+    private static final AtomicLong USERS = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    private RefreshTokenStore tokenStore;
+
+    private Long userId;
+
+    @BeforeEach
+    void user() {
+        userId = USERS.incrementAndGet();
+    }
+
+    @Test
+    void everyUseRotatesTheToken() {
+        String token = tokenStore.createSession(userId, "browser", accessToken());
+        JwtTokenService.IssuedToken accessToken = accessToken();
+
+        Rotation rotation = tokenStore.rotate(token, accessToken);
+
+        assertThat(rotation.outcome()).isEqualTo(Outcome.ROTATED);
+        assertThat(rotation.userId()).isEqualTo(userId);
+        assertThat(rotation.refreshToken()).isNotEqualTo(token).startsWith(userId + ".");
+        assertThat(rotation.accessToken()).isEqualTo(accessToken.token());
+        assertThat(tokenStore.rotate(rotation.refreshToken(), accessToken()).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    @Test
+    void supersededTokenReplaysItsSuccessorWithinTheGraceWindow() {
+        String token = tokenStore.createSession(userId, "browser", accessToken());
+        Rotation first = tokenStore.rotate(token, accessToken());
+
+        // A second tab presenting the same token gets the same pair, not a new one.
+        Rotation replay = tokenStore.rotate(token, accessToken());
+
+        assertThat(replay.outcome()).isEqualTo(Outcome.GRACE);
+        assertThat(replay.userId()).isEqualTo(userId);
+        assertThat(replay.refreshToken()).isEqualTo(first.refreshToken());
+        assertThat(replay.accessToken()).isEqualTo(first.accessToken());
+        assertThat(replay.accessExpiresAt()).isEqualTo(first.accessExpiresAt());
+        // The replay did not rotate, so the successor is still the live token.
+        assertThat(tokenStore.rotate(first.refreshToken(), accessToken()).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowKillsTheSession() throws Exception {
+        String token = tokenStore.createSession(userId, "browser", accessToken());
+        JwtTokenService.IssuedToken boundAccessToken = accessToken();
+        Rotation rotation = tokenStore.rotate(token, boundAccessToken);
+        Thread.sleep(GRACE_MS + 300);
+
+        assertThatThrownBy(() -> tokenStore.rotate(token, accessToken()))
+                .isInstanceOfSatisfying(RefreshTokenReuseException.class, e -> {
+                    assertThat(e.getUserId()).isEqualTo(userId);
+                    // The access token issued with the stolen pair, for the caller to revoke.
+                    assertThat(e.getAccessToken().tokenId()).isEqualTo(boundAccessToken.tokenId());
+                    assertThat(e.getAccessToken().expiresAtMillis()).isEqualTo(boundAccessToken.expiresAt().toEpochMilli());
+                });
+        assertThatThrownBy(() -> tokenStore.rotate(rotation.refreshToken(), accessToken()))
+                .isInstanceOf(InvalidTokenException.class)
+                .isNotInstanceOf(RefreshTokenReuseException.class);
+        assertThat(tokenStore.listSessions(userId)).isEmpty();
+    }
+
+    @Test
+    void olderTokenIsReuseEvenWithinTheGraceWindow() {
+        String token = tokenStore.createSession(userId, "browser", accessToken());
+        Rotation first = tokenStore.rotate(token, accessToken());
+        Rotation second = tokenStore.rotate(first.refreshToken(), accessToken());
+
+        // Two rotations back: only the token just superseded may replay.
+        assertThatThrownBy(() -> tokenStore.rotate(token, accessToken()))
+                .isInstanceOf(RefreshTokenReuseException.class);
+        assertThatThrownBy(() -> tokenStore.rotate(second.refreshToken(), accessToken()))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void reuseLeavesOtherSessionsAlone() throws Exception {
+        String stolen = tokenStore.createSession(userId, "laptop", accessToken());
+        String other = tokenStore.createSession(userId, "phone", accessToken());
+        tokenStore.rotate(stolen, accessToken());
+        Thread.sleep(GRACE_MS + 300);
+
+        assertThatThrownBy(() -> tokenStore.rotate(stolen, accessToken()))
+                .isInstanceOf(RefreshTokenReuseException.class);
+
+        assertThat(tokenStore.listSessions(userId)).singleElement()
+                .satisfies(session -> assertThat(session.getUserAgent()).isEqualTo("phone"));
+        assertThat(tokenStore.rotate(other, accessToken()).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    @Test
+    void tokenClaimingAnotherUserDoesNotTouchTheSession() {
+        String token = tokenStore.createSession(userId, "browser", accessToken());
+        String forged = (userId + 1) + token.substring(token.indexOf('.'));
+
+        assertThatThrownBy(() -> tokenStore.rotate(forged, accessToken()))
+                .isInstanceOf(InvalidTokenException.class)
+                .isNotInstanceOf(RefreshTokenReuseException.class);
+        assertThat(tokenStore.rotate(token, accessToken()).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    private static JwtTokenService.IssuedToken accessToken() {
+        String tokenId = UUID.randomUUID().toString();
+        return new JwtTokenService.IssuedToken("jwt-" + tokenId, tokenId, Instant.now().plusSeconds(900).truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @TestConfiguration
+    static class Redis {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            return redisTemplate();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.collabspace.security;
+
+import com.collabspace.support.RedisTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing one Redis: a revocation survives every rebuild of the
+ * filter, reaches the other node on its next reload, and drops out once
+ * the token has expired.
+ */
+@SpringJUnitConfig(TokenRevocationListTest.TwoNodes.class)
+class TokenRevocationListTest extends RedisTestSupport {
+
+    @Autowired
+    private TokenRevocationList node1;
+
+    @Autowired
+    private TokenRevocationList node2;
+
+    @Test
+    void revocationSurvivesAReload() {
+        String tokenId = tokenId();
+        node1.revoke(tokenId, Instant.now().plusSeconds(60));
+
+        node1.reload();
+        node1.reload();
+
+        assertThat(node1.isRevoked(tokenId)).isTrue();
+    }
+
+    @Test
+    void otherNodePicksUpTheRevocationOnReload() {
+        String tokenId = tokenId();
+        node1.revoke(tokenId, Instant.now().plusSeconds(60));
+
+        node2.reload();
+
+        assertThat(node2.isRevoked(tokenId)).isTrue();
+    }
+
+    @Test
+    void revocationOutlivesALostRedisWrite() {
+        String tokenId = tokenId();
+        node1.revoke(tokenId, Instant.now().plusSeconds(60));
+        // As if the entry had been lost from Redis, e.g. by a failover.
+        redisTemplate().opsForZSet().remove("auth:revoked", tokenId);
+
+        node1.reload();
+
+        assertThat(node1.isRevoked(tokenId)).isTrue();
+    }
+
+    @Test
+    void expiredRevocationIsDroppedOnReload() throws Exception {
+        String tokenId = tokenId();
+        node1.revoke(tokenId, Instant.now().plusMillis(200));
+        Thread.sleep(300);
+
+        node1.reload();
+        node2.reload();
+
+        assertThat(node1.isRevoked(tokenId)).isFalse();
+        assertThat(node2.isRevoked(tokenId)).isFalse();
+        assertThat(redisTemplate().opsForZSet().score("auth:revoked", tokenId)).isNull();
+    }
+
+    @Test
+    void unrevokedTokenIsNotRevoked() {
+        node1.revoke(tokenId(), Instant.now().plusSeconds(60));
+
+        node1.reload();
+
+        assertThat(node1.isRevoked(tokenId())).isFalse();
+    }
+
+    private static String tokenId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @TestConfiguration
+    static class TwoNodes {
+
+        @Bean
+        StringRedisTemplate stringRedisTemplate() {
+            return redisTemplate();
+        }
+
+        @Bean
+        TokenRevocationList node1() {
+            return new TokenRevocationList();
+        }
+
+        @Bean
+        TokenRevocationList node2() {
+            return new TokenRevocationList();
+        }
+    }
+}
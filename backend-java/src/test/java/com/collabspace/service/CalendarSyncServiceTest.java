@@ -0,0 +1,267 @@
+package com.collabspace.service;
+
+import com.collabspace.integration.CalendarClient.CalendarEvent;
+import com.collabspace.integration.FakeCalendarClient;
+import com.collabspace.integration.IntegrationExecutor;
+import com.collabspace.repository.CalendarSyncRepository;
+import com.collabspace.support.PostgresTestSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Calendar sync against an in-memory calendar and a real meetings table.
+ *
+ * <p>Not transactional: each page commits on its own, as in production, and
+ * the full-sync sweep compares those commit times with when the sync began.
+ * Syncs run inline on the test thread.</p>
+ */
+@DataJpaTest(properties = {
+        "google.calendar.sync.page-size=" + CalendarSyncServiceTest.PAGE_SIZE,
+        "google.calendar.sync.max-pages-per-run=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CalendarSyncService.class, CalendarSyncRepository.class, SimpleMeterRegistry.class,
+        CalendarSyncServiceTest.InlineExecutor.class})
+class CalendarSyncServiceTest extends PostgresTestSupport {
+
+    static final int PAGE_SIZE = 50;
+
+    private static final Instant START = Instant.now().plus(7, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+
+    @Autowired
+    private CalendarSyncService calendarSyncService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private FakeCalendarClient calendarClient;
+
+    @MockBean
+    private AccessControlService accessControlService;
+
+    private final List<Long> users = new ArrayList<>();
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        meterRegistry.clear();
+        userId = insertUser("calendar-owner");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        // Cascades to their teams, meetings and sync state.
+        users.forEach(id -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", id));
+    }
+
+    @Test
+    void incrementalSyncPagesThroughChangesOnly() {
+        Long teamId = connect("cal-incremental");
+        for (int i = 0; i < 120; i++) {
+            calendarClient.putEvent("cal-incremental", event("evt-" + i, "Meeting " + i, i));
+        }
+        calendarSyncService.dispatch();
+        assertThat(meetingCount(teamId)).isEqualTo(120);
+        String fullSyncToken = syncToken(teamId);
+
+        clearInvocations(calendarClient);
+        calendarClient.putEvent("cal-incremental", event("evt-5", "Moved", 30));
+        for (int i = 120; i < 180; i++) {
+            calendarClient.putEvent("cal-incremental", event("evt-" + i, "Meeting " + i, i));
+        }
+        calendarSyncService.requestSync(teamId, userId);
+        calendarSyncService.dispatch();
+
+        // 61 changes: two pages of the incremental listing, nothing from before the token.
+        verify(calendarClient).listEvents(eq("cal-incremental"), eq(fullSyncToken), isNull(), eq(PAGE_SIZE));
+        verify(calendarClient).listEvents(eq("cal-incremental"), eq(fullSyncToken), notNull(), eq(PAGE_SIZE));
+        verify(calendarClient, never()).listEvents(any(), isNull(), any(), anyInt());
+        assertThat(meetingCount(teamId)).isEqualTo(180);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT title FROM meetings WHERE team_id = ? AND google_calendar_event_id = 'evt-5'", String.class, teamId))
+                .isEqualTo("Moved");
+        assertThat(syncToken(teamId)).isNotEqualTo(fullSyncToken);
+        assertThat(runs("incremental")).isEqualTo(1);
+    }
+
+    @Test
+    void largeFullSyncResumesFromItsPageToken() {
+        Long teamId = connect("cal-large");
+        for (int i = 0; i < PAGE_SIZE * 5; i++) {
+            calendarClient.putEvent("cal-large", event("evt-" + i, "Meeting " + i, i));
+        }
+
+        // Two pages per run; the team goes back in the queue twice before finishing.
+        calendarSyncService.dispatch();
+
+        verify(calendarClient, times(5)).listEvents(eq("cal-large"), isNull(), any(), eq(PAGE_SIZE));
+        assertThat(runs("partial")).isEqualTo(2);
+        assertThat(runs("full")).isEqualTo(1);
+        assertThat(meetingCount(teamId)).isEqualTo(PAGE_SIZE * 5);
+        assertThat(syncToken(teamId)).isNotNull();
+    }
+
+    @Test
+    void deletedEventsCancelTheirMeetings() {
+        Long teamId = connect("cal-deletes");
+        calendarClient.putEvent("cal-deletes", event("keep", "Keep", 0));
+        calendarClient.putEvent("cal-deletes", event("drop", "Drop", 1));
+        calendarSyncService.dispatch();
+
+        calendarClient.deleteEvent("cal-deletes", "drop");
+        calendarSyncService.requestSync(teamId, userId);
+        calendarSyncService.dispatch();
+
+        assertThat(status(teamId, "keep")).isEqualTo("SCHEDULED");
+        assertThat(status(teamId, "drop")).isEqualTo("CANCELLED");
+        assertThat(runs("incremental")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredSyncTokenResyncsOnlyThatTeam() {
+        Long expiredTeam = connect("cal-expired");
+        Long otherTeam = connect("cal-other");
+        calendarClient.putEvent("cal-expired", event("a-1", "A", 0));
+        calendarClient.putEvent("cal-expired", event("a-gone", "Gone", 1));
+        calendarClient.putEvent("cal-other", event("b-1", "B", 0));
+        calendarSyncService.dispatch();
+        Instant otherFullSync = lastFullSync(otherTeam);
+
+        // The deletion is forgotten along with the token, so only the full
+        // resync's sweep can notice it.
+        calendarClient.deleteEvent("cal-expired", "a-gone");
+        calendarClient.expireSyncTokens("cal-expired");
+        calendarClient.putEvent("cal-other", event("b-2", "B2", 1));
+        clearInvocations(calendarClient);
+        calendarSyncService.requestSync(expiredTeam, userId);
+        calendarSyncService.requestSync(otherTeam, userId);
+        calendarSyncService.dispatch();
+
+        assertThat(runs("reset")).isEqualTo(1);
+        verify(calendarClient).listEvents(eq("cal-expired"), isNull(), isNull(), eq(PAGE_SIZE));
+        verify(calendarClient, never()).listEvents(eq("cal-other"), isNull(), any(), anyInt());
+        assertThat(status(expiredTeam, "a-1")).isEqualTo("SCHEDULED");
+        assertThat(status(expiredTeam, "a-gone")).isEqualTo("CANCELLED");
+        assertThat(meetingCount(otherTeam)).isEqualTo(2);
+        assertThat(lastFullSync(otherTeam)).isEqualTo(otherFullSync);
+    }
+
+    @Test
+    void recurringSeriesDoNotForceFullResync() {
+        Long teamId = connect("cal-recurring");
+        for (int i = 0; i < 80; i++) {
+            calendarClient.putEvent("cal-recurring", new CalendarEvent("series-" + i, "confirmed", "Standup " + i, null,
+                    START.plus(i, ChronoUnit.HOURS), START.plus(i, ChronoUnit.HOURS).plus(15, ChronoUnit.MINUTES), null,
+                    List.of("RRULE:FREQ=DAILY;COUNT=500"), null));
+        }
+        calendarSyncService.dispatch();
+        assertThat(meetingCount(teamId)).isEqualTo(80);
+
+        // One moved and one cancelled instance: Google lists just those two.
+        clearInvocations(calendarClient);
+        Instant moved = START.plus(3, ChronoUnit.DAYS).plus(30, ChronoUnit.MINUTES);
+        calendarClient.putEvent("cal-recurring", new CalendarEvent("series-7_20261101T090000Z", "confirmed", "Standup 7",
+                null, moved, moved.plus(15, ChronoUnit.MINUTES), null, null, "series-7"));
+        calendarClient.putEvent("cal-recurring", new CalendarEvent("series-8_20261101T100000Z", "cancelled", null,
+                null, null, null, null, null, "series-8"));
+        calendarSyncService.requestSync(teamId, userId);
+        calendarSyncService.dispatch();
+
+        verify(calendarClient, times(1)).listEvents(eq("cal-recurring"), notNull(), isNull(), eq(PAGE_SIZE));
+        verify(calendarClient, never()).listEvents(any(), isNull(), any(), anyInt());
+        assertThat(meetingCount(teamId)).isEqualTo(81);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM meetings WHERE team_id = ? AND status = 'CANCELLED'", Integer.class, teamId))
+                .isZero();
+        assertThat(runs("incremental")).isEqualTo(1);
+        assertThat(runs("reset")).isZero();
+    }
+
+    private Long connect(String calendarId) {
+        Long teamId = jdbcTemplate.queryForObject(
+                "INSERT INTO teams (name, owner_id) VALUES (?, ?) RETURNING id", Long.class, calendarId, userId);
+        calendarSyncService.connect(teamId, calendarId, userId);
+        return teamId;
+    }
+
+    private static CalendarEvent event(String id, String title, int hoursFromStart) {
+        Instant start = START.plus(hoursFromStart, ChronoUnit.HOURS);
+        return new CalendarEvent(id, "confirmed", title, null, start, start.plus(30, ChronoUnit.MINUTES), null, null, null);
+    }
+
+    private int meetingCount(Long teamId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM meetings WHERE team_id = ?", Integer.class, teamId);
+    }
+
+    private String status(Long teamId, String eventId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT status FROM meetings WHERE team_id = ? AND google_calendar_event_id = ?", String.class, teamId, eventId);
+    }
+
+    private String syncToken(Long teamId) {
+        return jdbcTemplate.queryForObject("SELECT sync_token FROM team_calendar_syncs WHERE team_id = ?", String.class, teamId);
+    }
+
+    private Instant lastFullSync(Long teamId) {
+        return jdbcTemplate.queryForObject("SELECT last_full_sync_at FROM team_calendar_syncs WHERE team_id = ?",
+                Timestamp.class, teamId).toInstant();
+    }
+
+    private double runs(String result) {
+        return meterRegistry.counter("calendar.sync.runs", "result", result).count();
+    }
+
+    private Long insertUser(String name) {
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, name) VALUES (?, ?) RETURNING id", Long.class,
+                name + "-" + System.nanoTime() + "@example.com", name);
+        users.add(id);
+        return id;
+    }
+
+    @TestConfiguration
+    static class InlineExecutor {
+
+        @Bean
+        IntegrationExecutor integrationExecutor() {
+            return new IntegrationExecutor(new TaskExecutorAdapter(Runnable::run), false);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.collabspace.service;
+
+import com.collabspace.collaboration.CollaborationEngine;
+import com.collabspace.collaboration.DocumentSession;
+import com.collabspace.content.ContentStore;
+import com.collabspace.integration.GoogleDriveClient;
+import com.collabspace.integration.GoogleDriveClient.DriveException;
+import com.collabspace.integration.IntegrationExecutor;
+import com.collabspace.repository.ExportJobRepository;
+import com.collabspace.repository.ExportJobRepository.ExportJob;
+import com.collabspace.repository.ExportJobRepository.ExportSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * One export round per test, run inline against a mocked queue and Drive:
+ * what is uploaded, what is skipped, and when a failure comes back.
+ */
+@SpringJUnitConfig({DocumentExportService.class, SimpleMeterRegistry.class, DocumentExportServiceTest.InlineExecutor.class})
+@TestPropertySource(properties = {
+        "documents.export.max-attempts=3",
+        "documents.export.backoff-base-ms=1000",
+        "documents.export.backoff-max-ms=60000"
+})
+class DocumentExportServiceTest {
+
+    private static final Long JOB_ID = 7L;
+    private static final Long DOCUMENT_ID = 3L;
+    private static final Long USER_ID = 1L;
+    private static final byte[] CONTENT_HASH = {1, 2, 3};
+
+    @Autowired
+    private DocumentExportService exportService;
+
+    @MockBean
+    private ExportJobRepository jobRepository;
+
+    @MockBean
+    private GoogleDriveClient driveClient;
+
+    @MockBean
+    private AccessControlService accessControlService;
+
+    @MockBean
+    private CollaborationEngine collaborationEngine;
+
+    @MockBean
+    private ContentStore contentStore;
+
+    @BeforeEach
+    void configured() {
+        when(driveClient.isConfigured()).thenReturn(true);
+        when(jobRepository.findContentHash(DOCUMENT_ID)).thenReturn(CONTENT_HASH);
+        when(contentStore.read(CONTENT_HASH)).thenReturn("stored body");
+    }
+
+    @Test
+    void unchangedDocumentIsSkipped() {
+        runRound(job(1), new ExportSource(DOCUMENT_ID, "Plan", 4, "file-1", 4));
+
+        verify(jobRepository).complete(JOB_ID, ExportJobRepository.SKIPPED, 4, "file-1");
+        verify(driveClient, never()).updateDocument(anyString(), anyString(), anyString());
+        verify(driveClient, never()).createDocument(anyString(), anyString());
+        verify(contentStore, never()).read(any());
+    }
+
+    @Test
+    void liveEditsNewerThanTheExportAreUploaded() {
+        when(collaborationEngine.currentSnapshot(DOCUMENT_ID))
+                .thenReturn(Optional.of(new DocumentSession(DOCUMENT_ID, "live body", 5, 10).snapshot()));
+
+        runRound(job(1), new ExportSource(DOCUMENT_ID, "Plan", 4, "file-1", 4));
+
+        verify(driveClient).updateDocument("file-1", "Plan", "live body");
+        verify(jobRepository).recordExport(DOCUMENT_ID, "file-1", 5);
+        verify(jobRepository).complete(JOB_ID, ExportJobRepository.SUCCEEDED, 5, "file-1");
+    }
+
+    @Test
+    void deletedDriveFileIsExportedAgain() {
+        when(driveClient.createDocument("Plan", "stored body")).thenReturn("file-2");
+        doThrow(new DriveException("Not found", false, true))
+                .when(driveClient).updateDocument("file-1", "Plan", "stored body");
+
+        runRound(job(1), new ExportSource(DOCUMENT_ID, "Plan", 6, "file-1", 4));
+
+        verify(jobRepository).complete(JOB_ID, ExportJobRepository.SUCCEEDED, 6, "file-2");
+    }
+
+    @Test
+    void retryableFailureIsRetriedWithBackoff() {
+        when(driveClient.createDocument(anyString(), anyString())).thenThrow(new DriveException("Rate limited", true, false));
+
+        Instant before = Instant.now();
+        runRound(job(2), new ExportSource(DOCUMENT_ID, "Plan", 1, null, null));
+
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(jobRepository).retryAt(eq(JOB_ID), nextAttempt.capture(), eq("Rate limited"));
+        // Second attempt: twice the base, +/-20%.
+        assertThat(nextAttempt.getValue()).isBetween(before.plusMillis(1600), Instant.now().plusMillis(2400));
+        verify(jobRepository, never()).complete(anyLong(), anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void lastAttemptFails() {
+        when(driveClient.createDocument(anyString(), anyString())).thenThrow(new DriveException("Rate limited", true, false));
+
+        runRound(job(3), new ExportSource(DOCUMENT_ID, "Plan", 1, null, null));
+
+        verify(jobRepository).fail(JOB_ID, "Rate limited");
+        verify(jobRepository, never()).retryAt(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void permanentFailureIsNotRetried() {
+        when(driveClient.createDocument(anyString(), anyString())).thenThrow(new DriveException("Forbidden", false, false));
+
+        runRound(job(1), new ExportSource(DOCUMENT_ID, "Plan", 1, null, null));
+
+        verify(jobRepository).fail(JOB_ID, "Forbidden");
+    }
+
+    private void runRound(ExportJob job, ExportSource source) {
+        when(jobRepository.claim(anyInt(), anyLong())).thenReturn(List.of(job), List.of());
+        when(jobRepository.findSources(List.of(DOCUMENT_ID))).thenReturn(List.of(source));
+        exportService.dispatch();
+    }
+
+    private static ExportJob job(int attempts) {
+        Instant now = Instant.now();
+        return new ExportJob(JOB_ID, DOCUMENT_ID, USER_ID, ExportJobRepository.RUNNING, attempts, null, null, null, now, now, now);
+    }
+
+    @TestConfiguration
+    static class InlineExecutor {
+
+        @Bean
+        IntegrationExecutor integrationExecutor() {
+            return new IntegrationExecutor(new TaskExecutorAdapter(Runnable::run), false);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.collabspace.service;
+
+import com.collabspace.repository.UserLoginRepository;
+import com.collabspace.security.GoogleCertificateCache;
+import com.collabspace.security.GoogleTokenVerifier;
+import com.collabspace.support.JwksTestServer;
+import com.collabspace.support.PostgresTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Google sign-in against a local JWKS server and a real users table: a
+ * returning user's last-login time is left to the recorder's next flush, and
+ * repeated logins in one interval cost a single write.
+ */
+@DataJpaTest(properties = "google.oauth.client-id=" + GoogleLoginServiceTest.CLIENT_ID)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GoogleLoginService.class, LastLoginRecorder.class, GoogleTokenVerifier.class,
+        GoogleCertificateCache.class, SimpleMeterRegistry.class})
+class GoogleLoginServiceTest extends PostgresTestSupport {
+
+    static final String CLIENT_ID = "test-client";
+
+    private static final JwksTestServer JWKS = JwksTestServer.start();
+
+    static {
+        JWKS.publish("k1");
+    }
+
+    @DynamicPropertySource
+    static void certsUrl(DynamicPropertyRegistry registry) {
+        registry.add("google.oauth.certs-url", JWKS::certsUrl);
+    }
+
+    @Autowired
+    private GoogleLoginService googleLoginService;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private UserLoginRepository userLoginRepository;
+
+    @MockBean
+    private SessionService sessionService;
+
+    @MockBean
+    private UserService userService;
+
+    @AfterAll
+    static void stopServer() {
+        JWKS.stop();
+    }
+
+    @Test
+    void returningUserLastLoginIsWrittenByTheNextFlush() {
+        Long userId = insertUser("g-returning");
+
+        googleLoginService.login(idToken("g-returning"), "test");
+
+        verify(userLoginRepository, never()).updateLastLogins(any());
+        assertThat(lastLogin(userId)).isNull();
+
+        lastLoginRecorder.flush();
+
+        assertThat(lastLogin(userId)).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedLoginsCollapseIntoOneWrite() {
+        Long userId = insertUser("g-repeat");
+
+        for (int i = 0; i < 3; i++) {
+            googleLoginService.login(idToken("g-repeat"), "test");
+        }
+        lastLoginRecorder.flush();
+
+        ArgumentCaptor<Map<Long, Instant>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(userLoginRepository, times(1)).updateLastLogins(batch.capture());
+        assertThat(batch.getValue()).containsOnlyKeys(userId);
+    }
+
+    @Test
+    void newUserIsNotQueued() {
+        Map<String, Object> response = googleLoginService.login(idToken("g-new"), "test");
+
+        assertThat(response).containsEntry("newUser", true);
+        lastLoginRecorder.flush();
+        verify(userLoginRepository, never()).updateLastLogins(any());
+    }
+
+    @Test
+    void rejectsUnverifiedEmail() {
+        assertThatThrownBy(() -> googleLoginService.login(
+                JWKS.idToken("k1", CLIENT_ID, "g-unverified", "g-unverified@example.com", false), "test"))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    private static String idToken(String googleId) {
+        return JWKS.idToken("k1", CLIENT_ID, googleId, googleId + "@example.com", true);
+    }
+
+    private Long insertUser(String googleId) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, name, google_id, profile_picture) VALUES (?, ?, ?, NULL) RETURNING id",
+                Long.class, googleId + "@example.com", "User " + googleId, googleId);
+    }
+
+    private Timestamp lastLogin(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT last_login_at FROM users WHERE id = ?", Timestamp.class, userId);
+    }
+}
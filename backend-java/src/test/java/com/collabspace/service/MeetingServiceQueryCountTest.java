@@ -0,0 +1,113 @@
+package com.collabspace.service;
+
+import com.collabspace.dto.CursorPageDTO;
+import com.collabspace.dto.MeetingDTO;
+import com.collabspace.support.PostgresTestSupport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of a team meeting page: the page query plus at
+ * most one query for all participants, however many meetings are on it.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MeetingService.class)
+class MeetingServiceQueryCountTest extends PostgresTestSupport {
+
+    private static final int MEETINGS = 60;
+    private static final int PARTICIPANTS_PER_MEETING = 4;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private MeetingService meetingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private AccessControlService accessControlService;
+
+    private Long teamId;
+    private Long ownerId;
+
+    @BeforeEach
+    void createTeam() {
+        ownerId = insertUser("owner");
+        teamId = jdbcTemplate.queryForObject(
+                "INSERT INTO teams (name, owner_id) VALUES ('Query count', ?) RETURNING id", Long.class, ownerId);
+        Long[] members = new Long[PARTICIPANTS_PER_MEETING * 2];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = insertUser("member" + i);
+        }
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int m = 0; m < MEETINGS; m++) {
+            Long meetingId = jdbcTemplate.queryForObject(
+                    "INSERT INTO meetings (title, team_id, created_by, start_time) VALUES (?, ?, ?, ?) RETURNING id",
+                    Long.class, "Meeting " + m, teamId, members[m % members.length], Timestamp.from(start.minusSeconds(60L * m)));
+            for (int p = 0; p < PARTICIPANTS_PER_MEETING; p++) {
+                jdbcTemplate.update("INSERT INTO meeting_participants (meeting_id, user_id) VALUES (?, ?)",
+                        meetingId, members[(m + p) % members.length]);
+            }
+        }
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void pageWithParticipantsTakesTwoStatements() {
+        CursorPageDTO<MeetingDTO> page = meetingService.getTeamMeetings(teamId, null, PAGE_SIZE, false, true, ownerId);
+
+        assertThat(page.getItems()).hasSize(PAGE_SIZE);
+        assertThat(page.getItems()).allSatisfy(meeting -> {
+            assertThat(meeting.getParticipants()).hasSize(PARTICIPANTS_PER_MEETING);
+            assertThat(meeting.getCreatedByName()).startsWith("member");
+            assertThat(meeting.getTeamId()).isEqualTo(teamId);
+        });
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void nextPageWithoutParticipantsTakesOneStatement() {
+        CursorPageDTO<MeetingDTO> first = meetingService.getTeamMeetings(teamId, null, PAGE_SIZE, false, false, ownerId);
+        entityManager.clear();
+        statistics().clear();
+
+        CursorPageDTO<MeetingDTO> next = meetingService.getTeamMeetings(teamId, first.getNextCursor(), PAGE_SIZE, false, false, ownerId);
+
+        assertThat(next.getItems()).hasSize(MEETINGS - PAGE_SIZE);
+        assertThat(next.getItems()).allSatisfy(meeting -> assertThat(meeting.getParticipants()).isNull());
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Long insertUser(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, ?) RETURNING id",
+                Long.class, name + "-" + System.nanoTime() + "@example.com", name);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
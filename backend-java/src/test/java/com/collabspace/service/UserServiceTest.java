@@ -0,0 +1,102 @@
+package com.collabspace.service;
+
+import com.collabspace.cache.CacheInvalidationListener;
+import com.collabspace.cache.CacheNames;
+import com.collabspace.cache.TwoLevelCache;
+import com.collabspace.cache.TwoLevelCacheManager;
+import com.collabspace.dto.UserDTO;
+import com.collabspace.support.PostgresTestSupport;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Profile updates against Postgres with a local-only profile cache: the
+ * next read after an update sees the new profile.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserService.class, CacheInvalidationListener.class, SimpleMeterRegistry.class, UserServiceTest.LocalCache.class})
+class UserServiceTest extends PostgresTestSupport {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Before') RETURNING id",
+                Long.class, "profile-" + System.nanoTime() + "@example.com");
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void updateReplacesTheCachedProfile() {
+        assertThat(userService.getUserProfile(userId).getName()).isEqualTo("Before");
+
+        UserDTO changes = new UserDTO();
+        changes.setName("After");
+        changes.setProfilePicture("https://example.com/after.png");
+        UserDTO updated = userService.updateUserProfile(userId, changes);
+
+        assertThat(updated.getName()).isEqualTo("After");
+        UserDTO read = userService.getUserProfile(userId);
+        assertThat(read.getName()).isEqualTo("After");
+        assertThat(read.getProfilePicture()).isEqualTo("https://example.com/after.png");
+    }
+
+    @Test
+    void updateKeepsEmailAndRole() {
+        String email = userService.getUserProfile(userId).getEmail();
+
+        UserDTO changes = new UserDTO();
+        changes.setName("After");
+        changes.setEmail("someone-else@example.com");
+        changes.setRole("ADMIN");
+        UserDTO updated = userService.updateUserProfile(userId, changes);
+
+        assertThat(updated.getEmail()).isEqualTo(email);
+        assertThat(updated.getRole()).isEqualTo("MEMBER");
+    }
+
+    @TestConfiguration
+    @EnableCaching
+    static class LocalCache {
+
+        @Bean
+        TwoLevelCacheManager cacheManager(MeterRegistry meterRegistry) {
+            Map<String, TwoLevelCache> caches = new HashMap<>();
+            for (String name : CacheNames.ALL) {
+                caches.put(name, new TwoLevelCache(name, Caffeine.newBuilder().build(), null, null, meterRegistry));
+            }
+            return new TwoLevelCacheManager(caches);
+        }
+    }
+}
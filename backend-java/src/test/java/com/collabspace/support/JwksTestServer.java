@@ -0,0 +1,125 @@
+package com.collabspace.support;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A local stand-in for Google's JWKS endpoint. It signs ID tokens with its
+ * own RSA keys, serves the public half of the published ones and counts the
+ * fetches, so tests can point {@code google.oauth.certs-url} at it.
+ */
+public class JwksTestServer {
+
+    private final HttpServer server;
+    private final Map<String, KeyPair> keyPairs = new ConcurrentHashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile List<String> published = List.of();
+    private volatile long maxAgeSeconds = 3600;
+
+    private JwksTestServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static JwksTestServer start() {
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        JwksTestServer jwks = new JwksTestServer(server);
+        server.createContext("/certs", exchange -> {
+            jwks.fetches.incrementAndGet();
+            byte[] body = jwks.document().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=" + jwks.maxAgeSeconds);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return jwks;
+    }
+
+    public String certsUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/certs";
+    }
+
+    /**
+     * Replaces the served key set; keys are created on first use.
+     */
+    public void publish(String... keyIds) {
+        Arrays.stream(keyIds).forEach(this::keyPair);
+        published = List.of(keyIds);
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public int fetches() {
+        return fetches.get();
+    }
+
+    public String idToken(String keyId, String audience, String googleId, String email, boolean emailVerified) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .issuer("https://accounts.google.com")
+                .audience().add(audience).and()
+                .subject(googleId)
+                .claim("email", email)
+                .claim("email_verified", emailVerified)
+                .claim("name", "User " + googleId)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(600)))
+                .signWith(keyPair(keyId).getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private KeyPair keyPair(String keyId) {
+        return keyPairs.computeIfAbsent(keyId, id -> Jwts.SIG.RS256.keyPair().build());
+    }
+
+    private String document() {
+        return published.stream()
+                .map(keyId -> {
+                    RSAPublicKey key = (RSAPublicKey) keyPair(keyId).getPublic();
+                    return "{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"" + keyId + "\","
+                            + "\"n\":\"" + base64Url(key.getModulus()) + "\",\"e\":\"" + base64Url(key.getPublicExponent()) + "\"}";
+                })
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,30 @@
+package com.collabspace.support;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * Base class for tests against a real PostgreSQL, built from the same
+ * migrations as production. The container is shared by every test class in
+ * the run and skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresTestSupport {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("collabspace")
+            .withCopyFileToContainer(MountableFile.forHostPath("../database/migrations"), "/docker-entrypoint-initdb.d/");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        // The schema comes from the migrations above, which Flyway does not manage.
+        registry.add("spring.flyway.enabled", () -> "false");
+    }
+}
@@ -0,0 +1,147 @@
+package com.collabspace.websocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fan-out over sockets that write without blocking: one write in flight per
+ * socket, and a socket that stops reading holds back neither the sender
+ * pool nor anyone else in the room.
+ */
+@SpringJUnitConfig({BroadcastHub.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "collaboration.websocket.sender-threads=1")
+class BroadcastHubTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Autowired
+    private BroadcastHub hub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stalledSocketsDoNotHoldBackTheRoom() {
+        RoomKey room = RoomKey.document(1L);
+        List<Socket> stalled = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stalled.add(connect("stalled-" + i, room, false));
+        }
+        Socket fast = connect("fast", room, true);
+
+        for (int i = 0; i < 100; i++) {
+            hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op " + i)), null);
+        }
+
+        // A single sender thread, and four sockets that never finish a write.
+        await().atMost(WAIT).until(() -> fast.sent.size() == 100);
+        assertThat(fast.sent).startsWith("op 0", "op 1").endsWith("op 99");
+        stalled.forEach(socket -> assertThat(socket.sent).containsExactly("op 0"));
+    }
+
+    @Test
+    void nextFrameIsSentWhenTheWriteInFlightCompletes() {
+        RoomKey room = RoomKey.document(2L);
+        Socket socket = connect("slow", room, false);
+
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 1")), null);
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 2")), null);
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 3")), null);
+
+        await().atMost(WAIT).until(() -> socket.sent.size() == 1);
+        socket.completeNext(new SendResult());
+        await().atMost(WAIT).until(() -> socket.sent.size() == 2);
+        socket.completeNext(new SendResult());
+        await().atMost(WAIT).until(() -> socket.sent.size() == 3);
+
+        assertThat(socket.sent).containsExactly("op 1", "op 2", "op 3");
+    }
+
+    @Test
+    void timedOutWriteClosesTheSocketAsASlowConsumer() throws Exception {
+        double timeouts = meterRegistry.counter("websocket.outbound.timeouts").count();
+        RoomKey room = RoomKey.document(3L);
+        Socket socket = connect("gone", room, false);
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 1")), null);
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 2")), null);
+        await().atMost(WAIT).until(() -> socket.sent.size() == 1);
+
+        socket.completeNext(new SendResult(new SocketTimeoutException()));
+
+        verify(socket.session, timeout(WAIT.toMillis())).close(ClientConnection.SLOW_CONSUMER);
+        assertThat(meterRegistry.counter("websocket.outbound.timeouts").count()).isEqualTo(timeouts + 1);
+        hub.broadcast(room, OutboundFrame.reliable(new TextMessage("op 3")), null);
+        assertThat(socket.sent).containsExactly("op 1");
+    }
+
+    private Socket connect(String id, RoomKey room, boolean completesInline) {
+        Socket socket = new Socket(id, completesInline);
+        hub.register(socket.session);
+        hub.join(id, room);
+        return socket;
+    }
+
+    /** A socket whose writes complete at once or only when the test says so. */
+    private static final class Socket {
+
+        private final WebSocketSession session;
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final Queue<SendHandler> inFlight = new ConcurrentLinkedQueue<>();
+
+        private Socket(String id, boolean completesInline) {
+            session = mock(WebSocketSession.class, withSettings().extraInterfaces(NativeWebSocketSession.class));
+            Session standardSession = mock(Session.class);
+            RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+            when(session.getId()).thenReturn(id);
+            when(((NativeWebSocketSession) session).getNativeSession(Session.class)).thenReturn(standardSession);
+            when(standardSession.getUserProperties()).thenReturn(new HashMap<>());
+            when(standardSession.getAsyncRemote()).thenReturn(remote);
+            doAnswer(invocation -> {
+                assertThat(inFlight).as("write already in flight").isEmpty();
+                sent.add(invocation.getArgument(0));
+                SendHandler handler = invocation.getArgument(1);
+                if (completesInline) {
+                    handler.onResult(new SendResult());
+                } else {
+                    inFlight.add(handler);
+                }
+                return null;
+            }).when(remote).sendText(anyString(), any(SendHandler.class));
+        }
+
+        private void completeNext(SendResult result) {
+            inFlight.remove().onResult(result);
+        }
+    }
+}
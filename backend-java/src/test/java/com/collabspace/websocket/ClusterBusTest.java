@@ -0,0 +1,137 @@
+package com.collabspace.websocket;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes, each with its own hub and bus, joined by an in-memory broker
+ * standing in for Redis pub/sub.
+ */
+class ClusterBusTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        InMemoryClusterTransport.Broker broker = new InMemoryClusterTransport.Broker();
+        nodeA = new Node(broker);
+        nodeB = new Node(broker);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void meetingBroadcastReachesOtherNodes() throws Exception {
+        WebSocketSession sender = nodeA.connect("a-1", RoomKey.meeting(1L));
+        WebSocketSession local = nodeA.connect("a-2", RoomKey.meeting(1L));
+        WebSocketSession remote = nodeB.connect("b-1", RoomKey.meeting(1L));
+        nodeB.awaitSubscriptions(1);
+
+        TextMessage message = new TextMessage("{\"type\":\"meeting\"}");
+        nodeA.hub.broadcast(RoomKey.meeting(1L), OutboundFrame.reliable(message), "a-1");
+
+        verify(remote, timeout(WAIT.toMillis())).sendMessage(message);
+        verify(local, timeout(WAIT.toMillis())).sendMessage(message);
+        verify(sender, never()).sendMessage(message);
+    }
+
+    @Test
+    void documentFramesReachOtherNodes() throws Exception {
+        nodeA.connect("a-1", RoomKey.document(7L));
+        WebSocketSession local = nodeA.connect("a-2", RoomKey.document(7L));
+        WebSocketSession remote = nodeB.connect("b-1", RoomKey.document(7L));
+        nodeA.awaitSubscriptions(1);
+        nodeB.awaitSubscriptions(1);
+
+        // Presence diffs and the like; operation frames are rendered on each node.
+        TextMessage presence = new TextMessage("{\"type\":\"presence\"}");
+        nodeA.hub.broadcast(RoomKey.document(7L), OutboundFrame.reliable(presence), "a-1");
+
+        verify(remote, timeout(WAIT.toMillis())).sendMessage(presence);
+        verify(local, timeout(WAIT.toMillis())).sendMessage(presence);
+    }
+
+    @Test
+    void ownFramesAreNotDeliveredTwice() throws Exception {
+        WebSocketSession local = nodeA.connect("a-1", RoomKey.board(3L));
+        WebSocketSession remote = nodeB.connect("b-1", RoomKey.board(3L));
+        nodeA.awaitSubscriptions(1);
+        nodeB.awaitSubscriptions(1);
+
+        TextMessage message = new TextMessage("{\"type\":\"board\"}");
+        nodeA.hub.broadcast(RoomKey.board(3L), OutboundFrame.reliable(message), null);
+
+        verify(remote, timeout(WAIT.toMillis())).sendMessage(message);
+        verify(local, after(200).times(1)).sendMessage(message);
+    }
+
+    @Test
+    void lastMemberLeavingUnsubscribes() {
+        nodeB.connect("b-1", RoomKey.meeting(1L));
+        nodeB.awaitSubscriptions(1);
+
+        nodeB.hub.unregister("b-1");
+
+        nodeB.awaitSubscriptions(0);
+    }
+
+    private static final class Node {
+
+        private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        private final BroadcastHub hub;
+        private final MeterRegistry meterRegistry;
+
+        Node(InMemoryClusterTransport.Broker broker) {
+            context.registerBean(ClusterTransport.class, () -> new InMemoryClusterTransport(broker));
+            context.register(SimpleMeterRegistry.class, BroadcastHub.class, ClusterBus.class);
+            context.refresh();
+            hub = context.getBean(BroadcastHub.class);
+            meterRegistry = context.getBean(MeterRegistry.class);
+        }
+
+        WebSocketSession connect(String sessionId, RoomKey... rooms) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            when(session.getId()).thenReturn(sessionId);
+            hub.register(session);
+            for (RoomKey room : rooms) {
+                hub.join(sessionId, room);
+            }
+            return session;
+        }
+
+        double subscriptions() {
+            return meterRegistry.get("websocket.cluster.subscriptions").gauge().value();
+        }
+
+        void awaitSubscriptions(int expected) {
+            await().atMost(WAIT).until(() -> subscriptions() == expected);
+        }
+
+        void close() {
+            context.close();
+        }
+    }
+}
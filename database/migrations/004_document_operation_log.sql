@@ -0,0 +1,18 @@
+-- CollabSpace Document Operation Log
+-- Version: 1.1.0
+-- Description: Append-only per-document operation log. Snapshots are stored in
+-- document_versions so a document at any version can be rebuilt from the
+-- nearest snapshot plus a replay of the logged operations after it.
+
+CREATE TABLE document_operations (
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    version INTEGER NOT NULL,
+    user_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    operations JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (document_id, version)
+);
+
+COMMENT ON TABLE document_operations IS 'Append-only log of applied document operation batches';
+COMMENT ON COLUMN document_operations.version IS 'Document version produced by applying this batch';
+COMMENT ON COLUMN document_versions.version_number IS 'Document version captured by this snapshot';
@@ -0,0 +1,21 @@
+-- CollabSpace Document Search
+-- Version: 1.2.0
+-- Description: Full-text search over document title and content. The search
+-- vector is a generated column, so it stays current on every write without
+-- application involvement. Trigram indexing covers partial title matches.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- Title ranks above body text. Content is capped to stay within tsvector limits.
+ALTER TABLE documents ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', left(coalesce(content, ''), 500000)), 'B')
+    ) STORED;
+
+-- team_id leads so team-scoped searches on large tenants stay selective.
+CREATE INDEX idx_documents_team_search ON documents USING GIN (team_id, search_vector);
+CREATE INDEX idx_documents_title_trgm ON documents USING GIN (title gin_trgm_ops);
+
+COMMENT ON COLUMN documents.search_vector IS 'Weighted full-text vector of title (A) and content (B)';
@@ -0,0 +1,7 @@
+-- CollabSpace Keyset Pagination Indexes
+-- Version: 1.3.0
+-- Description: Composite indexes matching the (sort key, id) seek order of the
+-- cursor-based team listings, so each page is a bounded index range scan.
+
+CREATE INDEX idx_documents_team_updated_id ON documents(team_id, updated_at DESC, id DESC);
+CREATE INDEX idx_meetings_team_start_id ON meetings(team_id, start_time DESC, id DESC);
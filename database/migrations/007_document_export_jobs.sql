@@ -0,0 +1,40 @@
+-- CollabSpace Google Docs Export Jobs
+-- Version: 1.4.0
+-- Description: Durable queue for asynchronous Google Docs exports, and the
+-- last exported version stored next to google_drive_id so that re-exporting
+-- an unchanged document is skipped.
+
+ALTER TABLE documents ADD COLUMN google_drive_exported_version INTEGER;
+
+COMMENT ON COLUMN documents.google_drive_exported_version IS 'Document version last uploaded to google_drive_id';
+
+-- Recording an export is not an edit: only bump updated_at when the
+-- document's own columns change.
+DROP TRIGGER IF EXISTS update_documents_updated_at ON documents;
+CREATE TRIGGER update_documents_updated_at
+    BEFORE UPDATE OF title, content, type, team_id, last_modified_by, version, is_locked, locked_by, locked_at ON documents
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+CREATE TABLE document_export_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    requested_by BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED' CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'SKIPPED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP WITH TIME ZONE,
+    exported_version INTEGER,
+    google_drive_id VARCHAR(255),
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One queued export per document; repeated requests join it.
+CREATE UNIQUE INDEX idx_export_jobs_queued_document ON document_export_jobs(document_id) WHERE status = 'QUEUED';
+CREATE INDEX idx_export_jobs_due ON document_export_jobs(next_attempt_at) WHERE status = 'QUEUED';
+CREATE INDEX idx_export_jobs_running ON document_export_jobs(document_id, locked_until) WHERE status = 'RUNNING';
+CREATE INDEX idx_export_jobs_finished ON document_export_jobs(updated_at) WHERE status IN ('SUCCEEDED', 'SKIPPED', 'FAILED');
+
+COMMENT ON TABLE document_export_jobs IS 'Asynchronous Google Docs export requests and their outcome';
+COMMENT ON COLUMN document_export_jobs.locked_until IS 'Lease of the node running the job; an expired lease makes it claimable again';
@@ -0,0 +1,44 @@
+-- CollabSpace Google Calendar Sync
+-- Version: 1.5.0
+-- Description: Per-team incremental sync state (sync token, resumable page
+-- token, push channel) and a per-team key on synced meetings so that
+-- changed events are applied as batched upserts instead of lookups by id.
+
+ALTER TABLE meetings ADD COLUMN recurrence TEXT;
+ALTER TABLE meetings ADD COLUMN google_calendar_synced_at TIMESTAMP WITH TIME ZONE;
+
+COMMENT ON COLUMN meetings.recurrence IS 'RRULE/EXRULE/RDATE/EXDATE lines of a recurring Google Calendar series, one per line';
+COMMENT ON COLUMN meetings.google_calendar_synced_at IS 'When calendar sync last wrote this meeting; rows not seen by a full sync are cancelled';
+
+-- Event ids are unique per calendar, and two teams may sync the same calendar.
+CREATE UNIQUE INDEX idx_meetings_team_calendar_event ON meetings(team_id, google_calendar_event_id)
+    WHERE google_calendar_event_id IS NOT NULL;
+
+CREATE TABLE team_calendar_syncs (
+    team_id BIGINT PRIMARY KEY REFERENCES teams(id) ON DELETE CASCADE,
+    calendar_id VARCHAR(255) NOT NULL,
+    connected_by BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    sync_token TEXT,
+    page_token TEXT,
+    full_sync_started_at TIMESTAMP WITH TIME ZONE,
+    channel_id VARCHAR(64),
+    channel_resource_id VARCHAR(255),
+    channel_token VARCHAR(64),
+    channel_expires_at TIMESTAMP WITH TIME ZONE,
+    next_sync_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP WITH TIME ZONE,
+    consecutive_failures INTEGER NOT NULL DEFAULT 0,
+    last_synced_at TIMESTAMP WITH TIME ZONE,
+    last_full_sync_at TIMESTAMP WITH TIME ZONE,
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_calendar_syncs_due ON team_calendar_syncs(next_sync_at);
+CREATE UNIQUE INDEX idx_calendar_syncs_channel ON team_calendar_syncs(channel_id) WHERE channel_id IS NOT NULL;
+
+COMMENT ON TABLE team_calendar_syncs IS 'Google Calendar connected to each team and where its incremental sync left off';
+COMMENT ON COLUMN team_calendar_syncs.sync_token IS 'nextSyncToken of the last completed sync; NULL means the next sync is a full one';
+COMMENT ON COLUMN team_calendar_syncs.page_token IS 'Where an unfinished sync resumes, so a large calendar is synced over several quota-limited runs';
+COMMENT ON COLUMN team_calendar_syncs.locked_until IS 'Lease of the node syncing the team; an expired lease makes it claimable again';
@@ -0,0 +1,8 @@
+-- CollabSpace Meeting Lifecycle Index
+-- Version: 1.6.0
+-- Description: Partial index over meetings that still have a transition
+-- ahead of them, for the lifecycle scheduler's window loads. Finished and
+-- cancelled meetings, the bulk of the table, are left out of it.
+
+CREATE INDEX idx_meetings_live_start ON meetings(status, start_time)
+    WHERE status IN ('SCHEDULED', 'IN_PROGRESS');
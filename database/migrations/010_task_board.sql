@@ -0,0 +1,26 @@
+-- CollabSpace Task Board
+-- Version: 1.7.0
+-- Description: Fractional ranks and row versions on tasks for the Kanban
+-- board. A task's place in its column is a string key compared bytewise,
+-- so moving a task rewrites only that task. The version lets board diffs be
+-- applied in any order, newest wins.
+
+ALTER TABLE tasks ADD COLUMN rank TEXT COLLATE "C";
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Existing tasks keep their creation order within each column, as 8-digit
+-- integer ranks ('h' heads an 8-digit integer, see FractionalRank).
+UPDATE tasks t SET rank = 'h' || lpad(r.n::text, 8, '0')
+FROM (SELECT id, row_number() OVER (PARTITION BY team_id, status ORDER BY created_at, id) AS n FROM tasks) r
+WHERE t.id = r.id;
+
+ALTER TABLE tasks ALTER COLUMN rank SET NOT NULL;
+
+-- Board loads, and the last rank of a column when appending to it.
+CREATE INDEX idx_tasks_board ON tasks(team_id, status, rank);
+
+-- Keyset pagination of team task listings.
+CREATE INDEX idx_tasks_team_created ON tasks(team_id, created_at DESC, id DESC);
+
+-- Both indexes above lead with team_id.
+DROP INDEX IF EXISTS idx_tasks_team;
@@ -0,0 +1,23 @@
+-- CollabSpace Task Due Reminders
+-- Version: 1.8.0
+-- Description: Partial due-date indexes over open tasks, for the reminder
+-- scheduler's window loads and the per-team overdue listing, and a log of
+-- the reminders sent so each is sent once per due date.
+
+CREATE INDEX idx_tasks_open_due ON tasks(due_date)
+    WHERE status <> 'DONE' AND due_date IS NOT NULL;
+
+CREATE INDEX idx_tasks_team_open_due ON tasks(team_id, due_date, id)
+    WHERE status <> 'DONE' AND due_date IS NOT NULL;
+
+-- Superseded by idx_tasks_open_due; done tasks are never looked up by due date.
+DROP INDEX IF EXISTS idx_tasks_due_date;
+
+-- Moving a due date makes its reminders due again.
+CREATE TABLE task_reminders (
+    task_id BIGINT NOT NULL REFERENCES tasks(id) ON DELETE CASCADE,
+    kind VARCHAR(20) NOT NULL CHECK (kind IN ('DUE_SOON', 'OVERDUE')),
+    due_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    sent_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (task_id, kind, due_date)
+);
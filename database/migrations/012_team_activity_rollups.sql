@@ -0,0 +1,37 @@
+-- CollabSpace Team Activity Rollups
+-- Version: 1.9.0
+-- Description: Hourly and daily per-team activity counters, maintained
+-- incrementally from domain events so dashboards read one primary key range
+-- instead of counting over meetings, documents and tasks. Distinct counts
+-- (active users, documents edited) dedupe through team_activity_seen, which
+-- only needs to hold buckets that can still receive events.
+
+CREATE TABLE team_activity_rollups (
+    team_id BIGINT NOT NULL REFERENCES teams(id) ON DELETE CASCADE,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    meetings_completed INTEGER NOT NULL DEFAULT 0,
+    meeting_minutes BIGINT NOT NULL DEFAULT 0,
+    documents_created INTEGER NOT NULL DEFAULT 0,
+    documents_edited INTEGER NOT NULL DEFAULT 0,
+    active_users INTEGER NOT NULL DEFAULT 0,
+    tasks_created INTEGER NOT NULL DEFAULT 0,
+    tasks_completed INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (team_id, granularity, bucket_start)
+);
+
+CREATE TABLE team_activity_seen (
+    team_id BIGINT NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    kind VARCHAR(10) NOT NULL CHECK (kind IN ('USER', 'DOCUMENT')),
+    subject_id BIGINT NOT NULL,
+    PRIMARY KEY (team_id, granularity, bucket_start, kind, subject_id)
+);
+
+CREATE INDEX idx_team_activity_seen_bucket ON team_activity_seen(bucket_start);
+
+COMMENT ON TABLE team_activity_rollups IS 'Per-team activity counters per UTC hour and day';
+COMMENT ON COLUMN team_activity_rollups.documents_edited IS 'Distinct documents edited in the bucket';
+COMMENT ON COLUMN team_activity_rollups.active_users IS 'Distinct users who created or edited documents or created or completed tasks';
+COMMENT ON TABLE team_activity_seen IS 'Users and documents already counted in a recent bucket';
@@ -0,0 +1,75 @@
+-- CollabSpace Document Content Store
+-- Version: 1.10.0
+-- Description: Moves document and snapshot bodies out of their rows into a
+-- content-addressed store, so metadata reads and version bumps no longer
+-- carry the text. Bodies are keyed by the SHA-256 of their UTF-8 text: a
+-- snapshot equal to the live document or to an earlier snapshot is stored
+-- once. The application writes new bodies Zstandard-compressed; bodies moved
+-- here by this migration start uncompressed and are compressed in the
+-- background.
+
+CREATE TABLE document_contents (
+    hash BYTEA PRIMARY KEY,
+    codec VARCHAR(10) NOT NULL CHECK (codec IN ('NONE', 'ZSTD')),
+    raw_size INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_used_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Bodies arrive compressed; keep TOAST from compressing them again.
+ALTER TABLE document_contents ALTER COLUMN data SET STORAGE EXTERNAL;
+
+-- Unreferenced bodies are collected once unused for a grace period.
+CREATE INDEX idx_document_contents_last_used ON document_contents(last_used_at);
+CREATE INDEX idx_document_contents_uncompressed ON document_contents(raw_size) WHERE codec = 'NONE';
+
+INSERT INTO document_contents (hash, codec, raw_size, data)
+SELECT DISTINCT ON (hash) hash, 'NONE', octet_length(body), body
+FROM (
+    SELECT sha256(convert_to(content, 'UTF8')) AS hash, convert_to(content, 'UTF8') AS body
+    FROM documents WHERE content IS NOT NULL
+    UNION ALL
+    SELECT sha256(convert_to(content, 'UTF8')), convert_to(content, 'UTF8')
+    FROM document_versions WHERE content IS NOT NULL
+) bodies;
+
+-- Search keeps its own vector of the body, written with it by the application.
+ALTER TABLE documents
+    ADD COLUMN content_hash BYTEA REFERENCES document_contents(hash),
+    ADD COLUMN content_vector tsvector;
+
+UPDATE documents
+SET content_hash = sha256(convert_to(content, 'UTF8')),
+    content_vector = setweight(to_tsvector('english', left(content, 500000)), 'B')
+WHERE content IS NOT NULL;
+
+ALTER TABLE document_versions ADD COLUMN content_hash BYTEA REFERENCES document_contents(hash);
+
+UPDATE document_versions SET content_hash = sha256(convert_to(content, 'UTF8')) WHERE content IS NOT NULL;
+
+CREATE INDEX idx_documents_content_hash ON documents(content_hash);
+CREATE INDEX idx_document_versions_content_hash ON document_versions(content_hash);
+
+-- The stored search vector derived from content goes; the index now covers
+-- the title vector plus content_vector, computed on the fly.
+ALTER TABLE documents DROP COLUMN search_vector;
+CREATE INDEX idx_documents_team_search ON documents USING GIN (
+    team_id,
+    (setweight(to_tsvector('english', coalesce(title, '')), 'A') || coalesce(content_vector, ''::tsvector))
+);
+
+DROP TRIGGER IF EXISTS update_documents_updated_at ON documents;
+CREATE TRIGGER update_documents_updated_at
+    BEFORE UPDATE OF title, content_hash, type, team_id, last_modified_by, version, is_locked, locked_by, locked_at ON documents
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+ALTER TABLE documents DROP COLUMN content;
+ALTER TABLE document_versions DROP COLUMN content;
+
+COMMENT ON TABLE document_contents IS 'Document and snapshot bodies, addressed by the SHA-256 of their UTF-8 text';
+COMMENT ON COLUMN document_contents.raw_size IS 'Size of the uncompressed UTF-8 body in bytes';
+COMMENT ON COLUMN document_contents.last_used_at IS 'Last write that stored or reused this body; unreferenced bodies are collected after a grace period';
+COMMENT ON COLUMN documents.content_hash IS 'Current body in document_contents';
+COMMENT ON COLUMN documents.content_vector IS 'Full-text vector of the body (weight B), written with content_hash';
+COMMENT ON COLUMN document_versions.content_hash IS 'Snapshot body in document_contents';
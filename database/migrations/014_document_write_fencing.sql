@@ -0,0 +1,10 @@
+-- CollabSpace Document Write Fencing
+-- Version: 1.11.0
+-- Description: Records the highest edit-lease fencing token each document
+-- has been written under. The write-behind buffer only updates a row when
+-- its content was edited under that lease or a newer one, so a holder whose
+-- lease expired cannot overwrite its successor's edits with a late flush.
+
+ALTER TABLE documents ADD COLUMN lock_fencing_token BIGINT;
+
+COMMENT ON COLUMN documents.lock_fencing_token IS 'Highest edit-lease fencing token the content was written under; NULL if never written under a lease';
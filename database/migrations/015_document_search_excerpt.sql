@@ -0,0 +1,16 @@
+-- CollabSpace Document Search Excerpt
+-- Version: 1.12.0
+-- Description: Keeps the first few KB of each document body as plain text
+-- next to its full-text vector, so search can build highlights with
+-- ts_headline in the query instead of reading and decompressing every hit.
+-- Bodies stored uncompressed are copied here; compressed ones are filled in
+-- by the content store maintenance job.
+
+ALTER TABLE documents ADD COLUMN content_excerpt TEXT;
+
+UPDATE documents d
+SET content_excerpt = left(convert_from(c.data, 'UTF8'), 4096)
+FROM document_contents c
+WHERE c.hash = d.content_hash AND c.codec = 'NONE';
+
+COMMENT ON COLUMN documents.content_excerpt IS 'First 4096 characters of the body, for search highlights; written with content_hash';
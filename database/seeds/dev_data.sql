@@ -34,13 +34,22 @@ INSERT INTO team_members (team_id, user_id, role) VALUES
 (3, 5, 'MEMBER')
 ON CONFLICT (team_id, user_id) DO NOTHING;
 
--- Insert sample documents
-INSERT INTO documents (title, content, type, team_id, created_by, last_modified_by) VALUES
+-- Insert sample documents; bodies go to the content store, keyed by their SHA-256
+WITH sample (title, body, type, team_id, created_by, last_modified_by) AS (VALUES
 ('Project Requirements', 'This document outlines the requirements for our new collaboration platform...', 'DOCUMENT', 1, 1, 1),
 ('API Documentation', '# CollabSpace API\n\nThis document describes the REST API endpoints...', 'MARKDOWN', 1, 2, 2),
 ('Marketing Strategy Q4', 'Our Q4 marketing strategy focuses on three key areas...', 'DOCUMENT', 2, 2, 2),
 ('User Interface Mockups', 'Collection of UI mockups and design specifications', 'PRESENTATION', 3, 3, 3),
 ('Database Schema', 'Database design and entity relationships', 'CODE', 1, 1, 4)
+),
+stored AS (
+    INSERT INTO document_contents (hash, codec, raw_size, data)
+    SELECT sha256(convert_to(body, 'UTF8')), 'NONE', octet_length(convert_to(body, 'UTF8')), convert_to(body, 'UTF8') FROM sample
+    ON CONFLICT (hash) DO NOTHING
+)
+INSERT INTO documents (title, content_hash, content_vector, content_excerpt, type, team_id, created_by, last_modified_by)
+SELECT title, sha256(convert_to(body, 'UTF8')), setweight(to_tsvector('english', body), 'B'), left(body, 4096), type, team_id, created_by, last_modified_by
+FROM sample
 ON CONFLICT DO NOTHING;
 
 -- Insert sample meetings
@@ -80,13 +89,13 @@ INSERT INTO meeting_participants (meeting_id, user_id, joined_at, attendance_dur
 ON CONFLICT (meeting_id, user_id) DO NOTHING;
 
 -- Insert sample tasks
-INSERT INTO tasks (title, description, team_id, created_by, assigned_to, status, priority, due_date) VALUES
-('Implement user authentication', 'Set up OAuth integration with Google', 1, 1, 2, 'IN_PROGRESS', 'HIGH', CURRENT_TIMESTAMP + INTERVAL '5 days'),
-('Design login page', 'Create mockups for the login/signup flow', 3, 3, 4, 'TODO', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '7 days'),
-('Write API documentation', 'Document all REST endpoints', 1, 2, 2, 'REVIEW', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '3 days'),
-('Set up monitoring', 'Implement Prometheus and Grafana monitoring', 1, 1, 1, 'TODO', 'LOW', CURRENT_TIMESTAMP + INTERVAL '14 days'),
-('Social media campaign', 'Launch Q4 social media marketing campaign', 2, 2, 5, 'DONE', 'HIGH', CURRENT_TIMESTAMP - INTERVAL '2 days'),
-('User testing', 'Conduct usability testing sessions', 3, 3, 4, 'TODO', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '10 days')
+INSERT INTO tasks (title, description, team_id, created_by, assigned_to, status, priority, due_date, rank) VALUES
+('Implement user authentication', 'Set up OAuth integration with Google', 1, 1, 2, 'IN_PROGRESS', 'HIGH', CURRENT_TIMESTAMP + INTERVAL '5 days', 'h00000001'),
+('Design login page', 'Create mockups for the login/signup flow', 3, 3, 4, 'TODO', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '7 days', 'h00000001'),
+('Write API documentation', 'Document all REST endpoints', 1, 2, 2, 'REVIEW', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '3 days', 'h00000001'),
+('Set up monitoring', 'Implement Prometheus and Grafana monitoring', 1, 1, 1, 'TODO', 'LOW', CURRENT_TIMESTAMP + INTERVAL '14 days', 'h00000001'),
+('Social media campaign', 'Launch Q4 social media marketing campaign', 2, 2, 5, 'DONE', 'HIGH', CURRENT_TIMESTAMP - INTERVAL '2 days', 'h00000001'),
+('User testing', 'Conduct usability testing sessions', 3, 3, 4, 'TODO', 'MEDIUM', CURRENT_TIMESTAMP + INTERVAL '10 days', 'h00000002')
 ON CONFLICT DO NOTHING;
 
 -- Insert sample notifications
@@ -99,11 +108,19 @@ INSERT INTO notifications (user_id, type, title, content, data) VALUES
 ON CONFLICT DO NOTHING;
 
 -- Insert sample document versions
-INSERT INTO document_versions (document_id, version_number, content, changes_summary, created_by) VALUES
+WITH sample (document_id, version_number, body, changes_summary, created_by) AS (VALUES
 (1, 1, 'Initial draft of project requirements...', 'Initial version', 1),
 (1, 2, 'Updated project requirements with stakeholder feedback...', 'Added stakeholder requirements', 1),
 (2, 1, '# API Documentation\n\nBasic API structure...', 'Initial API docs', 2),
 (3, 1, 'Marketing strategy outline...', 'Initial strategy document', 2)
+),
+stored AS (
+    INSERT INTO document_contents (hash, codec, raw_size, data)
+    SELECT sha256(convert_to(body, 'UTF8')), 'NONE', octet_length(convert_to(body, 'UTF8')), convert_to(body, 'UTF8') FROM sample
+    ON CONFLICT (hash) DO NOTHING
+)
+INSERT INTO document_versions (document_id, version_number, content_hash, changes_summary, created_by)
+SELECT document_id, version_number, sha256(convert_to(body, 'UTF8')), changes_summary, created_by FROM sample
 ON CONFLICT (document_id, version_number) DO NOTHING;
 
 -- Insert sample activity logs
@@ -0,0 +1,8 @@
+#!/bin/sh
+# Builds the schema from the migrations, in order, then loads the
+# development seed the load test's TEAM_ID and DOCUMENT_ID refer to.
+set -e
+for migration in /migrations/*.sql; do
+  psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" -f "$migration"
+done
+psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" -f /seeds/dev_data.sql
@@ -0,0 +1,42 @@
+// k6 scenario for comparing platform and virtual request threads.
+//
+// Env: BASE_URL (e.g. http://localhost:8081/api), TOKEN (bearer token of a
+// seeded user), TEAM_ID, DOCUMENT_ID, RATE (requests/s), DURATION.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const baseUrl = __ENV.BASE_URL;
+const params = { headers: { Authorization: `Bearer ${__ENV.TOKEN}` } };
+const teamId = __ENV.TEAM_ID || '1';
+const documentId = __ENV.DOCUMENT_ID || '1';
+
+export const options = {
+  discardResponseBodies: true,
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  scenarios: {
+    mixed: {
+      // Open model: arrivals do not slow down when the server does, which
+      // is what exposes thread-pool exhaustion.
+      executor: 'constant-arrival-rate',
+      rate: Number(__ENV.RATE || 500),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '2m',
+      preAllocatedVUs: 500,
+      maxVUs: 5000,
+    },
+  },
+};
+
+const requests = [
+  // Postgres-bound
+  () => http.get(`${baseUrl}/documents/team/${teamId}/cursor?size=20`, params),
+  () => http.get(`${baseUrl}/meetings/team/${teamId}`, params),
+  () => http.get(`${baseUrl}/documents/${documentId}/operations?since=0&limit=100`, params),
+  // Cache/Redis-bound
+  () => http.get(`${baseUrl}/documents/${documentId}/collaborators`, params),
+];
+
+export default function () {
+  const response = requests[Math.floor(Math.random() * requests.length)]();
+  check(response, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Compares p99 latency and throughput of platform vs virtual request threads
+# while Postgres and Redis are slowed down through Toxiproxy.
+#
+# Usage: TOKEN=<jwt> deployment/scripts/load-test-threading.sh
+# Optional: TEAM_ID, DOCUMENT_ID, RATE, DURATION, PG_LATENCY_MS, REDIS_LATENCY_MS
+#
+# The table is also appended to deployment/loadtest/RESULTS.md; commit it.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+COMPOSE_FILE="$ROOT/deployment/loadtest/docker-compose.threading.yml"
+TOXIPROXY="http://localhost:8474"
+RESULTS="${RESULTS:-$ROOT/deployment/loadtest/results}"
+REPORT="$ROOT/deployment/loadtest/RESULTS.md"
+PG_LATENCY_MS="${PG_LATENCY_MS:-50}"
+REDIS_LATENCY_MS="${REDIS_LATENCY_MS:-5}"
+: "${TOKEN:?Set TOKEN to a bearer token for a seeded user}"
+
+mkdir -p "$RESULTS"
+docker compose -f "$COMPOSE_FILE" up -d --build
+
+echo "Configuring Toxiproxy (postgres +${PG_LATENCY_MS}ms, redis +${REDIS_LATENCY_MS}ms)"
+until curl -sf "$TOXIPROXY/version" > /dev/null; do sleep 1; done
+curl -sf -X POST "$TOXIPROXY/populate" -H 'Content-Type: application/json' -d '[
+  {"name": "postgres", "listen": "0.0.0.0:15432", "upstream": "postgres:5432"},
+  {"name": "redis", "listen": "0.0.0.0:16379", "upstream": "redis:6379"}
+]' > /dev/null
+for proxy in postgres redis; do
+  latency=$PG_LATENCY_MS
+  [ "$proxy" = redis ] && latency=$REDIS_LATENCY_MS
+  curl -sf -X POST "$TOXIPROXY/proxies/$proxy/toxics" -H 'Content-Type: application/json' \
+    -d "{\"name\": \"latency\", \"type\": \"latency\", \"attributes\": {\"latency\": $latency, \"jitter\": $((latency / 5))}}" > /dev/null \
+    || echo "Latency toxic already present on $proxy"
+done
+
+run() {
+  local mode=$1 port=$2
+  echo "Waiting for backend-$mode"
+  until curl -sf "http://localhost:$port/api/actuator/health" > /dev/null; do sleep 2; done
+  echo "Running load against backend-$mode"
+  docker run --rm --network host -v "$ROOT/deployment/loadtest:/scripts" -v "$RESULTS:/results" \
+    -e BASE_URL="http://localhost:$port/api" -e TOKEN="$TOKEN" \
+    -e TEAM_ID="${TEAM_ID:-1}" -e DOCUMENT_ID="${DOCUMENT_ID:-1}" \
+    -e RATE="${RATE:-500}" -e DURATION="${DURATION:-2m}" \
+    grafana/k6 run --quiet --summary-export "/results/$mode.json" /scripts/threading.js > /dev/null
+}
+
+run platform 8081
+run virtual 8082
+
+rows() {
+  for mode in platform virtual; do
+    jq -r --arg mode "$mode" '[$mode,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.http_req_duration["p(50)"] | floor),
+        (.metrics.http_req_duration["p(99)"] | floor),
+        (.metrics.http_req_failed.value * 100 | tostring + "%")] | @tsv' "$RESULTS/$mode.json"
+  done
+}
+
+printf '\n%-10s %12s %12s %12s %10s\n' mode req/s p50_ms p99_ms failed
+rows | awk -F'\t' '{ printf "%-10s %12s %12s %12s %10s\n", $1, $2, $3, $4, $5 }'
+
+echo
+echo "Pinning on the virtual backend (should be 0):"
+pinned=$(curl -sf "http://localhost:8082/api/actuator/metrics/jvm.threads.virtual.pinned" | jq '.measurements[0].value' || echo "n/a")
+echo "$pinned"
+
+{
+  printf '\n## %s\n\n' "$(date -u +%Y-%m-%d)"
+  printf 'Rate %s/s for %s; Postgres +%s ms, Redis +%s ms; commit %s; pinned events: %s.\n\n' \
+    "${RATE:-500}" "${DURATION:-2m}" "$PG_LATENCY_MS" "$REDIS_LATENCY_MS" \
+    "$(git -C "$ROOT" rev-parse --short HEAD)" "$pinned"
+  echo '| mode | req/s | p50 ms | p99 ms | failed |'
+  echo '|------|------:|-------:|-------:|-------:|'
+  rows | awk -F'\t' '{ printf "| %s | %s | %s | %s | %s |\n", $1, $2, $3, $4, $5 }'
+} >> "$REPORT"
+echo "Appended to $REPORT"
+
+if [ "${KEEP_RUNNING:-0}" != 1 ]; then
+  docker compose -f "$COMPOSE_FILE" down
+fi